@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution. 
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at 
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.oslc.am.common;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry.ResourceMetadata;
+
+/**
+ * Property metadata of the asset management resource types, registered
+ * when the class is loaded.
+ */
+public class AmResourceMetadata {
+
+	public static final ResourceMetadata RESOURCE = PropertyMetadataRegistry.register(
+			new ResourceMetadata(IAmConstants.OSLC_AM_TYPE_RESOURCE)
+			.addNamespacePrefix(IAmConstants.OSLC_AM_NAMESPACE, IAmConstants.OSLC_AM_PREFIX)
+			.addMultiValued(IConstants.DCTERMS_CREATOR, IConstants.DCTERMS_CONTRIBUTOR,
+					IConstants.OSLC_SERVICEPROVIDER));
+
+	public static final ResourceMetadata LINK_TYPE = PropertyMetadataRegistry.register(
+			new ResourceMetadata(IAmConstants.OSLC_AM_TYPE_LINKTYPE)
+			.addNamespacePrefix(IAmConstants.OSLC_AM_NAMESPACE, IAmConstants.OSLC_AM_PREFIX)
+			.addMultiValued(IConstants.DCTERMS_CREATOR, IConstants.DCTERMS_CONTRIBUTOR,
+					IConstants.OSLC_SERVICEPROVIDER));
+
+	private AmResourceMetadata() {
+	}
+
+}
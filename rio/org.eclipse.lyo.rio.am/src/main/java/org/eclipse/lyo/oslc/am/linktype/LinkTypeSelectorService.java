@@ -16,7 +16,6 @@
 package org.eclipse.lyo.oslc.am.linktype;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
 
 import javax.servlet.RequestDispatcher;
@@ -30,8 +29,6 @@ import org.eclipse.lyo.oslc.am.common.IAmConstants;
 import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.services.RioBaseService;
 import org.eclipse.lyo.rio.services.RioServiceException;
-import org.eclipse.lyo.rio.store.RioStore;
-import org.eclipse.lyo.rio.store.RioValue;
 import org.eclipse.lyo.rio.util.StringUtils;
 
 
@@ -61,20 +58,17 @@ public class LinkTypeSelectorService extends RioBaseService {
 	
 	private void sendQueryResponse(String terms, HttpServletResponse response) throws RioServiceException {
 		// query for link types with this term in the title or description
-		String query = buildQuery(terms);
-		RioStore store = getStore();
 		StringBuffer jsonResults = new StringBuffer(); 
 		jsonResults.append("{\"results\": [ \n" ); //$NON-NLS-1$
 
 		try {
-			List<Map<String, RioValue>> results = store.query(IConstants.SPARQL, query, IAmConstants.DEFAULT_MAX_RESULTS);
+			Map<String, String> results = findByTitle(terms, IAmConstants.OSLC_AM_TYPE_LINKTYPE, IAmConstants.DEFAULT_MAX_RESULTS);
 			boolean addComma = false;
-			for (Map<String, RioValue> result : results) {
-				String about = result.get("about").stringValue(); //$NON-NLS-1$
-				String resUri = result.get("about").stringValue(); //$NON-NLS-1$
-				String id = extractId(resUri);
+			for (Map.Entry<String, String> result : results.entrySet()) {
+				String about = result.getKey();
+				String id = extractId(about);
 
-				String title = result.get("title").stringValue(); //$NON-NLS-1$
+				String title = result.getValue();
 				title = StringUtils.stringEscape(title) + " (" + id + ")"; //$NON-NLS-1$ //$NON-NLS-2$
 				
 				if( !addComma ) {
@@ -97,33 +91,6 @@ public class LinkTypeSelectorService extends RioBaseService {
 	private String extractId(String resourceUri) {
 		int pos = resourceUri.lastIndexOf('/');
 		return resourceUri.substring(pos+1);
-	}	
-	
-	@SuppressWarnings("nls")
-	private String buildQuery(String terms) {
-//		PREFIX rdf:<http://www.w3.org/1999/02/22-rdf-syntax-ns#>
-//		PREFIX dcterms:<http://purl.org/dc/terms/>
-//		SELECT ?uri ?graph ?title
-//		WHERE {
-//		  GRAPH ?graph {
-//		    ?uri 
-//		      rdf:type <http://open-services.net/ns/am#LinkType>;
-//		      dcterms:title ?title .
-//		    FILTER( regex(?title,"lat","i") ) .
-//		  }
-//		}
-		terms = StringUtils.stringEscape(terms);
-		StringBuilder query = new StringBuilder();
-		query.append(RioStore.sparqlDefaultPrefixes());
-		query.append("SELECT ?graph ?about ?title\n");
-		query.append("WHERE {\n");
-		query.append("GRAPH ?graph {\n");
-		query.append("  ?about rdf:type <http://open-services.net/ns/am#LinkType>;\n");
-		query.append("       dcterms:title ?title.\n");
-		query.append("   FILTER( regex(?title,\"" + terms + "\",\"i\") ). \n" );
-		query.append("}");
-		query.append("}");
-		return query.toString();
 	}
 
 }
@@ -25,13 +25,13 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.eclipse.lyo.oslc.am.common.AmResourceMetadata;
 import org.eclipse.lyo.oslc.am.common.IAmConstants;
 import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.l10n.Messages;
 import org.eclipse.lyo.rio.services.RioBaseService;
 import org.eclipse.lyo.rio.services.RioServiceException;
 import org.eclipse.lyo.rio.store.JsonFormatter2;
-import org.eclipse.lyo.rio.store.JsonFormatter2.IMultiValueResolver;
 import org.eclipse.lyo.rio.store.OslcResource;
 import org.eclipse.lyo.rio.store.RioServerException;
 import org.eclipse.lyo.rio.store.RioStatement;
@@ -67,29 +67,15 @@ public class LinkTypeService extends RioBaseService {
 				RequestDispatcher rd = request.getRequestDispatcher("/am/linktype_view.jsp"); //$NON-NLS-1$
 				rd.forward(request, response);
 			} else if( this.willAccept(IConstants.CT_JSON, request) ) {
-				JsonFormatter2 formatter = new JsonFormatter2(new IMultiValueResolver() {
-					@Override
-					public boolean isMultiValued(String property) {
-						if( IConstants.DCTERMS_CREATOR.equals(property) || 
-								IConstants.DCTERMS_CONTRIBUTOR.equals(property) ||
-								IConstants.OSLC_SERVICEPROVIDER.equals(property) ) {
-							return true;
-						}  
-						return false;
-					}
-				});
-				formatter.addNamespacePrefix(IAmConstants.OSLC_AM_NAMESPACE, IAmConstants.OSLC_AM_PREFIX);
-				String json = formatter.format(linkType);
-				response.setContentType(IConstants.CT_JSON); 
-				response.getWriter().write(json); 
+				JsonFormatter2 formatter = JsonFormatter2.forType(AmResourceMetadata.LINK_TYPE);
 				response.setStatus(IConstants.SC_OK);
+				writeJson(formatter, linkType, response);
 			} else if( this.willAccept(IConstants.CT_APP_N_TRIPLES, request) ) {
 				response.setContentType(IConstants.CT_JSON); 
 				response.getWriter().write(linkType.dumpNTriples()); 
 				response.setStatus(IConstants.SC_OK);
 			} else if( accept == null || this.willAccept(IConstants.CT_RDF_XML, request) ) {
-				XmlFormatter formatter = new XmlFormatter();
-				formatter.addNamespacePrefix(IAmConstants.OSLC_AM_NAMESPACE, IAmConstants.OSLC_AM_PREFIX);
+				XmlFormatter formatter = new XmlFormatter(AmResourceMetadata.LINK_TYPE);
 				String content = formatter.format(linkType, IAmConstants.OSLC_AM_TYPE_LINKTYPE);
 				response.getWriter().write(content);
 				response.setContentType(IConstants.CT_RDF_XML);
@@ -21,11 +21,7 @@ import java.net.URI;
 import java.net.URLEncoder;
 import java.util.Date;
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.StringTokenizer;
 
 import javax.servlet.RequestDispatcher;
@@ -34,29 +30,23 @@ import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 
+import org.eclipse.lyo.rio.cm.common.CmResourceMetadata;
 import org.eclipse.lyo.rio.cm.common.ICmConstants;
 import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.l10n.Messages;
-import org.eclipse.lyo.rio.query.PName;
+import org.eclipse.lyo.rio.query.AggregateQuery;
+import org.eclipse.lyo.rio.query.QueryPage;
 import org.eclipse.lyo.rio.query.SimpleQueryBuilder;
 import org.eclipse.lyo.rio.services.RioBaseService;
 import org.eclipse.lyo.rio.services.RioServiceException;
 import org.eclipse.lyo.rio.store.JsonFormatter2;
-import org.eclipse.lyo.rio.store.JsonFormatter2.IMultiValueResolver;
 import org.eclipse.lyo.rio.store.OslcResource;
 import org.eclipse.lyo.rio.store.RioServerException;
 import org.eclipse.lyo.rio.store.RioStatement;
 import org.eclipse.lyo.rio.store.RioStore;
-import org.eclipse.lyo.rio.store.RioValue;
-import org.eclipse.lyo.rio.store.XmlFormatter;
 import org.eclipse.lyo.rio.util.StringUtils;
 import org.eclipse.lyo.rio.util.XmlUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 /**
  * Servlet implementation class ChangeRequest
@@ -93,51 +83,19 @@ public class ChangeRequestService extends RioBaseService {
 					String lm = StringUtils.rfc2822(resource.getModified());
 					response.setHeader(IConstants.HDR_LAST_MODIFIED, lm);
 					response.setStatus(IConstants.SC_OK);
-					String content = XmlFormatter.formatResource(resource, ICmConstants.OSLC_CM_TYPE_CHANGEREQUEST); 
-					response.getWriter().write(content);
 					if( this.willAccept(IConstants.CT_XML, request) ) {
-						response.setContentType(IConstants.CT_XML);
+						writeRdfXml(resource, CmResourceMetadata.CHANGE_REQUEST, IConstants.CT_XML, response);
 					} else {
-						response.setContentType(IConstants.CT_RDF_XML);
+						writeRdfXml(resource, CmResourceMetadata.CHANGE_REQUEST, IConstants.CT_RDF_XML, response);
 					}
-					response.setContentLength(content.getBytes().length);
 				} else if( this.willAccept(IConstants.CT_APP_N_TRIPLES, request) ) {
 					response.setContentType(IConstants.CT_JSON); 
 					response.getWriter().write(resource.dumpNTriples()); 
 					response.setStatus(IConstants.SC_OK);
 				} else if( this.willAccept(IConstants.CT_JSON, request) ) {
-					JsonFormatter2 formatter = new JsonFormatter2(new IMultiValueResolver() {
-						@Override
-						public boolean isMultiValued(String property) {
-							if( IConstants.DCTERMS_CREATOR.equals(property) || 
-									IConstants.DCTERMS_CONTRIBUTOR.equals(property) ||
-									IConstants.DCTERMS_SUBJECT.equals(property) ||
-									IConstants.DCTERMS_TYPE.equals(property) ||
-									ICmConstants.OSLC_CM_RELATEDCHANGEREQUEST.equals(property) ||
-									ICmConstants.OSLC_CM_AFFECTSPLANITEM.equals(property) ||
-									ICmConstants.OSLC_CM_AFFECTEDBYDEFECT.equals(property) ||
-									ICmConstants.OSLC_CM_TRACKSREQUIREMENT.equals(property) ||
-									ICmConstants.OSLC_CM_IMPLEMENTSREQUIREMENT.equals(property) ||
-									ICmConstants.OSLC_CM_AFFECTSREQUIREMENT.equals(property) ||
-									ICmConstants.OSLC_CM_TESTEDBYTESTCASE.equals(property) ||
-									ICmConstants.OSLC_CM_AFFECTSTESTRESULT.equals(property) ||
-									ICmConstants.OSLC_CM_BLOCKSTESTEXECUTIONRECORD.equals(property) ||
-									ICmConstants.OSLC_CM_RELATEDTESTEXECUTIONRECORD.equals(property) ||
-									ICmConstants.OSLC_CM_RELATEDTESTCASE.equals(property) ||
-									ICmConstants.OSLC_CM_RELATEDTESTPLAN.equals(property) ||
-									ICmConstants.OSLC_CM_RELATEDTESTSCRIPT.equals(property) ||
-									ICmConstants.OSLC_CM_TRACKSCHANGESET.equals(property) ||
-									IConstants.OSLC_SERVICEPROVIDER.equals(property) ) {
-								return true;
-							}  
-							return false;
-						}
-					});
-					formatter.addNamespacePrefix(ICmConstants.OSLC_CM_NAMESPACE, ICmConstants.OSLC_CM_PREFIX);
-					String json = formatter.format(resource);
-					response.setContentType(IConstants.CT_JSON); 
-					response.getWriter().write(json); 
+					JsonFormatter2 formatter = JsonFormatter2.forType(CmResourceMetadata.CHANGE_REQUEST);
 					response.setStatus(IConstants.SC_OK);
+					writeJson(formatter, resource, response);
 				} else if( this.willAccept(IConstants.CT_OSLC_COMPACT, request) ) {
 					response.setContentType(IConstants.CT_OSLC_COMPACT);
 					response.setStatus(IConstants.SC_OK);
@@ -293,120 +251,24 @@ public class ChangeRequestService extends RioBaseService {
 			queryBuilder.addPrefix(ICmConstants.OSLC_CM_NAMESPACE, ICmConstants.OSLC_CM_PREFIX);
 			queryBuilder.parseSelect(select);
 			queryBuilder.parseWhere("uri", where); //$NON-NLS-1$
-			queryBuilder.parseSelect(orderBy);
+			queryBuilder.parseOrderBy(orderBy);
 			queryBuilder.parseSearchTerms(searchTerms);
 			
-			String sparql = queryBuilder.getQueryString(ICmConstants.OSLC_CM_TYPE_CHANGEREQUEST);
+			if( AggregateQuery.isAggregate(req) ) {
+				writeAggregateResponse(new AggregateQuery(queryBuilder, ICmConstants.OSLC_CM_TYPE_CHANGEREQUEST, req), this.getStore(), req, resp);
+				return;
+			}
 			
 			RioStore store = this.getStore();
+			QueryPage page = new QueryPage(store, queryBuilder, ICmConstants.OSLC_CM_TYPE_CHANGEREQUEST, req);
 			
-			//don't add ?null if the the query is for queryBase			
-			String queryUri = (req.getQueryString() == null ) ? req.getRequestURL().toString() : req.getRequestURL().toString() + '?' + req.getQueryString();			
-			
-			List<Map<String, RioValue>> results = store.query(IConstants.SPARQL, sparql, 100);
-			
-			Map<String, PName> propNames = queryBuilder.getPropertyNames();
-			
-			String responseResource = buildResponseResource(results, propNames, queryUri);
-			resp.setContentType(IConstants.CT_RDF_XML); 
-			resp.getWriter().write(responseResource); 
-			resp.setStatus(IConstants.SC_OK);
+			writeQueryResponse(page, store, queryBuilder.getPropertyNames(), req, resp);
 			
 		} catch( Exception e ) {
 			throw new RioServiceException(IConstants.SC_INTERNAL_ERROR, e);
 		}
 	}
-	
-	private String buildResponseResource(List<Map<String, RioValue>> results, Map<String, PName> propNames, String reqUri) throws RioServiceException{
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setValidating(true);
-		factory.setNamespaceAware(true);
-		try{
-			DocumentBuilder builder = factory.newDocumentBuilder();
-			Document doc = builder.newDocument();
-			Element rdf = doc.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_PTERM_RDF);
-			doc.appendChild(rdf);
-			
-			Set<String> namespaces = namespacePrefixes.keySet();
-			for (String namespace : namespaces) {
-				rdf.setAttribute("xmlns:" + namespacePrefixes.get(namespace), namespace); //$NON-NLS-1$
-			}
-			//If there is are parameters on the request (e.g. ?oslc.where=...), create 2 subject URIs, one for the
-			//results and one to describe the query.   If this query was for the queryBase itself all predicates 
-			//go under the same subject.  
-			//TODO: Refactor the services for all RIO artifacts to eliminate duplicated code.
-			
-			Element resultDescr = doc.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_PTERM_DESCRIPTION);
-			rdf.appendChild(resultDescr);
-			
-			//check for oslc query parameters
-			String uriSplit [] = reqUri.split("\\?",2);
-			String baseUri = uriSplit[0];
-			boolean isOslcQuery = false;
-			if (uriSplit.length > 1)
-				isOslcQuery = hasOSLCQuery(uriSplit[1]);
-			
-			resultDescr.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_ABOUT, baseUri);
-
-
-			//if there are oslc query parameters, put the predicates under the query subject
-			Element queryDescrElement = null;
-			if (isOslcQuery )
-			{
-			   queryDescrElement = doc.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_PTERM_DESCRIPTION);
-			   queryDescrElement.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_ABOUT, reqUri);
-			   rdf.appendChild(queryDescrElement);
-			}
-			else {
-				//no oslc query parameters, everything goes under the queryBase subject
-			   queryDescrElement = resultDescr;
-			}
-
-			Element title = doc.createElementNS(IConstants.DCTERMS_NAMESPACE, IConstants.DCTERMS_PTERM_TITLE);
-			queryDescrElement.appendChild(title);
-			title.setTextContent(Messages.getString("ResourceQuery.Title"));
-			
-			Element count = doc.createElementNS(IConstants.OSLC_NAMESPACE, IConstants.OSLC_PTERM_TOTALCOUNT);
-			queryDescrElement.appendChild(count);
-			count.setTextContent(Integer.toString(results.size()));
-			
-			Element rdfType = doc.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_TYPE);
-			rdfType.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_RESOURCE, IConstants.OSLC_RESPONSEINFO);
-			queryDescrElement.appendChild(rdfType);
-			
-			Iterator<Map<String, RioValue>> iterator = results.iterator();
-			while( iterator.hasNext() ) {
-				
-				Element rdfMem = doc.createElementNS(IConstants.RDFS_NAMESPACE, IConstants.RDFS_PTERM_MEMBER);
-				resultDescr.appendChild(rdfMem);
-				Map<String, RioValue> map = iterator.next();
-				RioValue uri = map.get("uri"); //$NON-NLS-1$
-				rdfMem.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_RESOURCE, uri.stringValue());
-			}
-				
-			return XmlUtils.prettyPrint(doc);
-			
-		} catch (ParserConfigurationException e) {
-			throw new RioServiceException(e);
-		} finally {
-			
-		}
-	}
-	
-	private boolean hasOSLCQuery(String parms)
-	{
-		boolean containsOslcParm = false;
-        // not perfect - could have "oslc." in some random part of the parameters, but don't
-		// have access to the request at this point to use getPararmeterNames
-		String [] uriParts = parms.toLowerCase().split("oslc\\.",2);
-		if (uriParts.length > 1)
-		{
-			containsOslcParm = true;
-		}
 		
-		return containsOslcParm;
-	}
-	
 	@SuppressWarnings("nls")
 	private String compactDocument(OslcResource resource ) throws RioServiceException {
 		String title = XmlUtils.encode(resource.getTitle());
@@ -450,13 +312,6 @@ public class ChangeRequestService extends RioBaseService {
 		}
 	}
 	
-	static private Map<String,String> namespacePrefixes = new HashMap<String,String>();
-	static  {
-		namespacePrefixes.put(IConstants.RDF_NAMESPACE, IConstants.RDF_PREFIX);
-		namespacePrefixes.put(IConstants.RDFS_NAMESPACE, IConstants.RDFS_PREFIX);
-		namespacePrefixes.put(IConstants.OSLC_NAMESPACE, IConstants.OSLC_PREFIX);
-		namespacePrefixes.put(IConstants.DCTERMS_NAMESPACE, IConstants.DCTERMS_PREFIX);
-	}
 	
 }
  
\ No newline at end of file
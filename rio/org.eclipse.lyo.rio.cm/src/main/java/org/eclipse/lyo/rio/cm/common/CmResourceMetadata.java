@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution. 
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at 
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.cm.common;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry.ResourceMetadata;
+
+/**
+ * Property metadata of the change management resource types, registered
+ * when the class is loaded.
+ */
+public class CmResourceMetadata {
+
+	public static final ResourceMetadata CHANGE_REQUEST = PropertyMetadataRegistry.register(
+			new ResourceMetadata(ICmConstants.OSLC_CM_TYPE_CHANGEREQUEST)
+			.addNamespacePrefix(ICmConstants.OSLC_CM_NAMESPACE, ICmConstants.OSLC_CM_PREFIX)
+			.addMultiValued(IConstants.DCTERMS_CREATOR, IConstants.DCTERMS_CONTRIBUTOR,
+					IConstants.DCTERMS_SUBJECT, IConstants.DCTERMS_TYPE,
+					ICmConstants.OSLC_CM_RELATEDCHANGEREQUEST, ICmConstants.OSLC_CM_AFFECTSPLANITEM,
+					ICmConstants.OSLC_CM_AFFECTEDBYDEFECT, ICmConstants.OSLC_CM_TRACKSREQUIREMENT,
+					ICmConstants.OSLC_CM_IMPLEMENTSREQUIREMENT, ICmConstants.OSLC_CM_AFFECTSREQUIREMENT,
+					ICmConstants.OSLC_CM_TESTEDBYTESTCASE, ICmConstants.OSLC_CM_AFFECTSTESTRESULT,
+					ICmConstants.OSLC_CM_BLOCKSTESTEXECUTIONRECORD, ICmConstants.OSLC_CM_RELATEDTESTEXECUTIONRECORD,
+					ICmConstants.OSLC_CM_RELATEDTESTCASE, ICmConstants.OSLC_CM_RELATEDTESTPLAN,
+					ICmConstants.OSLC_CM_RELATEDTESTSCRIPT, ICmConstants.OSLC_CM_TRACKSCHANGESET,
+					IConstants.OSLC_SERVICEPROVIDER));
+
+	private CmResourceMetadata() {
+	}
+
+}
@@ -28,10 +28,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.lyo.rio.cm.common.ICmConstants;
+import org.eclipse.lyo.rio.core.IConstants;
 
 import org.eclipse.lyo.rio.services.RioServiceException;
+import org.eclipse.lyo.rio.store.PropertyIndex;
 import org.eclipse.lyo.rio.store.RioServerException;
 import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.TextIndex;
 import org.eclipse.lyo.rio.util.XmlUtils;
 
 
@@ -61,8 +64,9 @@ public class SetupService extends HttpServlet {
 		if( host != null && repoPath != null && binPath != null && url != null ) {
 			// then just initialize and move on
 			
+			setIndexedProperties(p);
 			try {
-				RioStore.initalizeStore(repoPath, binPath, host, ICmConstants.SERVER_CONTEXT);
+				RioStore.initalizeStore(repoPath, binPath, host, ICmConstants.SERVER_CONTEXT, p);
 			} catch (RioServerException e) {
 				e.printStackTrace();
 				throw new RioServiceException(e);
@@ -112,21 +116,38 @@ public class SetupService extends HttpServlet {
 		String repoPath = request.getParameter("repoPath"); //$NON-NLS-1$
 		String binPath = request.getParameter("binPath"); //$NON-NLS-1$
 		
+		// keep any other settings already in the properties file
+		String realpath = getRealPath("WEB-INF/rio.properties"); //$NON-NLS-1$
+		Properties  p  = new Properties();
+		try {
+			FileInputStream in = new FileInputStream(realpath);
+			try {
+				p.load(in);
+			} finally {
+				in.close();
+			}
+	    } catch (Exception intentionallyIgnored) {
+	    }
+
 		if( host != null && repoPath != null ) {
-			String realpath = getRealPath("WEB-INF/rio.properties"); //$NON-NLS-1$
-			Properties  p  = new Properties();
 			p.setProperty("host", host); //$NON-NLS-1$
 			p.setProperty("repoPath", repoPath); //$NON-NLS-1$
 			p.setProperty("binPath", binPath); //$NON-NLS-1$
 			try {
-		        p.store(new FileOutputStream(realpath), null);
+				FileOutputStream out = new FileOutputStream(realpath);
+				try {
+					p.store(out, null);
+				} finally {
+					out.close();
+				}
 		    } catch (IOException e) {
 		    	e.printStackTrace();
 		    }
 		}
 		
+		setIndexedProperties(p);
 		try {
-			RioStore.initalizeStore(repoPath, binPath, host, ICmConstants.SERVER_CONTEXT);
+			RioStore.initalizeStore(repoPath, binPath, host, ICmConstants.SERVER_CONTEXT, p);
 		} catch (RioServerException e) {
 			throw new RioServiceException(e);
 		}
@@ -134,6 +155,32 @@ public class SetupService extends HttpServlet {
 		response.sendRedirect("index.jsp"); //$NON-NLS-1$
 	}
 	
+	/**
+	 * Indexes the change request properties queries usually filter on, and
+	 * searches the tags along with titles and descriptions, unless
+	 * rio.properties names its own.
+	 */
+	private static void setIndexedProperties(Properties p) {
+		if( p.getProperty(RioStore.PROP_INDEXED_PROPERTIES) == null ) {
+			StringBuilder sb = new StringBuilder();
+			for (String property : PropertyIndex.DEFAULT_PROPERTIES) {
+				sb.append(property).append(',');
+			}
+			sb.append(ICmConstants.OSLC_CM_STATUS).append(',');
+			sb.append(ICmConstants.OSLC_CM_CLOSED).append(',');
+			sb.append(ICmConstants.OSLC_CM_CLOSEDATE);
+			p.setProperty(RioStore.PROP_INDEXED_PROPERTIES, sb.toString());
+		}
+		if( p.getProperty(RioStore.PROP_TEXT_PROPERTIES) == null ) {
+			StringBuilder sb = new StringBuilder();
+			for (String property : TextIndex.DEFAULT_PROPERTIES) {
+				sb.append(property).append(',');
+			}
+			sb.append(IConstants.DCTERMS_SUBJECT);
+			p.setProperty(RioStore.PROP_TEXT_PROPERTIES, sb.toString());
+		}
+	}
+	
 	/**
 	 * Get ServletContext's realPath, falling back to 'rio.realpath' property if not available.
 	 */
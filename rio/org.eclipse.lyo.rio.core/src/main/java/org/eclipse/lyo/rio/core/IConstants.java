@@ -41,6 +41,10 @@ public interface IConstants extends IRioConstants {
 	public static final String OSLC_CORE_DOMAIN = "http://open-services.net/ns/core#core";  
 	public static final String OSLC_CORE_RESOURCE = "http://open-services.net/ns/core#Resource";  
 	public static final String OSLC_DEFAULT = "http://open-services.net/ns/core#default";
+	public static final String OSLC_EXACTLY_ONE = "http://open-services.net/ns/core#Exactly-one";
+	public static final String OSLC_ZERO_OR_ONE = "http://open-services.net/ns/core#Zero-or-one";
+	public static final String OSLC_ZERO_OR_MANY = "http://open-services.net/ns/core#Zero-or-many";
+	public static final String OSLC_ONE_OR_MANY = "http://open-services.net/ns/core#One-or-many";
 
 	// content types
 	static final String CT_RDF_XML = "application/rdf+xml"; 
@@ -62,6 +66,7 @@ public interface IConstants extends IRioConstants {
 	// HTTP Status Codes
 	static final int SC_OK = 200; 
 	static final int SC_CREATED = 201;
+	static final int SC_NOT_MODIFIED = 304;
 	static final int SC_BAD = 400;
 	static final int SC_FORBIDDEN = 403;
 	static final int SC_NOT_FOUND = 404; 
@@ -79,6 +84,7 @@ public interface IConstants extends IRioConstants {
 	public static final String HDR_LOCATION = "Location";  
 	public static final String HDR_IF_MATCH = "If-Match";  
 	public static final String HDR_IF_UNMODIFIED_SINCE = "If-Unmodified-Since";
+	public static final String HDR_IF_NONE_MATCH = "If-None-Match";
 	
 	// MISC
 	public static final String TEXT_ENCODING = "UTF-8"; 
@@ -148,6 +154,18 @@ public interface IConstants extends IRioConstants {
 	public static final String OSLC_TERM_DESCRIBES = "describes";
 	public static final String OSLC_PTERM_DESCRIBES = OSLC_PREFIX + ':' + OSLC_TERM_DESCRIBES;
 	public static final String OSLC_DESCRIBES = OSLC_NAMESPACE + OSLC_TERM_DESCRIBES;
+	public static final String OSLC_TERM_PROPERTY = "property";
+	public static final String OSLC_PTERM_PROPERTY = OSLC_PREFIX + ':' + OSLC_TERM_PROPERTY;
+	public static final String OSLC_PROPERTY = OSLC_NAMESPACE + OSLC_TERM_PROPERTY;
+	public static final String OSLC_TERM_PROPERTYDEFINITION = "propertyDefinition";
+	public static final String OSLC_PTERM_PROPERTYDEFINITION = OSLC_PREFIX + ':' + OSLC_TERM_PROPERTYDEFINITION;
+	public static final String OSLC_PROPERTYDEFINITION = OSLC_NAMESPACE + OSLC_TERM_PROPERTYDEFINITION;
+	public static final String OSLC_TERM_OCCURS = "occurs";
+	public static final String OSLC_PTERM_OCCURS = OSLC_PREFIX + ':' + OSLC_TERM_OCCURS;
+	public static final String OSLC_OCCURS = OSLC_NAMESPACE + OSLC_TERM_OCCURS;
+	public static final String OSLC_TERM_VALUETYPE = "valueType";
+	public static final String OSLC_PTERM_VALUETYPE = OSLC_PREFIX + ':' + OSLC_TERM_VALUETYPE;
+	public static final String OSLC_VALUETYPE = OSLC_NAMESPACE + OSLC_TERM_VALUETYPE;
 	
 	// oslc properties 
 	public static final String OSLC_TERM_SERVICEPROVIDERCATALOG = "serviceProviderCatalog";
@@ -240,6 +258,12 @@ public interface IConstants extends IRioConstants {
 	public static final String OSLC_TERM_TOTALCOUNT = "totalCount";
 	public static final String OSLC_PTERM_TOTALCOUNT = OSLC_PREFIX + ':' + OSLC_TERM_TOTALCOUNT;
 	public static final String OSLC_TOTALCOUNT = OSLC_NAMESPACE + OSLC_TERM_TOTALCOUNT;
+	public static final String OSLC_TERM_NEXTPAGE = "nextPage";
+	public static final String OSLC_PTERM_NEXTPAGE = OSLC_PREFIX + ':' + OSLC_TERM_NEXTPAGE;
+	public static final String OSLC_NEXTPAGE = OSLC_NAMESPACE + OSLC_TERM_NEXTPAGE;
+	public static final String OSLC_TERM_SCORE = "score";
+	public static final String OSLC_PTERM_SCORE = OSLC_PREFIX + ':' + OSLC_TERM_SCORE;
+	public static final String OSLC_SCORE = OSLC_NAMESPACE + OSLC_TERM_SCORE;
 	// dcterms
 	public static final String DCTERMS_NAMESPACE = "http://purl.org/dc/terms/";
 	public static final String DCTERMS_PREFIX = "dcterms";
@@ -345,6 +369,9 @@ public interface IConstants extends IRioConstants {
 	public static final String RDF_TERM_DATATYPE = "datatype";
 	public static final String RDF_PTERM_DATATYPE = RDF_PREFIX + ':' + RDF_TERM_DATATYPE;
 	public static final String RDF_DATATYPE = RDF_NAMESPACE + RDF_TERM_DATATYPE;
+	public static final String RDF_TERM_NODEID = "nodeID";
+	public static final String RDF_PTERM_NODEID = RDF_PREFIX + ':' + RDF_TERM_NODEID;
+	public static final String RDF_NODEID = RDF_NAMESPACE + RDF_TERM_NODEID;
 	public static final String RDF_TERM_LI = "li";
 	public static final String RDF_PTERM_LI = RDF_PREFIX + ':' + RDF_TERM_LI;
 	public static final String RDF_LI = RDF_NAMESPACE + RDF_TERM_LI;
@@ -0,0 +1,359 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.query;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.OslcWhereHelper.OslcWhereParseException;
+import org.eclipse.lyo.rio.store.PropertyIndex;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.RioValue;
+import org.eclipse.lyo.rio.store.UnrecognizedValueTypeException;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.URIImpl;
+
+/**
+ * Counts the members of an OSLC query, optionally grouped by the values of
+ * one property, with the least or greatest value of other properties, e.g.
+ * <code>rio.groupBy=oslc_cm:status&amp;rio.aggregate=count,max(dcterms:modified)</code>.
+ * <p>
+ * The members are the ones the query's <code>oslc.where</code> and
+ * <code>oslc.searchTerms</code> select.  When the {@link PropertyIndex} holds
+ * <code>rdf:type</code>, every where term and every grouped or aggregated
+ * property, the answer comes from the index alone; otherwise the query is
+ * compiled to a SPARQL <code>GROUP BY</code>.  The index compares dates and
+ * numbers only, so min and max of other values need the SPARQL query.
+ * <p>
+ * Groups are listed by descending count and written as JSON.
+ */
+public class AggregateQuery {
+
+	public static final String PARAM_GROUP_BY = "rio.groupBy"; //$NON-NLS-1$
+	public static final String PARAM_AGGREGATE = "rio.aggregate"; //$NON-NLS-1$
+	public static final String COUNT = "count"; //$NON-NLS-1$
+	public static final String MIN = "min"; //$NON-NLS-1$
+	public static final String MAX = "max"; //$NON-NLS-1$
+
+	private static final String GROUP_VAR = "group"; //$NON-NLS-1$
+	private static final Pattern AGGREGATE = Pattern.compile("(min|max)\\(\\s*([^\\s()]+)\\s*\\)"); //$NON-NLS-1$
+
+	private final SimpleQueryBuilder builder;
+	private final String resourceType;
+	private PName groupBy = null;
+	private final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+	private int totalCount = 0;
+	private boolean indexed = false;
+
+	/**
+	 * @return true if the request asks for an aggregate rather than the members
+	 */
+	public static boolean isAggregate(HttpServletRequest req) {
+		return req.getParameter(PARAM_GROUP_BY) != null || req.getParameter(PARAM_AGGREGATE) != null;
+	}
+
+	/**
+	 * @param builder the query with its prefixes, where clause and search terms parsed
+	 */
+	public AggregateQuery(SimpleQueryBuilder builder, String resourceType, HttpServletRequest req) throws OslcWhereParseException {
+		this(builder, resourceType, req.getParameter(PARAM_GROUP_BY), req.getParameter(PARAM_AGGREGATE));
+	}
+
+	/**
+	 * @param groupBy a prefixed property name, may be null
+	 * @param aggregates comma separated <code>count</code>, <code>min(property)</code>
+	 * and <code>max(property)</code>, may be null; the count is always included
+	 */
+	public AggregateQuery(SimpleQueryBuilder builder, String resourceType, String groupBy, String aggregates) throws OslcWhereParseException {
+		this.builder = builder;
+		this.resourceType = resourceType;
+		if( groupBy != null && groupBy.trim().length() > 0 ) {
+			this.groupBy = builder.toPName(groupBy.trim());
+		}
+		if( aggregates == null ) return;
+		Matcher matcher = AGGREGATE.matcher(""); //$NON-NLS-1$
+		for (String aggregate : aggregates.split(",")) { //$NON-NLS-1$
+			aggregate = aggregate.trim();
+			if( aggregate.length() == 0 || COUNT.equals(aggregate) ) continue;
+			matcher.reset(aggregate);
+			if( !matcher.matches() ) {
+				throw new OslcWhereParseException(PARAM_AGGREGATE + " is not count, min(property) or max(property): " + aggregate); //$NON-NLS-1$
+			}
+			this.aggregates.add(new Aggregate(matcher.group(1), builder.toPName(matcher.group(2))));
+		}
+	}
+
+	/**
+	 * @return the SPARQL query computing the groups
+	 */
+	@SuppressWarnings("nls")
+	public String getQueryString() {
+		StringBuilder sb = new StringBuilder();
+		builder.appendPrefixes(sb);
+		sb.append("SELECT ");
+		if( groupBy != null ) {
+			sb.append('?').append(GROUP_VAR).append(' ');
+		}
+		sb.append("(COUNT(DISTINCT ?").append(SimpleQueryBuilder.URI_VAR).append(") AS ?").append(COUNT).append(')');
+		for (int i = 0; i < aggregates.size(); i++) {
+			Aggregate aggregate = aggregates.get(i);
+			sb.append(" (").append(aggregate.function.toUpperCase()).append("(?_a").append(i).append(") AS ?a").append(i).append(')');
+		}
+		sb.append("\nWHERE {\n");
+		builder.appendMembersPattern(sb, resourceType);
+		if( groupBy != null ) {
+			sb.append("OPTIONAL { ?").append(SimpleQueryBuilder.URI_VAR).append(" <").append(groupBy.getUri()).append("> ?").append(GROUP_VAR).append(" }\n");
+		}
+		for (int i = 0; i < aggregates.size(); i++) {
+			sb.append("OPTIONAL { ?").append(SimpleQueryBuilder.URI_VAR).append(" <").append(aggregates.get(i).property.getUri()).append("> ?_a").append(i).append(" }\n");
+		}
+		sb.append('}');
+		if( groupBy != null ) {
+			sb.append("\nGROUP BY ?").append(GROUP_VAR);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Computes the groups, from the property index when it can answer.
+	 * @return the groups, largest first
+	 */
+	public List<Group> execute(RioStore store) throws RioServerException {
+		List<Group> groups = fromIndex(store.getPropertyIndex());
+		indexed = groups != null;
+		if( groups == null ) {
+			groups = fromQuery(store);
+		}
+		Collections.sort(groups, BY_COUNT);
+		return groups;
+	}
+
+	private List<Group> fromIndex(PropertyIndex index) throws RioServerException {
+		if( index == null || !builder.getSearchTerms().isEmpty() ) return null;
+		if( groupBy != null && !index.isIndexed(groupBy.getUri()) ) return null;
+		for (Aggregate aggregate : aggregates) {
+			if( !index.isIndexed(aggregate.property.getUri()) ) return null;
+		}
+		Set<String> members = null;
+		OslcWhereExpression where = builder.getWhereExpression();
+		if( where != null ) {
+			members = OslcWhereCompiler.find(where, index, builder.getNamespaces());
+			if( members == null ) return null;
+		} else if( builder.getWhere() != null ) {
+			return null;
+		}
+		if( resourceType != null ) {
+			Set<String> typed = index.find(IConstants.RDF_TYPE, OslcWhereExpression.OP_EQUAL, new URIImpl(resourceType), false);
+			if( typed == null ) return null;
+			if( members == null ) {
+				members = typed;
+			} else {
+				members.retainAll(typed);
+			}
+		}
+		// all subjects are not in the index
+		if( members == null ) return null;
+
+		totalCount = members.size();
+		List<Group> groups = new ArrayList<Group>();
+		try {
+			if( groupBy == null ) {
+				groups.add(group(index, null, members));
+			} else {
+				for (Map.Entry<Value, Set<String>> entry : index.group(groupBy.getUri(), members).entrySet()) {
+					groups.add(group(index, entry.getKey(), entry.getValue()));
+				}
+			}
+		} catch (UnrecognizedValueTypeException e) {
+			throw new RioServerException(e);
+		}
+		return groups;
+	}
+
+	private Group group(PropertyIndex index, Value value, Set<String> members) throws UnrecognizedValueTypeException {
+		List<RioValue> values = new ArrayList<RioValue>();
+		for (Aggregate aggregate : aggregates) {
+			Value extreme = members.isEmpty() ? null : index.extreme(aggregate.property.getUri(), members, MAX.equals(aggregate.function));
+			values.add(extreme == null ? null : RioStore.convertValue(extreme));
+		}
+		return new Group(value == null ? null : RioStore.convertValue(value), members.size(), values);
+	}
+
+	private List<Group> fromQuery(RioStore store) throws RioServerException {
+		builder.usePropertyIndex(store.getPropertyIndex());
+		builder.useTextIndex(store.getTextIndex(), resourceType);
+		List<Group> groups = new ArrayList<Group>();
+		for (Map<String, RioValue> row : store.query(IConstants.SPARQL, getQueryString(), Integer.MAX_VALUE)) {
+			RioValue count = row.get(COUNT);
+			int n = count == null ? 0 : Integer.parseInt(count.stringValue());
+			if( n == 0 && groupBy != null ) continue;
+			List<RioValue> values = new ArrayList<RioValue>();
+			for (int i = 0; i < aggregates.size(); i++) {
+				values.add(row.get("a" + i)); //$NON-NLS-1$
+			}
+			groups.add(new Group(row.get(GROUP_VAR), n, values));
+		}
+		if( groupBy == null ) {
+			totalCount = groups.isEmpty() ? 0 : groups.get(0).count;
+		} else {
+			// a member with several values is in several groups
+			totalCount = QueryPage.count(store, builder, resourceType);
+		}
+		return groups;
+	}
+
+	/**
+	 * @return the number of members, available after {@link #execute(RioStore)}
+	 */
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * @return true if the last {@link #execute(RioStore)} was answered by the property index
+	 */
+	public boolean isIndexed() {
+		return indexed;
+	}
+
+	/**
+	 * @return a weak entity tag for the aggregate, which changes whenever a
+	 * resource it may count is written
+	 */
+	public String getETag(RioStore store) {
+		StringBuilder key = new StringBuilder(builder.getCacheKey(resourceType));
+		key.append('\n').append(groupBy);
+		for (Aggregate aggregate : aggregates) {
+			key.append('\n').append(aggregate.function).append(aggregate.property);
+		}
+		long generation = store.getWriteGeneration(builder.isMembersOnly() ? resourceType : null);
+		return "W/\"" + Long.toHexString(generation) + '-' + Integer.toHexString(key.toString().hashCode()) + '"'; //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes the groups as a JSON object.
+	 * @param queryUri the full request URI, including the query string
+	 */
+	@SuppressWarnings("nls")
+	public void write(List<Group> groups, String queryUri, OutputStream out) throws IOException {
+		Writer w = new BufferedWriter(new OutputStreamWriter(out, IConstants.TEXT_ENCODING));
+		w.write("{\n\t\"" + IConstants.RDF_PTERM_ABOUT + "\" : " + QueryResponseWriter.quote(queryUri));
+		w.write(",\n\t\"" + IConstants.OSLC_PTERM_TOTALCOUNT + "\" : " + totalCount);
+		if( groupBy != null ) {
+			w.write(",\n\t\"" + PARAM_GROUP_BY + "\" : " + QueryResponseWriter.quote(groupBy.toString()));
+		}
+		w.write(",\n\t\"groups\" : [");
+		boolean first = true;
+		for (Group group : groups) {
+			w.write(first ? "\n\t\t{ " : ",\n\t\t{ ");
+			first = false;
+			if( groupBy != null ) {
+				w.write("\"value\" : ");
+				writeValue(w, group.value);
+				w.write(", ");
+			}
+			w.write("\"" + COUNT + "\" : " + group.count);
+			for (int i = 0; i < aggregates.size(); i++) {
+				w.write(", " + QueryResponseWriter.quote(aggregates.get(i).toString()) + " : ");
+				writeValue(w, group.values.get(i));
+			}
+			w.write(" }");
+		}
+		w.write(first ? "]\n}\n" : "\n\t]\n}\n");
+		w.flush();
+	}
+
+	@SuppressWarnings("nls")
+	private static void writeValue(Writer w, RioValue value) throws IOException {
+		if( value == null ) {
+			w.write("null");
+			return;
+		}
+		switch( value.getType() ) {
+		case URI:
+			w.write("{ \"" + IConstants.RDF_PTERM_RESOURCE + "\" : " + QueryResponseWriter.quote(value.stringValue()) + " }");
+			break;
+		case BOOLEAN:
+		case INTEGER:
+			w.write(value.stringValue());
+			break;
+		default:
+			w.write(QueryResponseWriter.quote(value.stringValue()));
+		}
+	}
+
+	private static final Comparator<Group> BY_COUNT = new Comparator<Group>() {
+		public int compare(Group a, Group b) {
+			if( a.count != b.count ) return a.count > b.count ? -1 : 1;
+			if( a.value == null || b.value == null ) return a.value == null ? (b.value == null ? 0 : 1) : -1;
+			return a.value.stringValue().compareTo(b.value.stringValue());
+		}
+	};
+
+	private static class Aggregate {
+		final String function;
+		final PName property;
+
+		Aggregate(String function, PName property) {
+			this.function = function;
+			this.property = property;
+		}
+
+		@Override
+		public String toString() {
+			return function + '(' + property + ')';
+		}
+	}
+
+	/**
+	 * The members sharing a value of the grouped property.
+	 */
+	public static class Group {
+		/**
+		 * The grouped property's value, null for the members without one or
+		 * when the query is not grouped
+		 */
+		public final RioValue value;
+		public final int count;
+		/**
+		 * The min and max values, in the order they were asked for, null where
+		 * the members have no value
+		 */
+		public final List<RioValue> values;
+
+		public Group(RioValue value, int count, List<RioValue> values) {
+			this.value = value;
+			this.count = count;
+			this.values = Collections.unmodifiableList(values);
+		}
+	}
+
+}
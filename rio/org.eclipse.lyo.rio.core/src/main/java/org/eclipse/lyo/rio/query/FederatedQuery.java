@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.query;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.OslcWhereHelper.OslcWhereParseException;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.RioValue;
+
+/**
+ * One OSLC query run against several resource types at once.
+ * <p>
+ * Every type is queried on the store's query executor, each with its own
+ * builder, and the members of all types are merged in URI order, so the
+ * page keyset (see {@link QueryPage}) works across types.  A branch that has
+ * not answered by the deadline is cancelled and left out of the page, as is
+ * one that fails; {@link #getFailures()} says which and why.  Only when every
+ * branch fails, or the count does, does the query fail.
+ * <p>
+ * The total count is a single <code>COUNT(DISTINCT ?uri)</code> over the
+ * union of the types, so a resource of several types is counted once.  It
+ * includes the types whose branch failed.
+ */
+public class FederatedQuery {
+
+	private final List<String> resourceTypes;
+	private final String prefix;
+	private final String select;
+	private final String where;
+	private final SimpleQueryBuilder builder;
+	private final Map<String, String> failures = new LinkedHashMap<String, String>();
+
+	public FederatedQuery(List<String> resourceTypes, String prefix, String select, String where) throws OslcWhereParseException {
+		this.resourceTypes = new ArrayList<String>(resourceTypes);
+		this.prefix = prefix;
+		this.select = select;
+		this.where = where;
+		// parsed once up front, so a bad query fails before anything runs
+		this.builder = newBuilder();
+	}
+
+	private SimpleQueryBuilder newBuilder() throws OslcWhereParseException {
+		SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+		queryBuilder.parsePrefix(prefix);
+		queryBuilder.parseSelect(select);
+		queryBuilder.parseWhere(SimpleQueryBuilder.URI_VAR, where);
+		return queryBuilder;
+	}
+
+	/**
+	 * @return the builder for the page and the response writer, the branches
+	 * have their own
+	 */
+	public SimpleQueryBuilder getBuilder() {
+		return builder;
+	}
+
+	/**
+	 * @return the reason each failed or timed out branch was left out, keyed
+	 * by resource type
+	 */
+	public Map<String, String> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Queries every type in parallel and merges their members into the page.
+	 * @param timeout milliseconds to wait for all branches
+	 */
+	public QueryCursor open(RioStore store, QueryPage page, long timeout) throws RioServerException {
+		failures.clear();
+		boolean counting = page.getTotalCount() < 0;
+		// the branch's own budget ends its evaluation even if it ignores the interrupt
+		int seconds = (int) Math.max(1, (timeout + 999) / 1000);
+		Map<String, Future<Branch>> futures = new LinkedHashMap<String, Future<Branch>>();
+		for (String resourceType : resourceTypes) {
+			try {
+				futures.put(resourceType, store.getQueryExecutor().submit(new Branch(store, resourceType, page.getPageSize(), page.getAfterUri(), seconds)));
+			} catch (RejectedExecutionException e) {
+				failures.put(resourceType, "rejected, too many queries waiting"); //$NON-NLS-1$
+			}
+		}
+
+		long deadline = System.currentTimeMillis() + timeout;
+		if( counting ) {
+			// on this thread, while the branches run on the executor
+			try {
+				page.setTotalCount(count(store, seconds));
+			} catch (RioServerException e) {
+				cancel(futures.values());
+				throw e;
+			}
+		}
+		Set<String> bindingNames = new LinkedHashSet<String>();
+		TreeMap<String, List<Map<String, RioValue>>> members = new TreeMap<String, List<Map<String, RioValue>>>();
+		for (Map.Entry<String, Future<Branch>> entry : futures.entrySet()) {
+			Future<Branch> future = entry.getValue();
+			Branch branch;
+			try {
+				branch = future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				future.cancel(true);
+				failures.put(entry.getKey(), "timed out after " + timeout + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
+				continue;
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause() != null ? e.getCause() : e;
+				failures.put(entry.getKey(), String.valueOf(cause.getMessage()));
+				continue;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancel(futures.values());
+				throw new RioServerException(e);
+			}
+			bindingNames.addAll(branch.bindingNames);
+			for (Map.Entry<String, List<Map<String, RioValue>>> member : branch.members.entrySet()) {
+				// a resource of several types is only listed once
+				if( !members.containsKey(member.getKey()) ) {
+					members.put(member.getKey(), member.getValue());
+				}
+			}
+		}
+		if( !resourceTypes.isEmpty() && failures.size() == resourceTypes.size() ) {
+			throw new RioServerException("All branches of the query failed: " + failures); //$NON-NLS-1$
+		}
+		List<Map<String, RioValue>> rows = new ArrayList<Map<String, RioValue>>();
+		Iterator<List<Map<String, RioValue>>> it = members.values().iterator();
+		for (int i = 0; i < page.getPageSize() && it.hasNext(); i++) {
+			rows.addAll(it.next());
+		}
+		return new QueryCursor(new ArrayList<String>(bindingNames), rows);
+	}
+
+	private int count(RioStore store, int timeout) throws RioServerException {
+		QueryCursor cursor = store.openQuery(IConstants.SPARQL, builder.getCountQueryString(resourceTypes), 0, 1, timeout);
+		try {
+			if( cursor.hasNext() ) {
+				RioValue value = cursor.next().get("count"); //$NON-NLS-1$
+				if( value != null ) return Integer.parseInt(value.stringValue());
+			}
+			return 0;
+		} finally {
+			cursor.close();
+		}
+	}
+
+	private static void cancel(Iterable<Future<Branch>> futures) {
+		for (Future<Branch> future : futures) {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Reads one type's page of members.
+	 */
+	private class Branch implements Callable<Branch> {
+		private final RioStore store;
+		private final String resourceType;
+		private final int pageSize;
+		private final String afterUri;
+		private final int timeout;
+		final Map<String, List<Map<String, RioValue>>> members = new LinkedHashMap<String, List<Map<String, RioValue>>>();
+		List<String> bindingNames = new ArrayList<String>();
+
+		Branch(RioStore store, String resourceType, int pageSize, String afterUri, int timeout) {
+			this.store = store;
+			this.resourceType = resourceType;
+			this.pageSize = pageSize;
+			this.afterUri = afterUri;
+			this.timeout = timeout;
+		}
+
+		public Branch call() throws Exception {
+			SimpleQueryBuilder queryBuilder = newBuilder();
+			queryBuilder.usePropertyIndex(store.getPropertyIndex());
+			// a full page from every type, the merge keeps the first pageSize of them
+			queryBuilder.setPage(0, pageSize, afterUri);
+			QueryCursor cursor = store.openQuery(IConstants.SPARQL, queryBuilder.getQueryString(resourceType), 0, Integer.MAX_VALUE, timeout);
+			try {
+				bindingNames = cursor.getBindingNames();
+				while( cursor.hasNext() ) {
+					if( Thread.currentThread().isInterrupted() ) {
+						throw new InterruptedException();
+					}
+					Map<String, RioValue> row = cursor.next();
+					String uri = row.get(SimpleQueryBuilder.URI_VAR).stringValue();
+					List<Map<String, RioValue>> memberRows = members.get(uri);
+					if( memberRows == null ) {
+						memberRows = new ArrayList<Map<String, RioValue>>();
+						members.put(uri, memberRows);
+					}
+					memberRows.add(row);
+				}
+			} finally {
+				cursor.close();
+			}
+			return this;
+		}
+	}
+
+}
@@ -0,0 +1,645 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.query;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CommonTokenStream;
+import org.antlr.runtime.RecognitionException;
+import org.antlr.runtime.tree.Tree;
+import org.eclipse.lyo.rio.query.OslcWhereExpression.Comparison;
+import org.eclipse.lyo.rio.query.OslcWhereExpression.InTerm;
+import org.eclipse.lyo.rio.query.OslcWhereExpression.ScopedTerm;
+import org.eclipse.lyo.rio.query.OslcWhereExpression.Term;
+import org.eclipse.lyo.rio.query.OslcWhereExpression.Value;
+import org.eclipse.lyo.rio.query.OslcWhereExpression.ValueKind;
+import org.eclipse.lyo.rio.query.OslcWhereHelper.OslcWhereParseException;
+import org.eclipse.lyo.rio.query.OslcWhereParser.oslc_where_return;
+import org.eclipse.lyo.rio.store.PropertyIndex;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.ValueFactoryImpl;
+import org.openrdf.model.vocabulary.XMLSchema;
+
+/**
+ * Compiles <code>oslc.where</code> expressions to SPARQL graph patterns.
+ * <p>
+ * Expressions are parsed once into an {@link OslcWhereExpression} and kept in
+ * a bounded LRU cache keyed by the raw expression, so a repeated query skips
+ * the lexer and parser.  The tree is simplified before it is cached:
+ * <ul>
+ * <li>integer and boolean typed literals are put in canonical form, so
+ * <code>"007"^^xsd:int</code> matches the stored <code>"7"^^xsd:int</code></li>
+ * <li>duplicate terms and duplicate <code>in</code> values are dropped, and an
+ * <code>in</code> with a single value becomes an equality</li>
+ * <li>an <code>in</code> already satisfied by an equality on the same
+ * property is dropped</li>
+ * <li>of several numeric lower (or upper) bounds on one property only the
+ * tightest is kept</li>
+ * </ul>
+ * When writing SPARQL, equalities come first as plain triple patterns.  Then
+ * come the scoped links, then short <code>in</code> lists written as a
+ * <code>UNION</code> of bound patterns.  The FILTERs are written last.
+ * Typed literals are compared in the triple pattern itself, so the store
+ * looks them up in an index instead of scanning all the property's values.
+ * Bare decimals keep the FILTER, because SPARQL only matches them to
+ * literals with the same datatype.
+ * <p>
+ * Given the store's {@link PropertyIndex}, terms on indexed properties are
+ * answered from the index.  The matching resources are bound into the query
+ * and those terms are left out of the SPARQL.
+ * <p>
+ * The compiler is thread safe.  Variable counters are per compilation.
+ */
+public class OslcWhereCompiler {
+
+	public static final int DEFAULT_MAX_EXPRESSIONS = 500;
+
+	/**
+	 * Longest <code>in</code> list written as a UNION of triple patterns, longer
+	 * ones use <code>FILTER(?v IN (...))</code>.
+	 */
+	static final int MAX_UNION_VALUES = 8;
+
+	/**
+	 * Most resources found in the {@link PropertyIndex} that are bound into the
+	 * query, with more the indexed terms are left to SPARQL.
+	 */
+	public static final int MAX_INDEX_CANDIDATES = 256;
+
+	private static final String XSD_PREFIX = "xsd:"; //$NON-NLS-1$
+
+	private static final Set<String> INTEGER_TYPES = new HashSet<String>(Arrays.asList(
+			"int", "integer", "long", "short", "byte", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			"nonNegativeInteger", "positiveInteger", "nonPositiveInteger", "negativeInteger", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"unsignedLong", "unsignedInt", "unsignedShort", "unsignedByte")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	private static final Set<String> NUMERIC_TYPES = new HashSet<String>(INTEGER_TYPES);
+	static {
+		NUMERIC_TYPES.addAll(Arrays.asList("decimal", "double", "float")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	private static final OslcWhereCompiler compiler = new OslcWhereCompiler(DEFAULT_MAX_EXPRESSIONS);
+
+	private final int maxExpressions;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final LinkedHashMap<String, OslcWhereExpression> expressions;
+
+	public OslcWhereCompiler(int maxExpressions) {
+		this.maxExpressions = maxExpressions;
+		this.expressions = new LinkedHashMap<String, OslcWhereExpression>(16, 0.75f, true) {
+			private static final long serialVersionUID = -2304518223185227530L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, OslcWhereExpression> eldest) {
+				return size() > OslcWhereCompiler.this.maxExpressions;
+			}
+		};
+	}
+
+	/**
+	 * @return the compiler shared by the query services
+	 */
+	public static OslcWhereCompiler getCompiler() {
+		return compiler;
+	}
+
+	/**
+	 * Converts an <code>oslc.where</code> expression to SPARQL graph patterns
+	 * on the subject variable <code>?uriVar</code>.
+	 */
+	public String compile(String oslcWhere, String uriVar) throws OslcWhereParseException {
+		return toSparql(parse(oslcWhere), uriVar);
+	}
+
+	/**
+	 * @return the simplified tree of the expression, from the cache when it
+	 * has been seen before
+	 */
+	public OslcWhereExpression parse(String oslcWhere) throws OslcWhereParseException {
+		OslcWhereExpression expression;
+		synchronized (expressions) {
+			expression = expressions.get(oslcWhere);
+		}
+		if( expression != null ) {
+			hits.incrementAndGet();
+			return expression;
+		}
+		misses.incrementAndGet();
+		expression = new OslcWhereExpression(fold(toTerms(parseTree(oslcWhere))));
+		synchronized (expressions) {
+			expressions.put(oslcWhere, expression);
+		}
+		return expression;
+	}
+
+	public void clear() {
+		synchronized (expressions) {
+			expressions.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (expressions) {
+			return expressions.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Writes the expression as SPARQL graph patterns on the subject variable
+	 * <code>?uriVar</code>.
+	 */
+	public static String toSparql(OslcWhereExpression expression, String uriVar) {
+		SparqlWriter writer = new SparqlWriter();
+		writer.write(expression.getTerms(), '?' + uriVar);
+		return writer.toString();
+	}
+
+	/**
+	 * Writes the expression like {@link #toSparql(OslcWhereExpression, String)},
+	 * but answers the top level terms on indexed properties from the index.
+	 * The resources they find are bound to <code>?uriVar</code> ahead of the
+	 * remaining patterns, so those are matched for the candidates only.
+	 * @param namespaces the query's namespaces, keyed by prefix
+	 */
+	public static String toSparql(OslcWhereExpression expression, String uriVar, PropertyIndex index, Map<String, String> namespaces) {
+		if( index == null ) {
+			return toSparql(expression, uriVar);
+		}
+		SortedSet<String> candidates = null;
+		List<Term> rest = new ArrayList<Term>();
+		for (Term term : expression.getTerms()) {
+			SortedSet<String> found = find(index, term, namespaces);
+			if( found == null ) {
+				rest.add(term);
+			} else if( candidates == null ) {
+				candidates = found;
+			} else {
+				candidates.retainAll(found);
+			}
+		}
+		if( candidates == null || candidates.size() > MAX_INDEX_CANDIDATES ) {
+			return toSparql(expression, uriVar);
+		}
+		SparqlWriter writer = new SparqlWriter();
+		writer.bind(candidates, uriVar);
+		writer.write(rest, '?' + uriVar);
+		return writer.toString();
+	}
+
+	/**
+	 * @return the subjects matching every term of the expression, or null
+	 * when the index can't answer all of them
+	 */
+	public static SortedSet<String> find(OslcWhereExpression expression, PropertyIndex index, Map<String, String> namespaces) {
+		SortedSet<String> candidates = null;
+		for (Term term : expression.getTerms()) {
+			SortedSet<String> found = find(index, term, namespaces);
+			if( found == null ) {
+				return null;
+			} else if( candidates == null ) {
+				candidates = found;
+			} else {
+				candidates.retainAll(found);
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * @return the subjects matching the term, or null when the index can't tell
+	 */
+	private static SortedSet<String> find(PropertyIndex index, Term term, Map<String, String> namespaces) {
+		if( term.isWildcard() || term instanceof ScopedTerm ) return null;
+		String predicate = expand(term.property, namespaces);
+		if( predicate == null || !index.isIndexed(predicate) ) return null;
+		if( term instanceof Comparison ) {
+			Comparison comparison = (Comparison) term;
+			org.openrdf.model.Value value = toRdfValue(comparison.value, namespaces);
+			if( value == null ) return null;
+			return index.find(predicate, comparison.op, value, comparison.value.kind == ValueKind.DECIMAL);
+		}
+		SortedSet<String> found = new TreeSet<String>();
+		for (Value value : ((InTerm) term).values) {
+			org.openrdf.model.Value rdfValue = toRdfValue(value, namespaces);
+			SortedSet<String> subjects = rdfValue == null ? null : index.find(predicate, OslcWhereExpression.OP_EQUAL, rdfValue, value.kind == ValueKind.DECIMAL);
+			if( subjects == null ) return null;
+			found.addAll(subjects);
+		}
+		return found;
+	}
+
+	private static String expand(String prefixedName, Map<String, String> namespaces) {
+		int pos = prefixedName.indexOf(':');
+		if( pos < 0 ) return null;
+		String namespace = namespaces.get(prefixedName.substring(0, pos));
+		return namespace == null ? null : namespace + prefixedName.substring(pos + 1);
+	}
+
+	/**
+	 * @return the value as an RDF term, null for values the index doesn't answer
+	 */
+	private static org.openrdf.model.Value toRdfValue(Value value, Map<String, String> namespaces) {
+		ValueFactory vf = ValueFactoryImpl.getInstance();
+		try {
+			switch (value.kind) {
+			case IRI :
+				return vf.createURI(value.lexical.substring(1, value.lexical.length() - 1));
+			case PREFIXED_NAME :
+				String uri = expand(value.lexical, namespaces);
+				return uri == null ? null : vf.createURI(uri);
+			case STRING :
+				return vf.createLiteral(unescape(value.lexical));
+			case TYPED :
+				String datatype = expand(value.datatype, namespaces);
+				return datatype == null ? null : vf.createLiteral(unescape(value.lexical), vf.createURI(datatype));
+			case DECIMAL :
+				return vf.createLiteral(value.lexical, XMLSchema.DECIMAL);
+			case BOOLEAN :
+				return vf.createLiteral(Boolean.parseBoolean(value.lexical));
+			default :
+				return null;
+			}
+		} catch (IllegalArgumentException e) {
+			// relative IRI, or one Sesame rejects
+			return null;
+		}
+	}
+
+	/**
+	 * @return the label of a quoted string literal
+	 */
+	private static String unescape(String quoted) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 1; i < quoted.length() - 1; i++) {
+			char c = quoted.charAt(i);
+			if( c == '\\' && i + 1 < quoted.length() - 1 ) {
+				c = quoted.charAt(++i);
+				switch (c) {
+				case 't': c = '\t'; break;
+				case 'n': c = '\n'; break;
+				case 'r': c = '\r'; break;
+				case 'b': c = '\b'; break;
+				case 'f': c = '\f'; break;
+				}
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	static boolean isNumericType(String datatype) {
+		return datatype != null && datatype.startsWith(XSD_PREFIX)
+				&& NUMERIC_TYPES.contains(datatype.substring(XSD_PREFIX.length()));
+	}
+
+	// parsing
+
+	private static Tree parseTree(String oslcWhere) throws OslcWhereParseException {
+		ANTLRStringStream input = new ANTLRStringStream(oslcWhere);
+		OslcWhereLexer lexer = new OslcWhereLexer(input);
+		CommonTokenStream tokens = new CommonTokenStream(lexer);
+		OslcWhereParser parser = new OslcWhereParser(tokens);
+		try{
+			oslc_where_return whereRet = parser.oslc_where();
+			if( parser.getErrors().size()>0 ) {
+				StringBuilder sb = new StringBuilder();
+				for( String errorMsg : parser.getErrors() ) {
+					sb.append( errorMsg + '\n' );
+				}
+				throw new OslcWhereParseException( oslcWhere + '\n' + sb.toString());
+			}
+			return whereRet.tree;
+		} catch (RecognitionException re ) {
+			throw new OslcWhereParseException(re.getMessage());
+		}
+	}
+
+	private static List<Term> toTerms(Tree tree) throws OslcWhereParseException {
+		List<Term> terms = new ArrayList<Term>();
+		if( tree == null ) {
+			throw new OslcWhereParseException("OslcWhere2SparqlWhere_NoTerms"); //$NON-NLS-1$
+		}
+		switch (tree.getType()) {
+		case OslcWhereParser.SIMPLE_TERM :
+		case OslcWhereParser.IN_TERM :
+		case OslcWhereParser.COMPOUND_TERM :
+			terms.add(toTerm(tree));
+			break;
+		default:
+			for (int i = 0; i < tree.getChildCount(); i++) {
+				terms.add(toTerm(tree.getChild(i)));
+			}
+		}
+		return terms;
+	}
+
+	private static Term toTerm(Tree term) throws OslcWhereParseException {
+		int count = term.getChildCount();
+		switch (term.getType()) {
+		case OslcWhereParser.SIMPLE_TERM :
+			if( count != 3 ) throw new OslcWhereParseException("OslcWhere2SparqlWhere_IncorrectNumberOfPartsForSimpleTerm" + count); //$NON-NLS-1$
+			return new Comparison(toProperty(term.getChild(0)), term.getChild(1).getText(), toValue(term.getChild(2)));
+		case OslcWhereParser.IN_TERM :
+			if( count != 2 ) throw new OslcWhereParseException("OslcWhere2SparqlWhere_IncorrectNumberOfPartsForInTerm" + count); //$NON-NLS-1$
+			Tree trValues = term.getChild(1);
+			List<Value> values = new ArrayList<Value>();
+			for (int i = 0; i < trValues.getChildCount(); i++) {
+				values.add(toValue(trValues.getChild(i)));
+			}
+			return new InTerm(toProperty(term.getChild(0)), values);
+		case OslcWhereParser.COMPOUND_TERM :
+			if( count != 2 ) throw new OslcWhereParseException("OslcWhere2SparqlWhere_IncorrectNumberOfPartsForCompoundTerm" + count); //$NON-NLS-1$
+			return new ScopedTerm(toProperty(term.getChild(0)), toTerms(term.getChild(1)));
+		}
+		throw new OslcWhereParseException("OslcWhere2SparqlWhere_UnexpectedTerm" + term.getText()); //$NON-NLS-1$
+	}
+
+	private static String toProperty(Tree trProperty) {
+		if( trProperty.getType() == OslcWhereParser.ASTERISK ) {
+			return null;
+		}
+		return trProperty.getText();
+	}
+
+	private static Value toValue(Tree trValue) throws OslcWhereParseException {
+		switch (trValue.getType()) {
+		case OslcWhereParser.TYPED_VALUE :
+			return new Value(ValueKind.TYPED, trValue.getChild(0).getText(), trValue.getChild(1).getText(), null);
+		case OslcWhereParser.LANGED_VALUE :
+			return new Value(ValueKind.LANGED, trValue.getChild(0).getText(), null, trValue.getChild(1).getText());
+		case OslcWhereParser.STRING_LITERAL2 :
+			return new Value(ValueKind.STRING, trValue.getText());
+		case OslcWhereParser.IRI_REF :
+			return new Value(ValueKind.IRI, trValue.getText());
+		case OslcWhereParser.PNAME_LN :
+		case OslcWhereParser.PNAME_NS :
+			return new Value(ValueKind.PREFIXED_NAME, trValue.getText());
+		case OslcWhereParser.DECIMAL :
+			return new Value(ValueKind.DECIMAL, trValue.getText());
+		}
+		String text = trValue.getText();
+		if( "true".equals(text) || "false".equals(text) ) { //$NON-NLS-1$ //$NON-NLS-2$
+			return new Value(ValueKind.BOOLEAN, text);
+		}
+		throw new OslcWhereParseException("OslcWhere2SparqlWhere_UnexpectedValue" + text); //$NON-NLS-1$
+	}
+
+	// constant folding
+
+	private static List<Term> fold(List<Term> terms) {
+		Set<Term> folded = new LinkedHashSet<Term>();
+		for (Term term : terms) {
+			if( term instanceof Comparison ) {
+				Comparison comparison = (Comparison) term;
+				folded.add(new Comparison(term.property, comparison.op, canonical(comparison.value)));
+			} else if( term instanceof InTerm ) {
+				Set<Value> values = new LinkedHashSet<Value>();
+				for (Value value : ((InTerm) term).values) {
+					values.add(canonical(value));
+				}
+				if( values.size() == 1 ) {
+					folded.add(new Comparison(term.property, OslcWhereExpression.OP_EQUAL, values.iterator().next()));
+				} else {
+					folded.add(new InTerm(term.property, new ArrayList<Value>(values)));
+				}
+			} else {
+				folded.add(new ScopedTerm(term.property, fold(((ScopedTerm) term).terms)));
+			}
+		}
+
+		// equalities on a property, and its tightest numeric bounds
+		Map<String, Set<Value>> equals = new LinkedHashMap<String, Set<Value>>();
+		Map<String, Comparison> lower = new LinkedHashMap<String, Comparison>();
+		Map<String, Comparison> upper = new LinkedHashMap<String, Comparison>();
+		for (Term term : folded) {
+			if( term.isWildcard() || !(term instanceof Comparison) ) continue;
+			Comparison comparison = (Comparison) term;
+			if( OslcWhereExpression.OP_EQUAL.equals(comparison.op) ) {
+				Set<Value> values = equals.get(term.property);
+				if( values == null ) {
+					values = new HashSet<Value>();
+					equals.put(term.property, values);
+				}
+				values.add(comparison.value);
+			} else if( comparison.value.numericValue() != null ) {
+				if( isLowerBound(comparison.op) ) {
+					lower.put(term.property, tighter(lower.get(term.property), comparison, true));
+				} else if( isUpperBound(comparison.op) ) {
+					upper.put(term.property, tighter(upper.get(term.property), comparison, false));
+				}
+			}
+		}
+
+		List<Term> result = new ArrayList<Term>();
+		for (Term term : folded) {
+			if( term instanceof InTerm && !term.isWildcard() && equals.containsKey(term.property) ) {
+				Set<Value> values = new HashSet<Value>(((InTerm) term).values);
+				values.retainAll(equals.get(term.property));
+				if( !values.isEmpty() ) {
+					// implied by the equality
+					continue;
+				}
+			} else if( term instanceof Comparison && !term.isWildcard() ) {
+				String op = ((Comparison) term).op;
+				if( (isLowerBound(op) && lower.containsKey(term.property) && lower.get(term.property) != term)
+						|| (isUpperBound(op) && upper.containsKey(term.property) && upper.get(term.property) != term) ) {
+					if( ((Comparison) term).value.numericValue() != null ) {
+						// implied by a tighter bound
+						continue;
+					}
+				}
+			}
+			result.add(term);
+		}
+		return result;
+	}
+
+	private static boolean isLowerBound(String op) {
+		return OslcWhereExpression.OP_GREATER.equals(op) || OslcWhereExpression.OP_GREATER_EQUAL.equals(op);
+	}
+
+	private static boolean isUpperBound(String op) {
+		return OslcWhereExpression.OP_LESS.equals(op) || OslcWhereExpression.OP_LESS_EQUAL.equals(op);
+	}
+
+	private static Comparison tighter(Comparison current, Comparison candidate, boolean lowerBound) {
+		if( current == null ) return candidate;
+		int cmp = candidate.value.numericValue().compareTo(current.value.numericValue());
+		if( cmp == 0 ) {
+			// strict beats inclusive at the same value
+			return candidate.op.length() < current.op.length() ? candidate : current;
+		}
+		return (cmp > 0) == lowerBound ? candidate : current;
+	}
+
+	/**
+	 * @return the value with an integer or boolean typed literal in its canonical
+	 * lexical form, that is how the store writes them
+	 */
+	private static Value canonical(Value value) {
+		if( value.kind != ValueKind.TYPED || !value.datatype.startsWith(XSD_PREFIX) ) {
+			return value;
+		}
+		String type = value.datatype.substring(XSD_PREFIX.length());
+		String label = value.lexical.substring(1, value.lexical.length() - 1).trim();
+		String canonical = null;
+		if( INTEGER_TYPES.contains(type) ) {
+			try {
+				canonical = new BigInteger(label.startsWith("+") ? label.substring(1) : label).toString(); //$NON-NLS-1$
+			} catch (NumberFormatException e) {
+				// leave it for the store to reject
+			}
+		} else if( "boolean".equals(type) ) { //$NON-NLS-1$
+			if( "1".equals(label) || "true".equals(label) ) { //$NON-NLS-1$ //$NON-NLS-2$
+				canonical = "true"; //$NON-NLS-1$
+			} else if( "0".equals(label) || "false".equals(label) ) { //$NON-NLS-1$ //$NON-NLS-2$
+				canonical = "false"; //$NON-NLS-1$
+			}
+		}
+		if( canonical == null ) return value;
+		return new Value(ValueKind.TYPED, '"' + canonical + '"', value.datatype, null);
+	}
+
+	// SPARQL generation
+
+	/**
+	 * Writes the terms of one compilation, equality patterns first, then the
+	 * other patterns, then the filters.
+	 */
+	private static class SparqlWriter {
+		private int valueCounter = 0;
+		private int wildcardCounter = 0;
+		private int compoundCounter = 0;
+
+		private final StringBuilder equalities = new StringBuilder();
+		private final StringBuilder patterns = new StringBuilder();
+		private final StringBuilder filters = new StringBuilder();
+
+		/**
+		 * Binds the variable to each of the resources in turn, or to none.
+		 */
+		void bind(Set<String> resources, String var) {
+			if( resources.isEmpty() ) {
+				filters.append("FILTER(false).\n"); //$NON-NLS-1$
+				return;
+			}
+			int i = 0;
+			for (String resource : resources) {
+				if( i++ > 0 ) equalities.append(" UNION "); //$NON-NLS-1$
+				equalities.append("{ BIND(<" + resource + "> AS ?" + var + ") }"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			equalities.append('\n');
+		}
+
+		void write(List<Term> terms, String subject) {
+			// scoped terms after the equalities of their scope
+			List<ScopedTerm> scoped = new ArrayList<ScopedTerm>();
+			for (Term term : terms) {
+				if( term instanceof Comparison ) {
+					writeComparison((Comparison) term, subject);
+				} else if( term instanceof InTerm ) {
+					writeIn((InTerm) term, subject);
+				} else {
+					scoped.add((ScopedTerm) term);
+				}
+			}
+			for (ScopedTerm term : scoped) {
+				String node = "?_c" + compoundCounter++; //$NON-NLS-1$
+				patterns.append(subject + ' ' + property(term) + ' ' + node + ".\n"); //$NON-NLS-1$
+				write(term.terms, node);
+			}
+		}
+
+		private void writeComparison(Comparison term, String subject) {
+			String prop = property(term);
+			if( OslcWhereExpression.OP_EQUAL.equals(term.op) && isTermMatch(term.value) ) {
+				equalities.append(subject + ' ' + prop + ' ' + term.value.toSparql() + ".\n"); //$NON-NLS-1$
+				return;
+			}
+			// use blank node and FILTER
+			String node = "?_v" + valueCounter++; //$NON-NLS-1$
+			patterns.append(subject + ' ' + prop + ' ' + node + ".\n"); //$NON-NLS-1$
+			filters.append("FILTER(" + node + ' ' + term.op + ' ' + term.value.toSparql() + ").\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		private void writeIn(InTerm term, String subject) {
+			String prop = property(term);
+			boolean union = term.values.size() <= MAX_UNION_VALUES;
+			for (Value value : term.values) {
+				union &= isTermMatch(value);
+			}
+			if( union ) {
+				for (int i = 0; i < term.values.size(); i++) {
+					if( i > 0 ) patterns.append(" UNION "); //$NON-NLS-1$
+					patterns.append("{ " + subject + ' ' + prop + ' ' + term.values.get(i).toSparql() + " }"); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				patterns.append('\n');
+				return;
+			}
+			String node = "?_v" + valueCounter++; //$NON-NLS-1$
+			patterns.append(subject + ' ' + prop + ' ' + node + ".\n"); //$NON-NLS-1$
+			StringBuilder sb = new StringBuilder();
+			sb.append("FILTER(" + node + " IN ("); //$NON-NLS-1$ //$NON-NLS-2$
+			for (int i = 0; i < term.values.size(); i++) {
+				if( i > 0 ) sb.append(", "); //$NON-NLS-1$
+				sb.append(term.values.get(i).toSparql());
+			}
+			sb.append(")).\n"); //$NON-NLS-1$
+			filters.append(sb);
+		}
+
+		private String property(Term term) {
+			if( term.isWildcard() ) {
+				return "?_w" + wildcardCounter++; //$NON-NLS-1$
+			}
+			return term.property;
+		}
+
+		/**
+		 * @return true when matching the value as an RDF term gives the same
+		 * answer as comparing it, bare decimals also equal other numeric types
+		 */
+		private static boolean isTermMatch(Value value) {
+			return value.kind != ValueKind.DECIMAL;
+		}
+
+		@Override
+		public String toString() {
+			return (equalities.toString() + patterns + filters).trim();
+		}
+	}
+
+}
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.query;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Typed syntax tree of an <code>oslc.where</code> expression, the conjunction
+ * of its terms.
+ * <p>
+ * Instances are immutable, the compiler shares them between requests.
+ */
+public class OslcWhereExpression {
+
+	public static final String OP_EQUAL = "="; //$NON-NLS-1$
+	public static final String OP_NOT_EQUAL = "!="; //$NON-NLS-1$
+	public static final String OP_LESS = "<"; //$NON-NLS-1$
+	public static final String OP_LESS_EQUAL = "<="; //$NON-NLS-1$
+	public static final String OP_GREATER = ">"; //$NON-NLS-1$
+	public static final String OP_GREATER_EQUAL = ">="; //$NON-NLS-1$
+
+	private final List<Term> terms;
+
+	public OslcWhereExpression(List<Term> terms) {
+		this.terms = Collections.unmodifiableList(terms);
+	}
+
+	public List<Term> getTerms() {
+		return terms;
+	}
+
+	@Override
+	public String toString() {
+		return join(terms);
+	}
+
+	static String join(List<Term> terms) {
+		StringBuilder sb = new StringBuilder();
+		for (Term term : terms) {
+			if( sb.length() > 0 ) sb.append(" and "); //$NON-NLS-1$
+			sb.append(term);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * A condition on the values of one property, or of any property when
+	 * the property is the <code>*</code> wildcard (null here).
+	 */
+	public static abstract class Term {
+		public final String property;
+
+		Term(String property) {
+			this.property = property;
+		}
+
+		public boolean isWildcard() {
+			return property == null;
+		}
+
+		String propertyString() {
+			return property == null ? "*" : property; //$NON-NLS-1$
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj != null && obj.getClass() == getClass() && obj.toString().equals(toString());
+		}
+
+		@Override
+		public int hashCode() {
+			return toString().hashCode();
+		}
+	}
+
+	/**
+	 * <code>property op value</code>
+	 */
+	public static class Comparison extends Term {
+		public final String op;
+		public final Value value;
+
+		public Comparison(String property, String op, Value value) {
+			super(property);
+			this.op = op;
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return propertyString() + op + value;
+		}
+	}
+
+	/**
+	 * <code>property in [value, ...]</code>
+	 */
+	public static class InTerm extends Term {
+		public final List<Value> values;
+
+		public InTerm(String property, List<Value> values) {
+			super(property);
+			this.values = Collections.unmodifiableList(values);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(propertyString()).append(" in ["); //$NON-NLS-1$
+			for (int i = 0; i < values.size(); i++) {
+				if( i > 0 ) sb.append(',');
+				sb.append(values.get(i));
+			}
+			return sb.append(']').toString();
+		}
+	}
+
+	/**
+	 * <code>property{terms}</code>, conditions on the resource the property
+	 * refers to.
+	 */
+	public static class ScopedTerm extends Term {
+		public final List<Term> terms;
+
+		public ScopedTerm(String property, List<Term> terms) {
+			super(property);
+			this.terms = Collections.unmodifiableList(terms);
+		}
+
+		@Override
+		public String toString() {
+			return propertyString() + '{' + join(terms) + '}';
+		}
+	}
+
+	public enum ValueKind {
+		/** <code>&lt;http://...&gt;</code> */
+		IRI,
+		/** <code>prefix:local</code> */
+		PREFIXED_NAME,
+		/** <code>"..."</code> */
+		STRING,
+		/** <code>"..."^^prefix:local</code> */
+		TYPED,
+		/** <code>"..."@lang</code> */
+		LANGED,
+		/** a bare <code>1.5</code> */
+		DECIMAL,
+		/** <code>true</code> or <code>false</code> */
+		BOOLEAN
+	}
+
+	/**
+	 * A term value, kept in its SPARQL lexical form.  Strings include their
+	 * quotes and escapes.
+	 */
+	public static class Value {
+		public final ValueKind kind;
+		public final String lexical;
+		public final String datatype;
+		public final String language;
+
+		public Value(ValueKind kind, String lexical) {
+			this(kind, lexical, null, null);
+		}
+
+		public Value(ValueKind kind, String lexical, String datatype, String language) {
+			this.kind = kind;
+			this.lexical = lexical;
+			this.datatype = datatype;
+			this.language = language;
+		}
+
+		/**
+		 * @return the value as it is written in a SPARQL query
+		 */
+		public String toSparql() {
+			if( kind == ValueKind.TYPED ) {
+				return lexical + "^^" + datatype; //$NON-NLS-1$
+			}
+			// LANGED: don't include the langtag, sesame sparql doesn't accept it.
+			return lexical;
+		}
+
+		/**
+		 * @return the numeric value of a decimal or xsd numeric value, null
+		 * for anything else
+		 */
+		public BigDecimal numericValue() {
+			String label = null;
+			if( kind == ValueKind.DECIMAL ) {
+				label = lexical;
+			} else if( kind == ValueKind.TYPED && OslcWhereCompiler.isNumericType(datatype) ) {
+				label = lexical.substring(1, lexical.length() - 1);
+			}
+			if( label == null ) return null;
+			try {
+				return new BigDecimal(label.trim());
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Value && toString().equals(obj.toString());
+		}
+
+		@Override
+		public int hashCode() {
+			return toString().hashCode();
+		}
+
+		@Override
+		public String toString() {
+			if( kind == ValueKind.LANGED ) {
+				return lexical + language;
+			}
+			return toSparql();
+		}
+	}
+
+}
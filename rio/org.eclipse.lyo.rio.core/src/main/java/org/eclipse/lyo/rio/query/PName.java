@@ -19,6 +19,16 @@ public class PName {
 	public String namespace;
 	public String prefix;
 	public String local;
+	/**
+	 * Query variable of the enclosing property for a nested oslc.select
+	 * property, null at the top level.
+	 */
+	public String parent;
+	
+	public String getUri() {
+		return namespace + local;
+	}
+	
 	public String toString(){
 		return prefix + ':' + local;
 	}
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.query;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.OslcWhereHelper.OslcWhereParseException;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.QueryResultCache;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.RioValue;
+
+/**
+ * One page of an OSLC query.
+ * <p>
+ * The page size comes from <code>oslc.pageSize</code> (default
+ * {@value #DEFAULT_PAGE_SIZE}); responses always page, so
+ * <code>oslc.paging=true</code> only matters to clients.  The position of a
+ * page is carried in the <code>page</code> parameter of the
+ * <code>oslc:nextPage</code> link rather than held on the server, so nothing
+ * has to be cleaned up when a client stops following links.  When the query
+ * has no <code>oslc.orderBy</code> members are ordered by URI and the next
+ * page starts after the last URI seen (keyset), otherwise it is an OFFSET
+ * into the sorted members.  The total count is computed with a COUNT query
+ * for the first page and carried along in the link.
+ * <p>
+ * Pages read to the end are kept in the store's {@link QueryResultCache}
+ * until a resource of the queried type is written, and the ETag of a page
+ * changes with the same write generation.
+ */
+public class QueryPage {
+
+	public static final String PARAM_PAGING = "oslc.paging"; //$NON-NLS-1$
+	public static final String PARAM_PAGE_SIZE = "oslc.pageSize"; //$NON-NLS-1$
+	public static final String PARAM_PAGE = "page"; //$NON-NLS-1$
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	public static final int MAX_PAGE_SIZE = 1000;
+
+	private final SimpleQueryBuilder builder;
+	private final String resourceType;
+	private final String requestUrl;
+	private final String queryString;
+	private final int pageSize;
+	private int offset = 0;
+	private String afterUri = null;
+	private int totalCount = -1;
+	private int members = 0;
+	private String lastUri = null;
+	private String cacheKey = null;
+
+	/**
+	 * Points the builder at the store's indexes, so the query, its count and
+	 * its cache key all see the same SPARQL.
+	 */
+	public QueryPage(RioStore store, SimpleQueryBuilder builder, String resourceType, HttpServletRequest req) throws OslcWhereParseException {
+		this.builder = builder;
+		this.resourceType = resourceType;
+		useIndexes(store, builder, resourceType);
+		this.requestUrl = req.getRequestURL().toString();
+		this.queryString = req.getQueryString();
+		this.pageSize = parsePageSize(req.getParameter(PARAM_PAGE_SIZE));
+		parseToken(req.getParameter(PARAM_PAGE));
+	}
+
+	private static int parsePageSize(String size) throws OslcWhereParseException {
+		if( size == null ) return DEFAULT_PAGE_SIZE;
+		try {
+			int n = Integer.parseInt(size.trim());
+			if( n <= 0 ) throw new OslcWhereParseException(PARAM_PAGE_SIZE + " must be positive: " + size); //$NON-NLS-1$
+			return Math.min(n, MAX_PAGE_SIZE);
+		} catch (NumberFormatException e) {
+			throw new OslcWhereParseException(PARAM_PAGE_SIZE + " is not a number: " + size); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Token is <code>offset,total[,lastUri]</code>.
+	 */
+	private void parseToken(String token) throws OslcWhereParseException {
+		if( token == null || token.length() == 0 ) return;
+		String[] parts = token.split(",", 3); //$NON-NLS-1$
+		try {
+			offset = Integer.parseInt(parts[0]);
+			if( parts.length > 1 ) totalCount = Integer.parseInt(parts[1]);
+		} catch (NumberFormatException e) {
+			throw new OslcWhereParseException("Invalid page token: " + token); //$NON-NLS-1$
+		}
+		if( parts.length > 2 ) afterUri = parts[2];
+		if( offset < 0 ) throw new OslcWhereParseException("Invalid page token: " + token); //$NON-NLS-1$
+	}
+
+	private boolean isKeyset() {
+		return !builder.hasOrderBy();
+	}
+
+	/**
+	 * Counts the members if this is the first page, then opens the page's rows.
+	 */
+	public QueryCursor open(RioStore store) throws RioServerException {
+		QueryResultCache cache = store.getQueryResultCache();
+		String key = null;
+		long generation = 0;
+		if( cache != null ) {
+			key = getCacheKey();
+			// read before querying, a write that lands during the query makes the page stale
+			generation = getWriteGeneration(store);
+			QueryResultCache.Page cached = cache.get(key, generation);
+			if( cached != null ) {
+				if( totalCount < 0 ) {
+					totalCount = cached.totalCount;
+				}
+				return new QueryCursor(cached.bindingNames, cached.rows);
+			}
+		}
+		if( totalCount < 0 ) {
+			totalCount = count(store, builder, resourceType);
+		}
+		if( isKeyset() ) {
+			builder.setPage(0, pageSize, afterUri);
+		} else {
+			builder.setPage(offset, pageSize, null);
+		}
+		// the member limit is in the query, rows for selected values come on top
+		int rows = builder.getPropertyNames().isEmpty() ? pageSize : Integer.MAX_VALUE;
+		QueryCursor cursor = store.openQuery(IConstants.SPARQL, builder.getQueryString(resourceType), 0, rows);
+		if( cache != null ) {
+			cursor.setCompletionListener(new CachingListener(cache, key, generation, totalCount), QueryResultCache.MAX_ROWS);
+		}
+		return cursor;
+	}
+
+	/**
+	 * @return a weak entity tag for the page in the content type, which
+	 * changes whenever a cached page would be dropped
+	 */
+	public String getETag(RioStore store, String contentType) {
+		String key = getCacheKey() + '\n' + contentType;
+		return "W/\"" + Long.toHexString(getWriteGeneration(store)) + '-' + Integer.toHexString(key.hashCode()) + '"'; //$NON-NLS-1$
+	}
+
+	private long getWriteGeneration(RioStore store) {
+		return store.getWriteGeneration(builder.isMembersOnly() ? resourceType : null);
+	}
+
+	private String getCacheKey() {
+		if( cacheKey == null ) {
+			StringBuilder sb = new StringBuilder(builder.getCacheKey(resourceType));
+			sb.append('\n').append(pageSize).append(',');
+			if( isKeyset() ) {
+				sb.append(afterUri);
+			} else {
+				sb.append(offset);
+			}
+			cacheKey = sb.toString();
+		}
+		return cacheKey;
+	}
+
+	private static class CachingListener implements QueryCursor.ICompletionListener {
+		private final QueryResultCache cache;
+		private final String key;
+		private final long generation;
+		private final int totalCount;
+
+		CachingListener(QueryResultCache cache, String key, long generation, int totalCount) {
+			this.cache = cache;
+			this.key = key;
+			this.generation = generation;
+			this.totalCount = totalCount;
+		}
+
+		public void completed(List<String> bindingNames, List<Map<String, RioValue>> rows) {
+			cache.put(key, new QueryResultCache.Page(generation, totalCount, bindingNames, rows));
+		}
+	}
+
+	/**
+	 * @return the number of members matching the query, on all pages
+	 */
+	public static int count(RioStore store, SimpleQueryBuilder builder, String resourceType) throws RioServerException {
+		useIndexes(store, builder, resourceType);
+		List<Map<String, RioValue>> results = store.query(IConstants.SPARQL, builder.getCountQueryString(resourceType), 1);
+		if( results.isEmpty() || results.get(0).get("count") == null ) return 0; //$NON-NLS-1$
+		return Integer.parseInt(results.get(0).get("count").stringValue()); //$NON-NLS-1$
+	}
+
+	private static void useIndexes(RioStore store, SimpleQueryBuilder builder, String resourceType) {
+		builder.usePropertyIndex(store.getPropertyIndex());
+		builder.useTextIndex(store.getTextIndex(), resourceType);
+	}
+
+	/**
+	 * Called for every member written to the page.
+	 */
+	public void addMember(String uri) {
+		members++;
+		lastUri = uri;
+	}
+
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	String getAfterUri() {
+		return afterUri;
+	}
+
+	void setTotalCount(int totalCount) {
+		this.totalCount = totalCount;
+	}
+
+	/**
+	 * @return the link to the next page, or null if this is the last one
+	 */
+	public String getNextPageUri() {
+		int next = offset + members;
+		if( members < pageSize || next >= totalCount ) return null;
+		StringBuilder sb = new StringBuilder(requestUrl);
+		char sep = '?';
+		if( queryString != null ) {
+			for (String param : queryString.split("&")) { //$NON-NLS-1$
+				if( param.length() == 0 || param.startsWith(PARAM_PAGE + '=') ) continue;
+				sb.append(sep).append(param);
+				sep = '&';
+			}
+		}
+		String token = next + "," + totalCount; //$NON-NLS-1$
+		if( isKeyset() ) token += "," + lastUri; //$NON-NLS-1$
+		try {
+			sb.append(sep).append(PARAM_PAGE).append('=').append(URLEncoder.encode(token, IConstants.TEXT_ENCODING));
+			if( queryString == null || queryString.indexOf(PARAM_PAGING) < 0 ) {
+				sb.append('&').append(PARAM_PAGING).append("=true"); //$NON-NLS-1$
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,610 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.query;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.l10n.Messages;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.eclipse.lyo.rio.store.RioValue;
+import org.eclipse.lyo.rio.store.RioValue.RioValueType;
+
+/**
+ * Writes the response of an OSLC query as it is read from a {@link QueryCursor}.
+ * <p>
+ * The members, with their <code>oslc.select</code> properties, are written
+ * one at a time straight to the output stream in RDF/XML, Turtle or JSON, so
+ * the first bytes go out as soon as the query returns its first row and only
+ * the rows of one member are ever held.  The response info (title,
+ * <code>oslc:totalCount</code> and <code>oslc:nextPage</code>) follows the
+ * members.
+ */
+public class QueryResponseWriter {
+
+	/**
+	 * Content types in the order the server prefers them.
+	 */
+	public static final String[] CONTENT_TYPES = { IConstants.CT_RDF_XML, IConstants.CT_XML,
+		IConstants.CT_TEXT_TURTLE, IConstants.CT_X_TURTLE, IConstants.CT_JSON };
+
+	private final String contentType;
+	private final Map<String, PName> propNames;
+	private final Map<String, List<String>> childVars = new HashMap<String, List<String>>();
+	private final Map<String, String> namespacePrefixes = new LinkedHashMap<String, String>();
+
+	/**
+	 * @param contentType one of {@link #CONTENT_TYPES}, RDF/XML if null
+	 * @param propNames the selected properties, from {@link SimpleQueryBuilder#getPropertyNames()}
+	 */
+	public QueryResponseWriter(String contentType, Map<String, PName> propNames) {
+		this.contentType = contentType == null ? IConstants.CT_RDF_XML : contentType;
+		this.propNames = propNames;
+		initPrefixes();
+		for (Map.Entry<String, PName> entry : propNames.entrySet()) {
+			PName pname = entry.getValue();
+			addNamespacePrefix(pname.namespace, pname.prefix);
+			List<String> vars = childVars.get(pname.parent);
+			if( vars == null ) {
+				vars = new ArrayList<String>();
+				childVars.put(pname.parent, vars);
+			}
+			vars.add(entry.getKey());
+		}
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * Declares a namespace prefix.  A prefix already used for another namespace
+	 * is made unique.
+	 */
+	public void addNamespacePrefix(String namespace, String prefix) {
+		if( namespacePrefixes.containsKey(namespace) ) return;
+		String pre = prefix;
+		int i = 0;
+		while( namespacePrefixes.containsValue(pre) ) {
+			pre = prefix + (i++);
+		}
+		namespacePrefixes.put(namespace, pre);
+	}
+
+	private void initPrefixes() {
+		namespacePrefixes.put(IConstants.RDF_NAMESPACE, IConstants.RDF_PREFIX);
+		namespacePrefixes.put(IConstants.RDFS_NAMESPACE, IConstants.RDFS_PREFIX);
+		namespacePrefixes.put(IConstants.OSLC_NAMESPACE, IConstants.OSLC_PREFIX);
+		namespacePrefixes.put(IConstants.DCTERMS_NAMESPACE, IConstants.DCTERMS_PREFIX);
+	}
+
+	/**
+	 * Writes the page and closes the cursor.
+	 * @param queryUri the full request URI, including the query string
+	 */
+	public void write(QueryCursor results, QueryPage page, String queryUri, OutputStream out) throws RioServerException, IOException {
+		String uriSplit [] = queryUri.split("\\?",2); //$NON-NLS-1$
+		String baseUri = uriSplit[0];
+		boolean isOslcQuery = uriSplit.length > 1 && hasOslcQuery(uriSplit[1]);
+
+		try {
+			Format format;
+			if( IConstants.CT_JSON.equals(contentType) ) {
+				format = new JsonFormat(out);
+			} else if( IConstants.CT_TEXT_TURTLE.equals(contentType) || IConstants.CT_X_TURTLE.equals(contentType) ) {
+				format = new TurtleFormat(out);
+			} else {
+				format = new RdfXmlFormat(out);
+			}
+			format.start(baseUri);
+			Subject member = null;
+			boolean flushed = false;
+			while( results.hasNext() ) {
+				Map<String, RioValue> row = results.next();
+				RioValue uri = row.get(SimpleQueryBuilder.URI_VAR);
+				if( member == null || !member.value.stringValue().equals(uri.stringValue()) ) {
+					// rows of a member are adjacent, so the previous one is complete
+					if( member != null ) {
+						format.member(member);
+						if( !flushed ) {
+							format.flush();
+							flushed = true;
+						}
+					}
+					member = new Subject(uri, null);
+					page.addMember(uri.stringValue());
+				}
+				addRow(member, null, row);
+			}
+			if( member != null ) {
+				format.member(member);
+			}
+			format.end(isOslcQuery ? queryUri : null, page.getTotalCount(), page.getNextPageUri());
+			format.flush();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			results.close();
+		}
+	}
+
+	/**
+	 * @return true if the query string has any <code>oslc.</code> parameters, then
+	 * the response info is about the query rather than the query base
+	 */
+	public static boolean hasOslcQuery(String queryString) {
+		// not perfect - could have "oslc." in some random part of the parameters
+		return queryString != null && queryString.toLowerCase().indexOf("oslc.") >= 0; //$NON-NLS-1$
+	}
+
+	private void addRow(Subject subject, String parentVar, Map<String, RioValue> row) {
+		List<String> vars = childVars.get(parentVar);
+		if( vars == null ) return;
+		for (String var : vars) {
+			RioValue value = row.get(var);
+			if( value == null ) continue;
+			subject.add(var, value);
+			if( childVars.containsKey(var) ) {
+				addRow(subject.nested(var, value), var, row);
+			}
+		}
+	}
+
+	/**
+	 * A member, or the value of a nested selected property, with the selected
+	 * property values collected from its rows.
+	 */
+	private static class Subject {
+		final RioValue value;
+		final String var;
+		final Map<String, List<RioValue>> values = new LinkedHashMap<String, List<RioValue>>();
+		final Map<String, Subject> nested = new HashMap<String, Subject>();
+
+		Subject(RioValue value, String var) {
+			this.value = value;
+			this.var = var;
+		}
+
+		void add(String var, RioValue v) {
+			List<RioValue> list = values.get(var);
+			if( list == null ) {
+				list = new ArrayList<RioValue>();
+				values.put(var, list);
+			}
+			for (RioValue existing : list) {
+				if( existing.getType() == v.getType() && existing.stringValue().equals(v.stringValue()) ) return;
+			}
+			list.add(v);
+		}
+
+		Subject nested(String var, RioValue v) {
+			String key = var + '\n' + v.stringValue();
+			Subject subject = nested.get(key);
+			if( subject == null ) {
+				subject = new Subject(v, var);
+				nested.put(key, subject);
+			}
+			return subject;
+		}
+
+		/**
+		 * @return the description of a property value, or null if nothing was selected for it
+		 */
+		Subject described(String var, RioValue v) {
+			Subject subject = nested.get(var + '\n' + v.stringValue());
+			return subject == null || subject.values.isEmpty() ? null : subject;
+		}
+	}
+
+	private abstract class Format {
+		abstract void start(String baseUri) throws IOException, XMLStreamException;
+		abstract void member(Subject member) throws IOException, XMLStreamException;
+		/**
+		 * @param queryUri the subject of the response info, null for the base URI
+		 */
+		abstract void end(String queryUri, int totalCount, String nextPage) throws IOException, XMLStreamException;
+		abstract void flush() throws IOException, XMLStreamException;
+
+		List<String> vars(String parentVar) {
+			List<String> vars = childVars.get(parentVar);
+			return vars == null ? new ArrayList<String>() : vars;
+		}
+	}
+
+	private class RdfXmlFormat extends Format {
+		private final XMLStreamWriter xml;
+
+		RdfXmlFormat(OutputStream out) throws XMLStreamException {
+			this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, IConstants.TEXT_ENCODING);
+		}
+
+		@Override
+		void start(String baseUri) throws XMLStreamException {
+			xml.writeStartDocument(IConstants.TEXT_ENCODING, "1.0"); //$NON-NLS-1$
+			xml.writeCharacters("\n"); //$NON-NLS-1$
+			xml.writeStartElement(IConstants.RDF_PREFIX, IConstants.RDF_TYPE_TERM_RDF, IConstants.RDF_NAMESPACE);
+			for (Map.Entry<String, String> entry : namespacePrefixes.entrySet()) {
+				xml.writeNamespace(entry.getValue(), entry.getKey());
+			}
+			indent(1);
+			startDescription(baseUri);
+		}
+
+		@Override
+		void member(Subject member) throws XMLStreamException {
+			indent(2);
+			if( member.values.isEmpty() ) {
+				xml.writeEmptyElement(IConstants.RDFS_PREFIX, IConstants.RDFS_TERM_MEMBER, IConstants.RDFS_NAMESPACE);
+				xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_RESOURCE, member.value.stringValue());
+				return;
+			}
+			xml.writeStartElement(IConstants.RDFS_PREFIX, IConstants.RDFS_TERM_MEMBER, IConstants.RDFS_NAMESPACE);
+			writeDescription(member, null, 3);
+			indent(2);
+			xml.writeEndElement();
+		}
+
+		private void writeDescription(Subject subject, String parentVar, int depth) throws XMLStreamException {
+			indent(depth);
+			xml.writeStartElement(IConstants.RDF_PREFIX, IConstants.RDF_TYPE_TERM_DESCRIPTION, IConstants.RDF_NAMESPACE);
+			if( subject.value.isBlankNode() ) {
+				xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_NODEID, nodeId(subject.value));
+			} else {
+				xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_ABOUT, subject.value.stringValue());
+			}
+			for (String var : vars(parentVar)) {
+				List<RioValue> values = subject.values.get(var);
+				if( values == null ) continue;
+				PName pname = propNames.get(var);
+				String prefix = namespacePrefixes.get(pname.namespace);
+				for (RioValue value : values) {
+					indent(depth + 1);
+					Subject described = subject.described(var, value);
+					if( described != null ) {
+						xml.writeStartElement(prefix, pname.local, pname.namespace);
+						writeDescription(described, var, depth + 2);
+						indent(depth + 1);
+						xml.writeEndElement();
+					} else {
+						writeProperty(prefix, pname.local, pname.namespace, value);
+					}
+				}
+			}
+			indent(depth);
+			xml.writeEndElement();
+		}
+
+		private void writeProperty(String prefix, String local, String namespace, RioValue value) throws XMLStreamException {
+			switch( value.getType() ) {
+			case URI:
+				xml.writeEmptyElement(prefix, local, namespace);
+				xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_RESOURCE, value.stringValue());
+				break;
+			case BLANK_NODE:
+				xml.writeEmptyElement(prefix, local, namespace);
+				xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_NODEID, nodeId(value));
+				break;
+			default:
+				xml.writeStartElement(prefix, local, namespace);
+				if( value.getType() != RioValueType.STRING ) {
+					xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_DATATYPE, value.rdfDataType());
+				}
+				xml.writeCharacters(value.stringValue());
+				xml.writeEndElement();
+			}
+		}
+
+		@Override
+		void end(String queryUri, int totalCount, String nextPage) throws XMLStreamException {
+			if( queryUri != null ) {
+				indent(1);
+				xml.writeEndElement();
+				indent(1);
+				startDescription(queryUri);
+			}
+			indent(2);
+			xml.writeStartElement(IConstants.DCTERMS_PREFIX, IConstants.DCTERMS_TERM_TITLE, IConstants.DCTERMS_NAMESPACE);
+			xml.writeCharacters(Messages.getString("ResourceQuery.Title")); //$NON-NLS-1$
+			xml.writeEndElement();
+			indent(2);
+			xml.writeStartElement(IConstants.OSLC_PREFIX, IConstants.OSLC_TERM_TOTALCOUNT, IConstants.OSLC_NAMESPACE);
+			xml.writeCharacters(Integer.toString(totalCount));
+			xml.writeEndElement();
+			indent(2);
+			xml.writeEmptyElement(IConstants.RDF_PREFIX, IConstants.RDF_TERM_TYPE, IConstants.RDF_NAMESPACE);
+			xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_RESOURCE, IConstants.OSLC_RESPONSEINFO);
+			if( nextPage != null ) {
+				indent(2);
+				xml.writeEmptyElement(IConstants.OSLC_PREFIX, IConstants.OSLC_TERM_NEXTPAGE, IConstants.OSLC_NAMESPACE);
+				xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_RESOURCE, nextPage);
+			}
+			indent(1);
+			xml.writeEndElement();
+			indent(0);
+			xml.writeEndElement();
+			xml.writeCharacters("\n"); //$NON-NLS-1$
+			xml.writeEndDocument();
+		}
+
+		private void startDescription(String about) throws XMLStreamException {
+			xml.writeStartElement(IConstants.RDF_PREFIX, IConstants.RDF_TYPE_TERM_DESCRIPTION, IConstants.RDF_NAMESPACE);
+			xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_ABOUT, about);
+		}
+
+		private void indent(int depth) throws XMLStreamException {
+			StringBuilder sb = new StringBuilder("\n"); //$NON-NLS-1$
+			for (int i = 0; i < depth; i++) {
+				sb.append("  "); //$NON-NLS-1$
+			}
+			xml.writeCharacters(sb.toString());
+		}
+
+		@Override
+		void flush() throws XMLStreamException {
+			xml.flush();
+		}
+	}
+
+	@SuppressWarnings("nls")
+	private class TurtleFormat extends Format {
+		private final Writer w;
+		private String baseUri;
+
+		TurtleFormat(OutputStream out) throws IOException {
+			this.w = new BufferedWriter(new OutputStreamWriter(out, IConstants.TEXT_ENCODING));
+		}
+
+		@Override
+		void start(String baseUri) throws IOException {
+			this.baseUri = baseUri;
+			for (Map.Entry<String, String> entry : namespacePrefixes.entrySet()) {
+				w.write("@prefix " + entry.getValue() + ": " + iri(entry.getKey()) + " .\n");
+			}
+			w.write('\n');
+		}
+
+		@Override
+		void member(Subject member) throws IOException {
+			w.write(iri(baseUri) + " rdfs:member " + iri(member.value.stringValue()) + " .\n");
+			writeSubject(member, null);
+		}
+
+		private void writeSubject(Subject subject, String parentVar) throws IOException {
+			if( subject.values.isEmpty() ) return;
+			List<Subject> described = new ArrayList<Subject>();
+			w.write(term(subject.value));
+			String sep = "\n\t";
+			for (String var : vars(parentVar)) {
+				List<RioValue> values = subject.values.get(var);
+				if( values == null ) continue;
+				w.write(sep + predicate(propNames.get(var)) + ' ');
+				sep = " ;\n\t";
+				for (int i = 0; i < values.size(); i++) {
+					if( i > 0 ) w.write(", ");
+					w.write(term(values.get(i)));
+					Subject d = subject.described(var, values.get(i));
+					if( d != null ) described.add(d);
+				}
+			}
+			w.write(" .\n");
+			for (Subject d : described) {
+				writeSubject(d, d.var);
+			}
+		}
+
+		@Override
+		void end(String queryUri, int totalCount, String nextPage) throws IOException {
+			w.write('\n');
+			w.write(iri(queryUri == null ? baseUri : queryUri));
+			w.write("\n\tdcterms:title " + literal(Messages.getString("ResourceQuery.Title")));
+			w.write(" ;\n\toslc:totalCount " + totalCount);
+			w.write(" ;\n\trdf:type " + iri(IConstants.OSLC_RESPONSEINFO));
+			if( nextPage != null ) {
+				w.write(" ;\n\toslc:nextPage " + iri(nextPage));
+			}
+			w.write(" .\n");
+		}
+
+		private String predicate(PName pname) {
+			if( pname.local.matches("[A-Za-z_][A-Za-z0-9_\\-]*") ) {
+				return namespacePrefixes.get(pname.namespace) + ':' + pname.local;
+			}
+			return iri(pname.getUri());
+		}
+
+		private String term(RioValue value) {
+			switch( value.getType() ) {
+			case URI:
+				return iri(value.stringValue());
+			case BLANK_NODE:
+				return "_:" + nodeId(value);
+			case STRING:
+				return literal(value.stringValue());
+			default:
+				return literal(value.stringValue()) + "^^" + iri(value.rdfDataType());
+			}
+		}
+
+		private String iri(String uri) {
+			return '<' + uri.replace("\\", "\\u005C").replace(">", "\\u003E") + '>';
+		}
+
+		private String literal(String s) {
+			return '"' + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r") + '"';
+		}
+
+		@Override
+		void flush() throws IOException {
+			w.flush();
+		}
+	}
+
+	/**
+	 * @return the string as a JSON string literal
+	 */
+	@SuppressWarnings("nls")
+	public static String quote(String str) {
+		StringBuilder sb = new StringBuilder(str.length() + 2);
+		sb.append('"');
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			switch (c) {
+			case '\\': sb.append("\\\\"); break;
+			case '"': sb.append("\\\""); break;
+			case '\b': sb.append("\\b"); break;
+			case '\f': sb.append("\\f"); break;
+			case '\n': sb.append("\\n"); break;
+			case '\r': sb.append("\\r"); break;
+			case '\t': sb.append("\\t"); break;
+			default:
+				if( c < ' ' || (c >= '\u0080' && c < '\u00a0') || (c >= '\u2000' && c < '\u2100') ) {
+					String hex = Integer.toHexString(c);
+					sb.append("\\u0000", 0, 6 - hex.length()).append(hex);
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	@SuppressWarnings("nls")
+	private class JsonFormat extends Format {
+		private final Writer w;
+		private boolean firstMember = true;
+
+		JsonFormat(OutputStream out) throws IOException {
+			this.w = new BufferedWriter(new OutputStreamWriter(out, IConstants.TEXT_ENCODING));
+		}
+
+		@Override
+		void start(String baseUri) throws IOException {
+			w.write("{\n\t\"" + IConstants.RDF_PTERM_ABOUT + "\" : " + quote(baseUri));
+			w.write(",\n\t\"" + IConstants.RDFS_PTERM_MEMBER + "\" : [");
+		}
+
+		@Override
+		void member(Subject member) throws IOException {
+			w.write(firstMember ? "\n\t\t" : ",\n\t\t");
+			firstMember = false;
+			if( member.values.isEmpty() ) {
+				w.write("{ \"" + IConstants.RDF_PTERM_RESOURCE + "\" : " + quote(member.value.stringValue()) + " }");
+			} else {
+				writeObject(member, null, "\t\t");
+			}
+		}
+
+		private void writeObject(Subject subject, String parentVar, String indent) throws IOException {
+			w.write("{\n" + indent + "\t\"");
+			w.write(subject.value.isBlankNode() ? IConstants.RDF_PTERM_NODEID : IConstants.RDF_PTERM_ABOUT);
+			w.write("\" : " + quote(subject.value.isBlankNode() ? nodeId(subject.value) : subject.value.stringValue()));
+			for (String var : vars(parentVar)) {
+				List<RioValue> values = subject.values.get(var);
+				if( values == null ) continue;
+				PName pname = propNames.get(var);
+				w.write(",\n" + indent + "\t\"" + namespacePrefixes.get(pname.namespace) + ':' + pname.local + "\" : ");
+				if( values.size() > 1 ) w.write("[ ");
+				for (int i = 0; i < values.size(); i++) {
+					if( i > 0 ) w.write(", ");
+					Subject described = subject.described(var, values.get(i));
+					if( described != null ) {
+						writeObject(described, var, indent + "\t");
+					} else {
+						writeValue(values.get(i));
+					}
+				}
+				if( values.size() > 1 ) w.write(" ]");
+			}
+			w.write("\n" + indent + "}");
+		}
+
+		private void writeValue(RioValue value) throws IOException {
+			switch( value.getType() ) {
+			case URI:
+				w.write("{ \"" + IConstants.RDF_PTERM_RESOURCE + "\" : " + quote(value.stringValue()) + " }");
+				break;
+			case BLANK_NODE:
+				w.write("{ \"" + IConstants.RDF_PTERM_NODEID + "\" : " + quote(nodeId(value)) + " }");
+				break;
+			case BOOLEAN:
+			case INTEGER:
+				w.write(value.stringValue());
+				break;
+			case DECIMAL:
+				Double d = (Double) value.getValue();
+				w.write(d.isNaN() || d.isInfinite() ? quote(value.stringValue()) : value.stringValue());
+				break;
+			default:
+				w.write(quote(value.stringValue()));
+			}
+		}
+
+		@Override
+		void end(String queryUri, int totalCount, String nextPage) throws IOException {
+			w.write(firstMember ? "]" : "\n\t]");
+			String indent = "\t";
+			if( queryUri != null ) {
+				w.write(",\n\t\"" + IConstants.OSLC_PTERM_RESPONSEINFO + "\" : {");
+				w.write("\n\t\t\"" + IConstants.RDF_PTERM_ABOUT + "\" : " + quote(queryUri) + ',');
+				indent = "\t\t";
+			} else {
+				w.write(',');
+			}
+			w.write("\n" + indent + "\"" + IConstants.DCTERMS_PTERM_TITLE + "\" : " + quote(Messages.getString("ResourceQuery.Title")));
+			w.write(",\n" + indent + "\"" + IConstants.OSLC_PTERM_TOTALCOUNT + "\" : " + totalCount);
+			w.write(",\n" + indent + "\"" + IConstants.RDF_PTERM_TYPE + "\" : [ { \"" + IConstants.RDF_PTERM_RESOURCE + "\" : " + quote(IConstants.OSLC_RESPONSEINFO) + " } ]");
+			if( nextPage != null ) {
+				w.write(",\n" + indent + "\"" + IConstants.OSLC_PTERM_NEXTPAGE + "\" : { \"" + IConstants.RDF_PTERM_RESOURCE + "\" : " + quote(nextPage) + " }");
+			}
+			if( queryUri != null ) {
+				w.write("\n\t}");
+			}
+
+			w.write(",\n\t\"prefixes\" : {");
+			boolean first = true;
+			for (Map.Entry<String, String> entry : namespacePrefixes.entrySet()) {
+				w.write(first ? "\n\t\t" : ",\n\t\t");
+				first = false;
+				w.write(quote(entry.getValue()) + " : " + quote(entry.getKey()));
+			}
+			w.write("\n\t}\n}\n");
+		}
+
+		@Override
+		void flush() throws IOException {
+			w.flush();
+		}
+	}
+
+	private static String nodeId(RioValue value) {
+		return 'b' + value.stringValue().replaceAll("[^A-Za-z0-9]", "_"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+}
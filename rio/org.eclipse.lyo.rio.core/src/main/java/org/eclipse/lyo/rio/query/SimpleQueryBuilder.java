@@ -3,10 +3,10 @@
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
- * and Eclipse Distribution License v. 1.0 which accompanies this distribution. 
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
  *
  * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
- * and the Eclipse Distribution License is available at 
+ * and the Eclipse Distribution License is available at
  * http://www.eclipse.org/org/documents/edl-v10.php.
  *
  * Contributors:
@@ -15,40 +15,260 @@
  *******************************************************************************/
 package org.eclipse.lyo.rio.query;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CommonTokenStream;
+import org.antlr.runtime.RecognitionException;
+import org.antlr.runtime.tree.CommonTree;
+import org.antlr.runtime.tree.Tree;
 import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.query.OslcWhereHelper.OslcWhereParseException;
+import org.eclipse.lyo.rio.store.PropertyIndex;
+import org.eclipse.lyo.rio.store.TextIndex;
 
 
-
+/**
+ * Compiles the OSLC query parameters of a request into a single SPARQL query.
+ * <p>
+ * <code>oslc.where</code> and <code>oslc.searchTerms</code> restrict the
+ * member resources, <code>oslc.orderBy</code> sorts them and
+ * <code>oslc.select</code> adds the requested property values to each row.
+ * Every row has the member in <code>?uri</code>; selected values are in the
+ * variables named by {@link #getPropertyNames()}.  Multi-valued selected
+ * properties give one row per value, and rows of the same member are
+ * adjacent.
+ * <p>
+ * With a {@link TextIndex} the search terms are ranked, members are ordered
+ * by their <code>oslc:score</code> first and it is selected in {@link #SCORE_VAR},
+ * unless more resources match than the index ranks.
+ */
 public class SimpleQueryBuilder {
-	
+
+	public static final String URI_VAR = "uri"; //$NON-NLS-1$
+	public static final String SCORE_VAR = "oslc_score"; //$NON-NLS-1$
+
 	private String where = null;
-	private Map<String,PName> propNames;
-	private Map<String,String> selects = new HashMap<String,String>();
+	private OslcWhereExpression whereExpression = null;
+	private String whereVar = null;
+	private Map<String,PName> propNames = new LinkedHashMap<String,PName>();
+	private boolean selectAll = false;
 	private List<String> searchTerms = new ArrayList<String>();
+	private boolean textIndexChecked = false;
+	private Map<String, Double> searchScores = null;
+	// false once the members' results may depend on other resources
+	private boolean membersOnly = true;
+	private List<SortKey> sortKeys = new ArrayList<SortKey>();
+	private int pageOffset = 0;
+	private int pageLimit = 0;
+	private String afterUri = null;
+
+	private static class SortKey {
+		// null when the value is bound by the members pattern
+		String pattern;
+		String var;
+		// the sort value in the members query
+		String alias;
+		boolean ascending;
+	}
+
+	/**
+	 * Parses <code>oslc.select</code>, e.g. <code>dcterms:title,dcterms:creator{foaf:name}</code>.
+	 * Prefixes must already be known.
+	 */
+	public void parseSelect(String selectParameter) throws OslcWhereParseException {
+		if( selectParameter == null || selectParameter.trim().length() == 0 ) return; // nothing to do
+		OslcSelectParser parser = new OslcSelectParser(new CommonTokenStream(new OslcSelectLexer(new ANTLRStringStream(selectParameter))));
+		CommonTree tree;
+		try {
+			tree = parser.oslc_select().getTree();
+		} catch (RecognitionException e) {
+			throw new OslcWhereParseException(e.getMessage());
+		}
+		if( parser.getErrors().size() > 0 ) {
+			StringBuilder sb = new StringBuilder();
+			for( String errorMsg : parser.getErrors() ) {
+				sb.append( errorMsg + '\n' );
+			}
+			throw new OslcWhereParseException( selectParameter + '\n' + sb.toString());
+		}
+		addSelected(tree, null);
+	}
+
+	private void addSelected(Tree tree, String parentVar) throws OslcWhereParseException {
+		switch( tree.getType() ) {
+		case OslcSelectParser.WILDCARD :
+			if( parentVar == null ) selectAll = true;
+			break;
+		case OslcSelectParser.PREFIXED_NAME :
+			addProperty(tree.getChild(0).getText(), parentVar);
+			break;
+		case OslcSelectParser.NESTED_PROPERTIES :
+			String var = addProperty(tree.getChild(0).getChild(0).getText(), parentVar);
+			addSelected(tree.getChild(1), var);
+			break;
+		default :
+			// the properties list, or the nil root of a single property
+			for (int i = 0; i < tree.getChildCount(); i++) {
+				addSelected(tree.getChild(i), parentVar);
+			}
+		}
+	}
+
+	private String addProperty(String prefixedName, String parentVar) throws OslcWhereParseException {
+		PName pname = toPName(prefixedName);
+		pname.parent = parentVar;
+		if( parentVar != null ) membersOnly = false;
+		String var = (parentVar == null ? "" : parentVar + '_') + pname.prefix + '_' + pname.local; //$NON-NLS-1$
+		var = var.replaceAll("[^A-Za-z0-9_]", "_"); //$NON-NLS-1$ //$NON-NLS-2$
+		if( !propNames.containsKey(var) ) {
+			propNames.put(var, pname);
+		}
+		return var;
+	}
+
+	PName toPName(String prefixedName) throws OslcWhereParseException {
+		int pos = prefixedName.indexOf(':');
+		if( pos < 0 ) throw new OslcWhereParseException("Not a prefixed name: " + prefixedName); //$NON-NLS-1$
+		PName pname = new PName();
+		pname.prefix = prefixedName.substring(0, pos);
+		pname.local = prefixedName.substring(pos + 1);
+		pname.namespace = getNamespace(pname.prefix);
+		if( pname.namespace == null ) throw new OslcWhereParseException("Unknown prefix: " + pname.prefix); //$NON-NLS-1$
+		return pname;
+	}
+
+	private String getNamespace(String prefix) {
+		for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+			if( entry.getValue().equals(prefix) ) return entry.getKey();
+		}
+		if( IConstants.RDF_PREFIX.equals(prefix) ) return IConstants.RDF_NAMESPACE;
+		if( IConstants.DCTERMS_PREFIX.equals(prefix) ) return IConstants.DCTERMS_NAMESPACE;
+		return null;
+	}
+
+	/**
+	 * @return true if <code>oslc.select=*</code> asked for every property
+	 */
+	public boolean isSelectAll() {
+		return selectAll;
+	}
+
+	/**
+	 * Parses <code>oslc.orderBy</code>, e.g. <code>-dcterms:modified,+dcterms:creator{+foaf:name}</code>.
+	 * Prefixes must already be known.
+	 */
+	public void parseOrderBy(String orderByParameter) throws OslcWhereParseException {
+		if( orderByParameter == null || orderByParameter.trim().length() == 0 ) return; // nothing to do
+		int end = parseSortTerms(orderByParameter.trim(), 0, '?' + URI_VAR, ""); //$NON-NLS-1$
+		if( end != orderByParameter.trim().length() ) {
+			throw new OslcWhereParseException("Unexpected input in oslc.orderBy at " + end + ": " + orderByParameter); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * @return the position after the sort terms
+	 */
+	private int parseSortTerms(String exp, int pos, String subject, String path) throws OslcWhereParseException {
+		while( true ) {
+			pos = skipSpaces(exp, pos);
+			if( pos >= exp.length() ) throw new OslcWhereParseException("Missing sort term in oslc.orderBy: " + exp); //$NON-NLS-1$
+			char sign = exp.charAt(pos);
+			if( sign == '+' || sign == '-' ) pos++;
+			int start = pos;
+			while( pos < exp.length() && ",{}".indexOf(exp.charAt(pos)) < 0 ) pos++; //$NON-NLS-1$
+			String name = exp.substring(start, pos).trim();
+			PName pname = toPName(name);
+			String property = pname.prefix + ':' + pname.local;
+			if( pos < exp.length() && exp.charAt(pos) == '{' ) {
+				// scoped sort terms, sort on a property of the property's value
+				membersOnly = false;
+				String node = "?_os" + sortKeys.size(); //$NON-NLS-1$
+				pos = parseSortTerms(exp, pos + 1, node, path + subject + ' ' + property + ' ' + node + " .\n"); //$NON-NLS-1$
+				pos = skipSpaces(exp, pos);
+				if( pos >= exp.length() || exp.charAt(pos) != '}' ) throw new OslcWhereParseException("Missing } in oslc.orderBy: " + exp); //$NON-NLS-1$
+				pos++;
+			} else {
+				if( sign != '+' && sign != '-' ) throw new OslcWhereParseException("Sort term needs + or -: " + name); //$NON-NLS-1$
+				SortKey key = new SortKey();
+				key.var = "?_o" + sortKeys.size(); //$NON-NLS-1$
+				key.alias = "_sort" + sortKeys.size(); //$NON-NLS-1$
+				key.pattern = path + subject + ' ' + property + ' ' + key.var + " ."; //$NON-NLS-1$
+				key.ascending = sign == '+';
+				sortKeys.add(key);
+			}
+			pos = skipSpaces(exp, pos);
+			if( pos < exp.length() && exp.charAt(pos) == ',' ) {
+				pos++;
+			} else {
+				return pos;
+			}
+		}
+	}
+
+	public boolean hasOrderBy() {
+		return !sortKeys.isEmpty();
+	}
+
+	/**
+	 * Restricts the query to one page of members, in <code>oslc.orderBy</code>
+	 * order and then by URI.
+	 * @param limit members per page, 0 for all
+	 * @param afterUri only members with a greater URI, may be null
+	 */
+	public void setPage(int offset, int limit, String afterUri) {
+		this.pageOffset = offset;
+		this.pageLimit = limit;
+		this.afterUri = afterUri;
+	}
+
+	private static int skipSpaces(String exp, int pos) {
+		while( pos < exp.length() && Character.isWhitespace(exp.charAt(pos)) ) pos++;
+		return pos;
+	}
+
+	/**
+	 * Parses <code>oslc.searchTerms</code>, a comma separated list of double quoted strings.
+	 */
+	public void parseSearchTerms(String searchTermsParameter) throws OslcWhereParseException {
+		if( searchTermsParameter == null ) return; // nothing to do
+		String exp = searchTermsParameter.trim();
+		int pos = 0;
+		while( pos < exp.length() ) {
+			if( exp.charAt(pos) != '"' ) throw new OslcWhereParseException("Search terms must be quoted: " + exp); //$NON-NLS-1$
+			StringBuilder term = new StringBuilder();
+			pos++;
+			while( pos < exp.length() && exp.charAt(pos) != '"' ) {
+				char c = exp.charAt(pos++);
+				if( c == '\\' && pos < exp.length() ) c = exp.charAt(pos++);
+				term.append(c);
+			}
+			if( pos >= exp.length() ) throw new OslcWhereParseException("Unterminated search term: " + exp); //$NON-NLS-1$
+			pos = skipSpaces(exp, pos + 1);
+			if( pos < exp.length() ) {
+				if( exp.charAt(pos) != ',' ) throw new OslcWhereParseException("Search terms must be comma separated: " + exp); //$NON-NLS-1$
+				pos = skipSpaces(exp, pos + 1);
+			}
+			String t = term.toString().trim();
+			if( t.length() > 0 ) searchTerms.add(t);
+		}
+	}
+
+	public List<String> getSearchTerms() {
+		return searchTerms;
+	}
 
-	public void parseSelect(String selectParameter) {
-		
-	}
-	
-	public void parseSearchTerms(String searchTermsParameter) {
-		//?uri dcterms:title ?title .
-//		  FILTER( regex(?title,"not","i") || regex(?title,"mal","i") ).
-		
-		
-//		StringTokenizer st = new StringTokenizer(searchTermsParameter,",");
-//		
-//		searchTerms.add(term);
-		
-	}
-	
 	public void parsePrefix(String prefixParameter) {
 		if( prefixParameter == null ) return; // nothing to do
 		StringTokenizer st = new StringTokenizer(prefixParameter,","); //$NON-NLS-1$
@@ -59,69 +279,334 @@ public class SimpleQueryBuilder {
 			String namespace = token.substring(pos+1);
 			namespace = stripAngleBrackets(namespace);
 			if( prefix != null && prefix.length()> 0 && namespace != null && namespace.length()>0 ) {
-				prefixes.put(namespace, prefix);	
+				prefixes.put(namespace, prefix);
 			}
 		}
-		
+
 	}
-	
+
 	private String stripAngleBrackets(String exp){
 		if( exp.startsWith("<") ) { //$NON-NLS-1$
 			exp = exp.substring(1);
-		} 
+		}
 		if( exp.endsWith(">")) { //$NON-NLS-1$
 			exp = exp.substring(0,exp.length()-1);
 		}
 		return exp;
 	}
-	
+
 	public void parseWhere(String uriVar, String whereExp) throws OslcWhereParseException {
 		if( whereExp == null ) return; // nothing to do
-		OslcWhereHelper whereConverter = new OslcWhereHelper();
-		this.where = whereConverter.convertToWhere(whereExp, uriVar);
+		this.whereExpression = OslcWhereCompiler.getCompiler().parse(whereExp);
+		this.whereVar = uriVar;
+		this.where = OslcWhereCompiler.toSparql(whereExpression, uriVar);
+		for (OslcWhereExpression.Term term : whereExpression.getTerms()) {
+			if( term instanceof OslcWhereExpression.ScopedTerm ) membersOnly = false;
+		}
 	}
-	
+
+	/**
+	 * Answers the <code>oslc.where</code> terms on indexed properties from the
+	 * index, see {@link OslcWhereCompiler#toSparql(OslcWhereExpression, String, PropertyIndex, Map)}.
+	 * Does nothing if the where clause was not parsed by {@link #parseWhere(String, String)}.
+	 * @param index the store's property index, may be null
+	 */
+	public void usePropertyIndex(PropertyIndex index) {
+		if( whereExpression == null || index == null ) return;
+		this.where = OslcWhereCompiler.toSparql(whereExpression, whereVar, index, getNamespaces());
+	}
+
+	/**
+	 * @return the query's namespaces, keyed by prefix
+	 */
+	Map<String, String> getNamespaces() {
+		initPrefixes();
+		Map<String, String> namespaces = new HashMap<String, String>();
+		for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+			namespaces.put(entry.getValue(), entry.getKey());
+		}
+		return namespaces;
+	}
+
+	/**
+	 * Answers <code>oslc.searchTerms</code> from the index, ranking the
+	 * members by their score.  Does nothing without search terms.  The ranked
+	 * matches are written into the query, so when more than
+	 * {@link TextIndex#MAX_RESULTS} resources match the index is not used: the
+	 * terms are matched by the unranked CONTAINS filter, and the count and
+	 * later pages still see every member.
+	 * @param index the store's text index, may be null
+	 * @param resourceType the type of the members, may be null
+	 */
+	public void useTextIndex(TextIndex index, String resourceType) {
+		if( searchTerms.isEmpty() || index == null || textIndexChecked ) return;
+		textIndexChecked = true;
+		// one more than the cap, to tell whether the matches were cut short
+		Map<String, Double> scores = index.search(searchTerms, resourceType, TextIndex.MAX_RESULTS + 1);
+		if( scores.size() > TextIndex.MAX_RESULTS ) return;
+		searchScores = scores;
+		SortKey key = new SortKey();
+		key.var = "?_score"; //$NON-NLS-1$
+		key.alias = SCORE_VAR;
+		key.ascending = false;
+		sortKeys.add(0, key);
+		PName pname = new PName();
+		pname.namespace = IConstants.OSLC_NAMESPACE;
+		if( !prefixes.containsKey(pname.namespace) ) {
+			prefixes.put(pname.namespace, IConstants.OSLC_PREFIX);
+		}
+		pname.prefix = prefixes.get(pname.namespace);
+		pname.local = IConstants.OSLC_TERM_SCORE;
+		propNames.put(SCORE_VAR, pname);
+	}
+
 	public void setWhere(String where) {
 		this.where = where;
+		this.whereExpression = null;
+		membersOnly = false;
+	}
+
+	/**
+	 * @return the parsed <code>oslc.where</code>, null if there is none or
+	 * the where clause was set or extended as SPARQL
+	 */
+	OslcWhereExpression getWhereExpression() {
+		return whereExpression;
 	}
-	
+
 	public String getWhere(){
 		return where;
 	}
-	
+
 	public void appendWhere( String whereExp ) {
+		whereExpression = null;
+		membersOnly = false;
 		if( this.where == null ) {
 			where = whereExp;
 		} else {
 			where += '\n' + whereExp;
 		}
 	}
-	
+
+	/**
+	 * @return true if only the members' own properties are queried, so the
+	 * results can only change when a resource of the members' type does
+	 */
+	public boolean isMembersOnly() {
+		return membersOnly;
+	}
+
+	/**
+	 * @return the query in a normal form, the same for queries that only
+	 * differ in parameter order, spacing or redundant where terms; paging is
+	 * not included
+	 */
+	public String getCacheKey(String resourceType) {
+		initPrefixes();
+		StringBuilder sb = new StringBuilder();
+		sb.append(resourceType).append('\n');
+		sb.append(new TreeMap<String, String>(prefixes)).append('\n');
+		if( whereExpression != null ) {
+			// the terms are and-ed, their order does not matter
+			Set<String> terms = new TreeSet<String>();
+			for (OslcWhereExpression.Term term : whereExpression.getTerms()) {
+				terms.add(term.toString());
+			}
+			sb.append(terms).append('\n');
+		} else {
+			sb.append(where).append('\n');
+		}
+		sb.append(new TreeSet<String>(propNames.keySet())).append(selectAll ? " *" : "").append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
+		for (SortKey key : sortKeys) {
+			sb.append(key.ascending ? '+' : '-').append(key.pattern).append('\n');
+		}
+		sb.append(new TreeSet<String>(searchTerms));
+		return sb.toString();
+	}
+
+	/**
+	 * @return the selected properties, keyed by the query variable holding their values
+	 */
 	public Map<String,PName> getPropertyNames(){
 		return propNames;
 	}
-	
+
 	public String getQueryString(String resourceType) {
 		StringBuilder sb = new StringBuilder();
-		initPrefixes(); 
+		appendPrefixes(sb);
+
+		String members = getMembersQuery(resourceType);
+		if( propNames.isEmpty() ) {
+			sb.append(members);
+			if( !sortKeys.isEmpty() && pageLimit <= 0 ) {
+				sb.append('\n').append(getOrderBy());
+			}
+			return sb.toString();
+		}
+
+		// members are picked (and grouped for sorting) in a sub-select, so
+		// the selected values can't multiply them
+		sb.append("SELECT ?" + URI_VAR); //$NON-NLS-1$
+		for (SortKey key : sortKeys) {
+			// the score is also a selected property
+			if( !propNames.containsKey(key.alias) ) sb.append(" ?").append(key.alias); //$NON-NLS-1$
+		}
+		for (String var : propNames.keySet()) {
+			sb.append(" ?").append(var); //$NON-NLS-1$
+		}
+		sb.append("\nWHERE {\n{ "); //$NON-NLS-1$
+		sb.append(members);
+		sb.append(" }\n"); //$NON-NLS-1$
+		appendSelected(sb, null, '?' + URI_VAR);
+		sb.append("}\n"); //$NON-NLS-1$
+		sb.append(getOrderBy());
+		return sb.toString();
+	}
+
+	/**
+	 * @return a query with a single <code>?count</code> of the members, ignoring
+	 * paging, ordering and selected properties
+	 */
+	public String getCountQueryString(String resourceType) {
+		StringBuilder sb = new StringBuilder();
+		appendPrefixes(sb);
+		sb.append("SELECT (COUNT(DISTINCT ?" + URI_VAR + ") AS ?count)\nWHERE {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendMembersPattern(sb, resourceType);
+		sb.append("}"); //$NON-NLS-1$
+		return sb.toString();
+	}
+
+	/**
+	 * @return a query with a single <code>?count</code> of the members of any
+	 * of the types, each member counted once
+	 */
+	public String getCountQueryString(Collection<String> resourceTypes) {
+		StringBuilder sb = new StringBuilder();
+		appendPrefixes(sb);
+		sb.append("SELECT (COUNT(DISTINCT ?" + URI_VAR + ") AS ?count)\nWHERE {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		String union = ""; //$NON-NLS-1$
+		for (String resourceType : resourceTypes) {
+			sb.append(union).append("{ ?" + URI_VAR + " <" + IConstants.RDF_NAMESPACE + "type> <" + resourceType + "> }\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			union = "UNION "; //$NON-NLS-1$
+		}
+		appendMembersPattern(sb, null);
+		sb.append("}"); //$NON-NLS-1$
+		return sb.toString();
+	}
+
+	void appendPrefixes(StringBuilder sb) {
+		initPrefixes();
 		Set<String> prefixNs = prefixes.keySet();
 		for (String ns : prefixNs) {
 			sb.append("PREFIX " + prefixes.get(ns) + ": <" + ns + ">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		}
-		sb.append("SELECT DISTINCT ?resUri ?uri ?title\n"  ); //$NON-NLS-1$
+	}
+
+	private void appendSelected(StringBuilder sb, String parentVar, String subject) {
+		for (Map.Entry<String, PName> entry : propNames.entrySet()) {
+			PName pname = entry.getValue();
+			if( parentVar == null ? pname.parent != null : !parentVar.equals(pname.parent) ) continue;
+			String var = entry.getKey();
+			if( searchScores != null && SCORE_VAR.equals(var) ) continue;
+			sb.append("OPTIONAL { ").append(subject).append(" <").append(pname.getUri()).append("> ?").append(var).append(" .\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			appendSelected(sb, var, '?' + var);
+			sb.append("}\n"); //$NON-NLS-1$
+		}
+	}
+
+	private String getMembersQuery(String resourceType) {
+		StringBuilder sb = new StringBuilder();
+		if( sortKeys.isEmpty() ) {
+			sb.append("SELECT DISTINCT ?" + URI_VAR + "\n"  ); //$NON-NLS-1$ //$NON-NLS-2$
+		} else {
+			// multi-valued sort properties sort by their lowest (or highest) value
+			sb.append("SELECT ?" + URI_VAR); //$NON-NLS-1$
+			for (SortKey key : sortKeys) {
+				sb.append(key.ascending ? " (MIN(" : " (MAX(").append(key.var).append(") AS ?").append(key.alias).append(')'); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			sb.append('\n');
+		}
 		sb.append("WHERE {\n" ); //$NON-NLS-1$
-		if( where != null ) sb.append(where + '\n');
-		if( resourceType != null ) {
-			sb.append("?uri rdf:type <" + resourceType + "> .\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		appendMembersPattern(sb, resourceType);
+		if( afterUri != null ) {
+			sb.append("FILTER(STR(?" + URI_VAR + ") > ").append(toSparqlString(afterUri)).append(")\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (SortKey key : sortKeys) {
+			if( key.pattern != null ) sb.append("OPTIONAL { ").append(key.pattern).append(" }\n"); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		sb.append("}"); //$NON-NLS-1$
+		if( !sortKeys.isEmpty() ) {
+			sb.append("\nGROUP BY ?" + URI_VAR); //$NON-NLS-1$
+		}
+		if( pageLimit > 0 ) {
+			sb.append('\n').append(getOrderBy());
+			sb.append("\nLIMIT ").append(pageLimit); //$NON-NLS-1$
+			if( pageOffset > 0 ) {
+				sb.append("\nOFFSET ").append(pageOffset); //$NON-NLS-1$
+			}
+		}
+		return sb.toString();
+	}
+
+	void appendMembersPattern(StringBuilder sb, String resourceType) {
+		if( resourceType != null ) {
+			sb.append("?" + URI_VAR + " <" + IConstants.RDF_NAMESPACE + "type> <" + resourceType + "> .\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		if( where != null ) sb.append(where + '\n');
+		appendSearchTerms(sb);
+	}
+
+	private void appendSearchTerms(StringBuilder sb) {
+		if( searchTerms.isEmpty() ) return;
+		if( searchScores != null ) {
+			appendSearchScores(sb);
+			return;
+		}
+		sb.append("OPTIONAL { ?" + URI_VAR + " <" + IConstants.DCTERMS_NAMESPACE + "title> ?_st }\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		sb.append("OPTIONAL { ?" + URI_VAR + " <" + IConstants.DCTERMS_NAMESPACE + "description> ?_sd }\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		sb.append("FILTER("); //$NON-NLS-1$
+		for (int i = 0; i < searchTerms.size(); i++) {
+			String term = toSparqlString(searchTerms.get(i).toLowerCase());
+			if( i > 0 ) sb.append(" || "); //$NON-NLS-1$
+			sb.append("CONTAINS(LCASE(STR(?_st)), ").append(term).append(") || CONTAINS(LCASE(STR(?_sd)), ").append(term).append(')'); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		sb.append(")\n"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Binds each ranked member and its score.
+	 */
+	private void appendSearchScores(StringBuilder sb) {
+		if( searchScores.isEmpty() ) {
+			sb.append("FILTER(false)\n"); //$NON-NLS-1$
+			return;
+		}
+		boolean first = true;
+		for (Map.Entry<String, Double> entry : searchScores.entrySet()) {
+			if( !first ) sb.append("UNION "); //$NON-NLS-1$
+			first = false;
+			String score = new BigDecimal(entry.getValue().doubleValue()).setScale(6, RoundingMode.HALF_UP).toPlainString();
+			sb.append("{ BIND(<").append(entry.getKey()).append("> AS ?" + URI_VAR + ") BIND(").append(score).append(" AS ?_score) }\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+	}
+
+	private static String toSparqlString(String s) {
+		return '"' + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r") + '"'; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+	}
+
+	private String getOrderBy() {
+		StringBuilder sb = new StringBuilder("ORDER BY"); //$NON-NLS-1$
+		for (SortKey key : sortKeys) {
+			sb.append(key.ascending ? " ASC(?" : " DESC(?").append(key.alias).append(')'); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		sb.append(" ?" + URI_VAR); //$NON-NLS-1$
 		return sb.toString();
 	}
-	
+
 	public void addPrefix(String namespace, String prefix ){
 		prefixes.put(namespace, prefix);
 	}
-	
+
 	private Map<String,String> prefixes = new HashMap<String,String>();
 	private void initPrefixes() {
 		prefixes.put(IConstants.RDF_NAMESPACE, IConstants.RDF_PREFIX);
@@ -24,7 +24,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
@@ -36,9 +38,20 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.l10n.Messages;
+import org.eclipse.lyo.rio.query.AggregateQuery;
+import org.eclipse.lyo.rio.query.PName;
+import org.eclipse.lyo.rio.query.QueryPage;
+import org.eclipse.lyo.rio.query.QueryResponseWriter;
+import org.eclipse.lyo.rio.store.JsonFormatter2;
 import org.eclipse.lyo.rio.store.OslcResource;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry.ResourceMetadata;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.RioResource;
 import org.eclipse.lyo.rio.store.RioServerException;
 import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.RioValue;
+import org.eclipse.lyo.rio.store.TextIndex;
+import org.eclipse.lyo.rio.store.XmlFormatter;
 import org.eclipse.lyo.rio.util.StringUtils;
 import org.openrdf.rio.RDFFormat;
 
@@ -259,6 +272,153 @@ public abstract class RioBaseService extends HttpServlet {
 		return null;
 	}
 	
+	/**
+	 * Opens the page and streams it like {@link #writeQueryResponse(QueryCursor, QueryPage, Map, HttpServletRequest, HttpServletResponse)},
+	 * with an ETag.  Answers 304 without querying when the client's
+	 * If-None-Match still holds for the page.
+	 */
+	protected void writeQueryResponse(QueryPage page, RioStore store, Map<String, PName> propNames, HttpServletRequest req, HttpServletResponse resp) throws RioServerException, IOException {
+		String contentType = acceptContentType(QueryResponseWriter.CONTENT_TYPES, req);
+		String eTag = page.getETag(store, contentType);
+		resp.setHeader(IConstants.HDR_ETAG, eTag);
+		if( matchesETag(req.getHeader(IConstants.HDR_IF_NONE_MATCH), eTag) ) {
+			resp.setStatus(IConstants.SC_NOT_MODIFIED);
+			return;
+		}
+		writeQueryResponse(page.open(store), page, propNames, req, resp);
+	}
+
+	/**
+	 * Answers an aggregate query (see {@link AggregateQuery}) as JSON, or 304
+	 * when the client's If-None-Match still holds.
+	 */
+	protected void writeAggregateResponse(AggregateQuery query, RioStore store, HttpServletRequest req, HttpServletResponse resp) throws RioServerException, IOException {
+		String eTag = query.getETag(store);
+		resp.setHeader(IConstants.HDR_ETAG, eTag);
+		if( matchesETag(req.getHeader(IConstants.HDR_IF_NONE_MATCH), eTag) ) {
+			resp.setStatus(IConstants.SC_NOT_MODIFIED);
+			return;
+		}
+		List<AggregateQuery.Group> groups = query.execute(store);
+		String queryUri = (req.getQueryString() == null ) ? req.getRequestURL().toString() : req.getRequestURL().toString() + '?' + req.getQueryString();
+		resp.setContentType(IConstants.CT_JSON);
+		resp.setCharacterEncoding(IConstants.TEXT_ENCODING);
+		resp.setStatus(IConstants.SC_OK);
+		query.write(groups, queryUri, resp.getOutputStream());
+	}
+
+	/**
+	 * Streams a resource as RDF/XML, UTF-8 encoded.  The document is not
+	 * built up front: one that fits the container's response buffer goes out
+	 * with a Content-Length, a larger one is sent chunked.
+	 * @param rdfType the type the resource is written as, or null
+	 */
+	protected void writeRdfXml(RioResource resource, String rdfType, String contentType, HttpServletResponse resp) throws RioServerException, IOException {
+		resp.setContentType(contentType);
+		resp.setCharacterEncoding(IConstants.TEXT_ENCODING);
+		XmlFormatter.formatResource(resource, rdfType, resp.getOutputStream());
+	}
+
+	/**
+	 * Streams a resource as RDF/XML, written as the metadata's type with its
+	 * namespace prefixes.
+	 */
+	protected void writeRdfXml(RioResource resource, ResourceMetadata metadata, String contentType, HttpServletResponse resp) throws RioServerException, IOException {
+		resp.setContentType(contentType);
+		resp.setCharacterEncoding(IConstants.TEXT_ENCODING);
+		new XmlFormatter(metadata).format(resource, metadata.getType(), resp.getOutputStream());
+	}
+
+	/**
+	 * Streams a resource as JSON, UTF-8 encoded.
+	 */
+	protected void writeJson(JsonFormatter2 formatter, RioResource resource, HttpServletResponse resp) throws RioServerException, IOException {
+		resp.setContentType(IConstants.CT_JSON);
+		resp.setCharacterEncoding(IConstants.TEXT_ENCODING);
+		formatter.format(resource, resp.getOutputStream());
+	}
+
+	/**
+	 * Weak comparison of an If-None-Match header with an entity tag.
+	 */
+	private static boolean matchesETag(String ifNoneMatch, String eTag) {
+		if( ifNoneMatch == null ) return false;
+		String opaque = eTag.startsWith("W/") ? eTag.substring(2) : eTag; //$NON-NLS-1$
+		for (String tag : ifNoneMatch.split(",")) { //$NON-NLS-1$
+			tag = tag.trim();
+			if( tag.equals("*") ) return true; //$NON-NLS-1$
+			if( tag.startsWith("W/") ) tag = tag.substring(2); //$NON-NLS-1$
+			if( tag.equals(opaque) ) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Streams a page of OSLC query results in the best format the client accepts,
+	 * RDF/XML if it states no preference.  Closes the cursor.
+	 */
+	protected void writeQueryResponse(QueryCursor results, QueryPage page, Map<String, PName> propNames, HttpServletRequest req, HttpServletResponse resp) throws RioServerException, IOException {
+		String contentType = acceptContentType(QueryResponseWriter.CONTENT_TYPES, req);
+		QueryResponseWriter writer = new QueryResponseWriter(contentType, propNames);
+		//don't add ?null if the the query is for queryBase
+		String queryUri = (req.getQueryString() == null ) ? req.getRequestURL().toString() : req.getRequestURL().toString() + '?' + req.getQueryString();
+		try {
+			resp.setContentType(writer.getContentType());
+			resp.setCharacterEncoding(IConstants.TEXT_ENCODING);
+			resp.setStatus(IConstants.SC_OK);
+			writer.write(results, page, queryUri, resp.getOutputStream());
+		} finally {
+			results.close();
+		}
+	}
+
+	/**
+	 * Finds the resources of a type for a selection dialog, best matches
+	 * first.  A number finds the resource with that identifier, anything else
+	 * is matched against the titles, from the store's text index when it has one.
+	 * @return the titles of the matches, keyed by resource URI
+	 */
+	protected Map<String, String> findByTitle(String terms, String resourceType, int maxResults) throws RioServerException {
+		RioStore store = RioStore.getStore();
+		int id = -1;
+		try{
+			id = Integer.parseInt(terms);
+		} catch(NumberFormatException nfe) {
+			id = -1;
+		}
+		TextIndex index = store.getTextIndex();
+		if( id <= 0 && index != null ) {
+			return index.suggest(terms, resourceType, maxResults);
+		}
+		Map<String, String> titles = new LinkedHashMap<String, String>();
+		List<Map<String, RioValue>> results = store.query(IConstants.SPARQL, buildTitleQuery(terms, id, resourceType), maxResults);
+		for (Map<String, RioValue> result : results) {
+			titles.put(result.get("about").stringValue(), result.get("title").stringValue()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return titles;
+	}
+
+	@SuppressWarnings("nls")
+	private static String buildTitleQuery(String terms, int id, String resourceType) {
+		terms = StringUtils.stringEscape(terms);
+		StringBuilder query = new StringBuilder();
+		query.append(RioStore.sparqlDefaultPrefixes());
+		query.append("SELECT ?graph ?about ?title\n");
+		query.append("WHERE {\n");
+		query.append("GRAPH ?graph {\n");
+		query.append("  ?about rdf:type <" + resourceType + ">;\n");
+		if( id >0 ) {
+			query.append("       dcterms:identifier \"" + id + "\";\n");
+			query.append("       dcterms:title ?title.\n");
+		} else {
+			query.append("       dcterms:title ?title.\n");
+			query.append("   FILTER( regex(?title,\"" + terms + "\",\"i\") ). \n" );
+		}
+		query.append("}");
+		query.append("}");
+		return query.toString();
+	}
+
 	protected void reportError( int statusCode, String message, HttpServletRequest req, HttpServletResponse resp ) throws ServletException, IOException{
 		req.setAttribute("statusCode", Integer.toString(statusCode)); //$NON-NLS-1$
 		req.setAttribute("message", StringUtils.forHtml(message) ); //$NON-NLS-1$
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.services.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.services.RioBaseService;
+import org.eclipse.lyo.rio.services.RioServiceException;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.eclipse.lyo.rio.store.RioStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads an RDF document posted as the request body directly into the store.
+ * The body's content type selects the parser (N-Triples, Turtle, RDF/XML, TriG,
+ * TriX).  Progress is streamed back as plain text after every committed batch.
+ * <pre>
+ * curl -X POST -H "Content-Type: text/plain" --data-binary @seed.nt http://host/cm/load?batchSize=50000
+ * </pre>
+ */
+public class BulkLoadService extends RioBaseService {
+	private static final long serialVersionUID = 1L;
+	private static final Logger log = LoggerFactory.getLogger(BulkLoadService.class);
+
+	@SuppressWarnings("nls")
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		PrintWriter writer = response.getWriter();
+		writer.print("<html><head><title>RIO Bulk Load</title><link rel=\"SHORTCUT ICON\" href=\"oslc.png\"></head><body>");
+		writer.print("<h1>Bulk Load</h1>");
+		writer.print("<p>POST an N-Triples, Turtle, RDF/XML, TriG or TriX document to this URL with the matching Content-Type. ");
+		writer.print("Each resource is stored in its own named graph. ");
+		writer.print("The optional <code>batchSize</code> parameter sets the number of statements per transaction (default " + RioStore.DEFAULT_BULK_BATCH_SIZE + ").</p>");
+		writer.print("<pre>curl -X POST -H \"Content-Type: text/plain\" --data-binary @seed.nt " + request.getRequestURL() + "?batchSize=50000</pre>");
+		writer.print("</body></html>");
+		response.setContentType(IConstants.CT_HTML);
+		response.setStatus(IConstants.SC_OK);
+	}
+
+	@SuppressWarnings("nls")
+	protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		int batchSize = RioStore.DEFAULT_BULK_BATCH_SIZE;
+		String batchParam = request.getParameter("batchSize");
+		if( batchParam != null ) {
+			try {
+				batchSize = Integer.parseInt(batchParam);
+			} catch( NumberFormatException e ) {
+				throw new RioServiceException(IConstants.SC_BAD, "Invalid batchSize: " + batchParam);
+			}
+		}
+
+		RioStore store = getStore();
+		response.setContentType(IConstants.CT_TEXT_PLAIN);
+		response.setStatus(IConstants.SC_OK);
+		final PrintWriter writer = response.getWriter();
+		try {
+			long count = store.bulkLoad(request.getInputStream(), request.getContentType(), store.getUriBase(), batchSize,
+				new RioStore.IBulkLoadListener() {
+					public void progress(long statements, long graphs, long elapsed) {
+						writer.println(statements + " statements, " + graphs + " resources, " + elapsed + "ms");
+						writer.flush();
+					}
+				});
+			writer.println("Loaded " + count + " statements");
+			log.info("Bulk loaded " + count + " statements");
+		} catch( RioServerException e ) {
+			log.error("Bulk load failed", e);
+			if( !response.isCommitted() ) {
+				response.reset();
+				throw new RioServiceException(IConstants.SC_BAD, e);
+			}
+			writer.println("FAILED: " + e.getMessage());
+		}
+	}
+
+}
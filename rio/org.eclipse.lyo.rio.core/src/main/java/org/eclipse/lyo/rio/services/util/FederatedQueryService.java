@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.services.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.FederatedQuery;
+import org.eclipse.lyo.rio.query.OslcWhereHelper.OslcWhereParseException;
+import org.eclipse.lyo.rio.query.QueryPage;
+import org.eclipse.lyo.rio.services.RioBaseService;
+import org.eclipse.lyo.rio.services.RioServiceException;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.RioServerException;
+
+/**
+ * Runs one OSLC query (<code>oslc.where</code>, <code>oslc.select</code>,
+ * <code>oslc.prefix</code> and paging) against all the resource types in the
+ * <code>types</code> init parameter at once, see {@link FederatedQuery}.
+ * <code>rio.types</code> narrows the query to some of them.  Types that fail
+ * or time out are left out of the response with a <code>Warning</code>
+ * header each.
+ */
+public class FederatedQueryService extends RioBaseService {
+	private static final long serialVersionUID = 2318475120561197385L;
+
+	public static final String PARAM_TYPES = "rio.types"; //$NON-NLS-1$
+	public static final long DEFAULT_TIMEOUT = 10000;
+
+	private final List<String> resourceTypes = new ArrayList<String>();
+	private String prefixes = null;
+	private long timeout = DEFAULT_TIMEOUT;
+
+	@Override
+	public void init() throws ServletException {
+		resourceTypes.addAll(split(getInitParameter("types"))); //$NON-NLS-1$
+		prefixes = getInitParameter("prefixes"); //$NON-NLS-1$
+		String time = getInitParameter("timeout"); //$NON-NLS-1$
+		if( time != null ) {
+			timeout = Long.parseLong(time.trim());
+		}
+	}
+
+	private static List<String> split(String list) {
+		List<String> items = new ArrayList<String>();
+		if( list == null ) return items;
+		for (String item : list.split(",")) { //$NON-NLS-1$
+			item = item.trim();
+			if( item.length() > 0 ) items.add(item);
+		}
+		return items;
+	}
+
+	protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+		List<String> types = resourceTypes;
+		if( req.getParameter(PARAM_TYPES) != null ) {
+			types = split(req.getParameter(PARAM_TYPES));
+			for (String type : types) {
+				if( !resourceTypes.contains(type) ) {
+					throw new RioServiceException(IConstants.SC_BAD, "Not a queried type: " + type); //$NON-NLS-1$
+				}
+			}
+		}
+
+		String prefix = req.getParameter("oslc.prefix"); //$NON-NLS-1$
+		if( prefixes != null ) {
+			prefix = prefix == null ? prefixes : prefixes + ',' + prefix;
+		}
+		FederatedQuery query;
+		QueryPage page;
+		try {
+			query = new FederatedQuery(types, prefix, req.getParameter("oslc.select"), req.getParameter("oslc.where")); //$NON-NLS-1$ //$NON-NLS-2$
+			page = new QueryPage(this.getStore(), query.getBuilder(), null, req);
+		} catch (OslcWhereParseException e) {
+			throw new RioServiceException(IConstants.SC_BAD, e);
+		}
+
+		try {
+			QueryCursor results = query.open(this.getStore(), page, timeout);
+			for (Map.Entry<String, String> failure : query.getFailures().entrySet()) {
+				String text = (failure.getKey() + ": " + failure.getValue()).replace('"', '\''); //$NON-NLS-1$
+				resp.addHeader("Warning", "199 - \"" + text + '"'); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			writeQueryResponse(results, page, query.getBuilder().getPropertyNames(), req, resp);
+		} catch (RioServerException e) {
+			throw new RioServiceException(IConstants.SC_INTERNAL_ERROR, e);
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.services.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.QueryResponseWriter;
+import org.eclipse.lyo.rio.services.RioBaseService;
+import org.eclipse.lyo.rio.services.RioServiceException;
+import org.eclipse.lyo.rio.store.RunningQueries;
+import org.eclipse.lyo.rio.util.XmlUtils;
+
+/**
+ * Lists the store's running queries, as a page or as JSON when the client
+ * accepts it, and cancels one on a POST with its <code>id</code>.
+ */
+public class RunningQueryService extends RioBaseService {
+	private static final long serialVersionUID = -1630479517394102253L;
+
+	@SuppressWarnings("nls")
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		List<RunningQueries.Entry> entries = getStore().getRunningQueries().list();
+		response.setStatus(IConstants.SC_OK);
+		response.setCharacterEncoding(IConstants.TEXT_ENCODING);
+		PrintWriter out = response.getWriter();
+		if( willAccept(IConstants.CT_JSON, request) ) {
+			response.setContentType(IConstants.CT_JSON);
+			out.print("[");
+			String sep = "\n";
+			for (RunningQueries.Entry entry : entries) {
+				out.print(sep + "\t{ \"id\" : " + entry.id
+						+ ", \"elapsed\" : " + entry.getElapsed()
+						+ ", \"timeout\" : " + entry.timeout
+						+ ", \"rows\" : " + entry.getRows()
+						+ ", \"thread\" : " + QueryResponseWriter.quote(entry.thread)
+						+ ", \"query\" : " + QueryResponseWriter.quote(entry.query) + " }");
+				sep = ",\n";
+			}
+			out.print("\n]\n");
+			return;
+		}
+		response.setContentType(IConstants.CT_HTML);
+		out.print("<html><head><title>RIO Running Queries</title><link rel=\"SHORTCUT ICON\" href=\"oslc.png\"></head><body>");
+		out.print("<p><a href=\"" + getStore().getUriBase() + "\">Home</a></p><h3>Running Queries</h3>");
+		out.print("<table border=1><tr><th>Id</th><th>Elapsed (ms)</th><th>Timeout (s)</th><th>Rows</th><th>Thread</th><th>Query</th><th></th></tr>");
+		for (RunningQueries.Entry entry : entries) {
+			out.print("<tr><td>" + entry.id + "</td><td>" + entry.getElapsed() + "</td><td>" + entry.timeout + "</td><td>" + entry.getRows()
+					+ "</td><td>" + XmlUtils.encode(entry.thread) + "</td><td><pre>" + XmlUtils.encode(entry.query) + "</pre></td>"
+					+ "<td><form method=post><input type=hidden name=\"id\" value=\"" + entry.id + "\"><input type=submit value=\"Cancel\"></form></td></tr>");
+		}
+		out.print("</table></body></html>");
+	}
+
+	protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		long id;
+		try {
+			id = Long.parseLong(request.getParameter("id")); //$NON-NLS-1$
+		} catch (NumberFormatException e) {
+			throw new RioServiceException(IConstants.SC_BAD, "No query id"); //$NON-NLS-1$
+		}
+		if( !getStore().getRunningQueries().cancel(id) ) {
+			throw new RioServiceException(IConstants.SC_NOT_FOUND, "No running query " + id); //$NON-NLS-1$
+		}
+		response.sendRedirect(request.getRequestURL().toString());
+	}
+
+}
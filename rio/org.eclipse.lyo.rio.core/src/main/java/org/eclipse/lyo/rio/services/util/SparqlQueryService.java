@@ -16,8 +16,6 @@
 package org.eclipse.lyo.rio.services.util;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
 
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletException;
@@ -27,13 +25,32 @@ import javax.servlet.http.HttpServletResponse;
 import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.services.RioBaseService;
 import org.eclipse.lyo.rio.services.RioServiceException;
+import org.eclipse.lyo.rio.store.QueryCursor;
 import org.eclipse.lyo.rio.store.RioServerException;
 import org.eclipse.lyo.rio.store.RioStore;
-import org.eclipse.lyo.rio.store.RioValue;
 
+/**
+ * Runs SPARQL typed into a form.  The <code>timeout</code> (seconds) and
+ * <code>maxResults</code> init parameters bound what one query may cost;
+ * running queries can be listed and cancelled with {@link RunningQueryService}.
+ */
 public class SparqlQueryService extends RioBaseService {
 	private static final long serialVersionUID = -6011601779316735563L;
 
+	public static final int DEFAULT_TIMEOUT = 30;
+	public static final int DEFAULT_MAX_RESULTS = 100;
+
+	private int timeout = DEFAULT_TIMEOUT;
+	private int maxResults = DEFAULT_MAX_RESULTS;
+
+	@Override
+	public void init() throws ServletException {
+		String param = getInitParameter("timeout"); //$NON-NLS-1$
+		if( param != null ) timeout = Integer.parseInt(param.trim());
+		param = getInitParameter("maxResults"); //$NON-NLS-1$
+		if( param != null ) maxResults = Integer.parseInt(param.trim());
+	}
+
 	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
 		// redirect to JSP
 		RequestDispatcher rd = request.getRequestDispatcher("sparql.jsp"); //$NON-NLS-1$
@@ -43,17 +60,21 @@ public class SparqlQueryService extends RioBaseService {
 	protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
 		String query = request.getParameter("queryExp"); //$NON-NLS-1$
 		RioStore store = this.getStore();
+		QueryCursor results = null;
 		try {
-			List<Map<String, RioValue>> results = store.query(IConstants.SPARQL, query, 100);
+			results = store.openQuery(IConstants.SPARQL, query, 0, maxResults, timeout);
 			request.setAttribute("queryExp", query); //$NON-NLS-1$
 			request.setAttribute("results", results); //$NON-NLS-1$
+			// the page reads the rows straight from the cursor
+			RequestDispatcher rd = request.getRequestDispatcher("sparql.jsp"); //$NON-NLS-1$
+			rd.forward(request, response);
 		} catch (RioServerException e) {
 			throw new RioServiceException(e);
+		} finally {
+			if( results != null ) {
+				results.close();
+			}
 		}
-		RequestDispatcher rd = request.getRequestDispatcher("sparql.jsp"); //$NON-NLS-1$
-		rd.forward(request, response);
-		
-		
 	}
 
 }
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openrdf.model.BNode;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.helpers.RDFHandlerBase;
+
+/**
+ * Streams parsed statements straight into a store connection, committing
+ * every <code>batchSize</code> statements.
+ * <p>
+ * Statements that carry a context (TriG, TriX) are stored in that context.
+ * Plain triples are stored in the named graph of their subject, which is how
+ * every Rio resource is kept.  Blank node subjects go into the graph of the
+ * resource that referenced them, or failing that the graph of the last
+ * resource seen.
+ */
+class BulkLoadHandler extends RDFHandlerBase {
+
+	/** how many blank node to graph assignments are remembered */
+	private static final int MAX_TRACKED_BNODES = 100000;
+	/** how many graphs are remembered as already counted */
+	private static final int MAX_TRACKED_GRAPHS = 100000;
+
+	private final RepositoryConnection conn;
+	private final int batchSize;
+	private final RioStore.IBulkLoadListener listener;
+	private final long started = System.currentTimeMillis();
+
+	private final Map<BNode, Resource> bnodeGraphs = new LinkedHashMap<BNode, Resource>(1024, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<BNode, Resource> eldest) {
+			return size() > MAX_TRACKED_BNODES;
+		}
+	};
+
+	// graphs already counted, most recently used last
+	private final Map<Resource, Boolean> seenGraphs = new LinkedHashMap<Resource, Boolean>(1024, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Resource, Boolean> eldest) {
+			return size() > MAX_TRACKED_GRAPHS;
+		}
+	};
+
+	private Resource currentGraph = null;
+	private long statements = 0;
+	private long graphs = 0;
+	private int pending = 0;
+
+	BulkLoadHandler(RepositoryConnection conn, int batchSize, RioStore.IBulkLoadListener listener) {
+		this.conn = conn;
+		this.batchSize = batchSize;
+		this.listener = listener;
+	}
+
+	@Override
+	public void handleStatement(Statement st) throws RDFHandlerException {
+		Resource graph = graphFor(st);
+		if( !graph.equals(currentGraph) ) {
+			currentGraph = graph;
+			// input that interleaves subjects comes back to a graph
+			if( seenGraphs.put(graph, Boolean.TRUE) == null ) {
+				graphs++;
+			}
+		}
+		try {
+			conn.add(st.getSubject(), st.getPredicate(), st.getObject(), graph);
+			statements++;
+			if( ++pending >= batchSize ) {
+				commit();
+			}
+		} catch (RepositoryException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	@Override
+	public void endRDF() throws RDFHandlerException {
+		try {
+			commit();
+		} catch (RepositoryException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	private Resource graphFor(Statement st) {
+		Resource subject = st.getSubject();
+		Value object = st.getObject();
+		Resource graph = st.getContext();
+		if( graph == null ) {
+			if( subject instanceof BNode ) {
+				graph = bnodeGraphs.get(subject);
+				if( graph == null ) {
+					graph = currentGraph != null ? currentGraph : subject;
+				}
+			} else {
+				graph = subject;
+			}
+		}
+		if( object instanceof BNode ) {
+			bnodeGraphs.put((BNode) object, graph);
+		}
+		return graph;
+	}
+
+	private void commit() throws RepositoryException {
+		if( pending == 0 ) return;
+		conn.commit();
+		pending = 0;
+		if( listener != null ) {
+			listener.progress(statements, graphs, System.currentTimeMillis() - started);
+		}
+	}
+
+	public long getStatementCount() {
+		return statements;
+	}
+
+	/**
+	 * @return the distinct graphs written to; exact unless a graph comes back
+	 * after more than {@value #MAX_TRACKED_GRAPHS} others
+	 */
+	public long getGraphCount() {
+		return graphs;
+	}
+
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+
+/**
+ * An in memory index kept up to date by the {@link RioStore}.
+ * <p>
+ * The store builds each index from the properties named in its configuration,
+ * or the index's defaults.  It rebuilds the index on startup and after a bulk
+ * load, and reloads the subjects touched by every committed write.
+ * Implementations must be thread safe.
+ */
+public interface IStoreIndex {
+
+	/**
+	 * Replaces the entries of the subjects with their current values in the store.
+	 */
+	public void reload(RepositoryConnection conn, Collection<String> subjectUris) throws RepositoryException;
+
+	/**
+	 * Drops everything and reads the indexed values of all subjects from the store.
+	 */
+	public void rebuild(RepositoryConnection conn) throws RepositoryException;
+
+	public void clear();
+
+	/**
+	 * @return the index counters, keyed by metric name
+	 */
+	public Map<String, Number> getMetrics();
+
+}
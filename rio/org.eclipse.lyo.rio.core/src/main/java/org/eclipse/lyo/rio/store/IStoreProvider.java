@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.openrdf.repository.Repository;
+
+/**
+ * Creates the Sesame repository that backs a {@link RioStore}.
+ * <p>
+ * The provider is selected with the <code>storeType</code> configuration
+ * property.  The built in providers are <code>native</code> (the default),
+ * <code>memory</code> and <code>remote</code>.  Additional providers can be
+ * registered through <code>META-INF/services/org.eclipse.lyo.rio.store.IStoreProvider</code>
+ * and are matched on {@link #getName()}.
+ */
+public interface IStoreProvider {
+
+	/**
+	 * @return the value of the <code>storeType</code> property that selects this provider
+	 */
+	public String getName();
+
+	/**
+	 * @param dataDir the configured repository location
+	 * @param config the store configuration (rio.properties)
+	 * @return an uninitialized repository
+	 */
+	public Repository createRepository(File dataDir, Properties config) throws RioServerException;
+
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recommends NativeStore triple indexes for the access patterns recorded by
+ * {@link QueryPatternLog}.
+ * <p>
+ * An index such as <code>cspo</code> answers a pattern without scanning when
+ * the pattern's bound components are exactly a prefix of the index, so
+ * <code>cspo</code> serves <code>c</code>, <code>sc</code> and <code>spc</code>
+ * but not <code>po</code>.  Indexes are picked greedily, each time taking the
+ * one that serves the most not yet served lookups.
+ */
+public class IndexAdvisor {
+
+	public static final int DEFAULT_MAX_INDEXES = 3;
+
+	private static final List<String> candidates = new ArrayList<String>();
+
+	static {
+		permute("", "spoc"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static void permute(String prefix, String rest) {
+		if( rest.length() == 0 ) {
+			candidates.add(prefix);
+			return;
+		}
+		for (int i = 0; i < rest.length(); i++) {
+			permute(prefix + rest.charAt(i), rest.substring(0, i) + rest.substring(i + 1));
+		}
+	}
+
+	/**
+	 * @return true if the index answers the pattern with a range lookup
+	 */
+	public static boolean serves(String index, String pattern) {
+		if( QueryPatternLog.NONE.equals(pattern) ) {
+			return true;
+		}
+		if( pattern.length() > index.length() ) {
+			return false;
+		}
+		String prefix = index.substring(0, pattern.length());
+		for (int i = 0; i < pattern.length(); i++) {
+			if( prefix.indexOf(pattern.charAt(i)) < 0 ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return at most <code>maxIndexes</code> indexes, most valuable first
+	 */
+	public static List<String> recommend(Map<String, Long> patterns, int maxIndexes) {
+		List<String> chosen = new ArrayList<String>();
+		List<String> unserved = new ArrayList<String>(patterns.keySet());
+		while( chosen.size() < maxIndexes && !unserved.isEmpty() ) {
+			String best = null;
+			long bestGain = 0;
+			for (String candidate : candidates) {
+				long gain = 0;
+				for (String pattern : unserved) {
+					if( serves(candidate, pattern) ) {
+						gain += patterns.get(pattern);
+					}
+				}
+				if( gain > bestGain ) {
+					best = candidate;
+					bestGain = gain;
+				}
+			}
+			if( best == null ) {
+				break;
+			}
+			chosen.add(best);
+			for (int i = unserved.size() - 1; i >= 0; i--) {
+				if( serves(best, unserved.get(i)) ) {
+					unserved.remove(i);
+				}
+			}
+		}
+		if( chosen.isEmpty() ) {
+			chosen.add("spoc"); //$NON-NLS-1$
+		}
+		return chosen;
+	}
+
+	/**
+	 * @return the share of recorded lookups that the indexes serve, from 0 to 1
+	 */
+	public static double coverage(Map<String, Long> patterns, List<String> indexes) {
+		long total = 0;
+		long served = 0;
+		for (Map.Entry<String, Long> entry : patterns.entrySet()) {
+			total += entry.getValue();
+			for (String index : indexes) {
+				if( serves(index, entry.getKey()) ) {
+					served += entry.getValue();
+					break;
+				}
+			}
+		}
+		return total == 0 ? 1 : (double) served / total;
+	}
+
+	/**
+	 * @return the indexes in the form expected by the <code>nativeIndexes</code> property
+	 */
+	public static String toIndexSpec(List<String> indexes) {
+		StringBuilder sb = new StringBuilder();
+		for (String index : indexes) {
+			if( sb.length() > 0 ) sb.append(',');
+			sb.append(index);
+		}
+		return sb.toString();
+	}
+
+	public static List<String> parseIndexSpec(String spec) {
+		List<String> indexes = new ArrayList<String>();
+		for (String index : spec.split(",")) { //$NON-NLS-1$
+			index = index.trim();
+			if( index.length() > 0 ) {
+				indexes.add(index);
+			}
+		}
+		return indexes;
+	}
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+import org.openrdf.sail.SailException;
+import org.openrdf.sail.nativerdf.NativeStore;
+
+/**
+ * Command line tool for NativeStore indexes.  Run it with the core jar and its
+ * dependencies on the class path, with the webapp stopped:
+ * <pre>
+ * IndexTool advise &lt;pattern log&gt; [max indexes] [current indexes]
+ * IndexTool reindex &lt;repository dir&gt; &lt;indexes&gt;
+ * </pre>
+ * <code>advise</code> reads a pattern log written by {@link QueryPatternLog}
+ * and prints recommended indexes.  <code>reindex</code> rebuilds the indexes
+ * of an existing repository directory; afterwards set <code>nativeIndexes</code>
+ * in rio.properties to the same value.
+ */
+public class IndexTool {
+
+	@SuppressWarnings("nls")
+	public static void main(String[] args) {
+		PrintStream out = System.out;
+		try {
+			if( args.length >= 2 && "advise".equals(args[0]) ) {
+				int max = args.length > 2 ? Integer.parseInt(args[2]) : IndexAdvisor.DEFAULT_MAX_INDEXES;
+				advise(out, QueryPatternLog.load(new File(args[1])), max, args.length > 3 ? args[3] : null);
+			} else if( args.length == 3 && "reindex".equals(args[0]) ) {
+				reindex(out, new File(args[1]), args[2]);
+			} else {
+				out.println("usage: IndexTool advise <pattern log> [max indexes] [current indexes]");
+				out.println("       IndexTool reindex <repository dir> <indexes>");
+				System.exit(2);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	@SuppressWarnings("nls")
+	public static List<String> advise(PrintStream out, Map<String, Long> patterns, int maxIndexes, String current) {
+		out.println("Recorded patterns (bound components in spoc order):");
+		for (Map.Entry<String, Long> entry : patterns.entrySet()) {
+			out.println("  " + entry.getKey() + "\t" + entry.getValue());
+		}
+		if( current != null ) {
+			double coverage = IndexAdvisor.coverage(patterns, IndexAdvisor.parseIndexSpec(current));
+			out.println("Current indexes " + current + " serve " + Math.round(coverage * 100) + "% of lookups");
+		}
+		List<String> recommended = IndexAdvisor.recommend(patterns, maxIndexes);
+		double coverage = IndexAdvisor.coverage(patterns, recommended);
+		out.println("Recommended: " + NativeStoreProvider.PROP_INDEXES + "=" + IndexAdvisor.toIndexSpec(recommended)
+				+ " (serves " + Math.round(coverage * 100) + "% of lookups)");
+		return recommended;
+	}
+
+	/**
+	 * Opening a NativeStore with a different index spec than the one it was
+	 * created with makes it build the new indexes and drop the old ones.
+	 */
+	@SuppressWarnings("nls")
+	public static void reindex(PrintStream out, File dataDir, String indexes) throws SailException {
+		if( !dataDir.isDirectory() ) {
+			throw new SailException("Not a repository directory: " + dataDir);
+		}
+		long start = System.currentTimeMillis();
+		out.println("Rebuilding " + dataDir + " with indexes " + indexes);
+		NativeStore store = new NativeStore(dataDir, indexes);
+		store.initialize();
+		try {
+			out.println("Done in " + (System.currentTimeMillis() - start) + "ms, indexes now " + store.getTripleIndexes());
+		} finally {
+			store.shutDown();
+		}
+	}
+
+}
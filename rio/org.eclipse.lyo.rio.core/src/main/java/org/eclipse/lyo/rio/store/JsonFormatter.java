@@ -128,12 +128,9 @@ public class JsonFormatter {
      * @return
      */
     private String[] extractNsLocal(String uri) {
-        int pos = uri.lastIndexOf('#');
-        if (pos < 0) {
-            pos = uri.lastIndexOf('/');
-        }
-        String namespace = uri.substring(0, pos + 1);
-        String local = uri.substring(pos + 1);
+        String[] split = TermDictionary.split(uri);
+        String namespace = split[0];
+        String local = split[1];
         String prefix = this.getPrefix(namespace);
         return new String[]{namespace, local, prefix};
     }
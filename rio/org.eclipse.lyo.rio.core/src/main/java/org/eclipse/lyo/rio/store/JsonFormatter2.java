@@ -15,9 +15,15 @@
  *******************************************************************************/
 package org.eclipse.lyo.rio.store;
 
-import java.util.ArrayList;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,84 +35,124 @@ import org.eclipse.lyo.rio.store.RioStatement;
 import org.eclipse.lyo.rio.store.RioValue;
 import org.eclipse.lyo.rio.util.StringUtils;
 
+/**
+ * Writes a resource as JSON.
+ * <p>
+ * The resource is written in one pass over its statements, looked up by
+ * subject through the resource's statement index, straight to the writer.
+ * Prefixes come last, so the ones made up on the way are declared too.
+ */
 public class JsonFormatter2 {
 	
 	private RioResource resource = null;
 	private Map<String,String> namespacePrefixes = new HashMap<String,String>();
 	private IMultiValueResolver multiValueResolver;
+	private Writer w;
 	
 	public JsonFormatter2( IMultiValueResolver resolver ) {
 		this.multiValueResolver = resolver;
 	}
 
+	/**
+	 * A formatter for a registered resource type: multi-valued properties are
+	 * resolved against the type's metadata, and its namespace prefixes used.
+	 */
+	public static JsonFormatter2 forType(PropertyMetadataRegistry.ResourceMetadata metadata) {
+		JsonFormatter2 formatter = new JsonFormatter2(metadata);
+		formatter.namespacePrefixes.putAll(metadata.getNamespacePrefixes());
+		return formatter;
+	}
+
 	public void addNamespacePrefix(String ns, String prefix) {
 		this.namespacePrefixes.put(ns, prefix);
 	}
 	
 	public String format(RioResource resource ) throws RioServerException {
-		this.resource = new RioResource(resource.getUri());  // make a copy of the resource, that we can modify
-		this.resource.addStatements(resource.getStatements()); 
+		StringWriter writer = new StringWriter();
+		write(resource, writer);
+		return writer.toString();
+	}
+	
+	/**
+	 * Streams the resource to the output stream, UTF-8 encoded.  The stream
+	 * is flushed, not closed.
+	 */
+	public void format(RioResource resource, OutputStream out) throws RioServerException {
+		try {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(out, IConstants.TEXT_ENCODING));
+			write(resource, writer);
+			writer.flush();
+		} catch (IOException e) {
+			throw new RioServerException(e);
+		}
+	}
+	
+	private void write(RioResource resource, Writer writer) throws RioServerException {
+		this.resource = resource;
+		this.w = writer;
 		initPrefixes();
 		
-		StringBuffer sb = new StringBuffer();
-		sb.append("{\n");
-		sb.append("\t\"" + IConstants.RDF_PTERM_ABOUT + "\" : " + quote(resource.getUri()) );
-		
-		List<RioStatement> types = resource.getStatements(resource.getUri(), IConstants.RDF_TYPE, null);
-		appendProperties( sb, IConstants.RDF_TYPE, types );
-		sb.append(",\n");
-		
-		addChildren(sb, resource.getUri(), "\t");
-
-		// now do prefixes
-		sb.append(",\n\t\"prefixes\": {\n" );
-		// add prefixes
-		Set<String> namespaces = this.namespacePrefixes.keySet();
-		boolean first = true;
-		for (String namespace : namespaces) {
-			String prefix = namespacePrefixes.get(namespace);
-			if( first ) {
-				first = false;
-			} else {
-				sb.append(",\n" );
+		try {
+			w.write("{\n");
+			w.write("\t\"" + IConstants.RDF_PTERM_ABOUT + "\" : " + quote(resource.getUri()) );
+			
+			Map<String, List<RioStatement>> properties = resource.getStatementsByPredicate(resource.getUri());
+			List<RioStatement> types = properties.get(IConstants.RDF_TYPE);
+			appendProperties( IConstants.RDF_TYPE, types );
+			w.write(",\n");
+			
+			addChildren(properties, "\t");
+	
+			// now do prefixes
+			w.write(",\n\t\"prefixes\": {\n" );
+			// add prefixes
+			boolean first = true;
+			for (Map.Entry<String, String> entry : namespacePrefixes.entrySet()) {
+				if( first ) {
+					first = false;
+				} else {
+					w.write(",\n" );
+				}
+				w.write( "\t\t\"" + encode(entry.getValue()) + "\" : \"" + encode(entry.getKey()) + "\"");
 			}
-			sb.append( "\t\t\"" + encode(prefix) + "\" : \"" + encode(namespace) + "\"");
+			w.write("\n\t}" );
+			
+			w.write("\n}");
+		} catch (IOException e) {
+			throw new RioServerException(e);
 		}
-		sb.append("\n\t}" );
-		
-		sb.append("\n}");
-		return sb.toString();
 	}
 	
-	private void addChildren(StringBuffer sb, String subject, String indent) throws RioServerException{
+	private void addChildren(Map<String, List<RioStatement>> properties, String indent) throws RioServerException, IOException {
 		boolean first = true;
-		Map<String, List<RioStatement>> stMap = getStatementsByProperty(subject);
-		Set<String> propSet = stMap.keySet();
-		for (String prop : propSet) {
+		for (Map.Entry<String, List<RioStatement>> entry : properties.entrySet()) {
+			String prop = entry.getKey();
 			if( !IConstants.RDF_TYPE.equals(prop) ) {
 				RdfTerm pTerm = new RdfTerm(prop);
 				if( first ) {
 					first = false;
 				} else {
-					sb.append(",\n" );
+					w.write(",\n" );
 				}
-				List<RioStatement> props = stMap.get(prop);
+				List<RioStatement> props = entry.getValue();
 				if( props.size() > 1 || this.isMultiValued(prop) ) {
-					sb.append( indent + "\t\"" + pTerm + "\" : [ \n" );
+					w.write( indent + "\t\"" + pTerm + "\" : [ \n" );
 					boolean sFirst = true;
 					for (RioStatement s : props) {
 						if( sFirst ) {
 							sFirst = false;
 						} else {
-							sb.append(",\n" );
+							w.write(",\n" );
 						}
-						sb.append( indent + "\t\t" + toJson(s, indent) );
+						w.write( indent + "\t\t" );
+						toJson(s, indent);
 					}
-					sb.append( "\n" + indent + "\t]" );	
+					w.write( "\n" + indent + "\t]" );	
 				} else {
 					// single valued
 					RioStatement st = props.get(0);
-					sb.append( indent + "\t\"" + pTerm + "\" : " + toJson(st, indent) );	
+					w.write( indent + "\t\"" + pTerm + "\" : " );
+					toJson(st, indent);
 				}
 			}
 		}
@@ -120,112 +166,72 @@ public class JsonFormatter2 {
 		return false;
 	}
 
-	private Map<String,List<RioStatement>> getStatementsByProperty(String subject) {
-		Map<String,List<RioStatement>> statementsForProp = new HashMap<String,List<RioStatement>>();
-		List<RioStatement> statements = resource.getStatements(subject, null, null);
-		for (RioStatement rioStatement : statements) {
-			if( statementsForProp.containsKey(rioStatement.getPredicate()) ) {
-				statementsForProp.get(rioStatement.getPredicate()).add(rioStatement);
-			} else {
-				// init with new list
-				ArrayList<RioStatement> list = new ArrayList<RioStatement>();
-				list.add(rioStatement);
-				statementsForProp.put(rioStatement.getPredicate(), list);
-			}
-		}
-		return statementsForProp;
-	}
-	
-	private String toJson(RioStatement rioStatement, String indent) throws RioServerException  {
+	private void toJson(RioStatement rioStatement, String indent) throws RioServerException, IOException  {
 		try{
-			StringBuffer sb = new StringBuffer();
 			RioValue value = rioStatement.getObject();
 			switch( value.getType() ) {
 			case BOOLEAN: {
-				sb.append( rioStatement.getObject().booleanValue() );
+				w.write( String.valueOf(value.booleanValue()) );
 				break;
 			}
 			case INTEGER: {
-				sb.append( rioStatement.getObject().intValue() );
+				w.write( String.valueOf(value.intValue()) );
 				break;
 			}
 			case DECIMAL: {
-				sb.append( rioStatement.getObject().doubleValue() );
+				w.write( String.valueOf(value.doubleValue()) );
 				break;
 			}
 			case CALENDAR: {
-				String dStr = StringUtils.xsdDateTime(rioStatement.getObject().dateValue());
-				sb.append( quote( dStr)  );
+				String dStr = StringUtils.xsdDateTime(value.dateValue());
+				w.write( quote( dStr)  );
 				break;
 			}
 			case XMLLiteral: 
 			case STRING: {
-				sb.append( quote( rioStatement.getObject().stringValue()) );
+				w.write( quote( value.stringValue()) );
 				break;
 			}
 			case URI: {
-				sb.append( " { \"rdf:resource\" : " + quote( rioStatement.getObject().stringValue()) + "}");
+				w.write( " { \"rdf:resource\" : " + quote( value.stringValue()) + "}");
 				break;
 			}
 			case BLANK_NODE: {
 				// inlined resource
-				sb.append(indent + "{\n");
-				addChildren(sb, rioStatement.getObject().stringValue(), indent + "\t");
-				sb.append("\n" + indent + "}");
-//				List<RioStatement> childStatements = this.resource.getStatements(rioStatement.getObject().stringValue(), null, null); 
-//				sb.append( "{\n");
-//				boolean first = true;
-//				for (RioStatement rs : childStatements) {
-//					String pred = rs.getPredicate();
-//					if( !IConstants.RDF_TYPE.equals(pred) ) {
-//						RdfTerm pTerm = new RdfTerm(pred);
-//						if( first ) {
-//							first = false;
-//						} else {
-//							sb.append(",\n" );
-//						}
-//						sb.append( indent + "\t\t\"" + pTerm + "\" : " + toJson(rs, indent+"\t" ) );
-//					}
-//				}
-//				sb.append( "\n\t" + indent + " }");
+				w.write(indent + "{\n");
+				addChildren(resource.getStatementsByPredicate(value.stringValue()), indent + "\t");
+				w.write("\n" + indent + "}");
 				break;
 			}
 			}
-			return sb.toString();
+		} catch( IOException e ) {
+			throw e;
+		} catch( RioServerException e ) {
+			throw e;
 		} catch( Exception e ) {
 			throw new RioServerException(e);
 		}
 	}
 	
-	private void appendProperties(StringBuffer sb, String property, List<RioStatement> statements) throws RioServerException {
+	private void appendProperties(String property, List<RioStatement> statements) throws RioServerException, IOException {
 		RdfTerm term = new RdfTerm( property );
-		sb.append(",\n\t\"" + term.prefixedTerm() + "\" : [\n" );
+		w.write(",\n\t\"" + term.prefixedTerm() + "\" : [\n" );
 		boolean first = true;
-		try{
+		if( statements != null ) {
 			for (RioStatement rioStatement : statements) {
 				if( first ) {
 					first = false;
 				} else {
-					sb.append(",\n");
+					w.write(",\n");
 				}
-				sb.append("\t" + this.toJson(rioStatement, "") );
+				w.write("\t");
+				this.toJson(rioStatement, "");
 			}
-		} catch( Exception e ) {
-			throw new RioServerException(e);
 		}
-		sb.append("\n\t]" );
+		w.write("\n\t]" );
 		
 	}
 
-//	private void appendProperty(StringBuffer sb, String property, RioStatement statement) throws RioServerException  {
-//		RdfTerm term = new RdfTerm( property );
-//		try{
-//			sb.append(",\n\t\"" + term.prefixedTerm() + "\" : \"" + this.asJsonValue(statement) + "\"" );
-//		} catch( Exception e ) {
-//			throw new RioServerException(e);
-//		}
-//	}
-
 	private String quote(String str) {
 		return "\"" + encode(str) + "\"";
 	}
@@ -284,12 +290,9 @@ public class JsonFormatter2 {
 		public String term;
 		public String prefix;
 		public RdfTerm( String uri ) {
-			int pos = uri.lastIndexOf('#');
-			if( pos < 0 ) {
-				pos = uri.lastIndexOf('/');
-			}
-			this.namespace = uri.substring(0,pos+1);
-			this.term = uri.substring(pos+1);
+			String[] split = TermDictionary.split(uri);
+			this.namespace = split[0];
+			this.term = split[1];
 			this.prefix = getPrefix(namespace);
 			
 		}
@@ -330,5 +333,29 @@ public class JsonFormatter2 {
 		public boolean isMultiValued(String property);
 	}
 
+	/**
+	 * Resolves against a fixed set of multi-valued properties, one hash
+	 * lookup per property.  Immutable, so one instance can serve every request.
+	 */
+	public static class MultiValuedProperties implements IMultiValueResolver {
+		private final Set<String> properties;
+
+		public MultiValuedProperties(String... properties) {
+			this.properties = new HashSet<String>();
+			for (String property : properties) {
+				this.properties.add(property);
+			}
+		}
+
+		public MultiValuedProperties(Collection<String> properties) {
+			this.properties = new HashSet<String>(properties);
+		}
+
+		@Override
+		public boolean isMultiValued(String property) {
+			return properties.contains(property);
+		}
+	}
+
 }
 
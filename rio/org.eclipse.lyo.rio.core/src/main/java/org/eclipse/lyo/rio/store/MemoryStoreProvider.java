@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+/**
+ * In-memory MemoryStore.  Unless <code>memoryPersist</code> is false the
+ * contents are snapshotted to the data directory at most every
+ * <code>memorySyncDelay</code> milliseconds after a change (and at shutdown),
+ * and reloaded at startup.
+ */
+public class MemoryStoreProvider implements IStoreProvider {
+
+	public static final String NAME = "memory"; //$NON-NLS-1$
+	public static final String PROP_PERSIST = "memoryPersist"; //$NON-NLS-1$
+	public static final String PROP_SYNC_DELAY = "memorySyncDelay"; //$NON-NLS-1$
+	public static final long DEFAULT_SYNC_DELAY = 1000;
+
+	public String getName() {
+		return NAME;
+	}
+
+	public Repository createRepository(File dataDir, Properties config) throws RioServerException {
+		boolean persist = Boolean.parseBoolean(config.getProperty(PROP_PERSIST, "true")); //$NON-NLS-1$
+		if( !persist || dataDir == null ) {
+			return new SailRepository(new MemoryStore());
+		}
+		MemoryStore store = new MemoryStore(dataDir);
+		store.setPersist(true);
+		try {
+			store.setSyncDelay(Long.parseLong(config.getProperty(PROP_SYNC_DELAY, Long.toString(DEFAULT_SYNC_DELAY))));
+		} catch( NumberFormatException e ) {
+			throw new RioServerException(e);
+		}
+		return new SailRepository(store);
+	}
+
+}
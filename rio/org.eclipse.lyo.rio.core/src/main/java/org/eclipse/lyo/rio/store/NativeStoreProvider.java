@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.nativerdf.NativeStore;
+
+/**
+ * Disk based NativeStore.  The <code>nativeIndexes</code> property selects the
+ * triple indexes, e.g. <code>spoc,posc,cosp</code>; when it is not set the
+ * NativeStore defaults are used.  Changing the indexes of an existing data
+ * directory rebuilds them the next time the store starts.
+ */
+public class NativeStoreProvider implements IStoreProvider {
+
+	public static final String NAME = "native"; //$NON-NLS-1$
+	public static final String PROP_INDEXES = "nativeIndexes"; //$NON-NLS-1$
+	public static final String PROP_FORCE_SYNC = "nativeForceSync"; //$NON-NLS-1$
+
+	public String getName() {
+		return NAME;
+	}
+
+	public Repository createRepository(File dataDir, Properties config) throws RioServerException {
+		NativeStore store = new NativeStore(dataDir);
+		String indexes = config.getProperty(PROP_INDEXES);
+		if( indexes != null && indexes.trim().length() > 0 ) {
+			store.setTripleIndexes(indexes.trim());
+		}
+		store.setForceSync(Boolean.parseBoolean(config.getProperty(PROP_FORCE_SYNC, "false"))); //$NON-NLS-1$
+		return new SailRepository(store);
+	}
+
+}
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.openrdf.model.ValueFactory;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQuery;
+import org.openrdf.query.parser.ParsedTupleQuery;
+import org.openrdf.query.parser.QueryParserUtil;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.sail.SailRepositoryConnection;
+import org.openrdf.repository.sail.SailTupleQuery;
+
+/**
+ * Bounded LRU cache of parsed tuple queries.
+ * <p>
+ * String literals in a SPARQL query are replaced by variables
+ * (<code>?_qp0</code>, <code>?_qp1</code>, ...) and passed as bindings, so
+ * queries that differ only in an <code>oslc.where</code> value share one
+ * entry.  Queries that project <code>*</code> keep their literals, the extra
+ * variables would show up in the results.
+ * <p>
+ * Only the parse is cached.  Sesame optimizes a copy of the parsed query on
+ * every evaluation using the bindings and store statistics of the moment,
+ * so there is no plan worth keeping beyond that.  Repositories that are not
+ * Sail based (remote ones) parse on their side and are passed through.
+ */
+public class PreparedQueryCache {
+
+	public static final int DEFAULT_MAX_QUERIES = 200;
+
+	static final String PARAM_PREFIX = "_qp"; //$NON-NLS-1$
+
+	private final int maxQueries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong parameterized = new AtomicLong();
+
+	private final LinkedHashMap<String, ParsedTupleQuery> queries;
+
+	public PreparedQueryCache(int maxQueries) {
+		this.maxQueries = maxQueries;
+		this.queries = new LinkedHashMap<String, ParsedTupleQuery>(16, 0.75f, true) {
+			private static final long serialVersionUID = 4035371727851926722L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ParsedTupleQuery> eldest) {
+				if( size() > PreparedQueryCache.this.maxQueries ) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Prepares a tuple query on the connection, reusing an earlier parse of
+	 * the same query shape when there is one.
+	 */
+	public TupleQuery prepare(RepositoryConnection conn, QueryLanguage language, String query) throws RepositoryException, MalformedQueryException {
+		if( !(conn instanceof SailRepositoryConnection) ) {
+			// parsed on the server
+			return conn.prepareTupleQuery(language, query);
+		}
+		Parameterized pq = language == QueryLanguage.SPARQL ? Parameterized.parse(query) : null;
+		if( pq == null ) {
+			pq = new Parameterized(query);
+		}
+
+		String key = language.getName() + '\n' + pq.text;
+		ParsedTupleQuery parsed;
+		synchronized (queries) {
+			parsed = queries.get(key);
+		}
+		if( parsed != null ) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+			try {
+				parsed = QueryParserUtil.parseTupleQuery(language, pq.text, null);
+			} catch (MalformedQueryException e) {
+				if( pq.isEmpty() ) {
+					throw e;
+				}
+				// the literal could not become a variable where it stood
+				return conn.prepareTupleQuery(language, query);
+			}
+			if( !pq.isEmpty() ) {
+				parameterized.incrementAndGet();
+			}
+			synchronized (queries) {
+				queries.put(key, parsed);
+			}
+		}
+		TupleQuery tupleQuery = new CachedTupleQuery(parsed, (SailRepositoryConnection) conn);
+		pq.bind(tupleQuery, conn.getValueFactory());
+		return tupleQuery;
+	}
+
+	public void clear() {
+		synchronized (queries) {
+			queries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (queries) {
+			return queries.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		long h = hits.get();
+		long m = misses.get();
+		metrics.put("queryCache.size", size());
+		metrics.put("queryCache.maxQueries", maxQueries);
+		metrics.put("queryCache.hits", h);
+		metrics.put("queryCache.misses", m);
+		metrics.put("queryCache.hitRatio", h + m == 0 ? 0 : (double) h / (h + m));
+		metrics.put("queryCache.evictions", evictions.get());
+		metrics.put("queryCache.parameterized", parameterized.get());
+		return metrics;
+	}
+
+	/**
+	 * Gives access to the protected constructor.
+	 */
+	private static class CachedTupleQuery extends SailTupleQuery {
+		CachedTupleQuery(ParsedTupleQuery query, SailRepositoryConnection conn) {
+			super(query, conn);
+		}
+	}
+
+	/**
+	 * A SPARQL query with its string literals lifted out.
+	 */
+	static class Parameterized {
+
+		final String text;
+		final List<String> labels = new ArrayList<String>();
+		final List<String> languages = new ArrayList<String>();
+		final List<String> datatypes = new ArrayList<String>();
+
+		Parameterized(String text) {
+			this.text = text;
+		}
+
+		boolean isEmpty() {
+			return labels.isEmpty();
+		}
+
+		void bind(TupleQuery tupleQuery, ValueFactory vf) {
+			for (int i = 0; i < labels.size(); i++) {
+				String label = labels.get(i);
+				if( languages.get(i) != null ) {
+					tupleQuery.setBinding(PARAM_PREFIX + i, vf.createLiteral(label, languages.get(i)));
+				} else if( datatypes.get(i) != null ) {
+					tupleQuery.setBinding(PARAM_PREFIX + i, vf.createLiteral(label, vf.createURI(datatypes.get(i))));
+				} else {
+					tupleQuery.setBinding(PARAM_PREFIX + i, vf.createLiteral(label));
+				}
+			}
+		}
+
+		/**
+		 * @return the parameterized query, or null when it should be used as is
+		 */
+		static Parameterized parse(String query) {
+			if( query.indexOf(PARAM_PREFIX) >= 0 || query.indexOf("\"\"\"") >= 0 || query.indexOf("'''") >= 0 ) { //$NON-NLS-1$ //$NON-NLS-2$
+				return null;
+			}
+			List<String> labels = new ArrayList<String>();
+			List<String> languages = new ArrayList<String>();
+			List<String> datatypes = new ArrayList<String>();
+			StringBuilder sb = new StringBuilder(query.length());
+			int len = query.length();
+			int i = 0;
+			while( i < len ) {
+				char c = query.charAt(i);
+				if( c == '#' ) {
+					// comment, copy through to the end of the line
+					int end = query.indexOf('\n', i);
+					if( end < 0 ) end = len;
+					sb.append(query, i, end);
+					i = end;
+				} else if( c == '<' ) {
+					int end = iriEnd(query, i);
+					if( end < 0 ) {
+						sb.append(c);
+						i++;
+					} else {
+						sb.append(query, i, end);
+						i = end;
+					}
+				} else if( c == '"' || c == '\'' ) {
+					StringBuilder label = new StringBuilder();
+					int j = i + 1;
+					while( j < len && query.charAt(j) != c ) {
+						char ch = query.charAt(j);
+						if( ch == '\\' ) {
+							if( j + 1 >= len ) return null;
+							char esc = query.charAt(j + 1);
+							switch( esc ) {
+							case 't': label.append('\t'); break;
+							case 'n': label.append('\n'); break;
+							case 'r': label.append('\r'); break;
+							case 'b': label.append('\b'); break;
+							case 'f': label.append('\f'); break;
+							case '"': case '\'': case '\\': label.append(esc); break;
+							default: return null;
+							}
+							j += 2;
+						} else {
+							label.append(ch);
+							j++;
+						}
+					}
+					if( j >= len ) return null;
+					j++;
+					String lang = null;
+					String datatype = null;
+					if( j < len && query.charAt(j) == '@' ) {
+						int k = j + 1;
+						while( k < len && (Character.isLetterOrDigit(query.charAt(k)) || query.charAt(k) == '-') ) k++;
+						lang = query.substring(j + 1, k);
+						j = k;
+					} else if( query.startsWith("^^", j) ) { //$NON-NLS-1$
+						int end = j + 2 < len && query.charAt(j + 2) == '<' ? iriEnd(query, j + 2) : -1;
+						if( end < 0 ) {
+							// prefixed datatype, leave the literal in place
+							sb.append(query, i, j);
+							i = j;
+							continue;
+						}
+						datatype = query.substring(j + 3, end - 1);
+						j = end;
+					}
+					sb.append('?').append(PARAM_PREFIX).append(labels.size());
+					labels.add(label.toString());
+					languages.add(lang);
+					datatypes.add(datatype);
+					i = j;
+				} else {
+					sb.append(c);
+					i++;
+				}
+			}
+			if( labels.isEmpty() || SELECT_ALL.matcher(sb).find() ) {
+				return null;
+			}
+			Parameterized pq = new Parameterized(sb.toString());
+			pq.labels.addAll(labels);
+			pq.languages.addAll(languages);
+			pq.datatypes.addAll(datatypes);
+			return pq;
+		}
+
+		private static final Pattern SELECT_ALL = Pattern.compile("\\bSELECT\\s+(DISTINCT\\s+|REDUCED\\s+)?\\*", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+
+		/**
+		 * @return the index just past an IRI reference starting at <code>start</code>,
+		 * or -1 if the '<' there is an operator
+		 */
+		private static int iriEnd(String query, int start) {
+			for (int j = start + 1; j < query.length(); j++) {
+				char ch = query.charAt(j);
+				if( ch == '>' ) {
+					return j + 1;
+				}
+				if( ch <= ' ' || ch == '<' || ch == '"' || ch == '{' || ch == '}' || ch == '|' || ch == '^' || ch == '`' || ch == '\\' ) {
+					return -1;
+				}
+			}
+			return -1;
+		}
+	}
+
+}
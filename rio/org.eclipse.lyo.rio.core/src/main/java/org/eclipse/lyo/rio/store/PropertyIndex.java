@@ -0,0 +1,509 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.datatypes.XMLDatatypeUtil;
+import org.openrdf.model.vocabulary.XMLSchema;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+
+/**
+ * In memory secondary index of the values of selected properties, used to
+ * answer <code>oslc.where</code> terms and aggregate queries without scanning
+ * every resource of a type (see {@link IStoreIndex}).  Values are kept in
+ * sorted maps per property and kind of value, so equality is a key lookup and
+ * a comparison is a range; as in SPARQL, comparisons across kinds match nothing.
+ */
+public class PropertyIndex implements IStoreIndex {
+
+	/**
+	 * Indexed unless {@link RioStore#PROP_INDEXED_PROPERTIES} names others
+	 */
+	public static final String[] DEFAULT_PROPERTIES = {
+		IConstants.DCTERMS_IDENTIFIER,
+		IConstants.DCTERMS_CREATED,
+		IConstants.DCTERMS_MODIFIED
+	};
+
+	private static final int KIND_IRI = 0;
+	private static final int KIND_PLAIN = 1;
+	private static final int KIND_NUMERIC = 2;
+	private static final int KIND_DATETIME = 3;
+	private static final int KIND_OTHER = 4;
+
+	private final Set<String> predicates;
+	// predicate -> kind -> value -> subjects
+	private final Map<String, List<TreeMap<Key, Set<String>>>> values = new HashMap<String, List<TreeMap<Key, Set<String>>>>();
+	// subject -> its entries, for reloading
+	private final Map<String, List<Entry>> subjects = new HashMap<String, List<Entry>>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private int entryCount = 0;
+	private final AtomicLong lookups = new AtomicLong();
+	private final AtomicLong reloads = new AtomicLong();
+
+	public PropertyIndex(Collection<String> predicates) {
+		this.predicates = Collections.unmodifiableSet(new LinkedHashSet<String>(predicates));
+		for (String predicate : this.predicates) {
+			List<TreeMap<Key, Set<String>>> kinds = new ArrayList<TreeMap<Key, Set<String>>>();
+			for (int i = 0; i <= KIND_OTHER; i++) {
+				kinds.add(new TreeMap<Key, Set<String>>());
+			}
+			values.put(predicate, kinds);
+		}
+	}
+
+	/**
+	 * @param config comma separated property URIs, null for the defaults
+	 * @return the index, or null when the list is empty
+	 */
+	public static PropertyIndex fromConfig(String config) {
+		List<String> predicates = parsePredicates(config, DEFAULT_PROPERTIES);
+		return predicates.isEmpty() ? null : new PropertyIndex(predicates);
+	}
+
+	/**
+	 * @param config comma separated property URIs, null for the defaults
+	 */
+	static List<String> parsePredicates(String config, String[] defaults) {
+		if( config == null ) {
+			config = join(defaults);
+		}
+		List<String> predicates = new ArrayList<String>();
+		for (String predicate : config.split(",")) { //$NON-NLS-1$
+			predicate = predicate.trim();
+			if( predicate.startsWith("<") && predicate.endsWith(">") ) { //$NON-NLS-1$ //$NON-NLS-2$
+				predicate = predicate.substring(1, predicate.length() - 1);
+			}
+			if( predicate.length() > 0 ) {
+				predicates.add(predicate);
+			}
+		}
+		return predicates;
+	}
+
+	private static String join(String[] predicates) {
+		StringBuilder sb = new StringBuilder();
+		for (String predicate : predicates) {
+			if( sb.length() > 0 ) sb.append(',');
+			sb.append(predicate);
+		}
+		return sb.toString();
+	}
+
+	public Set<String> getPredicates() {
+		return predicates;
+	}
+
+	public boolean isIndexed(String predicate) {
+		return predicates.contains(predicate);
+	}
+
+	/**
+	 * Finds the subjects with a value of the property that compares to the
+	 * given one the way the SPARQL it replaces would.
+	 * @param op one of <code>= &lt; &lt;= &gt; &gt;=</code>
+	 * @param byValue compare equal values of different numeric datatypes as
+	 * equal, as a FILTER does; otherwise equality is RDF term equality, as in
+	 * a triple pattern
+	 * @return the matching subjects, a copy, or null when the index can't
+	 * answer (the property isn't indexed, the operator or value isn't supported)
+	 */
+	public SortedSet<String> find(String predicate, String op, Value value, boolean byValue) {
+		List<TreeMap<Key, Set<String>>> kinds = values.get(predicate);
+		int kind = kind(value);
+		Key key = key(value, kind);
+		if( kinds == null || key == null ) return null;
+		boolean equal = "=".equals(op); //$NON-NLS-1$
+		if( !equal && kind != KIND_PLAIN && kind != KIND_NUMERIC && kind != KIND_DATETIME ) {
+			return null;
+		}
+		lookups.incrementAndGet();
+		SortedSet<String> found = new TreeSet<String>();
+		lock.readLock().lock();
+		try {
+			TreeMap<Key, Set<String>> map = kinds.get(kind);
+			if( equal && !byValue ) {
+				Set<String> exact = map.get(key);
+				if( exact != null ) found.addAll(exact);
+				return found;
+			}
+			Key low = key.bound(false);
+			Key high = key.bound(true);
+			NavigableMap<Key, Set<String>> range;
+			if( equal ) {
+				range = map.subMap(low, true, high, true);
+			} else if( ">".equals(op) ) { //$NON-NLS-1$
+				range = map.tailMap(high, false);
+			} else if( ">=".equals(op) ) { //$NON-NLS-1$
+				range = map.tailMap(low, true);
+			} else if( "<".equals(op) ) { //$NON-NLS-1$
+				range = map.headMap(low, false);
+			} else if( "<=".equals(op) ) { //$NON-NLS-1$
+				range = map.headMap(high, true);
+			} else {
+				return null;
+			}
+			for (Set<String> subjects : range.values()) {
+				found.addAll(subjects);
+			}
+			return found;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Groups subjects by their values of the property, as <code>GROUP BY</code>
+	 * on an optional pattern would.  A subject with several values is in
+	 * several groups.
+	 * @param members the subjects to group
+	 * @return the members having each value, values in index order, and
+	 * under a null key the members without a value; null when the property
+	 * isn't indexed
+	 */
+	public Map<Value, Set<String>> group(String predicate, Set<String> members) {
+		List<TreeMap<Key, Set<String>>> kinds = values.get(predicate);
+		if( kinds == null ) return null;
+		lookups.incrementAndGet();
+		Map<Value, Set<String>> groups = new LinkedHashMap<Value, Set<String>>();
+		Set<String> missing = new TreeSet<String>(members);
+		lock.readLock().lock();
+		try {
+			for (TreeMap<Key, Set<String>> map : kinds) {
+				for (Map.Entry<Key, Set<String>> entry : map.entrySet()) {
+					Set<String> found = intersect(entry.getValue(), members);
+					if( found.isEmpty() ) continue;
+					groups.put(entry.getKey().term, found);
+					missing.removeAll(found);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		if( !missing.isEmpty() ) {
+			groups.put(null, missing);
+		}
+		return groups;
+	}
+
+	/**
+	 * Finds the least, or greatest, date of the members for the property, or
+	 * the least or greatest number when they have no dates.  Other kinds of
+	 * values are not compared.
+	 * @return the value, or null if the members have none
+	 */
+	public Value extreme(String predicate, Set<String> members, boolean max) {
+		List<TreeMap<Key, Set<String>>> kinds = values.get(predicate);
+		if( kinds == null ) return null;
+		lookups.incrementAndGet();
+		lock.readLock().lock();
+		try {
+			for (int kind : new int[] { KIND_DATETIME, KIND_NUMERIC }) {
+				TreeMap<Key, Set<String>> map = kinds.get(kind);
+				for (Map.Entry<Key, Set<String>> entry : (max ? map.descendingMap() : map).entrySet()) {
+					if( !intersect(entry.getValue(), members).isEmpty() ) {
+						return entry.getKey().term;
+					}
+				}
+			}
+			return null;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static Set<String> intersect(Set<String> a, Set<String> b) {
+		Set<String> found = new TreeSet<String>();
+		Set<String> small = a.size() <= b.size() ? a : b;
+		Set<String> large = small == a ? b : a;
+		for (String subject : small) {
+			if( large.contains(subject) ) found.add(subject);
+		}
+		return found;
+	}
+
+	public void reload(RepositoryConnection conn, Collection<String> subjectUris) throws RepositoryException {
+		ValueFactory vf = conn.getValueFactory();
+		Map<String, List<Statement>> current = new LinkedHashMap<String, List<Statement>>();
+		for (String subjectUri : subjectUris) {
+			List<Statement> statements = new ArrayList<Statement>();
+			URI subject = vf.createURI(subjectUri);
+			for (String predicate : predicates) {
+				RepositoryResult<Statement> result = conn.getStatements(subject, vf.createURI(predicate), null, false);
+				try {
+					while( result.hasNext() ) {
+						statements.add(result.next());
+					}
+				} finally {
+					result.close();
+				}
+			}
+			current.put(subjectUri, statements);
+		}
+		lock.writeLock().lock();
+		try {
+			for (Map.Entry<String, List<Statement>> entry : current.entrySet()) {
+				removeSubject(entry.getKey());
+				for (Statement statement : entry.getValue()) {
+					add(statement);
+				}
+			}
+			reloads.addAndGet(current.size());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void rebuild(RepositoryConnection conn) throws RepositoryException {
+		ValueFactory vf = conn.getValueFactory();
+		lock.writeLock().lock();
+		try {
+			clearEntries();
+			for (String predicate : predicates) {
+				RepositoryResult<Statement> result = conn.getStatements(null, vf.createURI(predicate), null, false);
+				try {
+					while( result.hasNext() ) {
+						add(result.next());
+					}
+				} finally {
+					result.close();
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			clearEntries();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void clearEntries() {
+		for (List<TreeMap<Key, Set<String>>> kinds : values.values()) {
+			for (TreeMap<Key, Set<String>> map : kinds) {
+				map.clear();
+			}
+		}
+		subjects.clear();
+		entryCount = 0;
+	}
+
+	// write lock held
+	private void add(Statement statement) {
+		Resource subject = statement.getSubject();
+		if( !(subject instanceof URI) ) return;
+		String predicate = statement.getPredicate().stringValue();
+		List<TreeMap<Key, Set<String>>> kinds = values.get(predicate);
+		int kind = kind(statement.getObject());
+		Key key = key(statement.getObject(), kind);
+		if( kinds == null || key == null ) return;
+		String subjectUri = subject.stringValue();
+		TreeMap<Key, Set<String>> map = kinds.get(kind);
+		Set<String> keySubjects = map.get(key);
+		if( keySubjects == null ) {
+			keySubjects = new TreeSet<String>();
+			map.put(key, keySubjects);
+		}
+		if( !keySubjects.add(subjectUri) ) return;
+		List<Entry> entries = subjects.get(subjectUri);
+		if( entries == null ) {
+			entries = new ArrayList<Entry>(4);
+			subjects.put(subjectUri, entries);
+		}
+		entries.add(new Entry(map, key));
+		entryCount++;
+	}
+
+	// write lock held
+	private void removeSubject(String subjectUri) {
+		List<Entry> entries = subjects.remove(subjectUri);
+		if( entries == null ) return;
+		for (Entry entry : entries) {
+			Set<String> keySubjects = entry.map.get(entry.key);
+			if( keySubjects != null && keySubjects.remove(subjectUri) ) {
+				entryCount--;
+				if( keySubjects.isEmpty() ) {
+					entry.map.remove(entry.key);
+				}
+			}
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return entryCount;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		metrics.put("propertyIndex.properties", predicates.size());
+		metrics.put("propertyIndex.entries", size());
+		metrics.put("propertyIndex.lookups", lookups.get());
+		metrics.put("propertyIndex.reloads", reloads.get());
+		return metrics;
+	}
+
+	private static int kind(Value value) {
+		if( value instanceof URI ) {
+			return KIND_IRI;
+		}
+		if( !(value instanceof Literal) ) {
+			return -1;
+		}
+		Literal literal = (Literal) value;
+		URI datatype = literal.getDatatype();
+		if( datatype == null ) {
+			return literal.getLanguage() == null ? KIND_PLAIN : KIND_OTHER;
+		}
+		if( XMLDatatypeUtil.isNumericDatatype(datatype) ) {
+			return KIND_NUMERIC;
+		}
+		if( XMLSchema.DATETIME.equals(datatype) ) {
+			return KIND_DATETIME;
+		}
+		return KIND_OTHER;
+	}
+
+	/**
+	 * @return the key of the value, null if it can't be indexed
+	 */
+	private static Key key(Value value, int kind) {
+		String label = value.stringValue();
+		try {
+			switch (kind) {
+			case KIND_IRI :
+			case KIND_PLAIN :
+				return new Key(label, null, value);
+			case KIND_NUMERIC :
+				return new Key(new BigDecimal(label.trim()), ((Literal) value).getDatatype().stringValue(), value);
+			case KIND_DATETIME :
+				long millis = XMLDatatypeUtil.parseCalendar(label).toGregorianCalendar().getTimeInMillis();
+				return new Key(Long.valueOf(millis), null, value);
+			case KIND_OTHER :
+				Literal literal = (Literal) value;
+				String qualifier = literal.getDatatype() != null ? literal.getDatatype().stringValue() : '@' + literal.getLanguage();
+				return new Key(label, qualifier, value);
+			}
+		} catch (IllegalArgumentException e) {
+			// NaN, INF, or not a valid lexical form, a FILTER would reject it too
+		}
+		return null;
+	}
+
+	/**
+	 * A value in one of the kind maps.  Values of a kind are compared by value
+	 * then datatype, so a range over a value spans all its numeric types.
+	 */
+	private static class Key implements Comparable<Key> {
+		private final Comparable<Object> value;
+		private final String datatype;
+		private final boolean high;
+		// the value as first stored, null for bounds
+		final Value term;
+
+		@SuppressWarnings("unchecked")
+		Key(Comparable<?> value, String datatype, boolean high) {
+			this.value = (Comparable<Object>) value;
+			this.datatype = datatype;
+			this.high = high;
+			this.term = null;
+		}
+
+		@SuppressWarnings("unchecked")
+		Key(Comparable<?> value, String datatype, Value term) {
+			this.value = (Comparable<Object>) value;
+			this.datatype = datatype;
+			this.high = false;
+			this.term = term;
+		}
+
+		/**
+		 * @param high true for the key sorting after all keys of the same value,
+		 * false for the one sorting before them
+		 */
+		Key bound(boolean high) {
+			return new Key(value, null, high);
+		}
+
+		public int compareTo(Key other) {
+			int cmp = value.compareTo(other.value);
+			if( cmp != 0 ) return cmp;
+			if( high != other.high ) return high ? 1 : -1;
+			if( datatype == null ) return other.datatype == null ? 0 : -1;
+			if( other.datatype == null ) return 1;
+			return datatype.compareTo(other.datatype);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && compareTo((Key) obj) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			// equal numbers may differ in scale, only the datatype is safe to hash
+			return datatype == null ? 0 : datatype.hashCode();
+		}
+	}
+
+	private static class Entry {
+		final TreeMap<Key, Set<String>> map;
+		final Key key;
+
+		Entry(TreeMap<Key, Set<String>> map, Key key) {
+			this.map = map;
+			this.key = key;
+		}
+	}
+
+}
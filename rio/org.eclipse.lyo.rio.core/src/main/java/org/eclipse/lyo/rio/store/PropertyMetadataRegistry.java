@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.JsonFormatter2.IMultiValueResolver;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+
+/**
+ * What is known about the properties of each resource type: whether a
+ * property is multi-valued, its value type, and the namespace prefixes the
+ * type is written with.
+ * <p>
+ * Metadata is built once, from a domain's constants or from a resource
+ * shape, and registered under its rdf:type.  Lookups are a hash get, so the
+ * formatters can ask about every property they write.  A
+ * {@link ResourceMetadata} is configured before it is registered, and not
+ * changed after.
+ */
+public class PropertyMetadataRegistry {
+
+	private static final ConcurrentHashMap<String, ResourceMetadata> types = new ConcurrentHashMap<String, ResourceMetadata>();
+
+	public static final ResourceMetadata SERVICE_PROVIDER_CATALOG = register(
+			new ResourceMetadata(IConstants.OSLC_TYPE_SERVICEPROVIDERCATALOG)
+			.addMultiValued(IConstants.OSLC_SERVICEPROVIDER, IConstants.OSLC_DOMAIN));
+
+	public static final ResourceMetadata SERVICE_PROVIDER = register(
+			new ResourceMetadata(IConstants.OSLC_TYPE_SERVICEPROVIDER)
+			.addMultiValued(IConstants.OSLC_SERVICE, IConstants.OSLC_PREFIXDEFINITION,
+					IConstants.OSLC_CREATIONFACTORY, IConstants.OSLC_QUERYCAPABILITY,
+					IConstants.OSLC_SELECTIONDIALOG, IConstants.OSLC_CREATIONDIALOG,
+					IConstants.OSLC_RESOURCESHAPE, IConstants.OSLC_RESOURCETYPE,
+					IConstants.OSLC_USAGE, IConstants.OSLC_DETAILS));
+
+	/**
+	 * Registers the metadata under its type, replacing any already there.
+	 * @return the metadata, so it can be kept in a constant
+	 */
+	public static ResourceMetadata register(ResourceMetadata metadata) {
+		types.put(metadata.getType(), metadata);
+		return metadata;
+	}
+
+	/**
+	 * @return the metadata registered for the rdf:type, or null
+	 */
+	public static ResourceMetadata get(String type) {
+		if( type == null ) {
+			return null;
+		}
+		return types.get(type);
+	}
+
+	/**
+	 * Reads the metadata of the type an OSLC resource shape describes.  A
+	 * property is multi-valued when it occurs zero-or-many or one-or-many
+	 * times; where a property gives more than one value type, the first is
+	 * kept.  The metadata is not registered.
+	 * @param baseUri the URI the shape's relative URIs are resolved against
+	 */
+	public static ResourceMetadata loadShape(InputStream shape, String baseUri) throws RioServerException {
+		RioStatementHandler handler = new RioStatementHandler(baseUri, null);
+		RDFParser parser = Rio.createParser(RDFFormat.RDFXML);
+		parser.setRDFHandler(handler);
+		try {
+			parser.parse(shape, baseUri);
+		} catch (Exception e) {
+			throw new RioServerException(e);
+		}
+
+		String type = null;
+		List<String> propertyNodes = new ArrayList<String>();
+		Map<String, List<RioStatement>> bySubject = new HashMap<String, List<RioStatement>>();
+		for (RioStatement statement : handler.getStatements()) {
+			String predicate = statement.getPredicate();
+			if( IConstants.OSLC_DESCRIBES.equals(predicate) && type == null ) {
+				type = statement.getObject().stringValue();
+			} else if( IConstants.OSLC_PROPERTY.equals(predicate) ) {
+				propertyNodes.add(statement.getObject().stringValue());
+			}
+			List<RioStatement> statements = bySubject.get(statement.getSubject());
+			if( statements == null ) {
+				statements = new ArrayList<RioStatement>();
+				bySubject.put(statement.getSubject(), statements);
+			}
+			statements.add(statement);
+		}
+		if( type == null ) {
+			throw new RioServerException("Resource shape describes no type: " + baseUri); //$NON-NLS-1$
+		}
+
+		ResourceMetadata metadata = new ResourceMetadata(type);
+		for (String node : propertyNodes) {
+			List<RioStatement> statements = bySubject.get(node);
+			if( statements == null ) {
+				continue;
+			}
+			String property = null;
+			String occurs = null;
+			String valueType = null;
+			for (RioStatement statement : statements) {
+				String predicate = statement.getPredicate();
+				if( IConstants.OSLC_PROPERTYDEFINITION.equals(predicate) ) {
+					property = statement.getObject().stringValue();
+				} else if( IConstants.OSLC_OCCURS.equals(predicate) ) {
+					occurs = statement.getObject().stringValue();
+				} else if( IConstants.OSLC_VALUETYPE.equals(predicate) && valueType == null ) {
+					valueType = statement.getObject().stringValue();
+				}
+			}
+			if( property != null ) {
+				boolean multiValued = IConstants.OSLC_ZERO_OR_MANY.equals(occurs) || IConstants.OSLC_ONE_OR_MANY.equals(occurs);
+				metadata.addProperty(property, multiValued, valueType);
+			}
+		}
+		return metadata;
+	}
+
+	/**
+	 * One property of a resource type.
+	 */
+	public static class PropertyMetadata {
+		private final String property;
+		private final boolean multiValued;
+		private final String valueType;
+
+		public PropertyMetadata(String property, boolean multiValued, String valueType) {
+			this.property = TermDictionary.intern(property);
+			this.multiValued = multiValued;
+			this.valueType = TermDictionary.intern(valueType);
+		}
+
+		public String getProperty() {
+			return property;
+		}
+
+		public boolean isMultiValued() {
+			return multiValued;
+		}
+
+		/**
+		 * @return the oslc:valueType of the property, or null if not known
+		 */
+		public String getValueType() {
+			return valueType;
+		}
+	}
+
+	/**
+	 * The properties of one resource type.  Serves as the
+	 * {@link IMultiValueResolver} of the formatters that write the type.
+	 */
+	public static class ResourceMetadata implements IMultiValueResolver {
+		private final String type;
+		private final Map<String, PropertyMetadata> properties = new HashMap<String, PropertyMetadata>();
+		private final Map<String, String> namespacePrefixes = new LinkedHashMap<String, String>();
+
+		public ResourceMetadata(String type) {
+			this.type = TermDictionary.intern(type);
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public ResourceMetadata addProperty(String property, boolean multiValued, String valueType) {
+			properties.put(property, new PropertyMetadata(property, multiValued, valueType));
+			return this;
+		}
+
+		/**
+		 * Marks the properties multi-valued, keeping any value type already known.
+		 */
+		public ResourceMetadata addMultiValued(String... properties) {
+			for (String property : properties) {
+				PropertyMetadata known = this.properties.get(property);
+				addProperty(property, true, known == null ? null : known.getValueType());
+			}
+			return this;
+		}
+
+		public ResourceMetadata addNamespacePrefix(String ns, String prefix) {
+			namespacePrefixes.put(ns, prefix);
+			return this;
+		}
+
+		/**
+		 * @return the property's metadata, or null if the property is not known
+		 */
+		public PropertyMetadata getProperty(String property) {
+			return properties.get(property);
+		}
+
+		public Collection<PropertyMetadata> getProperties() {
+			return Collections.unmodifiableCollection(properties.values());
+		}
+
+		@Override
+		public boolean isMultiValued(String property) {
+			PropertyMetadata metadata = properties.get(property);
+			return metadata != null && metadata.isMultiValued();
+		}
+
+		/**
+		 * @return namespace -> prefix, for the namespaces the type is written with
+		 */
+		public Map<String, String> getNamespacePrefixes() {
+			return Collections.unmodifiableMap(namespacePrefixes);
+		}
+	}
+
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lyo.rio.store.StoreMetrics.Operation;
+import org.openrdf.model.Value;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.QueryInterruptedException;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.repository.RepositoryConnection;
+
+/**
+ * Forward only cursor over the rows of a SPARQL query, converted one at a
+ * time as they are read.  The cursor holds a store connection until it is
+ * exhausted or {@link #close()} is called, so always close it in a finally
+ * block.
+ * <p>
+ * An open cursor is listed in the store's {@link RunningQueries} and can be
+ * cancelled from there.  A cursor stops at its row limit, and
+ * {@link #isTruncated()} tells whether the query had more.
+ * <p>
+ * A cursor can also replay rows read earlier, e.g. from the {@link QueryResultCache}.
+ */
+public class QueryCursor {
+
+	private final RioStore store;
+	private final RepositoryConnection conn;
+	private final TupleQueryResult result;
+	private final int limit;
+	private final long start;
+	private final int timeout;
+	private final long id;
+	private int count = 0;
+	private boolean closed = false;
+	private boolean failed = false;
+	private boolean truncated = false;
+	private volatile boolean cancelled = false;
+	private final List<String> bindingNames;
+	private final Iterator<Map<String, RioValue>> rows;
+	private ICompletionListener listener = null;
+	private List<Map<String, RioValue>> recorded = null;
+	private int maxRecorded = 0;
+
+	/**
+	 * Receives the rows of a cursor that was read to the end.
+	 */
+	public interface ICompletionListener {
+		public void completed(List<String> bindingNames, List<Map<String, RioValue>> rows);
+	}
+
+	/**
+	 * @param timeout the query's time budget in seconds, 0 for none
+	 */
+	QueryCursor(RioStore store, RepositoryConnection conn, TupleQueryResult result, int limit, long start, String query, int timeout) {
+		this.store = store;
+		this.conn = conn;
+		this.result = result;
+		this.limit = limit;
+		this.start = start;
+		this.timeout = timeout;
+		this.bindingNames = null;
+		this.rows = null;
+		this.id = store.getRunningQueries().register(query, timeout, this);
+	}
+
+	/**
+	 * A cursor over rows that have already been read.
+	 */
+	public QueryCursor(List<String> bindingNames, List<Map<String, RioValue>> rows) {
+		this.store = null;
+		this.conn = null;
+		this.result = null;
+		this.limit = Integer.MAX_VALUE;
+		this.start = 0;
+		this.timeout = 0;
+		this.id = 0;
+		this.bindingNames = bindingNames;
+		this.rows = rows.iterator();
+	}
+
+	/**
+	 * Keeps the rows as they are read, and hands them to the listener if the
+	 * cursor is read to the end without an error.
+	 * @param maxRows give up keeping the rows after this many
+	 */
+	public void setCompletionListener(ICompletionListener listener, int maxRows) {
+		this.listener = listener;
+		this.maxRecorded = maxRows;
+		this.recorded = new ArrayList<Map<String, RioValue>>();
+	}
+
+	/**
+	 * @return the projected variable names, in query order
+	 */
+	public List<String> getBindingNames() {
+		return result != null ? result.getBindingNames() : bindingNames;
+	}
+
+	public boolean hasNext() throws RioServerException {
+		if( closed ) return false;
+		if( cancelled ) {
+			throw fail(null);
+		}
+		try {
+			if( count < limit && (result != null ? result.hasNext() : rows.hasNext()) ) {
+				return true;
+			}
+			if( count >= limit && result != null && result.hasNext() ) {
+				truncated = true;
+				store.getRunningQueries().truncated();
+			}
+		} catch (Exception e) {
+			throw fail(e);
+		}
+		if( recorded != null ) {
+			listener.completed(getBindingNames(), recorded);
+			recorded = null;
+		}
+		close();
+		return false;
+	}
+
+	/**
+	 * @return the next row, variable name to value; unbound variables are
+	 * left out.
+	 */
+	public Map<String, RioValue> next() throws RioServerException {
+		if( !hasNext() ) {
+			throw new RioServerException("No more results"); //$NON-NLS-1$
+		}
+		if( result == null ) {
+			count++;
+			return rows.next();
+		}
+		try {
+			BindingSet bindingSet = result.next();
+			Map<String, RioValue> row = new LinkedHashMap<String, RioValue>();
+			for (String name : result.getBindingNames()) {
+				Value value = bindingSet.getValue(name);
+				if( value != null ) {
+					row.put(name, RioStore.convertValue(value));
+				}
+			}
+			count++;
+			if( recorded != null ) {
+				if( recorded.size() < maxRecorded ) {
+					recorded.add(row);
+				} else {
+					recorded = null;
+				}
+			}
+			return row;
+		} catch (Exception e) {
+			throw fail(e);
+		}
+	}
+
+	private RioServerException fail(Exception e) {
+		failed = true;
+		close();
+		if( cancelled ) {
+			return new RioServerException("Query cancelled"); //$NON-NLS-1$
+		}
+		if( e instanceof QueryInterruptedException || isPastTimeLimit() ) {
+			store.getRunningQueries().timedOut();
+			return new RioServerException("Query exceeded its time limit of " + timeout + " seconds"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return new RioServerException(e);
+	}
+
+	/**
+	 * When the time limit is hit, the evaluation is closed from the timer's
+	 * thread, and a reader inside hasNext() or next() can get some other
+	 * error than a QueryInterruptedException.  Anything that fails once the
+	 * budget is spent is taken as a timeout.
+	 */
+	private boolean isPastTimeLimit() {
+		// start is taken before the query is evaluated, when its clock starts
+		return timeout > 0 && System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(timeout);
+	}
+
+	/**
+	 * Stops the query from another thread.  The reader gets an error on its
+	 * next row, and closes the cursor as usual.
+	 */
+	void cancel() {
+		if( result == null ) return;
+		cancelled = true;
+		try {
+			// ends the evaluation, the connection stays with the reader
+			result.close();
+		} catch (Exception e) {
+			// the reader finds out anyway
+		}
+	}
+
+	/**
+	 * @return true if the cursor stopped at its row limit with more rows left
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * @return the number of rows read so far
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Releases the query result and the connection.  Safe to call more than once.
+	 */
+	public void close() {
+		if( closed ) return;
+		closed = true;
+		recorded = null;
+		if( result == null ) return;
+		store.getRunningQueries().unregister(id);
+		try {
+			result.close();
+		} catch (Exception e) {
+			if( !cancelled ) e.printStackTrace();
+		}
+		store.close(conn);
+		store.getStoreMetrics().record(Operation.QUERY, start, !failed);
+	}
+
+}
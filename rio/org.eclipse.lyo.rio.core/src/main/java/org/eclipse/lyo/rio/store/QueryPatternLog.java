@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.algebra.StatementPattern;
+import org.openrdf.query.algebra.Var;
+import org.openrdf.query.algebra.helpers.StatementPatternCollector;
+import org.openrdf.query.parser.ParsedQuery;
+import org.openrdf.query.parser.QueryParserUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts the statement access patterns the store sees, for {@link IndexAdvisor}.
+ * <p>
+ * A pattern is the set of statement components that are bound, written in
+ * <code>spoc</code> order: <code>c</code> for a whole resource graph read,
+ * <code>po</code> for <code>?uri rdf:type &lt;X&gt;</code>, <code>-</code> for
+ * a full scan.  Direct statement lookups are recorded as made; SPARQL queries
+ * are parsed and every statement pattern in them is recorded.
+ * <p>
+ * Counts are kept as a properties file (pattern=count) so they accumulate
+ * across restarts and can be fed to the index tool offline.
+ */
+public class QueryPatternLog {
+
+	private static final Logger log = LoggerFactory.getLogger(QueryPatternLog.class);
+
+	public static final String NONE = "-"; //$NON-NLS-1$
+
+	private final File file;
+	private final ConcurrentHashMap<String, AtomicLong> counts = new ConcurrentHashMap<String, AtomicLong>();
+
+	/**
+	 * @param file where counts are loaded from and saved to, may be null
+	 */
+	public QueryPatternLog(File file) {
+		this.file = file;
+		if( file != null && file.exists() ) {
+			try {
+				for (Map.Entry<String, Long> entry : load(file).entrySet()) {
+					counts.put(entry.getKey(), new AtomicLong(entry.getValue()));
+				}
+			} catch (IOException e) {
+				log.warn("Unable to read query pattern log " + file, e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	public static String pattern(boolean s, boolean p, boolean o, boolean c) {
+		StringBuilder sb = new StringBuilder(4);
+		if( s ) sb.append('s');
+		if( p ) sb.append('p');
+		if( o ) sb.append('o');
+		if( c ) sb.append('c');
+		return sb.length() == 0 ? NONE : sb.toString();
+	}
+
+	public void record(boolean s, boolean p, boolean o, boolean c) {
+		record(pattern(s, p, o, c), 1);
+	}
+
+	public void record(String pattern, long n) {
+		AtomicLong count = counts.get(pattern);
+		if( count == null ) {
+			AtomicLong created = new AtomicLong();
+			count = counts.putIfAbsent(pattern, created);
+			if( count == null ) {
+				count = created;
+			}
+		}
+		count.addAndGet(n);
+	}
+
+	/**
+	 * Records every statement pattern of a query.  Queries that do not parse are
+	 * ignored, the store will report them.
+	 */
+	public void recordQuery(QueryLanguage language, String query) {
+		try {
+			ParsedQuery parsed = QueryParserUtil.parseQuery(language, query, null);
+			for (StatementPattern sp : StatementPatternCollector.process(parsed.getTupleExpr())) {
+				record(isBound(sp.getSubjectVar()), isBound(sp.getPredicateVar()), isBound(sp.getObjectVar()), isBound(sp.getContextVar()));
+			}
+		} catch (Exception e) {
+			log.debug("Query not recorded", e); //$NON-NLS-1$
+		}
+	}
+
+	private static boolean isBound(Var var) {
+		return var != null && var.hasValue();
+	}
+
+	/**
+	 * @return pattern counts, sorted by pattern
+	 */
+	public Map<String, Long> getCounts() {
+		Map<String, Long> snapshot = new TreeMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> entry : counts.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().get());
+		}
+		return snapshot;
+	}
+
+	public void save() {
+		if( file == null ) return;
+		Properties p = new Properties();
+		for (Map.Entry<String, Long> entry : getCounts().entrySet()) {
+			p.setProperty(entry.getKey(), entry.getValue().toString());
+		}
+		OutputStream os = null;
+		try {
+			os = new FileOutputStream(file);
+			p.store(os, "Statement access patterns (bound components in spoc order)"); //$NON-NLS-1$
+		} catch (IOException e) {
+			log.warn("Unable to write query pattern log " + file, e); //$NON-NLS-1$
+		} finally {
+			if( os != null ) {
+				try {
+					os.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	public static Map<String, Long> load(File file) throws IOException {
+		Properties p = new Properties();
+		InputStream is = new FileInputStream(file);
+		try {
+			p.load(is);
+		} finally {
+			is.close();
+		}
+		Map<String, Long> loaded = new TreeMap<String, Long>();
+		for (String pattern : p.stringPropertyNames()) {
+			try {
+				loaded.put(pattern, Long.valueOf(p.getProperty(pattern).trim()));
+			} catch (NumberFormatException e) {
+				log.warn("Ignoring bad count for pattern " + pattern); //$NON-NLS-1$
+			}
+		}
+		return loaded;
+	}
+
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of the rows of OSLC query pages, so the same query asked
+ * again skips the SPARQL evaluation.
+ * <p>
+ * Pages are keyed by the normalized query and page, and remember the write
+ * generation they were read at (see {@link RioStore#getWriteGeneration(String)}).
+ * A page is only returned while the generation is unchanged, so a write to a
+ * resource of the queried type drops every cached page of that type.
+ */
+public class QueryResultCache {
+
+	public static final int DEFAULT_MAX_PAGES = 200;
+
+	/**
+	 * Pages with more rows are not kept
+	 */
+	public static final int MAX_ROWS = 5000;
+
+	private final int maxPages;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong stale = new AtomicLong();
+
+	private final LinkedHashMap<String, Page> pages;
+
+	public QueryResultCache(int maxPages) {
+		this.maxPages = maxPages;
+		this.pages = new LinkedHashMap<String, Page>(16, 0.75f, true) {
+			private static final long serialVersionUID = -6011253563920722341L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+				return size() > QueryResultCache.this.maxPages;
+			}
+		};
+	}
+
+	/**
+	 * @param generation the current write generation of what the query reads
+	 * @return the cached page, or null if there is none for the generation
+	 */
+	public Page get(String key, long generation) {
+		Page page;
+		synchronized (pages) {
+			page = pages.get(key);
+			if( page != null && page.generation != generation ) {
+				pages.remove(key);
+				stale.incrementAndGet();
+				page = null;
+			}
+		}
+		if( page != null ) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+		return page;
+	}
+
+	public void put(String key, Page page) {
+		if( page.rows.size() > MAX_ROWS ) return;
+		synchronized (pages) {
+			Page current = pages.get(key);
+			// a slower reader may finish after a newer page was cached
+			if( current == null || current.generation < page.generation ) {
+				pages.put(key, page);
+			}
+		}
+	}
+
+	public void clear() {
+		synchronized (pages) {
+			pages.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (pages) {
+			return pages.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		long h = hits.get();
+		long m = misses.get();
+		metrics.put("queryResultCache.size", size());
+		metrics.put("queryResultCache.maxPages", maxPages);
+		metrics.put("queryResultCache.hits", h);
+		metrics.put("queryResultCache.misses", m);
+		metrics.put("queryResultCache.hitRatio", h + m == 0 ? 0 : (double) h / (h + m));
+		metrics.put("queryResultCache.stale", stale.get());
+		return metrics;
+	}
+
+	/**
+	 * The rows of one page of a query, and the total member count shown with it.
+	 */
+	public static class Page {
+		public final long generation;
+		public final int totalCount;
+		public final List<String> bindingNames;
+		public final List<Map<String, RioValue>> rows;
+
+		public Page(long generation, int totalCount, List<String> bindingNames, List<Map<String, RioValue>> rows) {
+			this.generation = generation;
+			this.totalCount = totalCount;
+			this.bindingNames = Collections.unmodifiableList(bindingNames);
+			this.rows = Collections.unmodifiableList(rows);
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.http.HTTPRepository;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Repository on a remote Sesame server, addressed by <code>remoteServer</code>
+ * and <code>remoteRepository</code> (or a full repository URL in
+ * <code>remoteServer</code> alone).  Optional <code>remoteUser</code> and
+ * <code>remotePassword</code> are sent with every request.
+ * <p>
+ * When <code>remoteServer</code> is <code>local</code> a non-persistent
+ * in-process MemoryStore stands in for the server, so tests can run the
+ * remote configuration without one.
+ * <p>
+ * Writes made to the remote repository by other clients are not seen through
+ * the resource cache, so turn <code>resourceCache</code> off when the
+ * repository is shared.
+ */
+public class RemoteStoreProvider implements IStoreProvider {
+
+	private static final Logger log = LoggerFactory.getLogger(RemoteStoreProvider.class);
+
+	public static final String NAME = "remote"; //$NON-NLS-1$
+	public static final String PROP_SERVER = "remoteServer"; //$NON-NLS-1$
+	public static final String PROP_REPOSITORY = "remoteRepository"; //$NON-NLS-1$
+	public static final String PROP_USER = "remoteUser"; //$NON-NLS-1$
+	public static final String PROP_PASSWORD = "remotePassword"; //$NON-NLS-1$
+	public static final String LOCAL_STAND_IN = "local"; //$NON-NLS-1$
+
+	public String getName() {
+		return NAME;
+	}
+
+	public Repository createRepository(File dataDir, Properties config) throws RioServerException {
+		String server = config.getProperty(PROP_SERVER);
+		if( server == null ) {
+			throw new RioServerException(PROP_SERVER + " must be set for the remote store"); //$NON-NLS-1$
+		}
+		if( LOCAL_STAND_IN.equals(server) ) {
+			log.warn("Using an in-memory stand-in for the remote store"); //$NON-NLS-1$
+			return new SailRepository(new MemoryStore());
+		}
+
+		String repositoryId = config.getProperty(PROP_REPOSITORY);
+		HTTPRepository repository = repositoryId == null ? new HTTPRepository(server) : new HTTPRepository(server, repositoryId);
+		String user = config.getProperty(PROP_USER);
+		if( user != null ) {
+			repository.setUsernameAndPassword(user, config.getProperty(PROP_PASSWORD));
+		}
+		return repository;
+	}
+
+}
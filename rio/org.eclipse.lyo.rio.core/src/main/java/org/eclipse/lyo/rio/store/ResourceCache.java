@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of resource graphs, keyed by context URI.
+ * <p>
+ * Entries are snapshots of the statements read from the store.  Callers
+ * always get fresh {@link RioStatement} copies, so modifying a resource
+ * returned from the cache never changes the cache.
+ * <p>
+ * Every invalidation bumps a version number.  A reader takes the version
+ * before going to the store and passes it to {@link #put}; if a write was
+ * invalidated in between, the (possibly stale) snapshot is dropped.
+ * <p>
+ * Eviction is least recently used, bounded both by the number of resources
+ * and by the total number of statements held.
+ */
+public class ResourceCache {
+
+	public static final int DEFAULT_MAX_RESOURCES = 10000;
+	public static final int DEFAULT_MAX_STATEMENTS = 500000;
+
+	private final int maxResources;
+	private final int maxStatements;
+	private final LinkedHashMap<String, RioStatement[]> entries = new LinkedHashMap<String, RioStatement[]>(256, 0.75f, true);
+	private int statementCount = 0;
+
+	private final AtomicLong version = new AtomicLong();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong puts = new AtomicLong();
+	private final AtomicLong stalePuts = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public ResourceCache() {
+		this(DEFAULT_MAX_RESOURCES, DEFAULT_MAX_STATEMENTS);
+	}
+
+	public ResourceCache(int maxResources, int maxStatements) {
+		this.maxResources = maxResources;
+		this.maxStatements = maxStatements;
+	}
+
+	/**
+	 * @return the version to pass to {@link #put} for a read that starts now
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * @return copies of the cached statements, or null on a miss
+	 */
+	public List<RioStatement> get(String uri) {
+		RioStatement[] snapshot;
+		synchronized (this) {
+			snapshot = entries.get(uri);
+		}
+		if( snapshot == null ) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		List<RioStatement> statements = new ArrayList<RioStatement>(snapshot.length);
+		for (RioStatement statement : snapshot) {
+			statements.add(copy(statement));
+		}
+		return statements;
+	}
+
+	public void put(String uri, List<RioStatement> statements, long readVersion) {
+		if( statements.size() > maxStatements ) {
+			return;
+		}
+		RioStatement[] snapshot = new RioStatement[statements.size()];
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i] = copy(statements.get(i));
+		}
+		synchronized (this) {
+			if( version.get() != readVersion ) {
+				stalePuts.incrementAndGet();
+				return;
+			}
+			RioStatement[] old = entries.put(uri, snapshot);
+			if( old != null ) {
+				statementCount -= old.length;
+			}
+			statementCount += snapshot.length;
+			puts.incrementAndGet();
+			evict();
+		}
+	}
+
+	public void invalidate(String uri) {
+		synchronized (this) {
+			version.incrementAndGet();
+			RioStatement[] old = entries.remove(uri);
+			if( old != null ) {
+				statementCount -= old.length;
+			}
+		}
+		invalidations.incrementAndGet();
+	}
+
+	public void invalidateAll() {
+		synchronized (this) {
+			version.incrementAndGet();
+			entries.clear();
+			statementCount = 0;
+		}
+		invalidations.incrementAndGet();
+	}
+
+	private void evict() {
+		Iterator<RioStatement[]> eldest = entries.values().iterator();
+		while( (entries.size() > maxResources || statementCount > maxStatements) && eldest.hasNext() ) {
+			statementCount -= eldest.next().length;
+			eldest.remove();
+			evictions.incrementAndGet();
+		}
+	}
+
+	private static RioStatement copy(RioStatement statement) {
+		return new RioStatement(statement.getSubject(), statement.getPredicate(), statement.getObject(), statement.getContext());
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	public synchronized int getStatementCount() {
+		return statementCount;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		metrics.put("cache.resources", getSize());
+		metrics.put("cache.statements", getStatementCount());
+		metrics.put("cache.maxResources", maxResources);
+		metrics.put("cache.maxStatements", maxStatements);
+		metrics.put("cache.hits", hits.get());
+		metrics.put("cache.misses", misses.get());
+		metrics.put("cache.puts", puts.get());
+		metrics.put("cache.stalePuts", stalePuts.get());
+		metrics.put("cache.evictions", evictions.get());
+		metrics.put("cache.invalidations", invalidations.get());
+		return metrics;
+	}
+
+	@Override
+	public String toString() {
+		return "ResourceCache" + getMetrics(); //$NON-NLS-1$
+	}
+
+}
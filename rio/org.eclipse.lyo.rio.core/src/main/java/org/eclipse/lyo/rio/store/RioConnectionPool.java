@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of {@link RepositoryConnection}s for a single repository.
+ * <p>
+ * Every borrow must be paired with a release in a <code>finally</code> block:
+ * <pre>
+ * RepositoryConnection conn = pool.borrow();
+ * try {
+ *     ...
+ * } finally {
+ *     pool.release(conn);
+ * }
+ * </pre>
+ * A thread that already holds a connection gets the same connection back on
+ * a nested borrow, so store methods that call each other share one
+ * connection (and one transaction) instead of competing for pool slots.  The
+ * connection goes back to the pool when the outermost borrow is released.
+ * <p>
+ * Leases held longer than the leak threshold are reported once, together with
+ * the stack of the code that borrowed them if stacks are captured.
+ */
+public class RioConnectionPool {
+
+	private static final Logger log = LoggerFactory.getLogger(RioConnectionPool.class);
+
+	public static final int DEFAULT_MAX_CONNECTIONS = 32;
+	public static final long DEFAULT_BORROW_TIMEOUT = 30000;
+	public static final long DEFAULT_LEAK_THRESHOLD = 60000;
+
+	private final Repository repository;
+	private final int maxConnections;
+	private final long borrowTimeout;
+	private final long leakThreshold;
+	private volatile boolean captureStacks = log.isDebugEnabled();
+	private volatile boolean closed = false;
+
+	private final Semaphore permits;
+	private final ConcurrentLinkedQueue<RepositoryConnection> idle = new ConcurrentLinkedQueue<RepositoryConnection>();
+	private final ConcurrentHashMap<RepositoryConnection, Lease> leases = new ConcurrentHashMap<RepositoryConnection, Lease>();
+	private final ThreadLocal<Lease> threadLease = new ThreadLocal<Lease>();
+
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicLong created = new AtomicLong();
+	private final AtomicLong discarded = new AtomicLong();
+	private final AtomicLong borrowed = new AtomicLong();
+	private final AtomicLong reused = new AtomicLong();
+	private final AtomicLong released = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+	private final AtomicLong leaks = new AtomicLong();
+	private final AtomicLong waitTime = new AtomicLong();
+	private final AtomicLong lastLeakCheck = new AtomicLong();
+
+	public RioConnectionPool(Repository repository) {
+		this(repository, DEFAULT_MAX_CONNECTIONS, DEFAULT_BORROW_TIMEOUT, DEFAULT_LEAK_THRESHOLD);
+	}
+
+	public RioConnectionPool(Repository repository, int maxConnections, long borrowTimeout, long leakThreshold) {
+		if( maxConnections <= 0 ) {
+			throw new IllegalArgumentException("maxConnections must be positive"); //$NON-NLS-1$
+		}
+		this.repository = repository;
+		this.maxConnections = maxConnections;
+		this.borrowTimeout = borrowTimeout;
+		this.leakThreshold = leakThreshold;
+		this.permits = new Semaphore(maxConnections, true);
+	}
+
+	/**
+	 * When true the stack of every borrow is recorded so leaks can be traced
+	 * back to their origin, at the cost of one Throwable per borrow.  Off
+	 * unless debug logging is on for the pool.
+	 */
+	public void setCaptureStacks(boolean captureStacks) {
+		this.captureStacks = captureStacks;
+	}
+
+	public RepositoryConnection borrow() throws RioServerException {
+		Lease lease = threadLease.get();
+		if( lease != null ) {
+			if( lease.enter() ) {
+				reused.incrementAndGet();
+				return lease.connection;
+			}
+			// released from another thread, forget it
+			threadLease.remove();
+		}
+
+		if( closed ) {
+			throw new RioServerException("Connection pool is shut down"); //$NON-NLS-1$
+		}
+
+		checkForLeaksPeriodically();
+
+		long start = System.currentTimeMillis();
+		try {
+			if( !permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS) ) {
+				timeouts.incrementAndGet();
+				checkForLeaks();
+				throw new RioServerException("Timed out after " + borrowTimeout + "ms waiting for one of " + maxConnections + " store connections"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RioServerException(e);
+		}
+		waitTime.addAndGet(System.currentTimeMillis() - start);
+
+		RepositoryConnection conn = null;
+		try {
+			conn = pollIdle();
+			if( conn == null ) {
+				conn = repository.getConnection();
+				created.incrementAndGet();
+			}
+		} catch (RepositoryException e) {
+			permits.release();
+			throw new RioServerException(e);
+		}
+
+		lease = new Lease(conn, captureStacks);
+		leases.put(conn, lease);
+		threadLease.set(lease);
+		active.incrementAndGet();
+		borrowed.incrementAndGet();
+		return conn;
+	}
+
+	public void release(RepositoryConnection conn) {
+		if( conn == null ) return;
+		Lease lease = leases.get(conn);
+		if( lease == null ) {
+			// not one of ours (or already released), just make sure it is closed
+			closeQuietly(conn);
+			return;
+		}
+		if( !lease.exit() ) {
+			return; // still in use by an outer borrow on the same thread
+		}
+
+		leases.remove(conn);
+		if( threadLease.get() == lease ) {
+			threadLease.remove();
+		}
+		active.decrementAndGet();
+		released.incrementAndGet();
+
+		try {
+			if( closed || !reset(conn) ) {
+				discarded.incrementAndGet();
+				closeQuietly(conn);
+			} else {
+				idle.offer(conn);
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Reports every lease that has been held longer than the leak threshold and
+	 * has not been reported yet.
+	 * @return the number of newly detected leaks
+	 */
+	public int checkForLeaks() {
+		lastLeakCheck.set(System.currentTimeMillis());
+		int found = 0;
+		long now = System.currentTimeMillis();
+		for (Lease lease : leases.values()) {
+			if( now - lease.borrowedAt > leakThreshold && lease.markReported() ) {
+				found++;
+				leaks.incrementAndGet();
+				log.warn("Store connection held for " + (now - lease.borrowedAt) + "ms by thread " + lease.threadName, lease.origin); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		return found;
+	}
+
+	private void checkForLeaksPeriodically() {
+		long last = lastLeakCheck.get();
+		long now = System.currentTimeMillis();
+		if( now - last > leakThreshold && lastLeakCheck.compareAndSet(last, now) ) {
+			checkForLeaks();
+		}
+	}
+
+	public void shutdown() {
+		closed = true;
+		RepositoryConnection conn;
+		while( (conn = idle.poll()) != null ) {
+			closeQuietly(conn);
+		}
+		for (Lease lease : leases.values()) {
+			log.warn("Store connection still in use at shutdown by thread " + lease.threadName, lease.origin); //$NON-NLS-1$
+			closeQuietly(lease.connection);
+		}
+		leases.clear();
+	}
+
+	private RepositoryConnection pollIdle() throws RepositoryException {
+		RepositoryConnection conn;
+		while( (conn = idle.poll()) != null ) {
+			if( conn.isOpen() ) {
+				return conn;
+			}
+			discarded.incrementAndGet();
+		}
+		return null;
+	}
+
+	/**
+	 * Puts a returned connection back into a clean autocommit state.
+	 * @return false if the connection is not fit for reuse
+	 */
+	private boolean reset(RepositoryConnection conn) {
+		try {
+			if( !conn.isOpen() ) {
+				return false;
+			}
+			if( !conn.isAutoCommit() ) {
+				log.warn("Store connection returned with an open transaction, rolling back"); //$NON-NLS-1$
+				conn.rollback();
+				conn.setAutoCommit(true);
+			}
+			return true;
+		} catch (RepositoryException e) {
+			log.warn("Unable to reset store connection", e); //$NON-NLS-1$
+			return false;
+		}
+	}
+
+	private void closeQuietly(RepositoryConnection conn) {
+		try {
+			if( conn.isOpen() ) conn.close();
+		} catch (RepositoryException e) {
+			log.warn("Unable to close store connection", e); //$NON-NLS-1$
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public int getActiveCount() {
+		return active.get();
+	}
+
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	public long getCreatedCount() {
+		return created.get();
+	}
+
+	public long getDiscardedCount() {
+		return discarded.get();
+	}
+
+	public long getBorrowCount() {
+		return borrowed.get();
+	}
+
+	public long getReentrantBorrowCount() {
+		return reused.get();
+	}
+
+	public long getReleaseCount() {
+		return released.get();
+	}
+
+	public long getTimeoutCount() {
+		return timeouts.get();
+	}
+
+	public long getLeakCount() {
+		return leaks.get();
+	}
+
+	public long getTotalWaitTime() {
+		return waitTime.get();
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		metrics.put("pool.max", maxConnections);
+		metrics.put("pool.active", getActiveCount());
+		metrics.put("pool.idle", getIdleCount());
+		metrics.put("pool.created", getCreatedCount());
+		metrics.put("pool.discarded", getDiscardedCount());
+		metrics.put("pool.borrowed", getBorrowCount());
+		metrics.put("pool.reentrant", getReentrantBorrowCount());
+		metrics.put("pool.released", getReleaseCount());
+		metrics.put("pool.timeouts", getTimeoutCount());
+		metrics.put("pool.leaks", getLeakCount());
+		metrics.put("pool.waitMillis", getTotalWaitTime());
+		return metrics;
+	}
+
+	/**
+	 * @return descriptions of the connections currently on loan, oldest first
+	 */
+	public List<String> getActiveLeases() {
+		List<Lease> current = new ArrayList<Lease>(leases.values());
+		Collections.sort(current, new Comparator<Lease>() {
+			@Override
+			public int compare(Lease l1, Lease l2) {
+				return l1.borrowedAt < l2.borrowedAt ? -1 : (l1.borrowedAt == l2.borrowedAt ? 0 : 1);
+			}
+		});
+		List<String> descriptions = new ArrayList<String>();
+		long now = System.currentTimeMillis();
+		for (Lease lease : current) {
+			descriptions.add(lease.threadName + " (" + (now - lease.borrowedAt) + "ms)"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return descriptions;
+	}
+
+	@Override
+	public String toString() {
+		return "RioConnectionPool" + getMetrics(); //$NON-NLS-1$
+	}
+
+	private static class Lease {
+		final RepositoryConnection connection;
+		final String threadName;
+		final long borrowedAt;
+		final Throwable origin;
+		private int depth = 1;
+		private boolean reported = false;
+
+		Lease(RepositoryConnection connection, boolean captureStack) {
+			this.connection = connection;
+			this.threadName = Thread.currentThread().getName();
+			this.borrowedAt = System.currentTimeMillis();
+			this.origin = captureStack ? new Throwable("Connection borrowed here") : null; //$NON-NLS-1$
+		}
+
+		synchronized boolean enter() {
+			if( depth <= 0 ) return false;
+			depth++;
+			return true;
+		}
+
+		/**
+		 * @return true when the outermost borrow has been released
+		 */
+		synchronized boolean exit() {
+			if( depth <= 0 ) return false;
+			depth--;
+			return depth == 0;
+		}
+
+		synchronized boolean markReported() {
+			if( reported ) return false;
+			reported = true;
+			return true;
+		}
+	}
+
+}
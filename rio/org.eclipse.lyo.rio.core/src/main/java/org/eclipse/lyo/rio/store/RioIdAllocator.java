@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.l10n.Messages;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+
+/**
+ * Hands out resource ids per resource type without a global lock.
+ * <p>
+ * Ids are reserved from the store in blocks (hi/lo).  Only the high-water mark
+ * of the current block is persisted, and it is written before any id from the
+ * block is issued, so after a restart allocation resumes above every id that
+ * could have been handed out.  Ids left unused in a block at shutdown are
+ * simply skipped.
+ * <p>
+ * Within a block allocation is a single atomic increment.  Threads only
+ * synchronize (per type) when a block is exhausted.
+ * <p>
+ * A type without a persisted high-water mark is seeded from the old global
+ * {@link IConstants#URI_COUNTER} so that ids issued before per type
+ * allocation was introduced are never reissued.
+ */
+public class RioIdAllocator {
+
+	public static final int DEFAULT_BLOCK_SIZE = 100;
+
+	private final Repository repository;
+	private final int blockSize;
+	private final ConcurrentHashMap<String, TypeCounter> counters = new ConcurrentHashMap<String, TypeCounter>();
+
+	public RioIdAllocator(Repository repository) {
+		this(repository, DEFAULT_BLOCK_SIZE);
+	}
+
+	public RioIdAllocator(Repository repository, int blockSize) {
+		if( blockSize <= 0 ) {
+			throw new IllegalArgumentException("blockSize must be positive"); //$NON-NLS-1$
+		}
+		this.repository = repository;
+		this.blockSize = blockSize;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * @return the next unused id for the given resource type
+	 */
+	public long next(String type) throws RioServerException {
+		TypeCounter counter = counters.get(type);
+		if( counter == null ) {
+			TypeCounter created = new TypeCounter(type);
+			counter = counters.putIfAbsent(type, created);
+			if( counter == null ) {
+				counter = created;
+			}
+		}
+		return counter.next();
+	}
+
+	private class TypeCounter {
+		private final String type;
+		private final AtomicReference<Block> current = new AtomicReference<Block>(Block.EMPTY);
+
+		TypeCounter(String type) {
+			this.type = type;
+		}
+
+		long next() throws RioServerException {
+			while( true ) {
+				Block block = current.get();
+				long id = block.next.getAndIncrement();
+				if( id < block.limit ) {
+					return id;
+				}
+				refill(block);
+			}
+		}
+
+		private synchronized void refill(Block exhausted) throws RioServerException {
+			if( current.get() != exhausted ) {
+				return; // another thread got here first
+			}
+			current.set(reserve(type));
+		}
+	}
+
+	/**
+	 * Persists the end of the next block for the type and returns the block.
+	 * Uses its own connection so the reservation is committed independently of
+	 * any transaction the calling thread may have open.
+	 */
+	private Block reserve(String type) throws RioServerException {
+		RepositoryConnection conn = null;
+		try {
+			conn = repository.getConnection();
+			conn.setAutoCommit(false);
+			ValueFactory vf = conn.getValueFactory();
+			URI uriServer = vf.createURI(IConstants.URI_SERVER);
+			URI uriCounter = vf.createURI(IConstants.URI_COUNTER);
+			URI typeCounter = vf.createURI(IConstants.URI_SERVER + '/' + type);
+
+			long start = readCounter(conn, typeCounter, uriCounter, uriServer);
+			if( start <= 0 ) {
+				// first use of this type, continue from the legacy global counter
+				start = Math.max(1, readCounter(conn, uriServer, uriCounter, uriServer));
+			}
+			long limit = start + blockSize;
+
+			conn.remove(typeCounter, uriCounter, null, (Resource) uriServer);
+			conn.add(typeCounter, uriCounter, vf.createLiteral(limit), (Resource) uriServer);
+			conn.commit();
+			return new Block(start, limit);
+		} catch (RepositoryException e) {
+			if( conn != null ) {
+				try {
+					conn.rollback();
+				} catch (RepositoryException re) {
+					re.printStackTrace();
+				}
+			}
+			throw new RioServerException(e);
+		} finally {
+			if( conn != null ) {
+				try {
+					conn.close();
+				} catch (RepositoryException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private static long readCounter(RepositoryConnection conn, URI subject, URI predicate, URI context) throws RepositoryException, RioServerException {
+		RepositoryResult<Statement> statements = conn.getStatements(subject, predicate, null, false, (Resource) context);
+		try {
+			// we expect at most 1
+			if( !statements.hasNext() ) {
+				return -1;
+			}
+			Value obj = statements.next().getObject();
+			if( !(obj instanceof Literal) ) {
+				throw new RioServerException(Messages.getString("RioStore.UnableToGetUriCounter"));  //$NON-NLS-1$
+			}
+			return ((Literal) obj).longValue();
+		} finally {
+			statements.close();
+		}
+	}
+
+	private static class Block {
+		static final Block EMPTY = new Block(0, 0);
+
+		final AtomicLong next;
+		final long limit;
+
+		Block(long start, long limit) {
+			this.next = new AtomicLong(start);
+			this.limit = limit;
+		}
+	}
+
+}
@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,7 +31,8 @@ public class RioResource {
 	
 	protected String uri;
 	protected String resourceContext;
-	protected List<RioStatement> statements = new ArrayList<RioStatement>();
+	// indexed by subject and predicate, so property lookups don't scan
+	protected StatementList statements = new StatementList();
 	protected Map<String,RioResource> inlinedResources = new HashMap<String,RioResource>();
 	protected RioResource parentResource;
 	
@@ -98,6 +100,7 @@ public class RioResource {
 					statement.setObject(updatedObj);
 				}
 			}
+			statements.invalidate();
 			// now recurse into inlined resources, and update objects
 			for(RioResource rioResource : this.inlinedResources.values() ) {
 				rioResource.reindexProperties(this.uri, uri);
@@ -157,44 +160,98 @@ public class RioResource {
 	}
 
 	public List<RioStatement> getStatements(){
-		List<RioStatement> allStatements = new ArrayList<RioStatement>(this.statements);
+		List<RioStatement> allStatements = new ArrayList<RioStatement>(this.statements.size());
+		collectStatements(allStatements);
+		return Collections.unmodifiableList(allStatements);
+	}
+
+	private void collectStatements(List<RioStatement> allStatements) {
+		allStatements.addAll(this.statements);
 		for (RioResource inlinedResource : this.inlinedResources.values()) {
-			allStatements.addAll( inlinedResource.getStatements());
+			inlinedResource.collectStatements(allStatements);
 		}
-		return Collections.unmodifiableList(allStatements);
 	}
 	
 	public List<RioStatement> getStatements(String subject, String predicate, RioValue value) {
 		ArrayList<RioStatement> filteredStatements = new ArrayList<RioStatement>();
-		for (RioStatement rioStatement : this.getStatements()) { // be sure to use all child statements too
-			if( subject != null && !subject.equals(rioStatement.getSubject() ) ) continue;
-			if( predicate != null && !predicate.equals(rioStatement.getPredicate() ) ) continue;
-			if( value != null ) {
-				if( value.getType() == rioStatement.getObject().getType() ) {
-					if( !value.toString().equals(rioStatement.getObject().toString()) ) continue;
-				} else {
-					continue;
-				}
+		collectStatements(subject, predicate, value, filteredStatements);
+		return filteredStatements;
+	}
+
+	/**
+	 * @return the statements about the subject, including those held by
+	 * inlined resources, grouped by predicate in the order first stated; not
+	 * to be modified
+	 */
+	public Map<String, List<RioStatement>> getStatementsByPredicate(String subject) {
+		Map<String, List<RioStatement>> found = statements.find(subject);
+		for (RioResource inlinedResource : this.inlinedResources.values()) {
+			Map<String, List<RioStatement>> more = inlinedResource.getStatementsByPredicate(subject);
+			if( more.isEmpty() ) {
+				continue;
 			}
-			filteredStatements.add(rioStatement);
+			if( found.isEmpty() ) {
+				found = more;
+				continue;
+			}
+			// rare, the subject is spread over resources
+			Map<String, List<RioStatement>> merged = new LinkedHashMap<String, List<RioStatement>>();
+			addByPredicate(merged, found);
+			addByPredicate(merged, more);
+			found = merged;
 		}
-		
-		return filteredStatements;
-		
+		return found;
+	}
+
+	private static void addByPredicate(Map<String, List<RioStatement>> into, Map<String, List<RioStatement>> from) {
+		for (Map.Entry<String, List<RioStatement>> entry : from.entrySet()) {
+			List<RioStatement> list = into.get(entry.getKey());
+			if( list == null ) {
+				list = new ArrayList<RioStatement>();
+				into.put(entry.getKey(), list);
+			}
+			list.addAll(entry.getValue());
+		}
+	}
+
+	private void collectStatements(String subject, String predicate, RioValue value, List<RioStatement> found) {
+		List<RioStatement> candidates = statements;
+		if( subject != null && predicate != null ) {
+			candidates = statements.find(subject, predicate);
+		}
+		for (RioStatement rioStatement : candidates) {
+			if( matches(rioStatement, subject, predicate, value) ) {
+				found.add(rioStatement);
+			}
+		}
+		// be sure to use all child statements too
+		for (RioResource inlinedResource : this.inlinedResources.values()) {
+			inlinedResource.collectStatements(subject, predicate, value, found);
+		}
+	}
+
+	private static boolean matches(RioStatement rioStatement, String subject, String predicate, RioValue value) {
+		if( subject != null && !subject.equals(rioStatement.getSubject() ) ) return false;
+		if( predicate != null && !predicate.equals(rioStatement.getPredicate() ) ) return false;
+		if( value != null ) {
+			if( value.getType() != rioStatement.getObject().getType() ) return false;
+			if( !value.toString().equals(rioStatement.getObject().toString()) ) return false;
+		}
+		return true;
 	}
 
 	public RioStatement getFirstStatement(String subject, String predicate, RioValue value) {
-		for (RioStatement rioStatement : statements) {
-			if( subject != null && !subject.equals(rioStatement.getSubject() ) ) continue;
-			if( predicate != null && !predicate.equals(rioStatement.getPredicate() ) ) continue;
-			if( value != null ) {
-				if( value.getType() == rioStatement.getObject().getType() ) {
-					if( !value.toString().equals(rioStatement.getObject().toString()) ) continue;
-				} else {
-					continue;
-				}
+		List<RioStatement> candidates = statements;
+		if( subject != null && predicate != null ) {
+			if( value == null ) {
+				return statements.findFirst(subject, predicate);
+			}
+			candidates = statements.find(subject, predicate);
+		}
+		for (RioStatement rioStatement : candidates) {
+			if( matches(rioStatement, subject, predicate, value) ) {
+				return rioStatement;
 			}
-			return rioStatement;
 		}
 		return null;
 	}
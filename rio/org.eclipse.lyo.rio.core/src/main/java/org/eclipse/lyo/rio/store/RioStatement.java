@@ -27,10 +27,11 @@ public class RioStatement {
 	public RioStatement(String subject, String predicate, RioValue object, String context) {
 		bnode = !( subject.startsWith("http://") || subject.startsWith("https://") );
 			
-		this.subject = subject;
-		this.predicate = predicate;
+		// blank node ids are particular to one read, other terms repeat
+		this.subject = bnode ? subject : TermDictionary.intern(subject);
+		this.predicate = TermDictionary.intern(predicate);
 		this.object = object;
-		this.context = context;
+		this.context = TermDictionary.intern(context);
 	}
 
 	public String getSubject() {
@@ -50,7 +51,7 @@ public class RioStatement {
 	}
 
 	public void setPredicate(String predicate) {
-		this.predicate = predicate;
+		this.predicate = TermDictionary.intern(predicate);
 	}
 
 	public RioValue getObject() {
@@ -66,7 +67,7 @@ public class RioStatement {
 	}
 
 	public void setContext(String context) {
-		this.context = context;
+		this.context = TermDictionary.intern(context);
 	}
 
 	@SuppressWarnings("nls")
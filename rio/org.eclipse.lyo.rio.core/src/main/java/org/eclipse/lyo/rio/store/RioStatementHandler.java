@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.helpers.RDFHandlerBase;
+
+/**
+ * Turns parser callbacks directly into {@link RioStatement}s for a single
+ * resource, optionally also adding each statement to the resource's graph on
+ * an open store connection.  Duplicate triples are dropped, as they would be
+ * by a store.
+ */
+class RioStatementHandler extends RDFHandlerBase {
+
+	private final String context;
+	private final RepositoryConnection target;
+	private final Resource targetContext;
+	private final List<RioStatement> statements = new ArrayList<RioStatement>();
+	private final Set<Statement> seen = new HashSet<Statement>();
+
+	RioStatementHandler(String context, RepositoryConnection target) {
+		this.context = context;
+		this.target = target;
+		this.targetContext = target == null ? null : target.getValueFactory().createURI(context);
+	}
+
+	@Override
+	public void handleStatement(Statement st) throws RDFHandlerException {
+		if( !seen.add(st) ) {
+			return;
+		}
+		try {
+			String subject = st.getSubject().stringValue();
+			String predicate = st.getPredicate().stringValue();
+			RioValue object = RioStore.convertValue(st.getObject());
+			statements.add(new RioStatement(subject, predicate, object, context));
+			if( target != null ) {
+				target.add(st.getSubject(), st.getPredicate(), st.getObject(), targetContext);
+			}
+		} catch (UnrecognizedValueTypeException e) {
+			throw new RDFHandlerException(e);
+		} catch (RepositoryException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	public List<RioStatement> getStatements() {
+		return statements;
+	}
+
+}
@@ -24,15 +24,34 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.l10n.Messages;
 import org.eclipse.lyo.rio.store.RioValue.RioValueType;
+import org.eclipse.lyo.rio.store.StoreMetrics.Operation;
+import org.eclipse.lyo.rio.util.BoundedInputStream;
 import org.openrdf.model.BNode;
 import org.openrdf.model.Literal;
 import org.openrdf.model.Resource;
@@ -40,8 +59,6 @@ import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.Value;
 import org.openrdf.model.ValueFactory;
-import org.openrdf.query.Binding;
-import org.openrdf.query.BindingSet;
 import org.openrdf.query.QueryLanguage;
 import org.openrdf.query.TupleQuery;
 import org.openrdf.query.TupleQueryResult;
@@ -49,16 +66,79 @@ import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
-import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.rio.RDFFormat;
-import org.openrdf.sail.memory.MemoryStore;
-import org.openrdf.sail.nativerdf.NativeStore;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
 
 public class RioStore {
 	
 	static private File binResources = null;
 	static private RioStore _store = null;
+	/**
+	 * Configuration property that turns the resource cache on or off (on by default)
+	 */
+	public static final String PROP_RESOURCE_CACHE = "resourceCache"; //$NON-NLS-1$
+	/**
+	 * Configuration property with the maximum number of resources held in the resource cache
+	 */
+	public static final String PROP_RESOURCE_CACHE_SIZE = "resourceCacheSize"; //$NON-NLS-1$
+	/**
+	 * Configuration property naming the {@link IStoreProvider} that creates the repository 
+	 */
+	public static final String PROP_STORE_TYPE = "storeType"; //$NON-NLS-1$
+	/**
+	 * Configuration property with a file to record statement access patterns in, 
+	 * see {@link QueryPatternLog} and {@link IndexTool}
+	 */
+	public static final String PROP_QUERY_PATTERN_LOG = "queryPatternLog"; //$NON-NLS-1$
+	/**
+	 * Configuration property with the maximum number of parsed queries kept, 0 turns the cache off
+	 */
+	public static final String PROP_QUERY_CACHE_SIZE = "queryCacheSize"; //$NON-NLS-1$
+	/**
+	 * Configuration property with the comma separated URIs of the properties kept in the
+	 * {@link PropertyIndex}, empty turns the index off
+	 */
+	public static final String PROP_INDEXED_PROPERTIES = "indexedProperties"; //$NON-NLS-1$
+	/**
+	 * Configuration property with the comma separated URIs of the text properties kept in the
+	 * {@link TextIndex}, empty turns the index off
+	 */
+	public static final String PROP_TEXT_PROPERTIES = "textProperties"; //$NON-NLS-1$
+	/**
+	 * Configuration property with the maximum number of query pages kept in the
+	 * {@link QueryResultCache}, 0 turns the cache off
+	 */
+	public static final String PROP_QUERY_RESULT_CACHE_SIZE = "queryResultCacheSize"; //$NON-NLS-1$
+	/**
+	 * Configuration property with the number of threads running queries in
+	 * parallel, see {@link #getQueryExecutor()}
+	 */
+	public static final String PROP_QUERY_THREADS = "queryThreads"; //$NON-NLS-1$
+	public static final int DEFAULT_QUERY_THREADS = 4;
+	// queries waiting for a thread beyond this are rejected
+	private static final int QUERY_QUEUE_SIZE = 64;
+	/**
+	 * Configuration property with the time budget of a query in seconds, 0 for
+	 * none, see {@link #openQuery(String, String, int, int, int)}
+	 */
+	public static final String PROP_QUERY_TIMEOUT = "queryTimeout"; //$NON-NLS-1$
+	public static final int DEFAULT_QUERY_TIMEOUT = 60;
+	/**
+	 * Configuration property with the most rows any query cursor returns,
+	 * whatever limit the caller asks for
+	 */
+	public static final String PROP_QUERY_MAX_ROWS = "queryMaxRows"; //$NON-NLS-1$
+	public static final int DEFAULT_QUERY_MAX_ROWS = 100000;
+	
 	static public RioStore initalizeStore(String repositoryLocation, String binaryResourceLocation, String host, String context) throws RioServerException{
+		return initalizeStore(repositoryLocation, binaryResourceLocation, host, context, new Properties());
+	}
+	
+	/**
+	 * @param config optional settings, usually read from the webapp's rio.properties 
+	 */
+	static public RioStore initalizeStore(String repositoryLocation, String binaryResourceLocation, String host, String context, Properties config) throws RioServerException{
 		if( _store != null ) {
 			shutdown();
 		} 
@@ -67,10 +147,43 @@ public class RioStore {
 		_store = new RioStore();
 		_store.host = host;
 		_store.context = context;
-		File dataDir = new File(repositoryLocation);
-		_store.repository = new SailRepository(new NativeStore(dataDir));
+		File dataDir = repositoryLocation == null ? null : new File(repositoryLocation);
+		IStoreProvider provider = findStoreProvider(config.getProperty(PROP_STORE_TYPE, NativeStoreProvider.NAME));
+		_store.repository = provider.createRepository(dataDir, config);
+		_store.metrics = new StoreMetrics(provider.getName());
+		String patternLog = config.getProperty(PROP_QUERY_PATTERN_LOG);
+		if( patternLog != null ) {
+			_store.patterns = new QueryPatternLog(new File(patternLog));
+		}
 		try {
 			_store.repository.initialize();
+			_store.pool = new RioConnectionPool(_store.repository);
+			if( Boolean.parseBoolean(config.getProperty(PROP_RESOURCE_CACHE, "true")) ) { //$NON-NLS-1$
+				int size = Integer.parseInt(config.getProperty(PROP_RESOURCE_CACHE_SIZE, Integer.toString(ResourceCache.DEFAULT_MAX_RESOURCES)));
+				_store.cache = new ResourceCache(size, ResourceCache.DEFAULT_MAX_STATEMENTS);
+			}
+			int queries = Integer.parseInt(config.getProperty(PROP_QUERY_CACHE_SIZE, Integer.toString(PreparedQueryCache.DEFAULT_MAX_QUERIES)));
+			if( queries > 0 ) {
+				_store.queryCache = new PreparedQueryCache(queries);
+			}
+			int pages = Integer.parseInt(config.getProperty(PROP_QUERY_RESULT_CACHE_SIZE, Integer.toString(QueryResultCache.DEFAULT_MAX_PAGES)));
+			if( pages > 0 ) {
+				_store.resultCache = new QueryResultCache(pages);
+			}
+			int threads = Integer.parseInt(config.getProperty(PROP_QUERY_THREADS, Integer.toString(DEFAULT_QUERY_THREADS)));
+			_store.queryExecutor = createQueryExecutor(Math.max(1, threads));
+			_store.queryTimeout = Integer.parseInt(config.getProperty(PROP_QUERY_TIMEOUT, Integer.toString(DEFAULT_QUERY_TIMEOUT)));
+			int maxRows = Integer.parseInt(config.getProperty(PROP_QUERY_MAX_ROWS, Integer.toString(DEFAULT_QUERY_MAX_ROWS)));
+			_store.queryMaxRows = maxRows > 0 ? maxRows : Integer.MAX_VALUE;
+			_store.propertyIndex = PropertyIndex.fromConfig(config.getProperty(PROP_INDEXED_PROPERTIES));
+			if( _store.propertyIndex != null ) {
+				_store.indexes.add(_store.propertyIndex);
+			}
+			_store.textIndex = TextIndex.fromConfig(config.getProperty(PROP_TEXT_PROPERTIES));
+			if( _store.textIndex != null ) {
+				_store.indexes.add(_store.textIndex);
+			}
+			_store.rebuildIndexes();
 			binResources = new File(binaryResourceLocation);
 			if( !binResources.exists() ) {
 				binResources.mkdir();
@@ -82,6 +195,22 @@ public class RioStore {
 		return _store;
 	}
 	
+	private static IStoreProvider findStoreProvider(String name) throws RioServerException {
+		if( NativeStoreProvider.NAME.equals(name) ) {
+			return new NativeStoreProvider();
+		} else if( MemoryStoreProvider.NAME.equals(name) ) {
+			return new MemoryStoreProvider();
+		} else if( RemoteStoreProvider.NAME.equals(name) ) {
+			return new RemoteStoreProvider();
+		}
+		for (IStoreProvider provider : ServiceLoader.load(IStoreProvider.class, RioStore.class.getClassLoader())) {
+			if( name.equals(provider.getName()) ) {
+				return provider;
+			}
+		}
+		throw new RioServerException("Unknown store type: " + name); //$NON-NLS-1$
+	}
+	
 	public static boolean isStoreInitialized() {
 		return (_store != null);
 	}
@@ -101,8 +230,27 @@ public class RioStore {
 	}
 	
 	private Repository repository = null;
+	private RioConnectionPool pool = null;
+	private RioIdAllocator idAllocator = null;
+	private ResourceCache cache = null;
+	private PreparedQueryCache queryCache = null;
+	private QueryResultCache resultCache = null;
+	private ThreadPoolExecutor queryExecutor = null;
+	private final AtomicLong rejectedQueries = new AtomicLong();
+	private final RunningQueries runningQueries = new RunningQueries();
+	private int queryTimeout = DEFAULT_QUERY_TIMEOUT;
+	private int queryMaxRows = DEFAULT_QUERY_MAX_ROWS;
+	private PropertyIndex propertyIndex = null;
+	private TextIndex textIndex = null;
+	private final List<IStoreIndex> indexes = new ArrayList<IStoreIndex>();
+	private StoreMetrics metrics = new StoreMetrics(NativeStoreProvider.NAME);
+	private QueryPatternLog patterns = null;
 	private String host = null; 
 	private String context = null;
+	// seeded with the clock so generations, and the ETags made from them, differ across restarts
+	private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+	private volatile long allGeneration = generation.get();
+	private final Map<String, Long> typeGenerations = new ConcurrentHashMap<String, Long>();
 	
 	synchronized private Repository getRepository() throws RioServerException {
 		if( repository == null ) {
@@ -111,78 +259,264 @@ public class RioStore {
 		return repository;
 	}
 
-	private Repository createMemoryRepository() throws RioServerException {
-		Repository repository = new SailRepository(new MemoryStore());
-		try {
-			repository.initialize();
-		} catch (RepositoryException e) {
-			throw new RioServerException(e);
+	/**
+	 * Borrows a connection from the pool.  Every call must be paired with 
+	 * {@link #close(RepositoryConnection)} in a finally block.
+	 */
+	private RepositoryConnection getConnection() throws RioServerException {
+		return getConnectionPool().borrow();
+	}
+	
+	/**
+	 * Returns a connection obtained from {@link #getConnection()} to the pool.
+	 */
+	void close( RepositoryConnection conn ) {
+		if( conn == null ) return;
+		if( pool != null ) {
+			pool.release(conn);
+		} else {
+			try {
+				if( conn.isOpen() ) conn.close();
+			} catch (RepositoryException e) {
+				e.printStackTrace();
+			}
 		}
-		return repository;
+	}
+	
+	synchronized public RioConnectionPool getConnectionPool() throws RioServerException {
+		if( pool == null ) {
+			throw new RioServerException("RDF Store not initialized");  //$NON-NLS-1$
+		}
+		return pool;
+	}
+	
+	/**
+	 * @return the resource cache, or null when caching is switched off 
+	 */
+	public ResourceCache getResourceCache() {
+		return cache;
+	}
+	
+	/**
+	 * @return the parsed query cache, or null when it is switched off 
+	 */
+	public PreparedQueryCache getQueryCache() {
+		return queryCache;
+	}
+	
+	/**
+	 * @return the query result cache, or null when it is switched off 
+	 */
+	public QueryResultCache getQueryResultCache() {
+		return resultCache;
+	}
+	
+	/**
+	 * Runs queries on a bounded set of daemon threads, for callers that query
+	 * several things at once.  Threads are started on demand and stop when 
+	 * idle.  Submitting a task throws a {@link RejectedExecutionException}
+	 * when too many are already waiting.
+	 */
+	public ExecutorService getQueryExecutor() {
+		return queryExecutor;
+	}
+	
+	/**
+	 * @return the queries with an open cursor
+	 */
+	public RunningQueries getRunningQueries() {
+		return runningQueries;
 	}
 
-	private int openConnections = 0;
-	private RepositoryConnection getConnection() throws RioServerException {
+	private static ThreadPoolExecutor createQueryExecutor(int threads) {
+		final AtomicInteger count = new AtomicInteger();
+		ThreadFactory factory = new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "rio-query-" + count.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+		RejectedExecutionHandler rejected = new RejectedExecutionHandler() {
+			public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+				_store.rejectedQueries.incrementAndGet();
+				throw new RejectedExecutionException("Too many queries waiting"); //$NON-NLS-1$
+			}
+		};
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, 
+				new LinkedBlockingQueue<Runnable>(QUERY_QUEUE_SIZE), factory, rejected);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+	
+	/**
+	 * @return the secondary property index, or null when it is switched off 
+	 */
+	public PropertyIndex getPropertyIndex() {
+		return propertyIndex;
+	}
+	
+	/**
+	 * @return the full text index, or null when it is switched off 
+	 */
+	public TextIndex getTextIndex() {
+		return textIndex;
+	}
+	
+	private void rebuildIndexes() throws RioServerException {
+		if( indexes.isEmpty() ) return;
+		RepositoryConnection conn = getConnection();
 		try {
-			openConnections++;
-			System.out.println( "Open: " + openConnections ); //$NON-NLS-1$
-			return getRepository().getConnection();
+			for (IStoreIndex index : indexes) {
+				index.rebuild(conn);
+			}
 		} catch (RepositoryException e) {
 			throw new RioServerException(e);
+		} finally {
+			close(conn);
+		}
+	}
+	
+	/**
+	 * Brings the indexes up to date with a committed write, or with
+	 * the thread's transaction when it commits.
+	 */
+	private void reindex(RepositoryConnection conn, String uri) {
+		if( indexes.isEmpty() || uri == null ) return;
+		Set<String> pending = pendingReindex.get();
+		if( pending != null ) {
+			pending.add(uri);
+			return;
 		}
+		reindexAll(conn, Collections.singleton(uri));
 	}
 	
+	/**
+	 * The write generation changes whenever a resource of the type is written,
+	 * or the whole store is, and never goes back.
+	 * @param resourceType a resource type, or null for writes to any resource
+	 */
+	public long getWriteGeneration(String resourceType) {
+		if( resourceType == null ) {
+			return generation.get();
+		}
+		Long typeGeneration = typeGenerations.get(resourceType);
+		return typeGeneration == null ? allGeneration : Math.max(typeGeneration, allGeneration);
+	}
 	
-	private void close( RepositoryConnection conn ) {
-		if( conn == null ) return;
+	/**
+	 * Moves on the write generation of the types once the write is visible, 
+	 * which for the thread's transaction is when it ends.
+	 */
+	private void written(Set<String> types) {
+		Set<String> pending = pendingTypes.get();
+		if( pending != null ) {
+			pending.addAll(types);
+			return;
+		}
+		long next = generation.incrementAndGet();
+		for (String type : types) {
+			typeGenerations.put(type, next);
+		}
+	}
+	
+	private void writtenAll() {
+		allGeneration = generation.incrementAndGet();
+		if( resultCache != null ) {
+			resultCache.clear();
+		}
+	}
+	
+	/**
+	 * @return the rdf:type values of the resource, as currently stored 
+	 */
+	private Set<String> readTypes(RepositoryConnection conn, String uri) throws RepositoryException {
+		Set<String> types = new HashSet<String>();
+		ValueFactory vf = conn.getValueFactory();
+		URI resourceUri = vf.createURI(uri);
+		RepositoryResult<Statement> statements = conn.getStatements(resourceUri, vf.createURI(IConstants.RDF_TYPE), null, false, (Resource) resourceUri);
 		try {
-			openConnections--;
-			System.out.println( "Close: " + openConnections ); //$NON-NLS-1$
-			if( conn.isOpen() ) conn.close();
+			while( statements.hasNext() ) {
+				types.add(statements.next().getObject().stringValue());
+			}
+		} finally {
+			close(statements);
+		}
+		return types;
+	}
+	
+	private void invalidate(String uri) {
+		if( cache == null || uri == null ) return;
+		cache.invalidate(uri);
+		Set<String> pending = pendingInvalidations.get();
+		if( pending != null ) {
+			pending.add(uri);
+		}
+	}
+	
+	private void invalidateAll() {
+		if( cache == null ) return;
+		cache.invalidateAll();
+	}
+	
+	/**
+	 * @return per operation counts and timings, the same for every store provider 
+	 */
+	public StoreMetrics getStoreMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * @return operation, connection pool, cache and index counters, keyed by metric name
+	 */
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		metrics.putAll(this.metrics.getMetrics());
+		if( pool != null ) {
+			metrics.putAll(pool.getMetrics());
+		}
+		if( cache != null ) {
+			metrics.putAll(cache.getMetrics());
+		}
+		if( queryCache != null ) {
+			metrics.putAll(queryCache.getMetrics());
+		}
+		if( resultCache != null ) {
+			metrics.putAll(resultCache.getMetrics());
+		}
+		metrics.putAll(runningQueries.getMetrics());
+		metrics.putAll(TermDictionary.getInstance().getMetrics());
+		if( queryExecutor != null ) {
+			metrics.put("queryExecutor.threads", queryExecutor.getPoolSize()); //$NON-NLS-1$
+			metrics.put("queryExecutor.active", queryExecutor.getActiveCount()); //$NON-NLS-1$
+			metrics.put("queryExecutor.queued", queryExecutor.getQueue().size()); //$NON-NLS-1$
+			metrics.put("queryExecutor.completed", queryExecutor.getCompletedTaskCount()); //$NON-NLS-1$
+			metrics.put("queryExecutor.rejected", rejectedQueries.get()); //$NON-NLS-1$
+		}
+		for (IStoreIndex index : indexes) {
+			metrics.putAll(index.getMetrics());
+		}
+		return metrics;
+	}
+	
+	private static void close( RepositoryResult<?> result ) {
+		if( result == null ) return;
+		try {
+			result.close();
 		} catch (RepositoryException e) {
 			e.printStackTrace();
 		}
 	}
 	
-	synchronized public String nextAvailableUri(String type) throws RioServerException {
-		RepositoryConnection conn = getConnection();
-		try{
-			ValueFactory vf = getRepository().getValueFactory();
-			URI uriCounter = vf.createURI(IConstants.URI_COUNTER);
-			URI uriServer = vf.createURI(IConstants.URI_SERVER);
-
-			int counter = -1;
-			RepositoryResult<Statement> statements = conn.getStatements(uriServer, uriCounter, null, false);
-			// we expect at most 1
-			if( !statements.hasNext() ) {
-				// create a new one
-				counter = 1;
-				Literal udpatedValue = vf.createLiteral(Integer.toString(counter+1), IConstants.XSD_DATATYPE_INT); // set the next value
-				conn.add(uriServer, uriCounter, udpatedValue, (Resource) uriServer);
-			} else {
-				Statement statement = statements.next();
-				Value obj = statement.getObject();
-				if( obj instanceof Literal ) {
-					counter = ((Literal)obj).intValue();
-					
-					// now remove the old and add the new
-					conn.remove(statement);
-					
-					// add add the updated one
-					Literal udpatedValue = vf.createLiteral(counter+1);
-					conn.add(uriServer, uriCounter, udpatedValue, (Resource) uriServer);
-				} else {
-					throw new RioServerException(Messages.getString("RioStore.UnableToGetUriCounter"));  //$NON-NLS-1$
-				}
-			}
-			
-			return getUriBase() + '/' + type + '/' + counter; 
-			
-		} catch (RepositoryException e) {
-			throw new RioServerException(e);
-		} finally {
-			close(conn);
+	public String nextAvailableUri(String type) throws RioServerException {
+		return getUriBase() + '/' + type + '/' + getIdAllocator().next(type); 
+	}
+	
+	synchronized public RioIdAllocator getIdAllocator() throws RioServerException {
+		if( idAllocator == null ) {
+			idAllocator = new RioIdAllocator(getRepository());
 		}
+		return idAllocator;
 	}
 	
 	public String getUriBase() {
@@ -209,13 +543,28 @@ public class RioStore {
 
 	public RioResource getResource(RioResource resource) throws RioServerException {
 		String uri = resource.getUri();
+		// reads inside a transaction may see uncommitted data, keep them away from the cache
+		ResourceCache cache = transaction.get() == null ? this.cache : null;
+		long cacheVersion = 0;
+		if( cache != null ) {
+			List<RioStatement> cached = cache.get(uri);
+			if( cached != null ) {
+				resource.statements.clear();
+				resource.addStatements(cached);
+				return resource;
+			}
+			cacheVersion = cache.getVersion();
+		}
+		long start = metrics.start();
+		boolean success = false;
 		RepositoryConnection conn = getConnection();
-		ValueFactory vf = conn.getValueFactory();
-		URI resourceUri = vf.createURI(uri);
 		// make sure there are some statements with this context
 		RepositoryResult<Statement> statements = null; 
 		try {
+			ValueFactory vf = conn.getValueFactory();
+			URI resourceUri = vf.createURI(uri);
 			statements = conn.getStatements(null, null, null, false, (Resource) resourceUri);
+			recordPattern(false, false, false, true);
 			if( statements != null && statements.hasNext() ) {
 				resource.statements.clear();
 				while( statements.hasNext() ) {
@@ -226,13 +575,19 @@ public class RioStore {
 					RioStatement rioStatement = new RioStatement(subject, predicate, object, uri);
 					resource.addStatement(rioStatement);
 				}
+				if( cache != null ) {
+					cache.put(uri, resource.statements, cacheVersion);
+				}
 			} else {
 				resource = null;
 			}
+			success = true;
 		} catch (Exception e) {
 			throw new RioServerException(e);
 		} finally {
+			close(statements);
 			close(conn);
+			metrics.record(Operation.READ, start, success);
 		}
 		
 		return resource;
@@ -243,44 +598,33 @@ public class RioStore {
 	 * @throws RioServerException 
 	 */
 	public void update(RioResource resource, String user) throws RioServerException {
-		RepositoryConnection conn = getConnection();
 		if( user == null ) {
 			user = getDefaultUserUri();
 		}
 
+		long start = metrics.start();
+		boolean success = false;
+		RepositoryConnection conn = getConnection();
+		boolean ownTransaction = false;
+		Set<String> types = Collections.emptySet();
 		try {
-		
-			RioResource oldResource = null;
-			if( resource instanceof OslcResource ) {
-				OslcResource oslcResource = new OslcResource(resource.getResourceContext());
-				oldResource = this.getResource(oslcResource);
-			} else {
-				oldResource = this.getResource(resource.getResourceContext());
+			// a caller may already have a transaction open on this thread's connection 
+			ownTransaction = conn.isAutoCommit();
+			if( ownTransaction ) {
+				conn.setAutoCommit(false);
 			}
-			RioValue propCreated = null;
-			RioValue propCreator = null;
+			
+			ValueFactory vf = conn.getValueFactory();
+			URI resourceUri = vf.createURI(resource.getUri());  // explicitly using uri not resource context since this is a top level resource
+
 			// if has a created or created property, we need to keep and ensure it is put back
 			// these are system defined properties so we can do what we want
-			if( oldResource != null ) {
-				if( resource instanceof OslcResource ) {
-					propCreated = oldResource.getFirstPropertyValue(IConstants.DCTERMS_CREATED);
-					propCreator = oldResource.getFirstPropertyValue(IConstants.DCTERMS_CREATOR);
-
-					if( propCreator != null ) { // then add it back
-						resource.setUriProperty(IConstants.DCTERMS_CREATOR, propCreator.stringValue());
-					} 
-					
-					if( propCreated != null ) { // add it back 
-						resource.setDateProperty(IConstants.DCTERMS_CREATED, propCreated.dateValue());
-					} 
-				}
-
-				// remove the resource from the repo so we can update it.
-				this.remove(resource);
-			}
-			
-			// set the dc:identifier property to be the same as the last segment of this resource uri
 			if( resource instanceof OslcResource ) {
+				URI contextUri = vf.createURI(resource.getResourceContext());
+				RioValue propCreated = readFirstValue(conn, contextUri, vf.createURI(IConstants.DCTERMS_CREATED));
+				RioValue propCreator = readFirstValue(conn, contextUri, vf.createURI(IConstants.DCTERMS_CREATOR));
+				
+				// set the dc:identifier property to be the same as the last segment of this resource uri
 				OslcResource oslcResource = (OslcResource) resource;
 				String id = extractLastSegment(resource.getUri());
 				oslcResource.setIdentifier(id);
@@ -298,51 +642,112 @@ public class RioStore {
 				}
 			}
 			
-			ValueFactory vf = conn.getValueFactory();
-			URI resourceUri = vf.createURI(resource.getUri());  // explicitly using uri not resource context since this is a top level resource
-	
-			List<RioStatement> rioStatements = resource.getStatements(); 
-			
-			// make sure there are some statements with this context
-			for (RioStatement rioStatement : rioStatements) {
-				URI pred = vf.createURI(rioStatement.getPredicate());
-				Resource subj = null;
-				String rioSubject = rioStatement.getSubject();
-				if( rioStatement.isBNode() ) {
-					subj = vf.createBNode(rioSubject);
-				} else {
-					subj = vf.createURI(rioSubject);
-				}
-				Value val = null;
-				RioValue rioVal = rioStatement.getObject();
-				if( rioVal.getType() == RioValueType.URI ) {
-					val = vf.createURI(rioVal.stringValue());
-				} else if( rioVal.getType() == RioValueType.BLANK_NODE ) {
-					val = vf.createBNode(rioVal.stringValue());
-				} else if( rioVal.getType() == RioValueType.BOOLEAN ) {
-					val = vf.createLiteral(rioVal.booleanValue());
-				} else if( rioVal.getType() == RioValueType.CALENDAR ) {
-					val = vf.createLiteral(rioVal.xmlGregorianCalendarValue());
-				} else if( rioVal.getType() == RioValueType.DECIMAL ) {
-					val = vf.createLiteral(rioVal.doubleValue());
-				} else if( rioVal.getType() == RioValueType.INTEGER ) {
-					val = vf.createLiteral(rioVal.intValue());
-				} else {
-					val = vf.createLiteral(rioVal.stringValue());
-				}
-				
-				Statement statement = vf.createStatement(subj, pred, val);
-				conn.add(statement, (Resource) resourceUri );
+			// the old and the new types' queries may change
+			types = readTypes(conn, resource.getUri());
+			for (RioStatement statement : resource.getStatements(resource.getUri(), IConstants.RDF_TYPE, null)) {
+				types.add(statement.getObject().stringValue());
 			}
 			
-						
+			// remove the resource from the repo so we can update it.
+			conn.clear((Resource) resourceUri);
+			conn.add(createStatements(vf, resource.getStatements()), (Resource) resourceUri);
+			
+			if( ownTransaction ) {
+				conn.commit();
+			}
+			success = true;
+			reindex(conn, resource.getUri());
 		} catch (Exception e) {
+			if( ownTransaction ) {
+				rollback(conn);
+			}
 			throw new RioServerException(e);
 		} finally {
+			invalidate(resource.getUri());
+			written(types);
+			if( ownTransaction ) {
+				try {
+					conn.setAutoCommit(true);
+				} catch (RepositoryException e) {
+					e.printStackTrace();
+				}
+			}
 			close(conn);
+			metrics.record(Operation.WRITE, start, success);
+		}
+	}
+	
+	private void recordPattern(boolean s, boolean p, boolean o, boolean c) {
+		if( patterns != null ) {
+			patterns.record(s, p, o, c);
+		}
+	}
+	
+	/**
+	 * @return the access pattern log, or null when pattern logging is off
+	 */
+	public QueryPatternLog getQueryPatternLog() {
+		return patterns;
+	}
+	
+	private RioValue readFirstValue(RepositoryConnection conn, URI context, URI predicate) throws RepositoryException, UnrecognizedValueTypeException {
+		RepositoryResult<Statement> statements = conn.getStatements(context, predicate, null, false, (Resource) context);
+		recordPattern(true, true, false, true);
+		try {
+			if( statements.hasNext() ) {
+				return convertValue(statements.next().getObject());
+			}
+			return null;
+		} finally {
+			close(statements);
+		}
+	}
+	
+	private static void rollback(RepositoryConnection conn) {
+		try {
+			conn.rollback();
+		} catch (RepositoryException e) {
+			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Converts Rio statements to Sesame statements, without a context, so that they 
+	 * can be added in a single batch. 
+	 */
+	static List<Statement> createStatements(ValueFactory vf, List<RioStatement> rioStatements) throws IncompatibleValueException {
+		List<Statement> statements = new ArrayList<Statement>(rioStatements.size());
+		for (RioStatement rioStatement : rioStatements) {
+			URI pred = vf.createURI(rioStatement.getPredicate());
+			Resource subj = null;
+			String rioSubject = rioStatement.getSubject();
+			if( rioStatement.isBNode() ) {
+				subj = vf.createBNode(rioSubject);
+			} else {
+				subj = vf.createURI(rioSubject);
+			}
+			statements.add(vf.createStatement(subj, pred, createValue(vf, rioStatement.getObject())));
+		}
+		return statements;
+	}
+	
+	static Value createValue(ValueFactory vf, RioValue rioVal) throws IncompatibleValueException {
+		if( rioVal.getType() == RioValueType.URI ) {
+			return vf.createURI(rioVal.stringValue());
+		} else if( rioVal.getType() == RioValueType.BLANK_NODE ) {
+			return vf.createBNode(rioVal.stringValue());
+		} else if( rioVal.getType() == RioValueType.BOOLEAN ) {
+			return vf.createLiteral(rioVal.booleanValue());
+		} else if( rioVal.getType() == RioValueType.CALENDAR ) {
+			return vf.createLiteral(rioVal.xmlGregorianCalendarValue());
+		} else if( rioVal.getType() == RioValueType.DECIMAL ) {
+			return vf.createLiteral(rioVal.doubleValue());
+		} else if( rioVal.getType() == RioValueType.INTEGER ) {
+			return vf.createLiteral(rioVal.intValue());
+		} 
+		return vf.createLiteral(rioVal.stringValue());
+	}
+	
 	/**
 	 * @return
 	 */
@@ -398,7 +803,7 @@ public class RioStore {
 			if( rdfValue.stringValue().startsWith("<") ) {
 				System.out.println(rdfValue.stringValue());
 			}
-			return new RioValue(RioValueType.URI, java.net.URI.create(rdfValue.stringValue()));
+			return new RioValue(RioValueType.URI, TermDictionary.uri(rdfValue.stringValue()));
 		}
 	}
 	
@@ -436,62 +841,294 @@ public class RioStore {
 		
 	}
 	
+	public static final long DEFAULT_MAX_PARSE_SIZE = 10 * 1024 * 1024;
+	
+	private long maxParseSize = DEFAULT_MAX_PARSE_SIZE;
+	
+	/**
+	 * Parsers are not thread safe but can be reused, so each thread keeps one per format.
+	 */
+	private static final ThreadLocal<Map<RDFFormat, RDFParser>> parsers = new ThreadLocal<Map<RDFFormat, RDFParser>>() {
+		@Override
+		protected Map<RDFFormat, RDFParser> initialValue() {
+			return new HashMap<RDFFormat, RDFParser>();
+		}
+	};
+	
+	private static RDFParser getParser(RDFFormat format) {
+		Map<RDFFormat, RDFParser> cache = parsers.get();
+		RDFParser parser = cache.get(format);
+		if( parser == null ) {
+			parser = Rio.createParser(format);
+			cache.put(format, parser);
+		}
+		return parser;
+	}
+	
+	public long getMaxParseSize() {
+		return maxParseSize;
+	}
+
+	/**
+	 * @param maxParseSize the largest request body, in bytes, that {@link #parse} accepts
+	 */
+	public void setMaxParseSize(long maxParseSize) {
+		this.maxParseSize = maxParseSize;
+	}
+	
 	public List<RioStatement> parse(String resUri, InputStream is, String contentType) throws RioServerException {
+		return parse(resUri, is, contentType, false);
+	}
+	
+	/**
+	 * Parses an RDF document describing a single resource.
+	 * @param addToStore when true the parsed statements are also added to the resource's 
+	 * graph as they are read, inside the calling thread's open transaction (see 
+	 * {@link #beginTransaction()}) or else a transaction of their own.  Existing 
+	 * statements in the graph are left in place. 
+	 */
+	public List<RioStatement> parse(String resUri, InputStream is, String contentType, boolean addToStore) throws RioServerException {
 		String format = rdfFormatFromContentType(contentType);
 		if( format == null ) {
 			throw new RioServerException(Messages.getString("RioStore.UnrecognizedContentType")); //$NON-NLS-1$
 		}
-		Repository memRepo = createMemoryRepository();
 		if( resUri == null ) {
 			throw new RioServerException("Resource URI required");
 		}
 		
-		ValueFactory vf = getRepository().getValueFactory();
-		URI uri = vf.createURI(resUri);
-		RepositoryConnection memConn = null;
+		RDFParser parser = getParser(RDFFormat.valueOf(format));
+		long start = metrics.start();
+		boolean success = false;
+		RepositoryConnection conn = null;
+		boolean ownTransaction = false;
 		try {
-			memConn = memRepo.getConnection();
-			RDFFormat rdfFormat = RDFFormat.valueOf(format);
-			memConn.add(is, resUri, rdfFormat, (Resource) uri);
-			
-			//  build the resource return
-			List<RioStatement> rioStatements = new ArrayList<RioStatement>();
-			RepositoryResult<Statement> statements = memConn.getStatements(null, null, null, false, (Resource) uri);
-			while( statements.hasNext()) {
-				Statement statement = statements.next();
-				String subject = statement.getSubject().stringValue();
-				String predicate = statement.getPredicate().stringValue();
-				RioValue object = convertValue(statement.getObject());
-				RioStatement rioStatement = new RioStatement(subject, predicate, object, resUri);
-				rioStatements.add(rioStatement);
-			}
-			return rioStatements;
-			
+			if( addToStore ) {
+				conn = getConnection();
+				ownTransaction = conn.isAutoCommit();
+				if( ownTransaction ) {
+					conn.setAutoCommit(false);
+				}
+			}
+			RioStatementHandler handler = new RioStatementHandler(resUri, conn);
+			parser.setRDFHandler(handler);
+			parser.parse(new BoundedInputStream(is, maxParseSize), resUri);
+			if( ownTransaction ) {
+				conn.commit();
+			}
+			success = true;
+			if( conn != null ) {
+				reindex(conn, resUri);
+				written(readTypes(conn, resUri));
+			}
+			return handler.getStatements();
 		} catch (Exception e) {
+			if( ownTransaction ) {
+				rollback(conn);
+			}
+			throw new RioServerException(e);
+		} finally {
+			parser.setRDFHandler(null);
+			if( conn != null ) {
+				invalidate(resUri);
+				if( ownTransaction ) {
+					try {
+						conn.setAutoCommit(true);
+					} catch (RepositoryException e) {
+						e.printStackTrace();
+					}
+				}
+				close(conn);
+			}
+			metrics.record(Operation.PARSE, start, success);
+		}
+	}	
+	
+	/*
+	 * Transactions
+	 */
+	
+	private final ThreadLocal<RepositoryConnection> transaction = new ThreadLocal<RepositoryConnection>();
+	private final ThreadLocal<Set<String>> pendingInvalidations = new ThreadLocal<Set<String>>();
+	private final ThreadLocal<Set<String>> pendingReindex = new ThreadLocal<Set<String>>();
+	private final ThreadLocal<Set<String>> pendingTypes = new ThreadLocal<Set<String>>();
+	
+	/**
+	 * Starts a transaction bound to the calling thread.  Store writes made by this 
+	 * thread (update, parse into the store, remove) join it until 
+	 * {@link #commitTransaction()} or {@link #rollbackTransaction()} is called, 
+	 * which must happen in a finally block.
+	 */
+	public void beginTransaction() throws RioServerException {
+		if( transaction.get() != null ) {
+			throw new RioServerException("Transaction already in progress"); //$NON-NLS-1$
+		}
+		RepositoryConnection conn = getConnection();
+		try {
+			conn.setAutoCommit(false);
+		} catch (RepositoryException e) {
+			close(conn);
+			throw new RioServerException(e);
+		}
+		transaction.set(conn);
+		if( cache != null ) {
+			pendingInvalidations.set(new HashSet<String>());
+		}
+		if( !indexes.isEmpty() ) {
+			pendingReindex.set(new HashSet<String>());
+		}
+		pendingTypes.set(new HashSet<String>());
+	}
+	
+	public void commitTransaction() throws RioServerException {
+		RepositoryConnection conn = transaction.get();
+		if( conn == null ) {
+			throw new RioServerException("No transaction in progress"); //$NON-NLS-1$
+		}
+		try {
+			conn.commit();
+			Set<String> pending = pendingReindex.get();
+			if( pending != null && !pending.isEmpty() ) {
+				pendingReindex.remove();
+				reindexAll(conn, pending);
+			}
+		} catch (RepositoryException e) {
+			rollback(conn);
 			throw new RioServerException(e);
 		} finally {
+			endTransaction(conn);
+		}
+	}
+	
+	public void rollbackTransaction() {
+		RepositoryConnection conn = transaction.get();
+		if( conn == null ) return;
+		rollback(conn);
+		endTransaction(conn);
+	}
+	
+	private void reindexAll(RepositoryConnection conn, Set<String> uris) {
+		for (IStoreIndex index : indexes) {
 			try {
-				memConn.close();
+				index.reload(conn, uris);
 			} catch (RepositoryException e) {
 				e.printStackTrace();
 			}
 		}
-	}	
+	}
+	
+	private void endTransaction(RepositoryConnection conn) {
+		transaction.remove();
+		pendingReindex.remove();
+		Set<String> types = pendingTypes.get();
+		pendingTypes.remove();
+		if( types != null && !types.isEmpty() ) {
+			written(types);
+		}
+		Set<String> pending = pendingInvalidations.get();
+		if( pending != null ) {
+			// again, now that the outcome is visible to other connections
+			pendingInvalidations.remove();
+			for (String uri : pending) {
+				cache.invalidate(uri);
+			}
+		}
+		try {
+			conn.setAutoCommit(true);
+		} catch (RepositoryException e) {
+			e.printStackTrace();
+		}
+		close(conn);
+	}
+	
+	public static final int DEFAULT_BULK_BATCH_SIZE = 10000;
+	
+	/**
+	 * Receives progress notifications from {@link RioStore#bulkLoad}.
+	 */
+	public interface IBulkLoadListener {
+		/**
+		 * Called after every committed batch.
+		 * @param statements statements loaded so far
+		 * @param graphs distinct named graphs (resources) written to so far
+		 * @param elapsed milliseconds since the load started
+		 */
+		public void progress(long statements, long graphs, long elapsed);
+	}
+	
+	/**
+	 * Streams an RDF document straight into the store, committing every 
+	 * <code>batchSize</code> statements.  Each resource is stored in its own 
+	 * named graph (see {@link BulkLoadHandler}).  Batches committed before an 
+	 * error are kept, only the failing batch is rolled back.  As it commits as 
+	 * it goes, a bulk load cannot join the calling thread's transaction (see 
+	 * {@link #beginTransaction()}), and is refused while one is open.
+	 * @return the number of statements loaded
+	 */
+	public long bulkLoad(InputStream is, String contentType, String baseUri, int batchSize, IBulkLoadListener listener) throws RioServerException {
+		if( transaction.get() != null ) {
+			throw new RioServerException("Bulk load cannot run inside a transaction"); //$NON-NLS-1$
+		}
+		if( contentType == null ) {
+			throw new RioServerException(Messages.getString("RioStore.UnrecognizedContentType")); //$NON-NLS-1$
+		}
+		int pos = contentType.indexOf(';');
+		if( pos > 0 ) {
+			contentType = contentType.substring(0,pos);
+		}
+		RDFFormat format = RDFFormat.forMIMEType(contentType.trim());
+		if( format == null ) {
+			throw new RioServerException(Messages.getString("RioStore.UnrecognizedContentType") + ": " + contentType); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if( batchSize <= 0 ) batchSize = DEFAULT_BULK_BATCH_SIZE;
+		if( baseUri == null ) baseUri = getUriBase();
+		
+		long start = metrics.start();
+		boolean success = false;
+		RepositoryConnection conn = getConnection();
+		try {
+			conn.setAutoCommit(false);
+			RDFParser parser = Rio.createParser(format, conn.getValueFactory());
+			BulkLoadHandler handler = new BulkLoadHandler(conn, batchSize, listener);
+			parser.setRDFHandler(handler);
+			parser.parse(is, baseUri);
+			success = true;
+			return handler.getStatementCount();
+		} catch (Exception e) {
+			rollback(conn);
+			throw new RioServerException(e);
+		} finally {
+			invalidateAll();
+			writtenAll();
+			try {
+				conn.setAutoCommit(true);
+				// committed batches are kept, even after an error
+				for (IStoreIndex index : indexes) {
+					index.rebuild(conn);
+				}
+			} catch (RepositoryException e) {
+				e.printStackTrace();
+			}
+			close(conn);
+			metrics.record(Operation.BULK_LOAD, start, success);
+		}
+	}
 	
 	public List<RioStatement> findStatements(String subject, String predicate, RioValue value, String resource ) throws RioServerException, UnrecognizedValueTypeException {
 		List<RioStatement> statements = new ArrayList<RioStatement>();
 		RepositoryConnection conn = this.getConnection();
-		ValueFactory vf = conn.getValueFactory();
-		Resource sub = vf.createURI(subject);
-		URI pred = vf.createURI(predicate);
 		RepositoryResult<Statement> results = null;
 
 		try{
+			ValueFactory vf = conn.getValueFactory();
+			Resource sub = vf.createURI(subject);
+			URI pred = vf.createURI(predicate);
 			if( resource != null ) {
 				URI res = vf.createURI(resource);
 				results = conn.getStatements(sub, pred, null, false, (Resource) res);
+				recordPattern(true, true, false, true);
 			} else {
 				results = conn.getStatements(sub, pred, null, false);
+				recordPattern(true, true, false, false);
 			}
 			while( results.hasNext() ) {
 				Statement result = results.next();
@@ -501,6 +1138,9 @@ public class RioStore {
 			return statements;
 		} catch( RepositoryException re ) {
 			throw new RioServerException(re);
+		} finally {
+			close(results);
+			close(conn);
 		}
 	}
 	
@@ -519,50 +1159,138 @@ public class RioStore {
 	 * Query 
 	 */
 	
+	/**
+	 * Receives query rows from {@link RioStore#query(String, String, int, int, IQueryResultHandler)}
+	 * one at a time; the row map is not retained by the store.
+	 */
+	public interface IQueryResultHandler {
+		/**
+		 * @return false to stop reading further rows
+		 */
+		boolean handleRow(Map<String,RioValue> row) throws RioServerException;
+	}
+
+	/**
+	 * Runs a query and collects up to <code>maxResults</code> rows.  Prefer
+	 * {@link #openQuery} or a {@link IQueryResultHandler} for results that are
+	 * written straight to a response.
+	 */
 	public List<Map<String,RioValue>> query(String queryLanguage, String query, int maxResults) throws RioServerException {
-		return query(null, queryLanguage, query, maxResults);
+		final List<Map<String,RioValue>> bindings = new ArrayList<Map<String,RioValue>>();
+		query(queryLanguage, query, 0, maxResults, new IQueryResultHandler() {
+			public boolean handleRow(Map<String, RioValue> row) {
+				bindings.add(row);
+				return true;
+			}
+		});
+		return bindings;
 	}
-	
-	private List<Map<String,RioValue>> query(Repository repository, String queryLanguage, String query, int maxResults) throws RioServerException {
-		if( maxResults <= 0 ) maxResults = DEFAULT_MAX_RESULTS; 
+
+	/**
+	 * Streams rows to a handler.
+	 * @return the number of rows handed to the handler
+	 */
+	public int query(String queryLanguage, String query, int offset, int limit, IQueryResultHandler handler) throws RioServerException {
+		QueryCursor cursor = openQuery(queryLanguage, query, offset, limit);
+		try {
+			while( cursor.hasNext() ) {
+				if( !handler.handleRow(cursor.next()) ) {
+					break;
+				}
+			}
+			return cursor.getCount();
+		} finally {
+			cursor.close();
+		}
+	}
+
+	/**
+	 * Opens a cursor over a query.  <code>offset</code> and <code>limit</code>
+	 * are pushed into the query (see {@link #applyLimit(String, int, int)}), and
+	 * <code>limit</code> is enforced on the cursor as well.  The caller must
+	 * close the cursor.
+	 * @param limit maximum rows, or 0 for the store default
+	 */
+	public QueryCursor openQuery(String queryLanguage, String query, int offset, int limit) throws RioServerException {
+		return openQuery(queryLanguage, query, offset, limit, 0);
+	}
+
+	/**
+	 * Opens a cursor over a query with a time budget.  The query fails once it
+	 * has run longer, whether it is still evaluating or being read; Sesame
+	 * checks between rows, so a GROUP BY or COUNT that is still grouping only
+	 * stops when it is done.  The limit is capped by the store's
+	 * {@value #PROP_QUERY_MAX_ROWS}.
+	 * @param limit maximum rows, or 0 for the store default
+	 * @param timeout seconds, 0 for the store's {@value #PROP_QUERY_TIMEOUT}
+	 */
+	public QueryCursor openQuery(String queryLanguage, String query, int offset, int limit, int timeout) throws RioServerException {
+		if( limit <= 0 ) limit = DEFAULT_MAX_RESULTS; 
+		limit = Math.min(limit, queryMaxRows);
+		if( timeout <= 0 ) timeout = queryTimeout;
 		QueryLanguage language = QueryLanguage.valueOf(queryLanguage);
 		
 		if( language == null ) {
 			throw new RioServerException(Messages.getString("RioStore.UnrecognizedQueryLanguage") + queryLanguage ); //$NON-NLS-1$
 		}
+		if( language == QueryLanguage.SPARQL ) {
+			// one row more, to tell whether the cursor was truncated
+			query = applyLimit(query, offset, limit < Integer.MAX_VALUE ? limit + 1 : limit);
+		}
 		
+		long start = metrics.start();
 		RepositoryConnection conn = null;
-
-		List<Map<String,RioValue>> bindings = new ArrayList<Map<String,RioValue>>();
 		try {
-			if( repository == null ) {
-				conn = getConnection();
-			} else {
-				conn = repository.getConnection();
+			conn = getConnection();
+			if( patterns != null ) {
+				patterns.recordQuery(language, query);
 			}
-			TupleQuery tupleQuery = conn.prepareTupleQuery(language, query);
-			TupleQueryResult result = tupleQuery.evaluate();
-			int count = 0;
-			while( result.hasNext() && count<maxResults) {
-				BindingSet bindingSet = result.next();
-				HashMap<String, RioValue> map = new HashMap<String,RioValue>();
-				
-				Set<String> names = bindingSet.getBindingNames();
-				for (String name : names) {
-					Binding binding = bindingSet.getBinding(name);
-					Value value = binding.getValue();
-					RioValue rioValue = convertValue(value);
-					map.put(name, rioValue);
-				}
-				bindings.add(map);
+			TupleQuery tupleQuery = queryCache != null ? queryCache.prepare(conn, language, query) : conn.prepareTupleQuery(language, query);
+			if( timeout > 0 ) {
+				tupleQuery.setMaxQueryTime(timeout);
 			}
-			
+			TupleQueryResult result = tupleQuery.evaluate();
+			return new QueryCursor(this, conn, result, limit, start, query, timeout);
 		} catch (Exception e) {
-			throw new RioServerException(e);
-		} finally {
 			close(conn);
+			metrics.record(Operation.QUERY, start, false);
+			throw new RioServerException(e);
 		}
-		return bindings;
+	}
+
+	private static final Pattern LIMIT_OR_OFFSET = Pattern.compile("\\b(LIMIT|OFFSET)\\s+\\d+\\s*$", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+	private static final Pattern PROLOGUE = Pattern.compile("^(\\s*(BASE\\s*<[^>]*>|PREFIX\\s+[^\\s:]*:\\s*<[^>]*>))*", Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+
+	/**
+	 * Appends LIMIT and OFFSET clauses to a SPARQL query, so the repository 
+	 * stops evaluating once enough rows are produced.  A query that ends with 
+	 * a LIMIT or OFFSET of its own becomes a sub-select, and the page is taken 
+	 * from its results.
+	 */
+	public static String applyLimit(String query, int offset, int limit) {
+		String trimmed = query.trim();
+		if( limit <= 0 && offset <= 0 ) {
+			return query;
+		}
+		if( LIMIT_OR_OFFSET.matcher(trimmed).find() ) {
+			// the prologue stays outside the sub-select
+			Matcher prologue = PROLOGUE.matcher(trimmed);
+			int end = prologue.lookingAt() ? prologue.end() : 0;
+			StringBuilder sb = new StringBuilder(trimmed.substring(0, end));
+			if( end > 0 ) {
+				sb.append('\n');
+			}
+			sb.append("SELECT * WHERE {\n").append(trimmed.substring(end).trim()).append("\n}"); //$NON-NLS-1$ //$NON-NLS-2$
+			trimmed = sb.toString();
+		}
+		StringBuilder sb = new StringBuilder(trimmed);
+		if( limit > 0 ) {
+			sb.append("\nLIMIT ").append(limit); //$NON-NLS-1$
+		}
+		if( offset > 0 ) {
+			sb.append("\nOFFSET ").append(offset); //$NON-NLS-1$
+		}
+		return sb.toString();
 	}
 	
 	
@@ -571,16 +1299,25 @@ public class RioStore {
 	 * @throws RioServerException 
 	 */
 	public void remove(RioResource resource) throws RioServerException {
+		long start = metrics.start();
+		boolean success = false;
 		RepositoryConnection conn = null;
+		Set<String> types = Collections.emptySet();
 		try {
 			conn = getConnection();
 			ValueFactory vf = conn.getValueFactory();
 			Resource res = vf.createURI(resource.getUri());
+			types = readTypes(conn, resource.getUri());
 			conn.remove((URI) null, null, null, (Resource) res);
+			success = true;
+			reindex(conn, resource.getUri());
 		} catch (Exception e) {
 			throw new RioServerException(e);
 		} finally {
+			invalidate(resource.getUri());
+			written(types);
 			close(conn);
+			metrics.record(Operation.REMOVE, start, success);
 		}		
 	}
 	
@@ -600,6 +1337,15 @@ public class RioStore {
 		if( RioStore._store == null ) return;
 		Repository repo = getStore().getRepository();
 		try {
+			if( _store.queryExecutor != null ) {
+				_store.queryExecutor.shutdownNow();
+			}
+			if( _store.pool != null ) {
+				_store.pool.shutdown();
+			}
+			if( _store.patterns != null ) {
+				_store.patterns.save();
+			}
 			repo.shutDown();
 			RioStore._store = null;
 		} catch (RepositoryException e) {
@@ -609,9 +1355,11 @@ public class RioStore {
 	
 	static public void dump(RepositoryConnection conn) {
 		System.out.println( "Dumping Repository: "); //$NON-NLS-1$
+		boolean pooled = false;
 		try{
 			if( conn == null ) {
 				conn = getStore().getConnection();
+				pooled = true;
 			}
 			RepositoryResult<Statement> allStatements = conn.getStatements(null, null, null, false);
 			while( allStatements.hasNext() ) {
@@ -622,11 +1370,20 @@ public class RioStore {
 		} catch( Exception e ) {
 			e.printStackTrace();
 		} finally {
-			try{
-				if( conn != null && conn.isOpen() ) conn.close();
-			} catch( Exception e ) {
-				e.printStackTrace(); // log this?
-			}
+			releaseOrClose(conn, pooled);
+		}
+	}
+	
+	static private void releaseOrClose(RepositoryConnection conn, boolean pooled) {
+		if( conn == null ) return;
+		if( pooled && _store != null ) {
+			_store.close(conn);
+			return;
+		}
+		try{
+			if( conn.isOpen() ) conn.close();
+		} catch( Exception e ) {
+			e.printStackTrace(); // log this?
 		}
 	}
 	
@@ -636,10 +1393,12 @@ public class RioStore {
 	}
 	
 	static public void dump(RepositoryConnection conn, Writer writer) {
+		boolean pooled = false;
 		try{
 			writer.write( "Dumping Repository: \n" ); //$NON-NLS-1$
 			if( conn == null ) {
 				conn = getStore().getConnection();
+				pooled = true;
 			}
 			
 			RepositoryResult<Resource> contextIds = conn.getContextIDs();
@@ -667,27 +1426,24 @@ public class RioStore {
 		} catch( Exception e ) {
 			e.printStackTrace();
 		} finally {
-			try{
-				if( conn != null && conn.isOpen() ) conn.close();
-			} catch( Exception e ) {
-				e.printStackTrace(); // log this?
-			}
+			releaseOrClose(conn, pooled);
 		}
 	}
 	
 	public List<String> getResourceContexts(){
 		List<String> resourceIds = new ArrayList<String>();
 		RepositoryConnection conn = null;
-		System.out.println( "Clearing Repository: "); //$NON-NLS-1$
+		RepositoryResult<Resource> contextIds = null;
 		try{
 			conn = getConnection();
-			RepositoryResult<Resource> contextIds = conn.getContextIDs();
+			contextIds = conn.getContextIDs();
 			while( contextIds.hasNext() ) {
 				resourceIds.add( contextIds.next().stringValue() );
 			}
 		} catch( Exception e ) {
 			e.printStackTrace();
 		} finally {
+			close(contextIds);
 			close(conn);
 		}
 		return resourceIds;
@@ -701,11 +1457,15 @@ public class RioStore {
 			ValueFactory vf = conn.getValueFactory();
 			URI context = vf.createURI(contextUri);
 			if( context != null ) {
+				Set<String> types = readTypes(conn, contextUri);
 				conn.clear(context);
+				written(types);
+				reindex(conn, contextUri);
 			}
 		} catch( Exception e ) {
 			e.printStackTrace();
 		} finally {
+			invalidate(contextUri);
 			close(conn);
 		}
 	}
@@ -717,12 +1477,24 @@ public class RioStore {
 			conn = getConnection();
 			if( context == null ) {
 				conn.clear();
+				for (IStoreIndex index : indexes) {
+					index.clear();
+				}
 			} else {
+				Set<String> types = readTypes(conn, context.stringValue());
 				conn.clear(context);
+				written(types);
+				reindex(conn, context.stringValue());
 			}
 		} catch( Exception e ) {
 			e.printStackTrace();
 		} finally {
+			if( context == null ) {
+				invalidateAll();
+				writtenAll();
+			} else {
+				invalidate(context.stringValue());
+			}
 			close(conn);
 		}
 	}
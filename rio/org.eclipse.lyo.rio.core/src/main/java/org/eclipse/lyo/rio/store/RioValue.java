@@ -31,7 +31,11 @@ public class RioValue {
 	public RioValue(RioValueType type, Object value)
 			throws UnrecognizedValueTypeException {
 		this.type = type;
-		this.value = value;
+		if (type == RioValueType.URI && value instanceof String) {
+			this.value = TermDictionary.intern((String) value);
+		} else {
+			this.value = value;
+		}
 	}
 
 	/* factory methods */
@@ -190,8 +194,14 @@ public class RioValue {
 	}
 
 	public java.net.URI uriValue() throws IncompatibleValueException {
-		if (type == RioValueType.URI || type == RioValueType.BLANK_NODE)
-			return (java.net.URI) value;
+		if (type == RioValueType.URI || type == RioValueType.BLANK_NODE) {
+			if (value instanceof java.net.URI)
+				return (java.net.URI) value;
+			// created from a string
+			if (type == RioValueType.URI)
+				return TermDictionary.uri(value.toString());
+			return java.net.URI.create(value.toString());
+		}
 		throw new IncompatibleValueException();
 	}
 
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The queries of a store whose cursors are open, so an administrator can see
+ * what is holding connections and cancel it.
+ */
+public class RunningQueries {
+
+	private final AtomicLong ids = new AtomicLong();
+	private final AtomicLong cancelled = new AtomicLong();
+	private final AtomicLong timedOut = new AtomicLong();
+	private final AtomicLong truncated = new AtomicLong();
+	private final Map<Long, Entry> running = new ConcurrentHashMap<Long, Entry>();
+
+	/**
+	 * One open query.
+	 */
+	public static class Entry {
+		public final long id;
+		public final String query;
+		public final String thread;
+		public final long started;
+		public final int timeout;
+		final QueryCursor cursor;
+
+		Entry(long id, String query, int timeout, QueryCursor cursor) {
+			this.id = id;
+			this.query = query;
+			this.thread = Thread.currentThread().getName();
+			this.started = System.currentTimeMillis();
+			this.timeout = timeout;
+			this.cursor = cursor;
+		}
+
+		/**
+		 * @return milliseconds since the query was opened
+		 */
+		public long getElapsed() {
+			return System.currentTimeMillis() - started;
+		}
+
+		/**
+		 * @return the rows read so far
+		 */
+		public int getRows() {
+			return cursor.getCount();
+		}
+	}
+
+	/**
+	 * @param timeout the query's time budget in seconds, 0 for none
+	 */
+	long register(String query, int timeout, QueryCursor cursor) {
+		long id = ids.incrementAndGet();
+		running.put(id, new Entry(id, query, timeout, cursor));
+		return id;
+	}
+
+	void unregister(long id) {
+		running.remove(id);
+	}
+
+	void timedOut() {
+		timedOut.incrementAndGet();
+	}
+
+	void truncated() {
+		truncated.incrementAndGet();
+	}
+
+	/**
+	 * @return the open queries, longest running first
+	 */
+	public List<Entry> list() {
+		List<Entry> entries = new ArrayList<Entry>(running.values());
+		Collections.sort(entries, new Comparator<Entry>() {
+			public int compare(Entry e1, Entry e2) {
+				return e1.id < e2.id ? -1 : (e1.id == e2.id ? 0 : 1);
+			}
+		});
+		return entries;
+	}
+
+	/**
+	 * Stops a query.  Its reader gets an error on the next row and releases
+	 * the connection.
+	 * @return false if the query is no longer running
+	 */
+	public boolean cancel(long id) {
+		Entry entry = running.get(id);
+		if( entry == null ) return false;
+		entry.cursor.cancel();
+		cancelled.incrementAndGet();
+		return true;
+	}
+
+	public int size() {
+		return running.size();
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		metrics.put("runningQueries.active", size());
+		metrics.put("runningQueries.cancelled", cancelled.get());
+		metrics.put("runningQueries.timedOut", timedOut.get());
+		metrics.put("runningQueries.truncated", truncated.get());
+		return metrics;
+	}
+
+}
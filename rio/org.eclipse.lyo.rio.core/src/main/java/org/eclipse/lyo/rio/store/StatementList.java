@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The statements of a {@link RioResource}, in the order they were added, with
+ * an index from subject and predicate to statements.
+ * <p>
+ * The index is kept up to date as statements are appended or removed one at
+ * a time, which is how resources are built.  Any other change to the list
+ * drops it, and it is rebuilt on the next lookup.  A statement whose subject
+ * is changed in place must be followed by {@link #invalidate()}.
+ */
+public class StatementList extends ArrayList<RioStatement> {
+
+	private static final long serialVersionUID = 6914217708163520479L;
+
+	// subject -> predicate -> statements, in list order
+	private transient Map<String, Map<String, List<RioStatement>>> index = null;
+	// the modCount the index matches
+	private transient int indexed = -1;
+
+	public StatementList() {
+		super();
+	}
+
+	/**
+	 * @return the statements with the subject and predicate, in list order;
+	 * not to be modified
+	 */
+	public List<RioStatement> find(String subject, String predicate) {
+		Map<String, List<RioStatement>> predicates = getIndex().get(subject);
+		List<RioStatement> found = predicates == null ? null : predicates.get(predicate);
+		if( found == null ) {
+			return Collections.emptyList();
+		}
+		return found;
+	}
+
+	/**
+	 * @return the statements with the subject grouped by predicate, predicates
+	 * in the order first added
+	 */
+	public Map<String, List<RioStatement>> find(String subject) {
+		Map<String, List<RioStatement>> predicates = getIndex().get(subject);
+		if( predicates == null ) {
+			return Collections.emptyMap();
+		}
+		return Collections.unmodifiableMap(predicates);
+	}
+
+	/**
+	 * @return the first statement with the subject and predicate, or null
+	 */
+	public RioStatement findFirst(String subject, String predicate) {
+		List<RioStatement> found = find(subject, predicate);
+		return found.isEmpty() ? null : found.get(0);
+	}
+
+	/**
+	 * Drops the index after statements were changed in place.
+	 */
+	public void invalidate() {
+		index = null;
+		indexed = -1;
+	}
+
+	private Map<String, Map<String, List<RioStatement>>> getIndex() {
+		if( index == null || indexed != modCount ) {
+			index = new HashMap<String, Map<String, List<RioStatement>>>();
+			for (int i = 0; i < size(); i++) {
+				indexStatement(get(i));
+			}
+			indexed = modCount;
+		}
+		return index;
+	}
+
+	private void indexStatement(RioStatement statement) {
+		Map<String, List<RioStatement>> predicates = index.get(statement.getSubject());
+		if( predicates == null ) {
+			predicates = new LinkedHashMap<String, List<RioStatement>>();
+			index.put(statement.getSubject(), predicates);
+		}
+		List<RioStatement> list = predicates.get(statement.getPredicate());
+		if( list == null ) {
+			// most properties have one value
+			list = new ArrayList<RioStatement>(1);
+			predicates.put(statement.getPredicate(), list);
+		}
+		list.add(statement);
+	}
+
+	@Override
+	public boolean add(RioStatement statement) {
+		boolean current = index != null && indexed == modCount;
+		super.add(statement);
+		if( current ) {
+			indexStatement(statement);
+			indexed = modCount;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		boolean current = index != null && indexed == modCount;
+		if( !super.remove(o) ) {
+			return false;
+		}
+		if( current ) {
+			RioStatement statement = (RioStatement) o;
+			Map<String, List<RioStatement>> predicates = index.get(statement.getSubject());
+			List<RioStatement> list = predicates == null ? null : predicates.get(statement.getPredicate());
+			if( list != null ) {
+				for (int i = 0; i < list.size(); i++) {
+					if( list.get(i) == statement ) {
+						list.remove(i);
+						break;
+					}
+				}
+				if( list.isEmpty() ) {
+					predicates.remove(statement.getPredicate());
+				}
+			}
+			indexed = modCount;
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		index = new HashMap<String, Map<String, List<RioStatement>>>();
+		indexed = modCount;
+	}
+
+	@Override
+	public RioStatement set(int i, RioStatement statement) {
+		// does not count as a modification in ArrayList
+		invalidate();
+		return super.set(i, statement);
+	}
+
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts and times store operations.  The numbers are taken in RioStore
+ * itself, above the repository, so they are comparable whichever
+ * {@link IStoreProvider} backs the store.
+ */
+public class StoreMetrics {
+
+	public static enum Operation {
+		READ, WRITE, REMOVE, QUERY, PARSE, BULK_LOAD;
+
+		String key() {
+			return name().toLowerCase();
+		}
+	}
+
+	private final String backend;
+	private final long started = System.currentTimeMillis();
+	private final AtomicLong[] counts = new AtomicLong[Operation.values().length];
+	private final AtomicLong[] errors = new AtomicLong[Operation.values().length];
+	private final AtomicLong[] nanos = new AtomicLong[Operation.values().length];
+	private final AtomicLong[] maxNanos = new AtomicLong[Operation.values().length];
+
+	public StoreMetrics(String backend) {
+		this.backend = backend;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = new AtomicLong();
+			errors[i] = new AtomicLong();
+			nanos[i] = new AtomicLong();
+			maxNanos[i] = new AtomicLong();
+		}
+	}
+
+	/**
+	 * @return the name of the store provider being measured
+	 */
+	public String getBackend() {
+		return backend;
+	}
+
+	/**
+	 * @return a start time to pass to {@link #record}
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	public void record(Operation op, long start, boolean success) {
+		long elapsed = System.nanoTime() - start;
+		int i = op.ordinal();
+		counts[i].incrementAndGet();
+		if( !success ) {
+			errors[i].incrementAndGet();
+		}
+		nanos[i].addAndGet(elapsed);
+		long max = maxNanos[i].get();
+		while( elapsed > max && !maxNanos[i].compareAndSet(max, elapsed) ) {
+			max = maxNanos[i].get();
+		}
+	}
+
+	public long getCount(Operation op) {
+		return counts[op.ordinal()].get();
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		long uptime = Math.max(1, System.currentTimeMillis() - started);
+		metrics.put("store.uptimeMillis", uptime);
+		for (Operation op : Operation.values()) {
+			int i = op.ordinal();
+			long count = counts[i].get();
+			String prefix = "store." + op.key();
+			metrics.put(prefix + ".count", count);
+			metrics.put(prefix + ".errors", errors[i].get());
+			metrics.put(prefix + ".totalMillis", nanos[i].get() / 1000000);
+			metrics.put(prefix + ".avgMillis", count == 0 ? 0 : (double) nanos[i].get() / count / 1000000);
+			metrics.put(prefix + ".maxMillis", maxNanos[i].get() / 1000000);
+			metrics.put(prefix + ".perSecond", (double) count * 1000 / uptime);
+		}
+		return metrics;
+	}
+
+	@Override
+	public String toString() {
+		return "StoreMetrics[" + backend + "]" + getMetrics(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+}
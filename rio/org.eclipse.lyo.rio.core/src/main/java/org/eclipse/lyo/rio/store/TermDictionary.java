@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared canonical instances of the URIs that statements and values are made
+ * of: subjects, predicates, contexts and URI objects.
+ * <p>
+ * The same few hundred predicates and types appear in every resource read
+ * from the store, so statements hold the one canonical string for each
+ * instead of a fresh copy, and URI values share one {@link java.net.URI}.
+ * The namespace / local name split the formatters need is kept with the term.
+ * <p>
+ * The dictionary is bounded.  Terms live in two generations; lookups check
+ * the current one, then the previous one, moving hits forward.  When the
+ * current generation fills up, the previous one is dropped, so terms that
+ * stop being used are released and memory stays flat however many distinct
+ * URIs pass through.  Reads take no lock.
+ */
+public class TermDictionary {
+
+	public static final int DEFAULT_MAX_TERMS = 50000;
+
+	private static final TermDictionary instance = new TermDictionary(DEFAULT_MAX_TERMS);
+
+	private final int generationSize;
+	private volatile ConcurrentHashMap<String, Term> current = new ConcurrentHashMap<String, Term>();
+	private volatile ConcurrentHashMap<String, Term> previous = new ConcurrentHashMap<String, Term>();
+
+	// only misses are counted, so hits touch no shared state
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong rotations = new AtomicLong();
+
+	/**
+	 * A canonical term, with its URI and namespace split made on first use.
+	 */
+	private static class Term {
+		final String value;
+		volatile java.net.URI uri;
+		volatile String[] split;
+
+		Term(String value) {
+			this.value = value;
+		}
+	}
+
+	public TermDictionary(int maxTerms) {
+		this.generationSize = Math.max(1, maxTerms / 2);
+	}
+
+	/**
+	 * @return the dictionary shared by the store, resources and formatters
+	 */
+	public static TermDictionary getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @return the canonical string equal to the term, or null for null
+	 */
+	public static String intern(String term) {
+		if( term == null ) {
+			return null;
+		}
+		return instance.get(term);
+	}
+
+	/**
+	 * @return the shared URI for the term
+	 * @throws IllegalArgumentException if the term is not a valid URI
+	 */
+	public static java.net.URI uri(String term) {
+		Term t = instance.lookup(term);
+		java.net.URI uri = t.uri;
+		if( uri == null ) {
+			uri = java.net.URI.create(t.value);
+			t.uri = uri;
+		}
+		return uri;
+	}
+
+	/**
+	 * Splits a URI after its last '#', or its last '/' if there is no '#'.
+	 * @return the namespace and local name of the URI; not to be modified
+	 */
+	public static String[] split(String term) {
+		Term t = instance.lookup(term);
+		String[] split = t.split;
+		if( split == null ) {
+			String value = t.value;
+			int pos = value.lastIndexOf('#');
+			if( pos < 0 ) {
+				pos = value.lastIndexOf('/');
+			}
+			split = new String[] { intern(value.substring(0, pos + 1)), value.substring(pos + 1) };
+			t.split = split;
+		}
+		return split;
+	}
+
+	/**
+	 * @return the canonical string equal to the term in this dictionary
+	 */
+	public String get(String term) {
+		return lookup(term).value;
+	}
+
+	private Term lookup(String term) {
+		ConcurrentHashMap<String, Term> generation = current;
+		Term t = generation.get(term);
+		if( t != null ) {
+			return t;
+		}
+		t = previous.get(term);
+		if( t == null ) {
+			misses.incrementAndGet();
+			t = new Term(term);
+		}
+		Term existing = generation.putIfAbsent(term, t);
+		if( existing != null ) {
+			return existing;
+		}
+		if( generation.size() > generationSize ) {
+			rotate(generation);
+		}
+		return t;
+	}
+
+	private synchronized void rotate(ConcurrentHashMap<String, Term> full) {
+		if( current != full ) {
+			// another thread got here first
+			return;
+		}
+		previous = full;
+		current = new ConcurrentHashMap<String, Term>();
+		rotations.incrementAndGet();
+	}
+
+	public void clear() {
+		synchronized (this) {
+			previous = new ConcurrentHashMap<String, Term>();
+			current = new ConcurrentHashMap<String, Term>();
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	public int getSize() {
+		return current.size() + previous.size();
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		metrics.put("terms.size", getSize());
+		metrics.put("terms.max", generationSize * 2);
+		metrics.put("terms.misses", misses.get());
+		metrics.put("terms.rotations", rotations.get());
+		return metrics;
+	}
+
+	@Override
+	public String toString() {
+		return "TermDictionary" + getMetrics(); //$NON-NLS-1$
+	}
+
+}
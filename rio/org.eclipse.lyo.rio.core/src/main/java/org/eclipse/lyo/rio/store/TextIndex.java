@@ -0,0 +1,404 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+
+/**
+ * In memory inverted index of the words of text properties, used to answer
+ * <code>oslc.searchTerms</code> and selection dialog type-ahead (see
+ * {@link IStoreIndex}).  Every word of a search term must start a word of the
+ * resource, and matches are ranked with BM25, title words counting twice and
+ * prefix matches half.
+ */
+public class TextIndex implements IStoreIndex {
+
+	/**
+	 * Indexed unless {@link RioStore#PROP_TEXT_PROPERTIES} names others
+	 */
+	public static final String[] DEFAULT_PROPERTIES = {
+		IConstants.DCTERMS_TITLE,
+		IConstants.DCTERMS_DESCRIPTION
+	};
+
+	/**
+	 * Most matches a search ranks and returns
+	 */
+	public static final int MAX_RESULTS = 500;
+
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+	private static final float TITLE_WEIGHT = 2f;
+	private static final double PREFIX_WEIGHT = 0.5;
+	private static final String RDF_TYPE = IConstants.RDF_NAMESPACE + "type"; //$NON-NLS-1$
+	private static final String RDF_XMLLITERAL = IConstants.RDF_NAMESPACE + "XMLLiteral"; //$NON-NLS-1$
+
+	private final Set<String> predicates;
+	// word -> subject -> weighted number of occurrences
+	private final TreeMap<String, Map<String, Float>> postings = new TreeMap<String, Map<String, Float>>();
+	private final Map<String, Document> documents = new HashMap<String, Document>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private double totalLength = 0;
+	private final AtomicLong searches = new AtomicLong();
+	private final AtomicLong reloads = new AtomicLong();
+
+	public TextIndex(Collection<String> predicates) {
+		this.predicates = Collections.unmodifiableSet(new LinkedHashSet<String>(predicates));
+	}
+
+	/**
+	 * @see PropertyIndex#fromConfig(String)
+	 */
+	public static TextIndex fromConfig(String config) {
+		List<String> predicates = PropertyIndex.parsePredicates(config, DEFAULT_PROPERTIES);
+		return predicates.isEmpty() ? null : new TextIndex(predicates);
+	}
+
+	public Set<String> getPredicates() {
+		return predicates;
+	}
+
+	/**
+	 * Ranks the resources matching any of the search terms.
+	 * @param resourceType only resources of this rdf:type, may be null for all
+	 * @param limit the most matches returned
+	 * @return the score of each match, best first
+	 */
+	public LinkedHashMap<String, Double> search(List<String> searchTerms, String resourceType, int limit) {
+		searches.incrementAndGet();
+		final Map<String, Double> scores = new HashMap<String, Double>();
+		lock.readLock().lock();
+		try {
+			if( documents.isEmpty() ) return new LinkedHashMap<String, Double>();
+			double avgLength = totalLength / documents.size();
+			for (String searchTerm : searchTerms) {
+				Map<String, Double> termScores = null;
+				for (String word : tokenize(searchTerm)) {
+					Map<String, Double> wordScores = score(word, avgLength);
+					if( termScores == null ) {
+						termScores = wordScores;
+					} else {
+						// every word of the term must match
+						for (Iterator<Map.Entry<String, Double>> it = termScores.entrySet().iterator(); it.hasNext();) {
+							Map.Entry<String, Double> entry = it.next();
+							Double score = wordScores.get(entry.getKey());
+							if( score == null ) {
+								it.remove();
+							} else {
+								entry.setValue(entry.getValue() + score);
+							}
+						}
+					}
+					if( termScores.isEmpty() ) break;
+				}
+				if( termScores == null ) continue;
+				for (Map.Entry<String, Double> entry : termScores.entrySet()) {
+					if( resourceType != null && !documents.get(entry.getKey()).types.contains(resourceType) ) continue;
+					Double score = scores.get(entry.getKey());
+					scores.put(entry.getKey(), score == null ? entry.getValue() : score + entry.getValue());
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		List<String> ranked = new ArrayList<String>(scores.keySet());
+		Collections.sort(ranked, new Comparator<String>() {
+			public int compare(String s1, String s2) {
+				int cmp = scores.get(s2).compareTo(scores.get(s1));
+				return cmp != 0 ? cmp : s1.compareTo(s2);
+			}
+		});
+		LinkedHashMap<String, Double> found = new LinkedHashMap<String, Double>();
+		for (String subject : ranked) {
+			if( found.size() >= limit ) break;
+			found.put(subject, scores.get(subject));
+		}
+		return found;
+	}
+
+	// read lock held
+	private Map<String, Double> score(String word, double avgLength) {
+		// the best occurrence of the word or a longer word it starts
+		Map<String, Double> tfs = new HashMap<String, Double>();
+		for (Map.Entry<String, Map<String, Float>> entry : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+			double weight = entry.getKey().equals(word) ? 1 : PREFIX_WEIGHT;
+			for (Map.Entry<String, Float> posting : entry.getValue().entrySet()) {
+				double tf = weight * posting.getValue().floatValue();
+				Double best = tfs.get(posting.getKey());
+				if( best == null || tf > best ) {
+					tfs.put(posting.getKey(), tf);
+				}
+			}
+		}
+		int count = documents.size();
+		double idf = Math.log(1 + (count - tfs.size() + 0.5) / (tfs.size() + 0.5));
+		Map<String, Double> scores = new HashMap<String, Double>();
+		for (Map.Entry<String, Double> entry : tfs.entrySet()) {
+			double tf = entry.getValue();
+			double norm = 1 - B + B * documents.get(entry.getKey()).length / avgLength;
+			scores.put(entry.getKey(), idf * tf * (K1 + 1) / (tf + K1 * norm));
+		}
+		return scores;
+	}
+
+	/**
+	 * Type-ahead for the selection dialogs.
+	 * @param text what has been typed so far
+	 * @param resourceType only resources of this rdf:type, may be null for all
+	 * @return the titles of the best matches, keyed by resource URI
+	 */
+	public LinkedHashMap<String, String> suggest(String text, String resourceType, int limit) {
+		LinkedHashMap<String, Double> found = search(Collections.singletonList(text), resourceType, limit);
+		LinkedHashMap<String, String> titles = new LinkedHashMap<String, String>();
+		lock.readLock().lock();
+		try {
+			for (String subject : found.keySet()) {
+				Document document = documents.get(subject);
+				// may have been removed since the search
+				if( document == null ) continue;
+				titles.put(subject, document.title == null ? "" : document.title); //$NON-NLS-1$
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return titles;
+	}
+
+	public void reload(RepositoryConnection conn, Collection<String> subjectUris) throws RepositoryException {
+		ValueFactory vf = conn.getValueFactory();
+		Map<String, List<Statement>> current = new LinkedHashMap<String, List<Statement>>();
+		for (String subjectUri : subjectUris) {
+			List<Statement> statements = new ArrayList<Statement>();
+			URI subject = vf.createURI(subjectUri);
+			for (String predicate : predicates) {
+				addStatements(conn.getStatements(subject, vf.createURI(predicate), null, false), statements);
+			}
+			addStatements(conn.getStatements(subject, vf.createURI(RDF_TYPE), null, false), statements);
+			current.put(subjectUri, statements);
+		}
+		lock.writeLock().lock();
+		try {
+			for (Map.Entry<String, List<Statement>> entry : current.entrySet()) {
+				removeDocument(entry.getKey());
+				addDocument(entry.getKey(), entry.getValue());
+			}
+			reloads.addAndGet(current.size());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void rebuild(RepositoryConnection conn) throws RepositoryException {
+		ValueFactory vf = conn.getValueFactory();
+		Map<String, List<Statement>> current = new HashMap<String, List<Statement>>();
+		for (String predicate : predicates) {
+			collect(conn.getStatements(null, vf.createURI(predicate), null, false), current, true);
+		}
+		collect(conn.getStatements(null, vf.createURI(RDF_TYPE), null, false), current, false);
+		lock.writeLock().lock();
+		try {
+			clearDocuments();
+			for (Map.Entry<String, List<Statement>> entry : current.entrySet()) {
+				addDocument(entry.getKey(), entry.getValue());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static void addStatements(RepositoryResult<Statement> result, List<Statement> statements) throws RepositoryException {
+		try {
+			while( result.hasNext() ) {
+				statements.add(result.next());
+			}
+		} finally {
+			result.close();
+		}
+	}
+
+	/**
+	 * Groups the statements by subject.
+	 * @param create false to only add to subjects already collected
+	 */
+	private static void collect(RepositoryResult<Statement> result, Map<String, List<Statement>> statements, boolean create) throws RepositoryException {
+		try {
+			while( result.hasNext() ) {
+				Statement statement = result.next();
+				Resource subject = statement.getSubject();
+				if( !(subject instanceof URI) ) continue;
+				List<Statement> subjectStatements = statements.get(subject.stringValue());
+				if( subjectStatements == null ) {
+					if( !create ) continue;
+					subjectStatements = new ArrayList<Statement>();
+					statements.put(subject.stringValue(), subjectStatements);
+				}
+				subjectStatements.add(statement);
+			}
+		} finally {
+			result.close();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			clearDocuments();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void clearDocuments() {
+		postings.clear();
+		documents.clear();
+		totalLength = 0;
+	}
+
+	// write lock held
+	private void addDocument(String subjectUri, List<Statement> statements) {
+		Document document = new Document();
+		for (Statement statement : statements) {
+			String predicate = statement.getPredicate().stringValue();
+			Value object = statement.getObject();
+			if( RDF_TYPE.equals(predicate) ) {
+				if( object instanceof URI ) document.types.add(object.stringValue());
+				continue;
+			}
+			if( !(object instanceof Literal) ) continue;
+			String text = object.stringValue();
+			URI datatype = ((Literal) object).getDatatype();
+			if( datatype != null && RDF_XMLLITERAL.equals(datatype.stringValue()) ) {
+				text = text.replaceAll("<[^>]*>", " ").trim(); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			boolean title = IConstants.DCTERMS_TITLE.equals(predicate);
+			if( title && document.title == null ) {
+				document.title = text;
+			}
+			float weight = title ? TITLE_WEIGHT : 1f;
+			for (String word : tokenize(text)) {
+				Float tf = document.words.get(word);
+				document.words.put(word, tf == null ? weight : tf + weight);
+				document.length += weight;
+			}
+		}
+		if( document.words.isEmpty() ) return;
+		documents.put(subjectUri, document);
+		totalLength += document.length;
+		for (Map.Entry<String, Float> entry : document.words.entrySet()) {
+			Map<String, Float> subjects = postings.get(entry.getKey());
+			if( subjects == null ) {
+				subjects = new HashMap<String, Float>(4);
+				postings.put(entry.getKey(), subjects);
+			}
+			subjects.put(subjectUri, entry.getValue());
+		}
+	}
+
+	// write lock held
+	private void removeDocument(String subjectUri) {
+		Document document = documents.remove(subjectUri);
+		if( document == null ) return;
+		totalLength -= document.length;
+		for (String word : document.words.keySet()) {
+			Map<String, Float> subjects = postings.get(word);
+			if( subjects != null && subjects.remove(subjectUri) != null && subjects.isEmpty() ) {
+				postings.remove(word);
+			}
+		}
+	}
+
+	/**
+	 * @return the lower case words of the text
+	 */
+	public static List<String> tokenize(String text) {
+		List<String> words = new ArrayList<String>();
+		String lower = text.toLowerCase(Locale.ENGLISH);
+		int start = -1;
+		for (int i = 0; i <= lower.length(); i++) {
+			boolean letter = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+			if( letter && start < 0 ) {
+				start = i;
+			} else if( !letter && start >= 0 ) {
+				words.add(lower.substring(start, i));
+				start = -1;
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * @return the number of indexed resources
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@SuppressWarnings("nls")
+	public Map<String, Number> getMetrics() {
+		Map<String, Number> metrics = new LinkedHashMap<String, Number>();
+		lock.readLock().lock();
+		try {
+			metrics.put("textIndex.documents", documents.size());
+			metrics.put("textIndex.words", postings.size());
+		} finally {
+			lock.readLock().unlock();
+		}
+		metrics.put("textIndex.searches", searches.get());
+		metrics.put("textIndex.reloads", reloads.get());
+		return metrics;
+	}
+
+	private static class Document {
+		String title;
+		final Set<String> types = new HashSet<String>(2);
+		final Map<String, Float> words = new HashMap<String, Float>();
+		float length;
+	}
+
+}
@@ -15,46 +15,104 @@
  *******************************************************************************/
 package org.eclipse.lyo.rio.store;
 
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.TreeMap;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.store.RioValue.RioValueType;
-import org.eclipse.lyo.rio.util.XmlUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
+/**
+ * Writes a resource as RDF/XML.
+ * <p>
+ * The document is streamed through an {@link XMLStreamWriter}, straight to
+ * the output stream when one is given, so a large resource is never held as
+ * a DOM or a string.  Namespace prefixes are declared on the root element, so
+ * the statements are walked once to assign them before anything is written.
+ * <p>
+ * Properties of the resource come first, in the order of its statements.
+ * Blank node objects are written inline, sequences as ordered rdf:li elements.
+ * A statement that is reified (an anchored link) gets an rdf:ID, and the
+ * properties of the reification follow in an rdf:Description of their own.
+ */
 public class XmlFormatter {
 	
 	private RioResource resource = null;
 	private Map<String,String> namespacePrefixes = new HashMap<String,String>();
-	private Map<String,Element> otherStatementIds = new HashMap<String,Element>();
-	private Map<String,Element> idElm = new HashMap<String,Element>();
-	private Map<String,Element> blankNodes = new HashMap<String,Element>();
-	private Document document;
+	// [predicate,object] -> id of the reification describing the statement
+	private Map<String,String> otherStatementIds = new HashMap<String,String>();
+	// id -> subject of the reification, in document order
+	private Map<String,String> descriptions = new LinkedHashMap<String,String>();
+	private Map<String,String[]> blankNodes = new HashMap<String,String[]>();
+	// null while assigning prefixes
+	private XMLStreamWriter xml;
 	private static final String RDF_LI_PREFIX = "http://www.w3.org/1999/02/22-rdf-syntax-ns#_";
 	private static int RDF_LI_PREFIX_LEN = RDF_LI_PREFIX.length(); 
+	private static final String[] RDF_DESCRIPTION = new String[]{ IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_TERM_DESCRIPTION, IConstants.RDF_PREFIX };
+	private static final String[] RDF_LI = new String[]{ IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_LI, IConstants.RDF_PREFIX };
 	
+	public XmlFormatter() {
+	}
+
+	/**
+	 * A formatter that writes with the namespace prefixes of a registered
+	 * resource type.
+	 */
+	public XmlFormatter(PropertyMetadataRegistry.ResourceMetadata metadata) {
+		namespacePrefixes.putAll(metadata.getNamespacePrefixes());
+	}
+
 	static public String formatResource(RioResource resource, String rdfType ) throws RioServerException {
 		XmlFormatter formatter = new XmlFormatter();
 		return formatter.format(resource, rdfType);
 	}
 	
+	static public void formatResource(RioResource resource, String rdfType, OutputStream out) throws RioServerException {
+		XmlFormatter formatter = new XmlFormatter();
+		formatter.format(resource, rdfType, out);
+	}
+	
 	public void addNamespacePrefix(String ns, String prefix) {
 		this.namespacePrefixes.put(ns, prefix);
 	}
 	
 	public String format(RioResource resource, String rdfType ) throws RioServerException {
+		StringWriter writer = new StringWriter();
+		try {
+			write(resource, rdfType, XMLOutputFactory.newInstance().createXMLStreamWriter(writer));
+		} catch (XMLStreamException e) {
+			throw new RioServerException(e);
+		}
+		return writer.toString();
+	}
+	
+	/**
+	 * Streams the resource to the output stream, UTF-8 encoded.  The stream
+	 * is flushed, not closed.
+	 */
+	public void format(RioResource resource, String rdfType, OutputStream out) throws RioServerException {
+		try {
+			write(resource, rdfType, XMLOutputFactory.newInstance().createXMLStreamWriter(out, IConstants.TEXT_ENCODING));
+		} catch (XMLStreamException e) {
+			throw new RioServerException(e);
+		}
+	}
+	
+	private void write(RioResource resource, String rdfType, XMLStreamWriter writer) throws RioServerException, XMLStreamException {
 		this.resource = resource;
 
 		if( rdfType != null && !resource.isRdfType(rdfType) ) {
@@ -62,122 +120,120 @@ public class XmlFormatter {
 		}
 		
 		initPrefixes();
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setValidating(true);
-		factory.setNamespaceAware(true);
-		try{
-			DocumentBuilder builder = factory.newDocumentBuilder();
-			document = builder.newDocument();
-			Element rdf = document.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_PTERM_RDF);
-			document.appendChild(rdf);
-			rdf.setAttribute(IConstants.XML_BASE, resource.getUri());
+		String[] nlp;
+		if( rdfType == null  ){
+			nlp = RDF_DESCRIPTION;	
+		} else {
+			nlp = this.extractNsLocal(rdfType);
+		}
+
+		List<RioStatement> statements = resource.getStatements();
+		
+		// find all reified statements in a first pass of statements.  Looking for statement with type rdf:statement 
+		// these indicate a link with an anchor, so we should deal with it specially
+		Iterator<RioStatement> i = statements.iterator();
+		while( i.hasNext() ) {
+			// rdfTypePredicate, rdfStatementPredicate, false, oslcResource.getResource());
+			RioStatement statement = i.next();
+			String predicate = statement.getPredicate();
+			RioValue object = statement.getObject();
 			
-			String[] nlp;
-			if( rdfType == null  ){
-				nlp = new String[]{ IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_TERM_DESCRIPTION, IConstants.RDF_PREFIX };	
-			} else {
-				nlp = this.extractNsLocal(rdfType);
+			if( IConstants.RDF_TYPE_STATEMENT.equals(object.stringValue()) && IConstants.RDF_TYPE.equals(predicate) ) {
+				createOtherDescription(statement, resource);
 			}
 			
-			
-			Element resRoot = document.createElementNS(nlp[0], nlp[2] + ':' + nlp[1] );
-			rdf.appendChild(resRoot);
-			resRoot.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_ABOUT, resource.getUri());
-
-			List<RioStatement> statements = resource.getStatements();
-			
-			// find all reified statements in a first pass of statements.  Looking for statement with type rdf:statement 
-			// these indicate a link with an anchor, so we should deal with it specially
-			Iterator<RioStatement> i = statements.iterator();
-			while( i.hasNext() ) {
-				// rdfTypePredicate, rdfStatementPredicate, false, oslcResource.getResource());
-				RioStatement statement = i.next();
-				String predicate = statement.getPredicate();
-				RioValue object = statement.getObject();
-				
-				if( IConstants.RDF_TYPE_STATEMENT.equals(object.stringValue()) && IConstants.RDF_TYPE.equals(predicate) ) {
-					createOtherDescription(statement, resource, rdf);
+			if( object.isBlankNode() ) {
+				// find what type this is pointing to.  If none use rdf:Description
+				String[] elm = null;
+				List<RioStatement> stmts = resource.getStatements(object.stringValue(), IConstants.RDF_TYPE, null);
+				if( stmts.isEmpty() ) {
+					elm = RDF_DESCRIPTION;
+				} else {
+					String typeUri = stmts.get(0).getObject().stringValue(); 
+					elm = this.extractNsLocal(typeUri);
 				}
 				
-				if( object.isBlankNode() ) {
-					// find what type this is pointing to.  If none use rdf:Description
-					Element elm = null;
-					List<RioStatement> stmts = resource.getStatements(object.stringValue(), IConstants.RDF_TYPE, null);
-					if( stmts.isEmpty() ) {
-						elm = document.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_PTERM_DESCRIPTION);
-					} else {
-						String typeUri = stmts.get(0).getObject().stringValue(); 
-						nlp = this.extractNsLocal(typeUri);
-						elm = document.createElementNS(nlp[0], nlp[2] + ':' + nlp[1]);
-					}
-					
-					this.blankNodes.put(statement.getObject().stringValue(), elm);
+				this.blankNodes.put(statement.getObject().stringValue(), elm);
+			}
+		}
+		
+		// assign the prefixes of the rest of the statements, without writing
+		this.xml = null;
+		for (RioStatement statement : statements) {
+			writeStatement(statement);
+		}
+		
+		this.xml = writer;
+		xml.writeStartDocument(IConstants.TEXT_ENCODING, "1.0"); //$NON-NLS-1$
+		indent(0);
+		xml.writeStartElement(IConstants.RDF_PREFIX, IConstants.RDF_TYPE_TERM_RDF, IConstants.RDF_NAMESPACE);
+		setNamespaces();
+		xml.writeAttribute(XMLConstants.XML_NS_PREFIX, XMLConstants.XML_NS_URI, "base", resource.getUri()); //$NON-NLS-1$
+		
+		indent(1);
+		startElement(nlp);
+		attribute(IConstants.RDF_TERM_ABOUT, resource.getUri());
+		// normal first level properties
+		for (RioStatement statement : statements) {
+			if( statement.getSubject().equals(resource.getUri()) ) {
+				writeStatement(statement);
+			}
+		}
+		indent(1);
+		xml.writeEndElement();
+		
+		// and the properties of the reified statements
+		for (Map.Entry<String, String> description : descriptions.entrySet()) {
+			indent(1);
+			startElement(RDF_DESCRIPTION);
+			attribute(IConstants.RDF_TERM_ABOUT, "#" + description.getKey()); //$NON-NLS-1$
+			for (RioStatement statement : resource.getStatements(description.getValue(), null, null)) {
+				writeStatement(statement);
+			}
+			indent(1);
+			xml.writeEndElement();
+		}
+		
+		indent(0);
+		xml.writeEndElement();
+		indent(0);
+		xml.writeEndDocument();
+		xml.flush();
+	}
+	
+	private void writeStatement(RioStatement statement) throws RioServerException, XMLStreamException {
+		String subject = statement.getSubject();
+		String predicate = statement.getPredicate();
+		
+		if( subject.equals(resource.getUri()) ) {
+			// normal first level property
+			String id = null;
+			String predObj = extractPredObj(statement);
+			if( this.otherStatementIds.containsKey(predObj) ) {
+				id = this.otherStatementIds.get(predObj);
+				if( id == null || id.length() == 0 ) { 
+					id = null;
 				}
 			}
-			
-			//now get the rest of the statements
-			for (RioStatement statement : statements) {
-				String subject = statement.getSubject();
-				String predicate = statement.getPredicate();
-				
-				if( subject.equals(resource.getUri()) ) {
-					// normal first level property
-					String nsLocal[] = extractNsLocal(predicate);
-					String ns = nsLocal[0]; 
-					String local = nsLocal[1]; 
-					String prefix = nsLocal[2];
-					
-					Element elm = document.createElementNS(ns, prefix + ':' + local);
-					resRoot.appendChild(elm);
-					RioValue value = statement.getObject();
-					setValue(elm, value);
-					
-					String predObj = extractPredObj(statement);
-					Element descrElm = this.otherStatementIds.get(predObj);
-					if( descrElm != null ) {
-						String id = descrElm.getAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TERM_ABOUT);
-						if( id.length()>1 ) { 
-							elm.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_PTERM_ID, id.substring(1));
-						}
-					}
-				} else if( statement.isBNode() ) {
-					Element elm = this.blankNodes.get(subject);
-					if( elm != null && !predicate.toString().equals(IConstants.RDF_TYPE) ) {
-						Element elm2 = document.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_LI);
-						elm.appendChild(elm2);
-						RioValue value = statement.getObject();
-						setValue(elm2, value);
-					}
-				} else {
-					if( !isReifiedStatementProperty(predicate) ) {
-						// now put it in the right description
-						String strSubj = subject.toString();
-						String id = extractUrlFragment(strSubj);
-						Element descrElm = this.idElm.get(id);
-						if( descrElm != null ) {
-							String[] nsLocal = extractNsLocal(predicate);
-							String ns = nsLocal[0];
-							String local = nsLocal[1];
-							String prefix = nsLocal[2];
-							Element elm = document.createElementNS(ns, prefix + ':' + local);
-							RioValue value = statement.getObject();
-							setValue(elm, value);
-							descrElm.appendChild(elm);
-						}
-					}
+			writeProperty(extractNsLocal(predicate), statement.getObject(), id, 2);
+		} else if( statement.isBNode() ) {
+			String[] elm = this.blankNodes.get(subject);
+			if( xml == null && elm != null && !predicate.equals(IConstants.RDF_TYPE) ) {
+				// only the prefixes; the blank node is written inline
+				writeProperty(RDF_LI, statement.getObject(), null, 2);
+			}
+		} else {
+			if( !isReifiedStatementProperty(predicate) ) {
+				// now put it in the right description
+				String id = extractUrlFragment(subject);
+				if( this.descriptions.containsKey(id) ) {
+					writeProperty(extractNsLocal(predicate), statement.getObject(), null, 2);
 				}
 			}
-			
-			// set namespaces and prefixes
-			setNamespaces(rdf);
-			return XmlUtils.prettyPrint(document);
-			
-		} catch( Exception e ) {
-			throw new RioServerException(e);
 		}
 	}
 	
-	private Element constructInlinedElement(String blankNodeSubject) throws RioServerException {
+	private void writeInlined(String blankNodeSubject, int depth) throws RioServerException, XMLStreamException {
 		String type; 
 		List<RioStatement> stmts = resource.getStatements(blankNodeSubject, IConstants.RDF_TYPE, null);
 		if( stmts.isEmpty() ) {
@@ -187,11 +243,12 @@ public class XmlFormatter {
 		}
 		
 		String[] nlp = this.extractNsLocal(type);
-		Element inlinedElm = document.createElementNS(nlp[0], nlp[2] + ':' + nlp[1]);
+		startElement(nlp);
 		
 		stmts = resource.getStatements(blankNodeSubject, null, null);
 
-		if( IConstants.RDF_TYPE_SEQ.equals(type) || IConstants.RDF_TYPE_SEQ.equals(type) ) {
+		boolean seq = IConstants.RDF_TYPE_SEQ.equals(type); 
+		if( seq ) {
 			// we need to order all the children
 			Collections.sort(stmts, new Comparator<RioStatement>(){
 				@Override
@@ -217,18 +274,87 @@ public class XmlFormatter {
 			String predicate = statement.getPredicate(); 
 			if( !IConstants.RDF_TYPE.equals(predicate) ) {
 				nlp = extractNsLocal(predicate);
-				if( IConstants.RDF_TYPE_SEQ.equals(type) || IConstants.RDF_TYPE_SEQ.equals(type) ) {
-					Element childElm = document.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_LI );
-					setValue(childElm, statement.getObject());
-					inlinedElm.appendChild(childElm);
+				if( seq ) {
+					writeProperty(RDF_LI, statement.getObject(), null, depth + 1);
 				} else {
-					Element childElm = document.createElementNS(nlp[0], nlp[2] + ':' + nlp[1]);
-					setValue(childElm, statement.getObject());
-					inlinedElm.appendChild(childElm);
+					writeProperty(nlp, statement.getObject(), null, depth + 1);
 				}
 			}
 		}
-		return inlinedElm;
+		indent(depth);
+		endElement();
+	}
+	
+	/**
+	 * Writes one property element, on a line of its own.
+	 * @param nlp namespace, local name and prefix of the element
+	 * @param id the rdf:ID of the element, or null
+	 */
+	private void writeProperty(String[] nlp, RioValue value, String id, int depth) throws RioServerException, XMLStreamException {
+		indent(depth);
+		if( value.getType() == RioValueType.BLANK_NODE ) {
+			startElement(nlp);
+			attribute(IConstants.RDF_TYPE_TERM_ID, id);
+			indent(depth + 1);
+			writeInlined(value.stringValue(), depth + 1);
+			indent(depth);
+			endElement();
+		} else if( value.getType() == RioValueType.URI ) {
+			emptyElement(nlp);
+			attribute(IConstants.RDF_TYPE_TERM_ID, id);
+			attribute(IConstants.RDF_TERM_RESOURCE, value.stringValue());
+		} else {
+			startElement(nlp);
+			if( value.getType() != RioValueType.STRING ) {
+				attribute(IConstants.RDF_TERM_DATATYPE, value.rdfDataType());
+			}
+			attribute(IConstants.RDF_TYPE_TERM_ID, id);
+			if( xml != null ) {
+				xml.writeCharacters(value.stringValue());
+			}
+			endElement();
+		}
+	}
+	
+	/*
+	 * The writer calls do nothing while the prefixes are being assigned.
+	 */
+	
+	private void startElement(String[] nlp) throws XMLStreamException {
+		if( xml != null ) {
+			xml.writeStartElement(nlp[2], nlp[1], nlp[0]);
+		}
+	}
+	
+	private void emptyElement(String[] nlp) throws XMLStreamException {
+		if( xml != null ) {
+			xml.writeEmptyElement(nlp[2], nlp[1], nlp[0]);
+		}
+	}
+	
+	private void endElement() throws XMLStreamException {
+		if( xml != null ) {
+			xml.writeEndElement();
+		}
+	}
+	
+	/**
+	 * Adds an rdf: attribute to the current element, unless the value is null.
+	 */
+	private void attribute(String local, String value) throws XMLStreamException {
+		if( xml != null && value != null ) {
+			xml.writeAttribute(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE, local, value);
+		}
+	}
+	
+	private void indent(int depth) throws XMLStreamException {
+		if( xml != null ) {
+			StringBuilder sb = new StringBuilder("\n"); //$NON-NLS-1$
+			for (int i = 0; i < depth; i++) {
+				sb.append("  "); //$NON-NLS-1$
+			}
+			xml.writeCharacters(sb.toString());
+		}
 	}
 	
 	/**
@@ -239,19 +365,14 @@ public class XmlFormatter {
 	 * @return
 	 */
 	private String[] extractNsLocal(String uri) {
-		int pos = uri.lastIndexOf('#');
-		if( pos < 0 ) {
-			pos = uri.lastIndexOf('/');
-		}
-		String namespace = uri.substring(0,pos+1);
-		String local = uri.substring(pos+1);
+		String[] split = TermDictionary.split(uri);
+		String namespace = split[0];
+		String local = split[1];
 		String prefix = this.getPrefix(namespace);
 		return new String[] { namespace, local, prefix };
 	}
 
-	private void createOtherDescription(RioStatement statementStatement, RioResource resource, Element rdf) throws RioServerException{
-		Document doc = rdf.getOwnerDocument();
-
+	private void createOtherDescription(RioStatement statementStatement, RioResource resource) throws RioServerException{
 		// get subject and use to get all the other statement in the reification
 		String subject = statementStatement.getSubject();
 		List<RioStatement> preds = resource.getStatements(subject, IConstants.RDF_PREDICATE, null);
@@ -262,17 +383,13 @@ public class XmlFormatter {
 		if( objs.size() == 0 ) return; // nothing to do, not a full reification, maybe we could log this.
 		RioStatement stObj = objs.get(0);
 
-		Element otherDescrElm = doc.createElementNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_PTERM_DESCRIPTION);
-		rdf.appendChild(otherDescrElm);
 		String id = extractUrlFragment(subject);
-		otherDescrElm.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_ABOUT, '#' + id);
 				
 		String predObjStr = concatPredObj(stPred.getObject().stringValue(), stObj.getObject().stringValue() );
-		otherStatementIds.put(predObjStr, otherDescrElm);
-		idElm.put(id, otherDescrElm);
+		otherStatementIds.put(predObjStr, id);
+		descriptions.put(id, subject);
 
 	}
-	
 	private String extractUrlFragment(String uri) {
 		int pos = uri.lastIndexOf('#');
 		if( pos > 0 ) {
@@ -290,24 +407,6 @@ public class XmlFormatter {
 		return concatPredObj(p, o);
 	}
 	
-	private void setValue( Element elm, RioValue value ) throws RioServerException {
-		
-		if( value.getType() == RioValueType.BLANK_NODE ) {
-			Element inlinedElm = this.constructInlinedElement(value.stringValue());
-			elm.appendChild(inlinedElm);
-		} else if( value.getType() == RioValueType.URI ) {
-			elm.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_RESOURCE, value.stringValue());
-		} else if( value.getType() == RioValueType.STRING ) {
-			elm.setTextContent( value.stringValue());
-		} else {
-			String datatype = value.rdfDataType();
-			if( datatype != null ) {
-				elm.setAttributeNS(IConstants.RDF_NAMESPACE, IConstants.RDF_PTERM_DATATYPE, datatype);
-			}
-			elm.setTextContent( value.stringValue());
-		}
-	}
-	
 	private String getPrefix(String namespace) {
 		String prefix = namespacePrefixes.get(namespace);
 		if( prefix == null ) {
@@ -325,10 +424,17 @@ public class XmlFormatter {
 		return prefix;
 	}
 	
-	private void setNamespaces(Element root) {
-		Set<String> namespaces = namespacePrefixes.keySet();
-		for (String namespace : namespaces) {
-			root.setAttribute( IConstants.XMLNS + ':' + namespacePrefixes.get(namespace), namespace);
+	private void setNamespaces() throws XMLStreamException {
+		// rdf first, the rest in a stable order
+		xml.writeNamespace(IConstants.RDF_PREFIX, IConstants.RDF_NAMESPACE);
+		Map<String,String> prefixes = new TreeMap<String,String>();
+		for (Map.Entry<String, String> entry : namespacePrefixes.entrySet()) {
+			if( !IConstants.RDF_NAMESPACE.equals(entry.getKey()) ) {
+				prefixes.put(entry.getValue(), entry.getKey());
+			}
+		}
+		for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+			xml.writeNamespace(entry.getKey(), entry.getValue());
 		}
 	}
 	
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.rio.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails with an IOException once more than <code>limit</code> bytes have been
+ * read from the wrapped stream.
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+	private final long limit;
+	private long count = 0;
+	private long mark = 0;
+
+	public BoundedInputStream(InputStream in, long limit) {
+		super(in);
+		this.limit = limit;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if( b >= 0 ) {
+			advance(1);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = super.read(b, off, len);
+		if( n > 0 ) {
+			advance(n);
+		}
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = super.skip(n);
+		advance(skipped);
+		return skipped;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		super.mark(readlimit);
+		mark = count;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		super.reset();
+		count = mark;
+	}
+
+	private void advance(long n) throws IOException {
+		count += n;
+		if( count > limit ) {
+			throw new IOException("Content exceeds the maximum of " + limit + " bytes"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+}
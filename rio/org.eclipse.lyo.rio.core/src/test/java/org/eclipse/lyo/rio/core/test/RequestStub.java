@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+
+/**
+ * Stand-in for the servlet request of a query: answers getRequestURL,
+ * getQueryString and getParameter, and null to everything else.
+ */
+public class RequestStub {
+
+    private RequestStub() {
+    }
+
+    /**
+     * @param queryString the undecoded query string, also the source of the parameters; may be null
+     */
+    public static HttpServletRequest create(String requestUrl, String queryString) {
+        Map<String, String> params = new HashMap<String, String>();
+        if (queryString != null) {
+            for (String param : queryString.split("&")) {
+                int pos = param.indexOf('=');
+                try {
+                    params.put(param.substring(0, pos), URLDecoder.decode(param.substring(pos + 1), "UTF-8"));
+                } catch (Exception e) {
+                    throw new IllegalArgumentException(e);
+                }
+            }
+        }
+        return create(requestUrl, queryString, params);
+    }
+
+    public static HttpServletRequest create(final String requestUrl, final String queryString, final Map<String, String> params) {
+        return (HttpServletRequest) Proxy.newProxyInstance(RequestStub.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getRequestURL")) {
+                            return new StringBuffer(requestUrl);
+                        } else if (method.getName().equals("getQueryString")) {
+                            return queryString;
+                        } else if (method.getName().equals("getParameter")) {
+                            return params.get(args[0]);
+                        }
+                        return null;
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.io.File;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.eclipse.lyo.rio.store.OslcResource;
+import org.eclipse.lyo.rio.store.RioStore;
+
+
+/**
+ * A test against a store of its own, in a temporary directory that is
+ * removed afterwards.
+ */
+public abstract class StoreTestCase extends TestCase {
+
+    protected File dir;
+    protected RioStore store;
+
+    @Override
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("riostore", "");
+        dir.delete();
+        dir.mkdirs();
+        openStore();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        RioStore.shutdown();
+        delete(dir);
+    }
+
+    /**
+     * @return the settings the store is opened with in setUp
+     */
+    protected Properties storeConfig() {
+        return new Properties();
+    }
+
+    /**
+     * Opens the store in the test's directory, shutting down the one open.
+     */
+    protected RioStore openStore() throws Exception {
+        return openStore(storeConfig());
+    }
+
+    protected RioStore openStore(Properties config) throws Exception {
+        return openStore("repo", config);
+    }
+
+    protected RioStore openStore(String repository, Properties config) throws Exception {
+        store = RioStore.initalizeStore(new File(dir, repository).getPath(),
+                new File(dir, "bin").getPath(), "http://localhost:8080", "rio", config);
+        return store;
+    }
+
+    protected String issueUri(String id) {
+        return store.getUriBase() + "/issue/" + id;
+    }
+
+    /**
+     * @return a new, not yet stored, resource of the type at /issue/{id}
+     */
+    protected OslcResource issue(String id, String type, String title) throws Exception {
+        OslcResource resource = new OslcResource(issueUri(id));
+        resource.addRdfType(type);
+        resource.setTitle(title);
+        return resource;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
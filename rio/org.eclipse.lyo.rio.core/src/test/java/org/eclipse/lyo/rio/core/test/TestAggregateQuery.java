@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.wink.json4j.JSONArray;
+import org.apache.wink.json4j.JSONObject;
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.AggregateQuery;
+import org.eclipse.lyo.rio.query.SimpleQueryBuilder;
+import org.eclipse.lyo.rio.store.OslcResource;
+import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.RioValue;
+
+
+public class TestAggregateQuery extends StoreTestCase {
+
+    private static final String TYPE = "http://example.com/ns#Issue";
+    private static final String OTHER_TYPE = "http://example.com/ns#Task";
+    private static final String NS = "http://example.com/ns#";
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private void open(String indexedProperties) throws Exception {
+        Properties config = new Properties();
+        config.setProperty(RioStore.PROP_INDEXED_PROPERTIES, indexedProperties);
+        openStore(config);
+    }
+
+    private void load() throws Exception {
+        store.update(issue("1", TYPE, "Submitted", 3, 30), "http://example.com/alice");
+        store.update(issue("2", TYPE, "Closed", 1, 10), "http://example.com/alice");
+        store.update(issue("3", TYPE, "Submitted", 2, 20), "http://example.com/alice");
+        store.update(issue("4", TYPE, null, 5, 5), "http://example.com/alice");
+        store.update(issue("5", OTHER_TYPE, "Closed", 4, 40), "http://example.com/alice");
+    }
+
+    private OslcResource issue(String id, String type, String status, int due, int points) throws Exception {
+        OslcResource resource = issue(id, type, "Issue " + id);
+        if (status != null) {
+            resource.addStringProperty(NS + "status", status);
+        }
+        resource.addDateProperty(NS + "due", new Date(due * DAY));
+        resource.addIntegerProperty(NS + "points", points);
+        return resource;
+    }
+
+    private AggregateQuery query(String where, String groupBy, String aggregates) throws Exception {
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parsePrefix("ex=<" + NS + ">,xsd=<http://www.w3.org/2001/XMLSchema#>");
+        queryBuilder.parseWhere("uri", where);
+        return new AggregateQuery(queryBuilder, TYPE, groupBy, aggregates);
+    }
+
+    private String describe(AggregateQuery query) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (AggregateQuery.Group group : query.execute(store)) {
+            sb.append(group.value == null ? "-" : group.value.stringValue()).append('=').append(group.count);
+            for (RioValue value : group.values) {
+                sb.append(' ').append(value == null ? "-" : value.stringValue());
+            }
+            sb.append(';');
+        }
+        return query.getTotalCount() + ":" + sb;
+    }
+
+    private String[] run(boolean indexed) throws Exception {
+        String[] results = {
+                describe(query(null, "ex:status", null)),
+                describe(query("ex:points>\"5\"^^xsd:int", "ex:status", "count,max(ex:points),min(ex:due)")),
+                describe(query(null, null, "min(ex:points)")),
+                describe(query("ex:status=\"Missing\"", "ex:status", "max(ex:due)")),
+        };
+        assertEquals(indexed, isIndexed(query("ex:points>\"5\"^^xsd:int", "ex:status", "max(ex:points)")));
+        return results;
+    }
+
+    private boolean isIndexed(AggregateQuery query) throws Exception {
+        query.execute(store);
+        return query.isIndexed();
+    }
+
+    public void testGroups() throws Exception {
+        open(IConstants.RDF_TYPE + "," + NS + "status," + NS + "points," + NS + "due");
+        load();
+        String[] indexed = run(true);
+        assertEquals("4:Submitted=2;Closed=1;-=1;", indexed[0]);
+        assertTrue(indexed[1], indexed[1].startsWith("3:Submitted=2 30 "));
+        assertTrue(indexed[1], indexed[1].contains(";Closed=1 10 "));
+        assertEquals("4:-=4 5;", indexed[2]);
+        assertEquals("0:", indexed[3]);
+
+        // the same answers from SPARQL
+        open("");
+        String[] queried = run(false);
+        for (int i = 0; i < indexed.length; i++) {
+            assertEquals(indexed[i], queried[i]);
+        }
+    }
+
+    public void testWrite() throws Exception {
+        open(IConstants.RDF_TYPE + "," + NS + "status");
+        load();
+        AggregateQuery query = query(null, "ex:status", "max(ex:points)");
+        List<AggregateQuery.Group> groups = query.execute(store);
+        assertFalse(query.isIndexed());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        query.write(groups, "http://localhost:8080/rio/issue?rio.groupBy=ex:status", out);
+        JSONObject json = new JSONObject(out.toString(IConstants.TEXT_ENCODING));
+        assertEquals(4, json.getInt(IConstants.OSLC_PTERM_TOTALCOUNT));
+        assertEquals("ex:status", json.getString(AggregateQuery.PARAM_GROUP_BY));
+        JSONArray array = json.getJSONArray("groups");
+        assertEquals(3, array.length());
+        assertEquals("Submitted", array.getJSONObject(0).getString("value"));
+        assertEquals(2, array.getJSONObject(0).getInt("count"));
+        assertEquals(30, array.getJSONObject(0).getInt("max(ex:points)"));
+        assertTrue(array.getJSONObject(2).isNull("value"));
+    }
+
+    public void testETag() throws Exception {
+        open("");
+        load();
+        String eTag = query(null, "ex:status", null).getETag(store);
+        assertEquals(eTag, query(null, "ex:status", null).getETag(store));
+        assertFalse(eTag.equals(query(null, "ex:status", "max(ex:due)").getETag(store)));
+        store.update(issue("4", TYPE, "Closed", 5, 5), "http://example.com/alice");
+        assertFalse(eTag.equals(query(null, "ex:status", null).getETag(store)));
+    }
+
+}
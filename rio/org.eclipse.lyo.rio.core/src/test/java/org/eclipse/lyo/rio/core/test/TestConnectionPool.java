@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import junit.framework.TestCase;
+
+import org.eclipse.lyo.rio.store.RioConnectionPool;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+
+public class TestConnectionPool extends TestCase {
+
+    private SailRepository repository;
+    private RioConnectionPool pool;
+
+    @Override
+    protected void setUp() throws Exception {
+        repository = new SailRepository(new MemoryStore());
+        repository.initialize();
+        pool = new RioConnectionPool(repository, 2, 100, 60000);
+        pool.setCaptureStacks(true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        pool.shutdown();
+        repository.shutDown();
+    }
+
+    public void testReuse() throws Exception {
+        RepositoryConnection conn = pool.borrow();
+        pool.release(conn);
+        RepositoryConnection again = pool.borrow();
+        pool.release(again);
+
+        assertSame(conn, again);
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    public void testNestedBorrowOnSameThread() throws Exception {
+        RepositoryConnection outer = pool.borrow();
+        RepositoryConnection inner = pool.borrow();
+        assertSame(outer, inner);
+
+        pool.release(inner);
+        assertEquals(1, pool.getActiveCount());
+        pool.release(outer);
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getReentrantBorrowCount());
+    }
+
+    public void testBounded() throws Exception {
+        final RepositoryConnection[] held = new RepositoryConnection[2];
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    held[0] = pool.borrow();
+                } catch (RioServerException e) {
+                    // asserted below
+                }
+            }
+        };
+        t.start();
+        t.join();
+        held[1] = pool.borrow();
+        assertEquals(2, pool.getActiveCount());
+
+        Thread waiter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    pool.borrow();
+                    fail("borrow should time out");
+                } catch (RioServerException e) {
+                    // expected
+                }
+            }
+        };
+        waiter.start();
+        waiter.join();
+        assertEquals(1, pool.getTimeoutCount());
+
+        pool.release(held[0]);
+        pool.release(held[1]);
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    public void testOpenTransactionRolledBack() throws Exception {
+        RepositoryConnection conn = pool.borrow();
+        conn.setAutoCommit(false);
+        conn.add(repository.getValueFactory().createURI("http://example.com/s"),
+                repository.getValueFactory().createURI("http://example.com/p"),
+                repository.getValueFactory().createLiteral("o"));
+        pool.release(conn);
+
+        conn = pool.borrow();
+        try {
+            assertTrue(conn.isAutoCommit());
+            assertEquals(0, conn.size());
+        } finally {
+            pool.release(conn);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lyo.rio.query.FederatedQuery;
+import org.eclipse.lyo.rio.query.QueryPage;
+import org.eclipse.lyo.rio.store.OslcResource;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.RioValue;
+
+
+public class TestFederatedQuery extends StoreTestCase {
+
+    private static final String ISSUE = "http://example.com/ns#Issue";
+    private static final String TASK = "http://example.com/ns#Task";
+    private static final String QUERY_BASE = "http://localhost:8080/rio/federated";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        store.update(resource(1, "Issue 1", ISSUE), "http://example.com/alice");
+        store.update(resource(2, "Task 2", TASK), "http://example.com/alice");
+        store.update(resource(3, "Issue 3", ISSUE), "http://example.com/alice");
+        store.update(resource(4, "Task 4", TASK), "http://example.com/alice");
+        store.update(resource(5, "Issue 5", ISSUE), "http://example.com/alice");
+        store.update(resource(6, "Other 6", "http://example.com/ns#Other"), "http://example.com/alice");
+    }
+
+    private OslcResource resource(int id, String title, String... types) throws Exception {
+        OslcResource resource = new OslcResource(store.getUriBase() + "/resource/" + id);
+        for (String type : types) {
+            resource.addRdfType(type);
+        }
+        resource.setTitle(title);
+        return resource;
+    }
+
+    private FederatedQuery query(String where) throws Exception {
+        return new FederatedQuery(Arrays.asList(ISSUE, TASK), null, "dcterms:title", where);
+    }
+
+    private List<String> titles(FederatedQuery query, QueryPage page) throws Exception {
+        List<String> titles = new ArrayList<String>();
+        QueryCursor cursor = query.open(store, page, 10000);
+        try {
+            while (cursor.hasNext()) {
+                Map<String, RioValue> row = cursor.next();
+                page.addMember(row.get("uri").stringValue());
+                titles.add(row.get("dcterms_title").stringValue());
+            }
+        } finally {
+            cursor.close();
+        }
+        return titles;
+    }
+
+    public void testMerge() throws Exception {
+        FederatedQuery query = query("dcterms:title!=\"Issue 3\"");
+        QueryPage page = new QueryPage(store, query.getBuilder(), null, RequestStub.create(QUERY_BASE, "oslc.pageSize=2"));
+        assertEquals("[Issue 1, Task 2]", titles(query, page).toString());
+        assertEquals(4, page.getTotalCount());
+        assertTrue(query.getFailures().isEmpty());
+
+        String next = page.getNextPageUri();
+        assertNotNull(next);
+        page = new QueryPage(store, query.getBuilder(), null, RequestStub.create(QUERY_BASE, next.substring(next.indexOf('?') + 1)));
+        assertEquals("[Task 4, Issue 5]", titles(query, page).toString());
+        assertEquals(4, page.getTotalCount());
+        assertNull(page.getNextPageUri());
+    }
+
+    public void testOneType() throws Exception {
+        store.update(resource(2, "Task 2", TASK, ISSUE), "http://example.com/alice");
+        FederatedQuery query = query(null);
+        QueryPage page = new QueryPage(store, query.getBuilder(), null, RequestStub.create(QUERY_BASE, null));
+        // the resource of both types is listed once
+        assertEquals("[Issue 1, Task 2, Issue 3, Task 4, Issue 5]", titles(query, page).toString());
+        // and counted once
+        assertEquals(5, page.getTotalCount());
+
+        query = new FederatedQuery(Arrays.asList(TASK), null, "dcterms:title", null);
+        page = new QueryPage(store, query.getBuilder(), null, RequestStub.create(QUERY_BASE, null));
+        assertEquals("[Task 2, Task 4]", titles(query, page).toString());
+        assertEquals(2, page.getTotalCount());
+    }
+
+    public void testMetrics() throws Exception {
+        FederatedQuery query = query(null);
+        titles(query, new QueryPage(store, query.getBuilder(), null, RequestStub.create(QUERY_BASE, null)));
+        Map<String, Number> metrics = store.getMetrics();
+        assertTrue(metrics.containsKey("queryExecutor.completed"));
+        assertEquals(0L, metrics.get("queryExecutor.rejected"));
+    }
+
+}
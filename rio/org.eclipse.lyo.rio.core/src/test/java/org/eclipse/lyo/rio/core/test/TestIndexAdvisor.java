@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.lyo.rio.store.IndexAdvisor;
+import org.eclipse.lyo.rio.store.QueryPatternLog;
+import org.openrdf.query.QueryLanguage;
+
+
+public class TestIndexAdvisor extends TestCase {
+
+    public void testServes() {
+        assertTrue(IndexAdvisor.serves("cspo", "c"));
+        assertTrue(IndexAdvisor.serves("cspo", "sc"));
+        assertTrue(IndexAdvisor.serves("cspo", "spc"));
+        assertFalse(IndexAdvisor.serves("cspo", "po"));
+        assertTrue(IndexAdvisor.serves("posc", "po"));
+        assertTrue(IndexAdvisor.serves("posc", "-"));
+    }
+
+    public void testRecommendFromQueries() {
+        QueryPatternLog log = new QueryPatternLog(null);
+        for (int i = 0; i < 10; i++) {
+            log.record(false, false, false, true);
+        }
+        log.recordQuery(QueryLanguage.SPARQL,
+                "SELECT ?uri WHERE { ?uri <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.com/T> }");
+        Map<String, Long> counts = log.getCounts();
+        assertEquals(Long.valueOf(10), counts.get("c"));
+        assertEquals(Long.valueOf(1), counts.get("po"));
+
+        List<String> indexes = IndexAdvisor.recommend(counts, 3);
+        assertEquals(2, indexes.size());
+        assertTrue(indexes.get(0).startsWith("c"));
+        assertEquals(1.0, IndexAdvisor.coverage(counts, indexes), 0.0001);
+        assertTrue(IndexAdvisor.coverage(counts, IndexAdvisor.parseIndexSpec("spoc,posc")) < 0.1);
+    }
+
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.io.ByteArrayOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.wink.json4j.JSONArray;
+import org.apache.wink.json4j.JSONObject;
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.JsonFormatter2;
+import org.eclipse.lyo.rio.store.RioResource;
+
+
+public class TestJsonFormatter2 extends TestCase {
+
+    private static final String URI = "http://example.com/issue/1";
+    private static final String NS = "http://example.com/ns#";
+
+    private RioResource createResource() throws Exception {
+        RioResource resource = new RioResource(URI);
+        resource.addRdfType(NS + "Issue");
+        resource.setStringProperty(IConstants.DCTERMS_TITLE, "Say \"hi\"");
+        resource.setIntegerProperty(NS + "points", 3);
+        resource.addUriProperty(NS + "related", "http://example.com/issue/2");
+        resource.addUriProperty(NS + "related", "http://example.com/issue/3");
+        resource.addUriProperty(NS + "blocks", "http://example.com/issue/4");
+        resource.createInlinedResource(NS + "owner", NS + "Person").setStringProperty(NS + "name", "Alice");
+        return resource;
+    }
+
+    public void testFormat() throws Exception {
+        JsonFormatter2 formatter = new JsonFormatter2(new JsonFormatter2.MultiValuedProperties(NS + "blocks"));
+        formatter.addNamespacePrefix(NS, "ex");
+        JSONObject json = new JSONObject(formatter.format(createResource()));
+
+        assertEquals(URI, json.getString("rdf:about"));
+        assertEquals(NS + "Issue", json.getJSONArray("rdf:type").getJSONObject(0).getString("rdf:resource"));
+        assertEquals("Say \"hi\"", json.getString("dcterms:title"));
+        assertEquals(3, json.getInt("ex:points"));
+        assertEquals(2, json.getJSONArray("ex:related").length());
+        // multi-valued, even with one value
+        JSONArray blocks = json.getJSONArray("ex:blocks");
+        assertEquals("http://example.com/issue/4", blocks.getJSONObject(0).getString("rdf:resource"));
+        assertEquals("Alice", json.getJSONObject("ex:owner").getString("ex:name"));
+        assertEquals(NS, json.getJSONObject("prefixes").getString("ex"));
+    }
+
+    public void testStream() throws Exception {
+        RioResource resource = createResource();
+        JsonFormatter2 formatter = new JsonFormatter2(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        formatter.format(resource, out);
+        assertEquals(new JsonFormatter2(null).format(resource), out.toString(IConstants.TEXT_ENCODING));
+
+        // a made up prefix is declared
+        JSONObject json = new JSONObject(out.toString(IConstants.TEXT_ENCODING));
+        assertEquals(NS, json.getJSONObject("prefixes").getString("pr0"));
+        assertEquals("http://example.com/issue/4", json.getJSONObject("pr0:blocks").getString("rdf:resource"));
+    }
+
+}
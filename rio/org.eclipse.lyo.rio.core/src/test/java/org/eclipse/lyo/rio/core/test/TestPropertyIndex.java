@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.QueryPage;
+import org.eclipse.lyo.rio.query.SimpleQueryBuilder;
+import org.eclipse.lyo.rio.store.OslcResource;
+import org.eclipse.lyo.rio.store.PropertyIndex;
+import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.RioValue;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.ValueFactoryImpl;
+import org.openrdf.model.vocabulary.XMLSchema;
+
+
+public class TestPropertyIndex extends StoreTestCase {
+
+    private static final String TYPE = "http://example.com/ns#Issue";
+    private static final String NS = "http://example.com/ns#";
+
+    private ValueFactory vf = ValueFactoryImpl.getInstance();
+
+    @Override
+    protected Properties storeConfig() {
+        Properties config = new Properties();
+        config.setProperty(RioStore.PROP_INDEXED_PROPERTIES, NS + "status, " + NS + "points");
+        return config;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        String[][] data = {
+                { "1", "Submitted", "30" },
+                { "2", "Closed", "10" },
+                { "3", "Submitted", "20" },
+        };
+        for (String[] row : data) {
+            store.update(issue(row[0], row[1], Integer.parseInt(row[2])), "http://example.com/alice");
+        }
+    }
+
+    private OslcResource issue(String id, String status, int points) throws Exception {
+        OslcResource resource = issue(id, TYPE, "Issue " + id);
+        resource.addStringProperty(NS + "status", status);
+        resource.addIntegerProperty(NS + "points", points);
+        return resource;
+    }
+
+    private List<String> ids(String where) throws Exception {
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parsePrefix("ex=<" + NS + ">,xsd=<http://www.w3.org/2001/XMLSchema#>");
+        queryBuilder.parseWhere("uri", where);
+        queryBuilder.usePropertyIndex(store.getPropertyIndex());
+        // answered by the index, not by a triple pattern
+        assertTrue(queryBuilder.getWhere().indexOf("ex:status") < 0);
+        List<Map<String, RioValue>> rows = store.query(IConstants.SPARQL, queryBuilder.getQueryString(TYPE), 100);
+        List<String> ids = new ArrayList<String>();
+        for (Map<String, RioValue> row : rows) {
+            String uri = row.get("uri").stringValue();
+            ids.add(uri.substring(uri.lastIndexOf('/') + 1));
+        }
+        return ids;
+    }
+
+    public void testFind() throws Exception {
+        PropertyIndex index = store.getPropertyIndex();
+        assertTrue(index.isIndexed(NS + "status"));
+        assertFalse(index.isIndexed(IConstants.DCTERMS_MODIFIED));
+        assertEquals("[" + issueUri("1") + ", " + issueUri("3") + "]",
+                index.find(NS + "status", "=", vf.createLiteral("Submitted"), false).toString());
+        assertEquals(2, index.find(NS + "points", ">", vf.createLiteral(15), false).size());
+        // a decimal compares by value with the stored ints
+        assertEquals("[" + issueUri("2") + "]",
+                index.find(NS + "points", "=", vf.createLiteral("10.0", XMLSchema.DECIMAL), true).toString());
+        assertNull(index.find(NS + "status", "!=", vf.createLiteral("Closed"), false));
+        assertNull(index.find(NS + "title", "=", vf.createLiteral("Issue 1"), false));
+    }
+
+    public void testQuery() throws Exception {
+        assertEquals("[1, 3]", ids("ex:status=\"Submitted\"").toString());
+        assertEquals("[1, 3]", ids("ex:status in [\"Submitted\",\"Open\"] and ex:points>\"15\"^^xsd:int").toString());
+        assertEquals("[3]", ids("ex:status=\"Submitted\" and ex:points<=\"20\"^^xsd:int and dcterms:title=\"Issue 3\"").toString());
+        assertEquals("[]", ids("ex:status=\"Open\"").toString());
+    }
+
+    public void testMaintained() throws Exception {
+        PropertyIndex index = store.getPropertyIndex();
+        store.update(issue("2", "Submitted", 10), "http://example.com/alice");
+        assertEquals(3, index.find(NS + "status", "=", vf.createLiteral("Submitted"), false).size());
+        assertTrue(index.find(NS + "status", "=", vf.createLiteral("Closed"), false).isEmpty());
+
+        store.remove(issue("1", "Submitted", 30));
+        assertEquals(2, index.find(NS + "status", "=", vf.createLiteral("Submitted"), false).size());
+
+        store.beginTransaction();
+        try {
+            store.update(issue("4", "Closed", 40), "http://example.com/alice");
+            assertTrue(index.find(NS + "status", "=", vf.createLiteral("Closed"), false).isEmpty());
+            store.commitTransaction();
+        } finally {
+            store.rollbackTransaction();
+        }
+        assertEquals("[" + issueUri("4") + "]", index.find(NS + "status", "=", vf.createLiteral("Closed"), false).toString());
+
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parsePrefix("ex=<" + NS + ">");
+        queryBuilder.parseWhere("uri", "ex:status=\"Submitted\"");
+        assertEquals(2, QueryPage.count(store, queryBuilder, TYPE));
+    }
+
+    public void testDefaultProperties() throws Exception {
+        openStore(new Properties());
+        // rebuilt from the store on startup
+        assertTrue(store.getPropertyIndex().isIndexed(IConstants.DCTERMS_MODIFIED));
+        assertEquals("[" + issueUri("2") + "]",
+                store.getPropertyIndex().find(IConstants.DCTERMS_IDENTIFIER, "=", vf.createLiteral("2"), false).toString());
+    }
+
+}
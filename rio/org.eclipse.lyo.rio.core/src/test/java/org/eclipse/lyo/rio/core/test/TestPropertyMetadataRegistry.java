@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.wink.json4j.JSONObject;
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.JsonFormatter2;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry.ResourceMetadata;
+import org.eclipse.lyo.rio.store.RioResource;
+import org.eclipse.lyo.rio.store.XmlFormatter;
+
+
+public class TestPropertyMetadataRegistry extends TestCase {
+
+    private static final String URI = "http://example.com/issue/1";
+    private static final String NS = "http://example.com/ns#";
+
+    private static final String SHAPE =
+        "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" xmlns:oslc=\"http://open-services.net/ns/core#\">\n" +
+        "  <oslc:ResourceShape rdf:about=\"http://example.com/shapes/issue\">\n" +
+        "    <oslc:describes rdf:resource=\"" + NS + "Issue\"/>\n" +
+        "    <oslc:property>\n" +
+        "      <oslc:Property>\n" +
+        "        <oslc:propertyDefinition rdf:resource=\"" + NS + "related\"/>\n" +
+        "        <oslc:occurs rdf:resource=\"" + IConstants.OSLC_ZERO_OR_MANY + "\"/>\n" +
+        "        <oslc:valueType rdf:resource=\"http://open-services.net/ns/core#Resource\"/>\n" +
+        "      </oslc:Property>\n" +
+        "    </oslc:property>\n" +
+        "    <oslc:property>\n" +
+        "      <oslc:Property>\n" +
+        "        <oslc:propertyDefinition rdf:resource=\"" + IConstants.DCTERMS_TITLE + "\"/>\n" +
+        "        <oslc:occurs rdf:resource=\"" + IConstants.OSLC_EXACTLY_ONE + "\"/>\n" +
+        "        <oslc:valueType rdf:resource=\"http://www.w3.org/2001/XMLSchema#string\"/>\n" +
+        "      </oslc:Property>\n" +
+        "    </oslc:property>\n" +
+        "  </oslc:ResourceShape>\n" +
+        "</rdf:RDF>\n";
+
+    public void testRegistry() throws Exception {
+        ResourceMetadata catalog = PropertyMetadataRegistry.get(IConstants.OSLC_TYPE_SERVICEPROVIDERCATALOG);
+        assertSame(PropertyMetadataRegistry.SERVICE_PROVIDER_CATALOG, catalog);
+        assertTrue(catalog.isMultiValued(IConstants.OSLC_SERVICEPROVIDER));
+        assertFalse(catalog.isMultiValued(IConstants.DCTERMS_TITLE));
+        assertTrue(PropertyMetadataRegistry.SERVICE_PROVIDER.isMultiValued(IConstants.OSLC_DETAILS));
+        assertNull(PropertyMetadataRegistry.get(NS + "Unknown"));
+        assertNull(PropertyMetadataRegistry.get(null));
+
+        ResourceMetadata task = new ResourceMetadata(NS + "Task")
+                .addProperty(NS + "blocks", false, IConstants.OSLC_CORE_RESOURCE)
+                .addMultiValued(NS + "blocks", NS + "related");
+        assertSame(task, PropertyMetadataRegistry.register(task));
+        assertSame(task, PropertyMetadataRegistry.get(NS + "Task"));
+        assertTrue(task.isMultiValued(NS + "blocks"));
+        // marking a property multi-valued keeps its value type
+        assertEquals(IConstants.OSLC_CORE_RESOURCE, task.getProperty(NS + "blocks").getValueType());
+        assertNull(task.getProperty(NS + "related").getValueType());
+        assertEquals(2, task.getProperties().size());
+    }
+
+    public void testShape() throws Exception {
+        ResourceMetadata metadata = PropertyMetadataRegistry.loadShape(
+                new ByteArrayInputStream(SHAPE.getBytes(IConstants.TEXT_ENCODING)), "http://example.com/shapes/issue");
+        assertEquals(NS + "Issue", metadata.getType());
+        assertTrue(metadata.isMultiValued(NS + "related"));
+        assertEquals(IConstants.OSLC_CORE_RESOURCE, metadata.getProperty(NS + "related").getValueType());
+        assertFalse(metadata.isMultiValued(IConstants.DCTERMS_TITLE));
+        assertEquals("http://www.w3.org/2001/XMLSchema#string", metadata.getProperty(IConstants.DCTERMS_TITLE).getValueType());
+        assertEquals(2, metadata.getProperties().size());
+        // loading does not register
+        assertNull(PropertyMetadataRegistry.get(NS + "Issue"));
+    }
+
+    public void testFormatters() throws Exception {
+        ResourceMetadata metadata = new ResourceMetadata(NS + "Issue")
+                .addNamespacePrefix(NS, "ex")
+                .addMultiValued(NS + "blocks");
+        RioResource resource = new RioResource(URI);
+        resource.addRdfType(NS + "Issue");
+        resource.addUriProperty(NS + "blocks", "http://example.com/issue/2");
+        resource.addUriProperty(NS + "owner", "http://example.com/user/1");
+
+        JSONObject json = new JSONObject(JsonFormatter2.forType(metadata).format(resource));
+        assertEquals(1, json.getJSONArray("ex:blocks").length());
+        assertEquals("http://example.com/user/1", json.getJSONObject("ex:owner").getString("rdf:resource"));
+        assertEquals(NS, json.getJSONObject("prefixes").getString("ex"));
+
+        String xml = new XmlFormatter(metadata).format(resource, metadata.getType());
+        assertTrue(xml, xml.contains("<ex:Issue rdf:about=\"" + URI + "\">"));
+    }
+
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.OslcWhereHelper.OslcWhereParseException;
+import org.eclipse.lyo.rio.query.PName;
+import org.eclipse.lyo.rio.query.QueryPage;
+import org.eclipse.lyo.rio.query.SimpleQueryBuilder;
+import org.eclipse.lyo.rio.store.OslcResource;
+import org.eclipse.lyo.rio.store.RioValue;
+
+
+public class TestQueryBuilder extends StoreTestCase {
+
+    private static final String TYPE = "http://example.com/ns#Issue";
+    private static final String NS = "http://example.com/ns#";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        String[][] data = {
+                { "1", "Crash on start", "Submitted", "3" },
+                { "2", "Slow query page", "Closed", "1" },
+                { "3", "crash in report", "Submitted", "2" },
+                { "4", "Typo", "Deferred", "2" },
+        };
+        for (String[] row : data) {
+            OslcResource resource = issue(row[0], TYPE, row[1]);
+            resource.addStringProperty(NS + "status", row[2]);
+            resource.addStringProperty(NS + "rank", row[3]);
+            resource.addIntegerProperty(NS + "points", Integer.parseInt(row[3]) * 10);
+            resource.addStringProperty(NS + "tag", "t" + row[0] + "a");
+            resource.addStringProperty(NS + "tag", "t" + row[0] + "b");
+            store.update(resource, "http://example.com/alice");
+        }
+    }
+
+    private SimpleQueryBuilder builder(String select, String where, String orderBy, String searchTerms) throws Exception {
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parsePrefix("ex=<" + NS + ">");
+        queryBuilder.parseSelect(select);
+        queryBuilder.parseWhere("uri", where);
+        queryBuilder.parseOrderBy(orderBy);
+        queryBuilder.parseSearchTerms(searchTerms);
+        return queryBuilder;
+    }
+
+    private List<String> ids(SimpleQueryBuilder queryBuilder) throws Exception {
+        List<Map<String, RioValue>> rows = store.query(IConstants.SPARQL, queryBuilder.getQueryString(TYPE), 100);
+        List<String> ids = new ArrayList<String>();
+        for (Map<String, RioValue> row : rows) {
+            String uri = row.get("uri").stringValue();
+            String id = uri.substring(uri.lastIndexOf('/') + 1);
+            if (ids.isEmpty() || !ids.get(ids.size() - 1).equals(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public void testOrderBy() throws Exception {
+        assertEquals("[2, 3, 4, 1]", ids(builder(null, null, "+ex:rank,-dcterms:title", null)).toString());
+        assertEquals("[3, 1, 4, 2]", ids(builder(null, null, "-ex:status, +ex:rank", null)).toString());
+    }
+
+    public void testInTermAndSearchTerms() throws Exception {
+        assertEquals("[2, 4]", ids(builder(null, "ex:status in [\"Closed\",\"Deferred\"]", "+ex:rank", null)).toString());
+        assertEquals("[3, 1]", ids(builder(null, null, "+ex:rank", "\"CRASH\"")).toString());
+        assertEquals("[3, 4, 1]", ids(builder(null, null, "+ex:rank", "\"crash\", \"typo\"")).toString());
+        assertEquals("[1, 3]", ids(builder(null, "ex:status=\"Submitted\"", "-ex:rank", "\"crash\"")).toString());
+    }
+
+    public void testSelect() throws Exception {
+        SimpleQueryBuilder queryBuilder = builder("dcterms:title,ex:tag", "ex:status=\"Submitted\"", "-ex:rank", null);
+        Map<String, PName> propNames = queryBuilder.getPropertyNames();
+        assertEquals(2, propNames.size());
+        PName title = propNames.get("dcterms_title");
+        assertEquals(IConstants.DCTERMS_NAMESPACE + "title", title.getUri());
+
+        List<Map<String, RioValue>> rows = store.query(IConstants.SPARQL, queryBuilder.getQueryString(TYPE), 100);
+        // one row per tag value, members kept together and in order
+        assertEquals(4, rows.size());
+        assertEquals("Crash on start", rows.get(0).get("dcterms_title").stringValue());
+        assertEquals(rows.get(0).get("uri").stringValue(), rows.get(1).get("uri").stringValue());
+        assertEquals("crash in report", rows.get(3).get("dcterms_title").stringValue());
+        assertEquals("[1, 3]", ids(queryBuilder).toString());
+    }
+
+    public void testPaging() throws Exception {
+        SimpleQueryBuilder queryBuilder = builder(null, null, null, null);
+        assertEquals(4, QueryPage.count(store, queryBuilder, TYPE));
+        assertEquals(2, QueryPage.count(store, builder(null, null, null, "\"crash\""), TYPE));
+
+        // keyset, by uri
+        queryBuilder.setPage(0, 2, null);
+        assertEquals("[1, 2]", ids(queryBuilder).toString());
+        queryBuilder.setPage(0, 2, issueUri("2"));
+        assertEquals("[3, 4]", ids(queryBuilder).toString());
+
+        // offset into the sorted members, selected values don't count as members
+        queryBuilder = builder("ex:tag", null, "+ex:rank", null);
+        queryBuilder.setPage(0, 2, null);
+        assertEquals("[2, 3]", ids(queryBuilder).toString());
+        queryBuilder.setPage(2, 2, null);
+        assertEquals("[4, 1]", ids(queryBuilder).toString());
+    }
+
+    public void testTypedWhere() throws Exception {
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parsePrefix("ex=<" + NS + ">,xsd=<http://www.w3.org/2001/XMLSchema#>");
+        queryBuilder.parseWhere("uri", "ex:points=\"020\"^^xsd:int");
+        queryBuilder.parseOrderBy("+dcterms:title");
+        assertEquals("[4, 3]", ids(queryBuilder).toString());
+
+        queryBuilder.parseWhere("uri", "ex:points>\"5\"^^xsd:int and ex:points>\"15\"^^xsd:int");
+        assertEquals("[1, 4, 3]", ids(queryBuilder).toString());
+
+        queryBuilder.parseWhere("uri", "ex:status in [\"Closed\",\"Deferred\",\"Closed\"] and ex:points<\"30\"^^xsd:int");
+        assertEquals("[2, 4]", ids(queryBuilder).toString());
+    }
+
+    public void testParseErrors() throws Exception {
+        try {
+            builder(null, null, "ex:rank", null);
+            fail("sort direction is required");
+        } catch (OslcWhereParseException e) {
+            // expected
+        }
+        try {
+            builder("nope:title", null, null, null);
+            fail("unknown prefix");
+        } catch (OslcWhereParseException e) {
+            // expected
+        }
+        try {
+            builder(null, null, null, "crash");
+            fail("terms must be quoted");
+        } catch (OslcWhereParseException e) {
+            // expected
+        }
+    }
+
+}
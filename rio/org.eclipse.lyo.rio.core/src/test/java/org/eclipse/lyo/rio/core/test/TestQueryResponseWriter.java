@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.wink.json4j.JSONArray;
+import org.apache.wink.json4j.JSONObject;
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.QueryPage;
+import org.eclipse.lyo.rio.query.QueryResponseWriter;
+import org.eclipse.lyo.rio.query.SimpleQueryBuilder;
+import org.eclipse.lyo.rio.store.OslcResource;
+import org.openrdf.model.Graph;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.GraphImpl;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.StatementCollector;
+
+
+public class TestQueryResponseWriter extends StoreTestCase {
+
+    private static final String TYPE = "http://example.com/ns#Issue";
+    private static final String NS = "http://example.com/ns#";
+    private static final String QUERY_BASE = "http://localhost:8080/rio/issue";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        for (int i = 1; i <= 3; i++) {
+            OslcResource resource = issue(String.valueOf(i), TYPE, "Issue \"" + i + "\" <&>");
+            resource.addStringProperty(NS + "tag", "t" + i + "a");
+            resource.addStringProperty(NS + "tag", "t" + i + "b");
+            store.update(resource, "http://example.com/alice");
+        }
+    }
+
+    private byte[] write(String contentType) throws Exception {
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parsePrefix("ex=<" + NS + ">");
+        queryBuilder.parseSelect("dcterms:title,ex:tag");
+        Map<String, String> params = new HashMap<String, String>();
+        params.put(QueryPage.PARAM_PAGE_SIZE, "2");
+        String queryString = "oslc.select=dcterms:title,ex:tag&oslc.pageSize=2";
+        QueryPage page = new QueryPage(store, queryBuilder, TYPE, RequestStub.create(QUERY_BASE, queryString, params));
+        QueryResponseWriter writer = new QueryResponseWriter(contentType, queryBuilder.getPropertyNames());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(page.open(store), page, QUERY_BASE + '?' + queryString, out);
+        return out.toByteArray();
+    }
+
+    private Graph parse(byte[] bytes, RDFFormat format) throws Exception {
+        Graph graph = new GraphImpl();
+        RDFParser parser = Rio.createParser(format);
+        parser.setRDFHandler(new StatementCollector(graph));
+        parser.parse(new ByteArrayInputStream(bytes), QUERY_BASE);
+        return graph;
+    }
+
+    private void checkGraph(Graph graph) {
+        ValueFactory vf = graph.getValueFactory();
+        URI base = vf.createURI(QUERY_BASE);
+        URI member = vf.createURI(issueUri("1"));
+        URI tag = vf.createURI(NS + "tag");
+        assertEquals(2, count(graph, base, IConstants.RDFS_MEMBER));
+        assertEquals(2, count(graph, member, NS + "tag"));
+        assertTrue(graph.match(member, tag, vf.createLiteral("t1b")).hasNext());
+        Literal title = (Literal) graph.match(member, vf.createURI(IConstants.DCTERMS_TITLE), null).next().getObject();
+        assertEquals("Issue \"1\" <&>", title.getLabel());
+        assertEquals(0, count(graph, vf.createURI(issueUri("3")), NS + "tag"));
+
+        URI info = vf.createURI(QUERY_BASE + "?oslc.select=dcterms:title,ex:tag&oslc.pageSize=2");
+        Literal total = (Literal) graph.match(info, vf.createURI(IConstants.OSLC_TOTALCOUNT), null).next().getObject();
+        assertEquals(3, total.intValue());
+        assertTrue(graph.match(info, vf.createURI(IConstants.OSLC_NEXTPAGE), null).hasNext());
+    }
+
+    private static int count(Graph graph, URI subject, String predicate) {
+        int n = 0;
+        for (Iterator<Statement> it = graph.match(subject, graph.getValueFactory().createURI(predicate), null); it.hasNext(); it.next()) {
+            n++;
+        }
+        return n;
+    }
+
+    public void testRdfXml() throws Exception {
+        checkGraph(parse(write(null), RDFFormat.RDFXML));
+    }
+
+    public void testTurtle() throws Exception {
+        checkGraph(parse(write(IConstants.CT_TEXT_TURTLE), RDFFormat.TURTLE));
+    }
+
+    public void testJson() throws Exception {
+        JSONObject json = new JSONObject(new String(write(IConstants.CT_JSON), IConstants.TEXT_ENCODING));
+        assertEquals(QUERY_BASE, json.getString("rdf:about"));
+        JSONArray members = json.getJSONArray("rdfs:member");
+        assertEquals(2, members.size());
+        JSONObject first = (JSONObject) members.get(0);
+        assertEquals(issueUri("1"), first.getString("rdf:about"));
+        assertEquals("Issue \"1\" <&>", first.getString("dcterms:title"));
+        assertEquals(2, first.getJSONArray("ex:tag").size());
+        JSONObject info = json.getJSONObject("oslc:responseInfo");
+        assertEquals(3, info.getInt("oslc:totalCount"));
+        assertTrue(info.getJSONObject("oslc:nextPage").getString("rdf:resource").indexOf("page=") > 0);
+        assertEquals(NS, json.getJSONObject("prefixes").getString("ex"));
+    }
+
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.QueryPage;
+import org.eclipse.lyo.rio.query.SimpleQueryBuilder;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.QueryResultCache;
+
+
+public class TestQueryResultCache extends StoreTestCase {
+
+    private static final String TYPE = "http://example.com/ns#Issue";
+    private static final String OTHER_TYPE = "http://example.com/ns#Task";
+    private static final String QUERY_BASE = "http://localhost:8080/rio/issue";
+
+    private QueryResultCache cache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        cache = store.getQueryResultCache();
+        for (int i = 1; i <= 3; i++) {
+            store.update(issue(String.valueOf(i), TYPE, "Issue " + i), "http://example.com/alice");
+        }
+        store.update(issue("4", OTHER_TYPE, "Task 4"), "http://example.com/alice");
+    }
+
+    private QueryPage page(String where) throws Exception {
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parseSelect("dcterms:title");
+        queryBuilder.parseWhere("uri", where);
+        queryBuilder.parseOrderBy("+dcterms:title");
+        return new QueryPage(store, queryBuilder, TYPE, RequestStub.create(QUERY_BASE, null));
+    }
+
+    private List<String> titles(QueryPage page) throws Exception {
+        List<String> titles = new ArrayList<String>();
+        QueryCursor cursor = page.open(store);
+        try {
+            while (cursor.hasNext()) {
+                titles.add(cursor.next().get("dcterms_title").stringValue());
+            }
+        } finally {
+            cursor.close();
+        }
+        return titles;
+    }
+
+    public void testCached() throws Exception {
+        String where = "dcterms:title!=\"Issue 2\"";
+        assertEquals("[Issue 1, Issue 3]", titles(page(where)).toString());
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getHitCount());
+
+        // the same query in another form
+        QueryPage page = page("dcterms:title!=\"Issue 2\" and dcterms:title!=\"Issue 2\"");
+        assertEquals("[Issue 1, Issue 3]", titles(page).toString());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, page.getTotalCount());
+
+        // another type's writes leave the page alone
+        store.update(issue("4", OTHER_TYPE, "Issue 0"), "http://example.com/alice");
+        assertEquals("[Issue 1, Issue 3]", titles(page(where)).toString());
+        assertEquals(2, cache.getHitCount());
+
+        store.update(issue("3", TYPE, "Issue 0"), "http://example.com/alice");
+        assertEquals("[Issue 0, Issue 1]", titles(page(where)).toString());
+        assertEquals(2, cache.getHitCount());
+
+        store.remove(issue("1", TYPE, "Issue 1"));
+        assertEquals("[Issue 0]", titles(page(where)).toString());
+    }
+
+    public void testETag() throws Exception {
+        String where = "dcterms:title!=\"Issue 2\"";
+        String eTag = page(where).getETag(store, IConstants.CT_RDF_XML);
+        assertTrue(eTag.startsWith("W/\""));
+        assertEquals(eTag, page(where).getETag(store, IConstants.CT_RDF_XML));
+        assertFalse(eTag.equals(page(where).getETag(store, IConstants.CT_JSON)));
+        assertFalse(eTag.equals(page("dcterms:title!=\"Issue 1\"").getETag(store, IConstants.CT_RDF_XML)));
+
+        store.update(issue("4", OTHER_TYPE, "Task 4"), "http://example.com/alice");
+        assertEquals(eTag, page(where).getETag(store, IConstants.CT_RDF_XML));
+
+        store.beginTransaction();
+        try {
+            store.update(issue("2", TYPE, "Issue 2"), "http://example.com/alice");
+            assertEquals(eTag, page(where).getETag(store, IConstants.CT_RDF_XML));
+            store.commitTransaction();
+        } finally {
+            store.rollbackTransaction();
+        }
+        assertFalse(eTag.equals(page(where).getETag(store, IConstants.CT_RDF_XML)));
+    }
+
+}
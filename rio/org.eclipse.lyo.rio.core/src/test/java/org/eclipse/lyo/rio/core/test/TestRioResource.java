@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.RioResource;
+import org.eclipse.lyo.rio.store.RioStatement;
+import org.eclipse.lyo.rio.store.RioValue;
+
+
+public class TestRioResource extends TestCase {
+
+    private static final String URI = "http://example.com/issue/1";
+    private static final String NS = "http://example.com/ns#";
+
+    public void testProperties() throws Exception {
+        RioResource resource = new RioResource(URI);
+        resource.addRdfType(NS + "Issue");
+        resource.setStringProperty(NS + "status", "Open");
+        resource.setStringProperty(NS + "status", "Closed");
+        resource.addUriProperty(NS + "link", "http://example.com/a");
+        resource.addUriProperty(NS + "link", "http://example.com/b");
+        resource.setIntegerProperty(NS + "points", 3);
+
+        assertTrue(resource.isRdfType(NS + "Issue"));
+        assertFalse(resource.isRdfType(NS + "Task"));
+        assertEquals("Closed", resource.getFirstStringProperty(NS + "status"));
+        assertEquals(1, resource.getStringProperties(NS + "status").size());
+        assertEquals("[http://example.com/a, http://example.com/b]", resource.getUriProperties(NS + "link").toString());
+        assertEquals(Integer.valueOf(3), resource.getFirstIntegerProperty(NS + "points"));
+        assertFalse(resource.hasStringProperty(NS + "points"));
+
+        resource.removeUriProperty(NS + "link", "http://example.com/a");
+        assertEquals("[http://example.com/b]", resource.getUriProperties(NS + "link").toString());
+        assertNotNull(resource.getFirstStatement(URI, NS + "link", RioValue.createUriValue("http://example.com/b")));
+        assertNull(resource.getFirstStatement(URI, NS + "link", RioValue.createUriValue("http://example.com/a")));
+        assertEquals(4, resource.getStatements().size());
+        assertEquals(4, resource.getStatements(URI, null, null).size());
+        assertEquals(1, resource.getStatements(null, NS + "status", null).size());
+    }
+
+    public void testInlined() throws Exception {
+        RioResource resource = new RioResource(URI);
+        RioResource inlined = resource.createInlinedResource(NS + "owner", NS + "Person");
+        inlined.setStringProperty(NS + "name", "Alice");
+
+        assertEquals("Alice", resource.getFirstInlinedResource(NS + "owner").getFirstStringProperty(NS + "name"));
+        // the parent's lookups include the inlined statements
+        List<RioStatement> names = resource.getStatements(inlined.getUri(), NS + "name", null);
+        assertEquals(1, names.size());
+        assertEquals(3, resource.getStatements().size());
+
+        resource.setUri("http://example.com/issue/2");
+        assertEquals("http://example.com/issue/2", resource.getFirstStatement("http://example.com/issue/2", NS + "owner", null).getSubject());
+        assertNull(resource.getFirstStatement(URI, NS + "owner", null));
+        assertEquals(1, resource.getInlinedResources(NS + "owner").size());
+    }
+
+    public void testSeq() throws Exception {
+        RioResource resource = new RioResource(URI);
+        resource.appendToSeq(NS + "steps", RioValue.createStringValue("one"));
+        resource.appendToSeq(NS + "steps", RioValue.createStringValue("two"));
+        List<String> steps = new ArrayList<String>();
+        for (RioValue value : resource.getSeq(NS + "steps")) {
+            steps.add(value.stringValue());
+        }
+        assertEquals("[one, two]", steps.toString());
+        assertEquals(1, resource.getStatements("steps", IConstants.RDF_TYPE, null).size());
+
+        resource.removeSeq(NS + "steps");
+        assertTrue(resource.getSeq(NS + "steps").isEmpty());
+        assertTrue(resource.getStatements().isEmpty());
+    }
+
+    public void testLarge() throws Exception {
+        RioResource resource = new RioResource(URI);
+        for (int i = 0; i < 20000; i++) {
+            resource.setStringProperty(NS + "p" + i, "v" + i);
+        }
+        for (int i = 0; i < 20000; i++) {
+            assertEquals("v" + i, resource.getFirstStringProperty(NS + "p" + i));
+        }
+    }
+
+}
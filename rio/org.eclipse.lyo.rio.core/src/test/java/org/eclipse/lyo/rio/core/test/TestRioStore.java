@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.eclipse.lyo.rio.store.OslcResource;
+import org.eclipse.lyo.rio.store.PreparedQueryCache;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.RemoteStoreProvider;
+import org.eclipse.lyo.rio.store.ResourceCache;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.eclipse.lyo.rio.store.RioStatement;
+import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.RioValue;
+import org.eclipse.lyo.rio.store.StoreMetrics;
+
+
+public class TestRioStore extends StoreTestCase {
+
+    public void testUpdateKeepsCreated() throws Exception {
+        String uri = store.getUriBase() + "/test/1";
+        OslcResource resource = new OslcResource(uri);
+        resource.setTitle("first");
+        store.update(resource, "http://example.com/alice");
+
+        OslcResource stored = store.getOslcResource(uri);
+        assertEquals("first", stored.getTitle());
+        assertEquals("1", stored.getIdentifier());
+        assertEquals("http://example.com/alice", stored.getCreator());
+        Date created = stored.getCreated();
+        int count = stored.getStatements().size();
+
+        resource = new OslcResource(uri);
+        resource.setTitle("second");
+        store.update(resource, "http://example.com/bob");
+
+        stored = store.getOslcResource(uri);
+        assertEquals("second", stored.getTitle());
+        assertEquals("http://example.com/alice", stored.getCreator());
+        assertEquals("http://example.com/bob", stored.getContributor());
+        assertEquals(created, stored.getCreated());
+        assertEquals(count, stored.getStatements().size());
+        assertEquals(0, store.getConnectionPool().getActiveCount());
+    }
+
+    public void testResourceCache() throws Exception {
+        String uri = store.getUriBase() + "/test/2";
+        OslcResource resource = new OslcResource(uri);
+        resource.setTitle("first");
+        store.update(resource, null);
+
+        ResourceCache cache = store.getResourceCache();
+        long hits = cache.getHitCount();
+        store.getOslcResource(uri).setTitle("changed locally");
+        assertEquals("first", store.getOslcResource(uri).getTitle());
+        assertEquals(hits + 1, cache.getHitCount());
+
+        resource = store.getOslcResource(uri);
+        resource.setTitle("second");
+        store.update(resource, null);
+        assertEquals("second", store.getOslcResource(uri).getTitle());
+
+        store.remove(resource);
+        assertNull(store.getResource(uri));
+    }
+
+    public void testStoreProviders() throws Exception {
+        String[][] configs = {
+            { RioStore.PROP_STORE_TYPE, "memory" },
+            { RioStore.PROP_STORE_TYPE, "remote", RemoteStoreProvider.PROP_SERVER, RemoteStoreProvider.LOCAL_STAND_IN },
+        };
+        for (String[] settings : configs) {
+            Properties config = new Properties();
+            for (int i = 0; i < settings.length; i += 2) {
+                config.setProperty(settings[i], settings[i + 1]);
+            }
+            openStore(settings[1], config);
+            assertEquals(settings[1], store.getStoreMetrics().getBackend());
+
+            String uri = store.nextAvailableUri("test");
+            OslcResource resource = new OslcResource(uri);
+            resource.setTitle(settings[1]);
+            store.update(resource, null);
+            assertEquals(settings[1], store.getOslcResource(uri).getTitle());
+            assertEquals(1, store.getStoreMetrics().getCount(StoreMetrics.Operation.WRITE));
+        }
+    }
+
+    public void testBulkLoad() throws Exception {
+        String data =
+            "<http://example.com/r1> <http://purl.org/dc/terms/title> \"one\" .\n" +
+            "<http://example.com/r1> <http://example.com/p> _:b1 .\n" +
+            "<http://example.com/r2> <http://purl.org/dc/terms/title> \"two\" .\n" +
+            "_:b1 <http://example.com/q> \"nested\" .\n";
+        final long[] batches = new long[2];
+        long count = store.bulkLoad(new ByteArrayInputStream(data.getBytes("UTF-8")), "text/plain",
+                null, 2, new RioStore.IBulkLoadListener() {
+                    public void progress(long statements, long graphs, long elapsed) {
+                        batches[0]++;
+                        batches[1] = graphs;
+                    }
+                });
+
+        assertEquals(4, count);
+        assertEquals(2, batches[0]);
+        // the blank node goes back into r1's graph, which is not counted twice
+        assertEquals(2, batches[1]);
+        assertEquals(3, store.getResource("http://example.com/r1").getStatements().size());
+        assertEquals(1, store.getResource("http://example.com/r2").getStatements().size());
+    }
+
+    public void testBulkLoadInTransaction() throws Exception {
+        String uri = store.getUriBase() + "/test/1";
+        OslcResource resource = new OslcResource(uri);
+        resource.setTitle("pending");
+        String data = "<http://example.com/r1> <http://purl.org/dc/terms/title> \"one\" .\n";
+
+        store.beginTransaction();
+        try {
+            store.update(resource, "http://example.com/alice");
+            try {
+                store.bulkLoad(new ByteArrayInputStream(data.getBytes("UTF-8")), "text/plain", null, 1, null);
+                fail("bulk load joined the transaction");
+            } catch (RioServerException e) {
+                // expected
+            }
+        } finally {
+            store.rollbackTransaction();
+        }
+        // the caller's pending update is still rolled back, and nothing was loaded
+        assertNull(store.getResource(uri));
+        assertNull(store.getResource("http://example.com/r1"));
+        assertEquals(0, store.getConnectionPool().getActiveCount());
+    }
+
+    public void testParse() throws Exception {
+        String uri = "http://example.com/r1";
+        String data =
+            "<http://example.com/r1> <http://purl.org/dc/terms/title> \"one\" .\n" +
+            "<http://example.com/r1> <http://purl.org/dc/terms/title> \"one\" .\n" +
+            "<http://example.com/r1> <http://example.com/p> <http://example.com/r2> .\n";
+
+        List<RioStatement> statements = store.parse(uri, new ByteArrayInputStream(data.getBytes("UTF-8")), "application/n-triples");
+        assertEquals(2, statements.size());
+        assertEquals(uri, statements.get(0).getContext());
+        assertNull(store.getResource(uri));
+
+        store.beginTransaction();
+        try {
+            store.parse(uri, new ByteArrayInputStream(data.getBytes("UTF-8")), "application/n-triples", true);
+        } finally {
+            store.rollbackTransaction();
+        }
+        assertNull(store.getResource(uri));
+
+        store.parse(uri, new ByteArrayInputStream(data.getBytes("UTF-8")), "application/n-triples", true);
+        assertEquals(2, store.getResource(uri).getStatements().size());
+
+        store.setMaxParseSize(10);
+        try {
+            store.parse(uri, new ByteArrayInputStream(data.getBytes("UTF-8")), "application/n-triples");
+            fail("size limit not enforced");
+        } catch (RioServerException e) {
+            // expected
+        }
+    }
+
+    public void testIdsNotReissued() throws Exception {
+        final Set<String> uris = Collections.synchronizedSet(new HashSet<String>());
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 150; j++) {
+                            uris.add(store.nextAvailableUri("test"));
+                        }
+                    } catch (RioServerException e) {
+                        // counted below
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(600, uris.size());
+
+        openStore();
+        String uri = store.nextAvailableUri("test");
+        assertFalse(uris.contains(uri));
+        long last = Long.parseLong(uri.substring(uri.lastIndexOf('/') + 1));
+        assertTrue(last > 600);
+    }
+
+
+    public void testQueryCursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            OslcResource resource = new OslcResource(store.getUriBase() + "/test/q" + i);
+            resource.setTitle("title " + i);
+            store.update(resource, "http://example.com/alice");
+        }
+        String sparql = "SELECT ?uri ?title WHERE { ?uri <http://purl.org/dc/terms/title> ?title } ORDER BY ?uri";
+        assertEquals(sparql + "\nLIMIT 2\nOFFSET 1", RioStore.applyLimit(sparql, 1, 2));
+        assertEquals("SELECT * WHERE {\n" + sparql + " LIMIT 3\n}\nLIMIT 2\nOFFSET 1",
+                RioStore.applyLimit(sparql + " LIMIT 3", 1, 2));
+        assertEquals("PREFIX dc: <http://purl.org/dc/terms/>\nSELECT * WHERE {\nSELECT ?t WHERE { ?u dc:title ?t } OFFSET 1\n}\nLIMIT 2",
+                RioStore.applyLimit("PREFIX dc: <http://purl.org/dc/terms/> SELECT ?t WHERE { ?u dc:title ?t } OFFSET 1", 0, 2));
+
+        QueryCursor cursor = store.openQuery("SPARQL", sparql, 1, 2);
+        try {
+            assertEquals(Arrays.asList("uri", "title"), cursor.getBindingNames());
+            assertTrue(cursor.hasNext());
+            assertEquals(store.getUriBase() + "/test/q1", cursor.next().get("uri").stringValue());
+            assertEquals("title 2", cursor.next().get("title").stringValue());
+            assertFalse(cursor.hasNext());
+            assertEquals(2, cursor.getCount());
+        } finally {
+            cursor.close();
+        }
+        assertEquals(0, store.getConnectionPool().getActiveCount());
+
+        // the page is taken from the results of the query's own LIMIT
+        cursor = store.openQuery("SPARQL", sparql + " LIMIT 4", 2, 5);
+        try {
+            assertEquals("title 2", cursor.next().get("title").stringValue());
+            assertEquals("title 3", cursor.next().get("title").stringValue());
+            assertFalse(cursor.hasNext());
+        } finally {
+            cursor.close();
+        }
+
+        final List<String> titles = new ArrayList<String>();
+        int handled = store.query("SPARQL", sparql, 0, 10, new RioStore.IQueryResultHandler() {
+            public boolean handleRow(Map<String, RioValue> row) {
+                titles.add(row.get("title").stringValue());
+                return titles.size() < 3;
+            }
+        });
+        assertEquals(3, handled);
+        assertEquals(Arrays.asList("title 0", "title 1", "title 2"), titles);
+        assertEquals(3, store.query("SPARQL", sparql, 3).size());
+    }
+
+
+    public void testQueryCache() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            OslcResource resource = new OslcResource(store.getUriBase() + "/test/c" + i);
+            resource.setTitle("it's \"" + i + "\"");
+            store.update(resource, "http://example.com/alice");
+        }
+        PreparedQueryCache queryCache = store.getQueryCache();
+        assertNotNull(queryCache);
+        String sparql = "PREFIX dc: <http://purl.org/dc/terms/>\n"
+                + "SELECT ?uri WHERE { ?uri dc:title %s . FILTER(?uri != <http://example.com/x>) }";
+        for (int i = 0; i < 3; i++) {
+            List<Map<String, RioValue>> results = store.query("SPARQL",
+                    String.format(sparql, "'it\\'s \"" + i + "\"'"), 10);
+            assertEquals(1, results.size());
+            assertEquals(store.getUriBase() + "/test/c" + i, results.get(0).get("uri").stringValue());
+        }
+        assertEquals(1, queryCache.size());
+        assertEquals(1, queryCache.getMissCount());
+        assertEquals(2, queryCache.getHitCount());
+        assertEquals(0, store.query("SPARQL", String.format(sparql, "\"it's\"@en"), 10).size());
+        assertEquals(3, queryCache.getHitCount());
+        assertEquals(3, store.query("SPARQL", String.format(sparql, "?title"), 10).size());
+        assertEquals(2, queryCache.size());
+    }
+
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.QueryCursor;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.eclipse.lyo.rio.store.RioStore;
+import org.eclipse.lyo.rio.store.RunningQueries;
+
+
+public class TestRunningQueries extends StoreTestCase {
+
+    private static final String TITLES = "SELECT ?uri ?title WHERE { ?uri <http://purl.org/dc/terms/title> ?title }";
+
+    @Override
+    protected Properties storeConfig() {
+        Properties config = new Properties();
+        config.setProperty(RioStore.PROP_QUERY_MAX_ROWS, "4");
+        return config;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        for (int i = 1; i <= 40; i++) {
+            store.update(issue(String.valueOf(i), "http://example.com/ns#Issue", "Issue " + i), "http://example.com/alice");
+        }
+    }
+
+    private static int read(QueryCursor cursor) throws Exception {
+        try {
+            while (cursor.hasNext()) {
+                cursor.next();
+            }
+            return cursor.getCount();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public void testTruncated() throws Exception {
+        QueryCursor cursor = store.openQuery(IConstants.SPARQL, TITLES, 0, 2);
+        assertEquals(2, read(cursor));
+        assertTrue(cursor.isTruncated());
+
+        // capped by the store, whatever the caller asks for
+        cursor = store.openQuery(IConstants.SPARQL, TITLES + " LIMIT 10", 0, Integer.MAX_VALUE);
+        assertEquals(4, read(cursor));
+        assertTrue(cursor.isTruncated());
+
+        cursor = store.openQuery(IConstants.SPARQL,
+                "SELECT ?uri WHERE { ?uri <http://purl.org/dc/terms/title> \"Issue 7\" }", 0, 2);
+        assertEquals(1, read(cursor));
+        assertFalse(cursor.isTruncated());
+        assertEquals(2L, store.getMetrics().get("runningQueries.truncated"));
+    }
+
+    public void testCancel() throws Exception {
+        RunningQueries running = store.getRunningQueries();
+        QueryCursor cursor = store.openQuery(IConstants.SPARQL, TITLES, 0, 3);
+        List<RunningQueries.Entry> entries = running.list();
+        assertEquals(1, entries.size());
+        assertTrue(entries.get(0).query.startsWith(TITLES));
+        assertTrue(cursor.hasNext());
+        cursor.next();
+        assertEquals(1, entries.get(0).getRows());
+
+        assertTrue(running.cancel(entries.get(0).id));
+        try {
+            cursor.next();
+            fail("cancelled");
+        } catch (RioServerException e) {
+            assertEquals("Query cancelled", e.getMessage());
+        }
+        assertEquals(0, running.size());
+        assertFalse(running.cancel(entries.get(0).id));
+        // the connection went back to the pool
+        assertEquals(4, read(store.openQuery(IConstants.SPARQL, TITLES, 0, 0)));
+    }
+
+    public void testTimeout() throws Exception {
+        // a product of every statement that matches nothing, no row ever comes
+        String product = "SELECT * WHERE { ?a ?p ?b . ?c ?q ?d . ?e ?r ?f . ?g ?s ?h "
+                + "FILTER(STR(?b) = CONCAT(STR(?d), STR(?f), STR(?h), \"x\")) }";
+        long start = System.currentTimeMillis();
+        try {
+            read(store.openQuery(IConstants.SPARQL, product, 0, 1, 1));
+            fail("timed out");
+        } catch (RioServerException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("time limit"));
+        }
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        assertEquals(0, store.getRunningQueries().size());
+        assertEquals(1L, store.getMetrics().get("runningQueries.timedOut"));
+    }
+
+}
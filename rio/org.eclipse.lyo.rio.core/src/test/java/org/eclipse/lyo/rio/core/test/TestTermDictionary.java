@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import junit.framework.TestCase;
+
+import org.eclipse.lyo.rio.store.RioStatement;
+import org.eclipse.lyo.rio.store.RioValue;
+import org.eclipse.lyo.rio.store.TermDictionary;
+
+
+public class TestTermDictionary extends TestCase {
+
+    private static final String NS = "http://example.com/ns#";
+
+    public void testCanonical() throws Exception {
+        String a = TermDictionary.intern(new String(NS + "status"));
+        String b = TermDictionary.intern(new String(NS + "status"));
+        assertSame(a, b);
+        assertNull(TermDictionary.intern(null));
+        assertSame(TermDictionary.uri(NS + "link"), TermDictionary.uri(new String(NS + "link")));
+
+        RioStatement s1 = new RioStatement("http://example.com/1", new String(NS + "status"),
+                RioValue.createUriValue(new String(NS + "Open")), "http://example.com/1");
+        RioStatement s2 = new RioStatement("http://example.com/2", new String(NS + "status"),
+                RioValue.createUriValue(new String(NS + "Open")), "http://example.com/2");
+        assertSame(s1.getPredicate(), s2.getPredicate());
+        assertSame(s1.getObject().uriValue(), s2.getObject().uriValue());
+        assertEquals(NS + "Open", s1.getObject().stringValue());
+    }
+
+    public void testSplit() throws Exception {
+        String[] split = TermDictionary.split(NS + "status");
+        assertEquals(NS, split[0]);
+        assertEquals("status", split[1]);
+        assertSame(split, TermDictionary.split(new String(NS + "status")));
+
+        split = TermDictionary.split("http://purl.org/dc/terms/title");
+        assertEquals("http://purl.org/dc/terms/", split[0]);
+        assertEquals("title", split[1]);
+        assertEquals("", TermDictionary.split("title")[0]);
+    }
+
+    public void testBounded() throws Exception {
+        TermDictionary dictionary = new TermDictionary(100);
+        String kept = dictionary.get(new String(NS + "kept"));
+        for (int i = 0; i < 10000; i++) {
+            dictionary.get(NS + "p" + i);
+            // a term in use survives the generations
+            assertSame(kept, dictionary.get(new String(NS + "kept")));
+        }
+        assertTrue(dictionary.getSize() <= 102);
+        assertTrue(dictionary.getMetrics().get("terms.rotations").longValue() > 0);
+        assertEquals(10001L, dictionary.getMetrics().get("terms.misses"));
+    }
+
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.query.QueryPage;
+import org.eclipse.lyo.rio.query.SimpleQueryBuilder;
+import org.eclipse.lyo.rio.store.OslcResource;
+import org.eclipse.lyo.rio.store.RioValue;
+import org.eclipse.lyo.rio.store.TextIndex;
+
+
+public class TestTextIndex extends StoreTestCase {
+
+    private static final String TYPE = "http://example.com/ns#Issue";
+    private static final String OTHER_TYPE = "http://example.com/ns#Task";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        String[][] data = {
+                { "1", "Report page is slow", "Crashes sometimes when exporting" },
+                { "2", "Crash on start", "Nothing works" },
+                { "3", "Typo in the crash report", "Should be crash report" },
+                { "4", "Button colour", "Too blue" },
+        };
+        for (String[] row : data) {
+            store.update(issue(row[0], TYPE, row[1], row[2]), "http://example.com/alice");
+        }
+        store.update(issue("5", OTHER_TYPE, "Crash task", null), "http://example.com/alice");
+    }
+
+    private OslcResource issue(String id, String type, String title, String description) throws Exception {
+        OslcResource resource = issue(id, type, title);
+        if (description != null) {
+            resource.addStringProperty(IConstants.DCTERMS_DESCRIPTION, description);
+        }
+        return resource;
+    }
+
+    private List<String> ids(Iterable<String> uris) {
+        List<String> ids = new ArrayList<String>();
+        for (String uri : uris) {
+            ids.add(uri.substring(uri.lastIndexOf('/') + 1));
+        }
+        return ids;
+    }
+
+    private List<String> search(String... terms) {
+        return ids(store.getTextIndex().search(Arrays.asList(terms), TYPE, 10).keySet());
+    }
+
+    public void testTokenize() {
+        assertEquals("[crash, on, start, 2]", TextIndex.tokenize("Crash on START (#2)").toString());
+    }
+
+    public void testSearch() throws Exception {
+        // the short title ranks first, the prefix match in the description last
+        assertEquals("[2, 3, 1]", search("crash").toString());
+        assertEquals("[3, 1]", search("crash report").toString());
+        assertEquals("[2, 3, 1]", search("CRAS").toString());
+        assertEquals("[3, 4]", search("typo", "blue").toString());
+        assertEquals("[]", search("rash").toString());
+        assertEquals(4, store.getTextIndex().search(Collections.singletonList("crash"), null, 10).size());
+        assertEquals(1, store.getTextIndex().search(Collections.singletonList("crash"), null, 1).size());
+
+        Map<String, String> titles = store.getTextIndex().suggest("butt", TYPE, 10);
+        assertEquals("Button colour", titles.get(issueUri("4")));
+        assertEquals(1, titles.size());
+    }
+
+    public void testQuery() throws Exception {
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parseSelect("dcterms:title");
+        queryBuilder.parseSearchTerms("\"crash\"");
+        queryBuilder.useTextIndex(store.getTextIndex(), TYPE);
+        assertTrue(queryBuilder.hasOrderBy());
+        assertEquals(IConstants.OSLC_SCORE, queryBuilder.getPropertyNames().get(SimpleQueryBuilder.SCORE_VAR).getUri());
+        List<Map<String, RioValue>> rows = store.query(IConstants.SPARQL, queryBuilder.getQueryString(TYPE), 100);
+        List<String> uris = new ArrayList<String>();
+        double last = Double.MAX_VALUE;
+        for (Map<String, RioValue> row : rows) {
+            uris.add(row.get(SimpleQueryBuilder.URI_VAR).stringValue());
+            double score = Double.parseDouble(row.get(SimpleQueryBuilder.SCORE_VAR).stringValue());
+            assertTrue(score > 0 && score <= last);
+            last = score;
+        }
+        assertEquals("[2, 3, 1]", ids(uris).toString());
+        assertEquals("Crash on start", rows.get(0).get("dcterms_title").stringValue());
+
+        queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parseSearchTerms("\"nothing\", \"colour\"");
+        assertEquals(2, QueryPage.count(store, queryBuilder, TYPE));
+        queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parseSearchTerms("\"missing\"");
+        assertEquals(0, QueryPage.count(store, queryBuilder, TYPE));
+    }
+
+    public void testTooManyMatches() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < TextIndex.MAX_RESULTS; i++) {
+            String uri = "<" + issueUri("c" + i) + ">";
+            data.append(uri).append(" <" + IConstants.RDF_NAMESPACE + "type> <" + TYPE + "> .\n");
+            data.append(uri).append(" <" + IConstants.DCTERMS_TITLE + "> \"Crash " + i + "\" .\n");
+        }
+        store.bulkLoad(new ByteArrayInputStream(data.toString().getBytes("UTF-8")), "text/plain", null, 0, null);
+
+        // more matches than the index ranks, every one is still counted
+        SimpleQueryBuilder queryBuilder = new SimpleQueryBuilder();
+        queryBuilder.parseSearchTerms("\"crash\"");
+        queryBuilder.useTextIndex(store.getTextIndex(), TYPE);
+        assertFalse(queryBuilder.hasOrderBy());
+        assertEquals(TextIndex.MAX_RESULTS + 3, QueryPage.count(store, queryBuilder, TYPE));
+    }
+
+    public void testMaintained() throws Exception {
+        store.update(issue("4", TYPE, "Crash when clicking the button", null), "http://example.com/alice");
+        assertEquals("[2, 3, 4, 1]", search("crash").toString());
+        assertEquals("[]", search("blue").toString());
+
+        store.remove(issue("2", TYPE, "Crash on start", null));
+        assertEquals("[3, 4, 1]", search("crash").toString());
+
+        store.beginTransaction();
+        try {
+            store.update(issue("6", TYPE, "Another crash", null), "http://example.com/alice");
+            assertEquals("[]", search("another").toString());
+            store.commitTransaction();
+        } finally {
+            store.rollbackTransaction();
+        }
+        assertEquals("[6]", search("another").toString());
+
+        // rebuilt from the store on startup
+        openStore();
+        assertEquals("[6]", search("another").toString());
+        assertEquals(5, store.getTextIndex().size());
+    }
+
+}
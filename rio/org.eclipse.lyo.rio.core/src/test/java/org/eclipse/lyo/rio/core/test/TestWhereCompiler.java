@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import junit.framework.TestCase;
+
+import org.eclipse.lyo.rio.query.OslcWhereCompiler;
+import org.eclipse.lyo.rio.query.OslcWhereExpression;
+import org.eclipse.lyo.rio.query.OslcWhereHelper.OslcWhereParseException;
+
+
+public class TestWhereCompiler extends TestCase {
+
+    private OslcWhereCompiler compiler;
+
+    @Override
+    protected void setUp() throws Exception {
+        compiler = new OslcWhereCompiler(2);
+    }
+
+    public void testCache() throws Exception {
+        OslcWhereExpression expression = compiler.parse("ex:status=\"Open\"");
+        assertSame(expression, compiler.parse("ex:status=\"Open\""));
+        assertEquals(1, compiler.getHitCount());
+        assertEquals(1, compiler.getMissCount());
+
+        compiler.parse("ex:a=\"1\"");
+        compiler.parse("ex:b=\"2\"");
+        assertEquals(2, compiler.size());
+        assertNotSame(expression, compiler.parse("ex:status=\"Open\""));
+    }
+
+    public void testOrdering() throws Exception {
+        String sparql = compiler.compile("ex:rank>1.5 and ex:owner{foaf:name=\"Bob\"} and ex:status=\"Open\"", "uri");
+        assertEquals("?uri ex:status \"Open\".\n"
+                + "?_c0 foaf:name \"Bob\".\n"
+                + "?uri ex:rank ?_v0.\n"
+                + "?uri ex:owner ?_c0.\n"
+                + "FILTER(?_v0 > 1.5).", sparql);
+        // counters start over for every compilation
+        assertEquals(sparql, compiler.compile("ex:rank>1.5 and ex:owner{foaf:name=\"Bob\"} and ex:status=\"Open\"", "uri"));
+    }
+
+    public void testFolding() throws Exception {
+        assertEquals("ex:status=\"Open\"",
+                compiler.parse("ex:status in [\"Open\",\"Open\"]").toString());
+        assertEquals("ex:status=\"Open\"",
+                compiler.parse("ex:status=\"Open\" and ex:status in [\"Open\",\"Closed\"] and ex:status=\"Open\"").toString());
+        assertEquals("ex:n>\"5\"^^xsd:int and ex:n<=\"2.5\"^^xsd:decimal",
+                compiler.parse("ex:n>\"05\"^^xsd:int and ex:n>=5.0 and ex:n>1.5 and ex:n<=\"2.5\"^^xsd:decimal").toString());
+        assertEquals("ex:done=\"true\"^^xsd:boolean",
+                compiler.parse("ex:done=\"1\"^^xsd:boolean").toString());
+    }
+
+    public void testPushdown() throws Exception {
+        assertEquals("?uri ex:n \"7\"^^xsd:int.",
+                compiler.compile("ex:n=\"007\"^^xsd:int", "uri"));
+        assertEquals("?uri ex:n ?_v0.\nFILTER(?_v0 = 7.0).",
+                compiler.compile("ex:n=7.0", "uri"));
+        assertEquals("{ ?uri ex:s \"a\" } UNION { ?uri ex:s \"b\" }",
+                compiler.compile("ex:s in [\"a\",\"b\"]", "uri"));
+    }
+
+    public void testParseError() throws Exception {
+        try {
+            compiler.parse("ex:status=");
+            fail("value is required");
+        } catch (OslcWhereParseException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.lyo.rio.core.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.TestCase;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.RioResource;
+import org.eclipse.lyo.rio.store.RioServerException;
+import org.eclipse.lyo.rio.store.RioStatement;
+import org.eclipse.lyo.rio.store.RioValue;
+import org.eclipse.lyo.rio.store.XmlFormatter;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+
+public class TestXmlFormatter extends TestCase {
+
+    private static final String URI = "http://example.com/issue/1";
+    private static final String NS = "http://example.com/ns#";
+
+    private RioResource createResource() throws Exception {
+        RioResource resource = new RioResource(URI);
+        resource.addRdfType(NS + "Issue");
+        resource.setStringProperty(IConstants.DCTERMS_TITLE, "A & B <c>");
+        resource.setIntegerProperty(NS + "points", 3);
+        resource.addUriProperty(NS + "related", "http://example.com/issue/2");
+        resource.addUriProperty(NS + "related", "http://example.com/issue/3");
+        resource.createInlinedResource(NS + "owner", NS + "Person").setStringProperty(NS + "name", "Alice");
+        resource.appendToSeq(NS + "steps", RioValue.createStringValue("one"));
+        resource.appendToSeq(NS + "steps", RioValue.createStringValue("two"));
+
+        // an anchored link to issue 2
+        String link = URI + "#link1";
+        resource.addStatement(new RioStatement(link, IConstants.RDF_TYPE, RioValue.createUriValue(IConstants.RDF_TYPE_STATEMENT), URI));
+        resource.addStatement(new RioStatement(link, IConstants.RDF_SUBJECT, RioValue.createUriValue(URI), URI));
+        resource.addStatement(new RioStatement(link, IConstants.RDF_PREDICATE, RioValue.createUriValue(NS + "related"), URI));
+        resource.addStatement(new RioStatement(link, IConstants.RDF_OBJECT, RioValue.createUriValue("http://example.com/issue/2"), URI));
+        resource.addStatement(new RioStatement(link, IConstants.DCTERMS_TITLE, RioValue.createStringValue("Blocks"), URI));
+        return resource;
+    }
+
+    public void testFormat() throws Exception {
+        XmlFormatter formatter = new XmlFormatter();
+        formatter.addNamespacePrefix(NS, "ex");
+        String xml = formatter.format(createResource(), NS + "Issue");
+
+        assertTrue(xml, xml.contains("<ex:Issue rdf:about=\"" + URI + "\">"));
+        assertTrue(xml, xml.contains("<dcterms:title>A &amp; B &lt;c&gt;</dcterms:title>"));
+        assertTrue(xml, xml.contains("<ex:related rdf:ID=\"link1\" rdf:resource=\"http://example.com/issue/2\"/>"));
+        assertTrue(xml, xml.contains("<ex:related rdf:resource=\"http://example.com/issue/3\"/>"));
+        assertTrue(xml, xml.contains("<ex:Person>"));
+        assertTrue(xml, xml.indexOf(">one<") < xml.indexOf(">two<"));
+        assertTrue(xml, xml.contains("<rdf:Description rdf:about=\"#link1\">\n    <dcterms:title>Blocks</dcterms:title>"));
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document doc = factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(IConstants.TEXT_ENCODING)));
+        Element root = doc.getDocumentElement();
+        assertEquals(IConstants.RDF_NAMESPACE, root.getNamespaceURI());
+        assertEquals(URI, root.getAttribute(IConstants.XML_BASE));
+        assertEquals(1, doc.getElementsByTagNameNS(NS, "Issue").getLength());
+        assertEquals(1, doc.getElementsByTagNameNS(IConstants.RDF_NAMESPACE, IConstants.RDF_TYPE_TERM_DESCRIPTION).getLength());
+    }
+
+    public void testStream() throws Exception {
+        RioResource resource = createResource();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlFormatter.formatResource(resource, NS + "Issue", out);
+        assertEquals(XmlFormatter.formatResource(resource, NS + "Issue"), out.toString(IConstants.TEXT_ENCODING));
+
+        out = new ByteArrayOutputStream();
+        XmlFormatter.formatResource(resource, null, out);
+        assertTrue(out.toString(IConstants.TEXT_ENCODING).contains("<rdf:Description rdf:about=\"" + URI + "\">"));
+
+        try {
+            XmlFormatter.formatResource(resource, NS + "Task", new ByteArrayOutputStream());
+            fail("not a task");
+        } catch (RioServerException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * and Eclipse Distribution License v. 1.0 which accompanies this distribution. 
+ *
+ * The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ * and the Eclipse Distribution License is available at 
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * Contributors:
+ *
+ *    Eclipse Lyo RIO contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.lyo.oslc.rm.common;
+
+import org.eclipse.lyo.rio.core.IConstants;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry.ResourceMetadata;
+
+/**
+ * Property metadata of the requirements management resource types,
+ * registered when the class is loaded.
+ */
+public class RmResourceMetadata {
+
+	public static final ResourceMetadata REQUIREMENT = PropertyMetadataRegistry.register(
+			new ResourceMetadata(IRmConstants.OSLC_RM_TYPE_REQUIREMENT)
+			.addNamespacePrefix(IRmConstants.OSLC_RM_NAMESPACE, IRmConstants.OSLC_RM_PREFIX)
+			.addMultiValued(IConstants.DCTERMS_CREATOR, IConstants.DCTERMS_CONTRIBUTOR,
+					IConstants.DCTERMS_SUBJECT,
+					IRmConstants.OSLC_RM_ELABORATEDBY, IRmConstants.OSLC_RM_SPECIFIEDBY,
+					IRmConstants.OSLC_RM_AFFECTEDBY, IRmConstants.OSLC_RM_TRACKEDBY,
+					IRmConstants.OSLC_RM_IMPLEMENTEDBY, IRmConstants.OSLC_RM_VALIDATEDBY,
+					IConstants.OSLC_SERVICEPROVIDER));
+
+	private RmResourceMetadata() {
+	}
+
+}
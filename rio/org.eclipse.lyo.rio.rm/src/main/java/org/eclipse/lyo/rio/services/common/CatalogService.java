@@ -26,10 +26,10 @@ import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.services.RioBaseService;
 import org.eclipse.lyo.rio.services.RioServiceException;
 import org.eclipse.lyo.rio.store.JsonFormatter2;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry;
 import org.eclipse.lyo.rio.store.RdfXmlFormatter;
 import org.eclipse.lyo.rio.store.RioServerException;
 import org.eclipse.lyo.rio.store.XmlFormatter;
-import org.eclipse.lyo.rio.store.JsonFormatter2.IMultiValueResolver;
 
 /**
  * Servlet implementation class Catalog
@@ -52,17 +52,7 @@ public class CatalogService extends RioBaseService {
 					resp.getWriter().write(servicesResource); 
 					resp.setStatus(IConstants.SC_OK);
 				} else if( accept.indexOf(IConstants.CT_JSON)>=0  ) {
-					JsonFormatter2 formatter = new JsonFormatter2(new IMultiValueResolver() {
-						
-						@Override
-						public boolean isMultiValued(String property) {
-							if( IConstants.OSLC_SERVICEPROVIDER.equals(property) || 
-									IConstants.OSLC_DOMAIN.equals(property) ) {
-								return true;
-							}  
-							return false;
-						}
-					});
+					JsonFormatter2 formatter = JsonFormatter2.forType(PropertyMetadataRegistry.SERVICE_PROVIDER_CATALOG);
 					formatter.addNamespacePrefix(IRmConstants.OSLC_RM_NAMESPACE, IRmConstants.OSLC_RM_PREFIX);
 					String servicesResource = formatter.format(catRes);
 					resp.setContentType(IConstants.CT_JSON); 
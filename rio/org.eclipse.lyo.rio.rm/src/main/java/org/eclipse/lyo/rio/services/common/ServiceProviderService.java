@@ -26,7 +26,7 @@ import org.eclipse.lyo.rio.core.IConstants;
 import org.eclipse.lyo.rio.services.RioBaseService;
 import org.eclipse.lyo.rio.services.RioServiceException;
 import org.eclipse.lyo.rio.store.JsonFormatter2;
-import org.eclipse.lyo.rio.store.JsonFormatter2.IMultiValueResolver;
+import org.eclipse.lyo.rio.store.PropertyMetadataRegistry;
 import org.eclipse.lyo.rio.store.RioServerException;
 import org.eclipse.lyo.rio.store.XmlFormatter;
 
@@ -49,25 +49,7 @@ public class ServiceProviderService extends RioBaseService {
 					resp.getWriter().write(servicesResource); 
 					resp.setStatus(IConstants.SC_OK);
 				} else if( accept.indexOf(IConstants.CT_JSON)>=0  ) {
-					JsonFormatter2 formatter = new JsonFormatter2(new IMultiValueResolver() {
-						
-						@Override
-						public boolean isMultiValued(String property) {
-							if( IConstants.OSLC_SERVICE.equals(property) || 
-									IConstants.OSLC_PREFIXDEFINITION.equals(property) ||
-									IConstants.OSLC_CREATIONFACTORY.equals(property) ||
-									IConstants.OSLC_QUERYCAPABILITY.equals(property) ||
-									IConstants.OSLC_SELECTIONDIALOG.equals(property) ||
-									IConstants.OSLC_CREATIONDIALOG.equals(property) ||
-									IConstants.OSLC_RESOURCESHAPE.equals(property) ||
-									IConstants.OSLC_RESOURCETYPE.equals(property) ||
-									IConstants.OSLC_USAGE.equals(property) ||
-									IConstants.OSLC_DETAILS.equals(property) ) {
-								return true;
-							}  
-							return false;
-						}
-					});
+					JsonFormatter2 formatter = JsonFormatter2.forType(PropertyMetadataRegistry.SERVICE_PROVIDER);
 					formatter.addNamespacePrefix(IRmConstants.OSLC_RM_NAMESPACE, IRmConstants.OSLC_RM_PREFIX);
 					String servicesResource = formatter.format(svcRes);
 					resp.setContentType(IConstants.CT_JSON); 
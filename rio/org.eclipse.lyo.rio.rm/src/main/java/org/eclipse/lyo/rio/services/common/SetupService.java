@@ -61,7 +61,7 @@ public class SetupService extends HttpServlet {
 			// then just initialize and move on
 			
 			try {
-				RioStore.initalizeStore(repoPath, binPath, host, context);
+				RioStore.initalizeStore(repoPath, binPath, host, context, p);
 			} catch (RioServerException e) {
 				throw new RioServiceException(e);
 			}
@@ -112,22 +112,38 @@ public class SetupService extends HttpServlet {
 		String repoPath = request.getParameter("repoPath"); //$NON-NLS-1$
 		String binPath = request.getParameter("binPath"); //$NON-NLS-1$
 		
+		// keep any other settings already in the properties file
+		String realpath = getRealPath("WEB-INF/rio.properties"); //$NON-NLS-1$
+		Properties  p  = new Properties();
+		try {
+			FileInputStream in = new FileInputStream(realpath);
+			try {
+				p.load(in);
+			} finally {
+				in.close();
+			}
+	    } catch (Exception intentionallyIgnored) {
+	    }
+
 		if( host != null && repoPath != null ) {
-			String realpath = getRealPath("WEB-INF/rio.properties"); //$NON-NLS-1$
-			Properties  p  = new Properties();
 			p.setProperty("host", host); //$NON-NLS-1$
 			p.setProperty("context", context); //$NON-NLS-1$
 			p.setProperty("repoPath", repoPath); //$NON-NLS-1$
 			p.setProperty("binPath", binPath); //$NON-NLS-1$
 			try {
-		        p.store(new FileOutputStream(realpath), null);
+				FileOutputStream out = new FileOutputStream(realpath);
+				try {
+					p.store(out, null);
+				} finally {
+					out.close();
+				}
 		    } catch (IOException e) {
 		    	e.printStackTrace();
 		    }
 		}
 		
 		try {
-			RioStore.initalizeStore(repoPath, binPath, host, context);
+			RioStore.initalizeStore(repoPath, binPath, host, context, p);
 		} catch (RioServerException e) {
 			throw new RioServiceException(e);
 		}
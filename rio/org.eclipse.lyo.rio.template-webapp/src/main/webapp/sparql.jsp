@@ -14,7 +14,7 @@ if( queryExp == null ) {
 		"}";
 }
 queryExp = XmlUtils.encode(queryExp);
-List<Map<String,RioValue>> results = (List<Map<String,RioValue>>) request.getAttribute("results");
+QueryCursor results = (QueryCursor) request.getAttribute("results");
 %>
 <!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01 Transitional//EN" "http://www.w3.org/TR/html4/loose.dtd">
 <!--
@@ -50,32 +50,38 @@ List<Map<String,RioValue>> results = (List<Map<String,RioValue>>) request.getAtt
 <h3>Results</h3>
 <table border=1">
 <%
-	boolean needsHeaderRow = true;
-	Iterator<Map<String,RioValue>> rowIterator = results.iterator();
-	while( rowIterator.hasNext() ) {
-		Map<String,RioValue> row = (Map<String,RioValue>) rowIterator.next();
-		Set<String> columns = row.keySet();
-		if( needsHeaderRow ) {
+	List<String> columns = results.getBindingNames();
 %>         <tr> <%
-			for(String heading : columns ) {
-				RioValue val = row.get(heading);
-%>    		    <th><%=heading %><br/>(<%=val.getType() %>)</th>  <%
-			}
+	for(String heading : columns ) {
+%>    		    <th><%=heading %></th>  <%
+	}
 %>		   </tr> <%
-			needsHeaderRow = false;
-		}
+	String error = null;
+	try {
+	while( results.hasNext() ) {
+		Map<String,RioValue> row = results.next();
 %>         <tr> <%
 		for(String col : columns ) {
 			RioValue val = row.get(col);
-%>    		    <td><%=val.stringValue() %></td>  <%
+			if( val == null ) {
+%>    		    <td></td>  <%
+			} else {
+%>    		    <td title="<%=val.getType() %>"><%=val.stringValue() %></td>  <%
+			}
 		}
 %>		   </tr> <%
-%>
-	<tr>
-<%
+	}
+	} catch( RioServerException e ) {
+		// timed out or cancelled part way, keep the rows read so far
+		error = e.getMessage();
 	}
 %>
-<%} %>
 </table>
+<% if( error != null ) { %>
+<p><b><%=XmlUtils.encode(error) %></b></p>
+<% } else if( results.isTruncated() ) { %>
+<p>Only the first <%=results.getCount() %> results are shown.</p>
+<% } %>
+<%} %>
 </body>
 </html>
\ No newline at end of file